@@ -0,0 +1,78 @@
+package datamanagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import util.Scale;
+
+/**
+ * Benchmarks for reading scale files, using copies of the lines in scales.txt.
+ * @author Joel Gibson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+	/**
+	 * The number of lines in the scale file.
+	 */
+	@Param({"28", "1000000"})
+	public int numLines;
+	
+	/**
+	 * The temporary scale file.
+	 */
+	private File file;
+	
+	/**
+	 * The reader for the temporary scale file.
+	 */
+	private Reader reader;
+	
+	@Setup
+	public void setUp() throws IOException {
+		// repeat the lines of the base scale file until the required number of lines is reached
+		List<String> baseLines = Files.readAllLines(new File("scales.txt").toPath());
+		List<String> lines = new ArrayList<>(numLines);
+		for (int i = 0; i < numLines; i++) {
+			lines.add(baseLines.get(i % baseLines.size()));
+		}
+		
+		file = File.createTempFile("scales", ".txt");
+		Files.write(file.toPath(), lines);
+		reader = new Reader(file.getPath(), file.getPath());
+	}
+	
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+	
+	/**
+	 * Reads and sorts every scale in the file.
+	 */
+	@Benchmark
+	public List<Scale> readScales() {
+		return reader.readScales(file.getPath());
+	}
+}
@@ -0,0 +1,67 @@
+package datamanagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import util.Scale;
+
+/**
+ * Benchmarks for writing the custom scales file, using the scales in scales.txt.
+ * @author Joel Gibson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriterBenchmark {
+	/**
+	 * The scales to write.
+	 */
+	private List<Scale> scales;
+	
+	/**
+	 * The temporary custom scales file.
+	 */
+	private File file;
+	
+	/**
+	 * The writer for the temporary file.
+	 */
+	private Writer writer;
+	
+	@Setup
+	public void setUp() throws IOException {
+		scales = new Reader("scales.txt", "custom.txt").readBaseScales();
+		file = File.createTempFile("custom", ".txt");
+		writer = new Writer(file.getPath());
+	}
+	
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+	
+	/**
+	 * Rewrites the whole file.
+	 */
+	@Benchmark
+	public void writeScales() {
+		writer.writeScales(scales);
+	}
+}
@@ -0,0 +1,57 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import util.Scale;
+
+/**
+ * Benchmarks for searching a large set of custom scale names by prefix, substring and with typing
+ * mistakes.
+ * @author Joel Gibson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameIndexBenchmark {
+	/**
+	 * The query to search for.
+	 */
+	@Param({"custom", "mode 3", "1z2", "cusotm scale zz"})
+	private String query;
+
+	/**
+	 * The index of 50000 scale names.
+	 */
+	private NameIndex index;
+
+	@Setup
+	public void setUp() {
+		List<Scale> scales = new ArrayList<>();
+		for (int i = 0; i < 50000; i++) {
+			scales.add(new Scale("custom scale " + Integer.toString(i, 36) + " mode " + (i % 7), null, false));
+		}
+		index = new NameIndex(new ScaleCatalog(scales).getScales());
+	}
+
+	@Benchmark
+	public List<String> search() {
+		return index.search(query, 10);
+	}
+}
@@ -0,0 +1,76 @@
+package processor;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import datamanagement.Reader;
+import datamanagement.Writer;
+import util.Note;
+
+/**
+ * Benchmarks for retrieving scale notes from a shared processor under different numbers of threads.
+ * @author Joel Gibson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessorBenchmark {
+	/**
+	 * The processor shared by all threads.
+	 */
+	private Processor processor;
+	
+	/**
+	 * The number of base scales.
+	 */
+	private int numScales;
+	
+	@Setup
+	public void setUp() {
+		processor = new Processor(new Reader("scales.txt", "custom.txt"), new Writer("custom.txt"));
+		numScales = processor.getScaleNames("base").size();
+	}
+	
+	/**
+	 * Gets the notes of a random base scale with a random root note.
+	 */
+	private List<String> getRandomScaleNotes() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		List<Note> roots = Note.getRootNotes();
+		return processor.getScaleNotes("base", random.nextInt(numScales), roots.get(random.nextInt(roots.size())));
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public List<String> getScaleNotes1Thread() {
+		return getRandomScaleNotes();
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public List<String> getScaleNotes4Threads() {
+		return getRandomScaleNotes();
+	}
+	
+	@Benchmark
+	@Threads(16)
+	public List<String> getScaleNotes16Threads() {
+		return getRandomScaleNotes();
+	}
+}
@@ -0,0 +1,115 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import datamanagement.Reader;
+import datamanagement.Writer;
+import util.Interval;
+import util.Note;
+import util.Scale;
+
+/**
+ * Benchmarks for reading the scale library from many threads, with and without a thread changing the
+ * custom scales at the same time. Reader throughput should grow with the number of reader threads up
+ * to the number of cores.
+ * @author Joel Gibson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+	/**
+	 * The processor shared by all threads.
+	 */
+	private Processor processor;
+	
+	/**
+	 * The interval pattern of the scales added by the writer.
+	 */
+	private List<Interval> intervals;
+	
+	@Setup
+	public void setUp() {
+		processor = new Processor(new Reader("scales.txt", "custom.txt"), new Writer("custom.txt"));
+		intervals = new ArrayList<>(processor.getSnapshot().getScaleSet("base").get(0).getIntervals());
+		
+		// start with some custom scales so that readers have something to read
+		processor.updateScaleSet("custom", scales -> {
+			for (int i = 0; i < 100; i++) {
+				scales.add(new Scale("custom" + i, intervals, false));
+			}
+		});
+	}
+	
+	/**
+	 * Reads the notes of a random custom scale from a single snapshot.
+	 */
+	private List<Note> readRandomScale() {
+		ScaleCatalog scales = processor.getSnapshot().getScaleSet("custom");
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		List<Note> roots = Note.getRootNotes();
+		return scales.get(random.nextInt(scales.size())).getScale(roots.get(random.nextInt(roots.size())));
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public List<Note> read1Thread() {
+		return readRandomScale();
+	}
+	
+	@Benchmark
+	@Threads(2)
+	public List<Note> read2Threads() {
+		return readRandomScale();
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public List<Note> read4Threads() {
+		return readRandomScale();
+	}
+	
+	@Benchmark
+	@Threads(8)
+	public List<Note> read8Threads() {
+		return readRandomScale();
+	}
+	
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(3)
+	public List<Note> reader() {
+		return readRandomScale();
+	}
+	
+	/**
+	 * Replaces a custom scale, publishing two new snapshots without writing to file.
+	 */
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(1)
+	public ScaleCatalog writer() {
+		processor.updateScaleSet("custom", scales -> scales.remove(0));
+		return processor.updateScaleSet("custom", scales -> scales.add(new Scale("custom", intervals, false)));
+	}
+}
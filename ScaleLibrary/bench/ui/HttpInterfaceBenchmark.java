@@ -0,0 +1,79 @@
+package ui;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import datamanagement.Reader;
+import datamanagement.Writer;
+import processor.Processor;
+
+/**
+ * Load test for the HTTP interface: several threads send cacheable GET requests to a local server.
+ * Sample time mode reports the p50 and p99 latency, and the number of samples gives the requests per
+ * second.
+ * @author Joel Gibson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(8)
+public class HttpInterfaceBenchmark {
+	/**
+	 * The paths of the requests sent.
+	 */
+	private static final String[] PATHS = {"/scales/base", "/scales/base/0/intervals", "/scales/base/1/notes?root=Eb", "/scales/base/2/notes?root=F%23"};
+	
+	/**
+	 * The interface under test.
+	 */
+	private HttpInterface http;
+	
+	/**
+	 * The client shared by all threads.
+	 */
+	private HttpClient client;
+	
+	@Setup
+	public void setUp() throws IOException {
+		http = new HttpInterface(new Processor(new Reader("scales.txt", "custom.txt"), new Writer("custom.txt")), 0);
+		http.start();
+		client = HttpClient.newHttpClient();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		http.stop(0);
+	}
+	
+	@Benchmark
+	public int get() throws IOException, InterruptedException {
+		String path = PATHS[ThreadLocalRandom.current().nextInt(PATHS.length)];
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + http.getPort() + path)).GET().build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + path);
+		}
+		return response.body().length();
+	}
+}
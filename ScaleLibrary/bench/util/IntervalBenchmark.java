@@ -0,0 +1,42 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for looking up intervals.
+ * @author Joel Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntervalBenchmark {
+	/**
+	 * Looks up an interval that is already in the cache.
+	 */
+	@Benchmark
+	public Interval getIntervalHot() {
+		return Interval.getInterval("#4");
+	}
+	
+	/**
+	 * Looks up an interval after removing it from the cache, so it must be parsed again.
+	 */
+	@Benchmark
+	public Interval getIntervalCold() {
+		Interval.intervals.remove("#4");
+		return Interval.getInterval("#4");
+	}
+}
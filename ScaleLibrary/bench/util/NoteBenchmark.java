@@ -0,0 +1,67 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for looking up notes and applying intervals to them.
+ * @author Joel Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteBenchmark {
+	/**
+	 * The note to apply the interval to.
+	 */
+	private Note note;
+	
+	/**
+	 * The interval to apply.
+	 */
+	private Interval interval;
+	
+	@Setup
+	public void setUp() {
+		note = Note.getNote("C#");
+		interval = Interval.getInterval("b7");
+	}
+	
+	/**
+	 * Looks up a note that is already in the cache.
+	 */
+	@Benchmark
+	public Note getNoteHot() {
+		return Note.getNote("C#");
+	}
+	
+	/**
+	 * Looks up a note after removing it from the cache, so it must be parsed again.
+	 */
+	@Benchmark
+	public Note getNoteCold() {
+		Note.notes.remove("c#");
+		return Note.getNote("C#");
+	}
+	
+	/**
+	 * Applies an interval to a note.
+	 */
+	@Benchmark
+	public Note addInterval() {
+		return note.addInterval(interval);
+	}
+}
@@ -0,0 +1,93 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for creating and retrieving the notes of a scale.
+ * @author Joel Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScaleBenchmark {
+	/**
+	 * A scale with the interval pattern of the major scale, without simplification.
+	 */
+	private Scale scale;
+	
+	/**
+	 * The same scale with simplification.
+	 */
+	private Scale simplifiedScale;
+	
+	/**
+	 * The root note of the scales.
+	 */
+	private Note root;
+	
+	/**
+	 * The root note of the scales in octave 4.
+	 */
+	private Pitch rootPitch;
+	
+	@Setup
+	public void setUp() {
+		List<Interval> intervals = new ArrayList<>();
+		for (String interval : new String[] {"1", "2", "3", "4", "5", "6", "7", "8"}) {
+			intervals.add(Interval.getInterval(interval));
+		}
+		scale = new Scale("major", intervals, false);
+		simplifiedScale = new Scale("major", intervals, true);
+		root = Note.getNote("F#");
+		rootPitch = Pitch.getPitch(root, 4);
+		scale.getScale(root);
+	}
+	
+	/**
+	 * Creates the notes of the scale without simplification.
+	 */
+	@Benchmark
+	public List<Note> generateScale() {
+		return scale.generateScale(root);
+	}
+	
+	/**
+	 * Creates the notes of the scale with simplification.
+	 */
+	@Benchmark
+	public List<Note> generateScaleSimplified() {
+		return simplifiedScale.generateScale(root);
+	}
+	
+	/**
+	 * Retrieves the previously created notes of the scale.
+	 */
+	@Benchmark
+	public List<Note> getScaleCached() {
+		return scale.getScale(root);
+	}
+	
+	/**
+	 * Places the previously created notes of the scale in their octaves.
+	 */
+	@Benchmark
+	public List<Pitch> getPitches() {
+		return scale.getPitches(rootPitch);
+	}
+}
@@ -1,25 +1,143 @@
-import datamanagement.Reader;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+
+import datamanagement.SnapshotReader;
+import datamanagement.SnapshotWriter;
+import datamanagement.JournalWriter;
 import datamanagement.Writer;
 import processor.Processor;
+import processor.ScaleFileWatcher;
+import processor.WarmUpPolicy;
+import ui.BatchInterface;
 import ui.UserInterface;
 
 /**
- * The entry point of the program.
+ * The entry point of the program. With no arguments the interactive interface is started, and with
+ * "--watch" the scale files are also reloaded when they are changed by other programs. With
+ * "--batch [file] [--format text|tsv|json] [--threads n]" the queries in the file (or standard input)
+ * are answered instead.
  * @author Joel Gibson
  */
 public class Main {
+	/**
+	 * The usage message printed when the batch arguments are invalid.
+	 */
+	private static final String BATCH_USAGE = "Usage: Main --batch [file] [--format text|tsv|json] [--threads n]";
 	
 	public static void main(String[] args) {
 		// the input file names
 		String baseFilename = "scales.txt";
 		String customFilename = "custom.txt";
+		String snapshotFilename = "scales.bin";
 		
 		// create the class dependencies
-		Reader reader = new Reader(baseFilename, customFilename);
-		Writer writer = new Writer(customFilename);
-		Processor processor = new Processor(reader, writer);
-		UserInterface ui = new UserInterface(processor);
+		SnapshotReader reader = new SnapshotReader(baseFilename, customFilename, snapshotFilename);
+		Writer writer = new JournalWriter(customFilename, 64 * 1024);
+		boolean batch = args.length > 0 && args[0].equals("--batch");
+		Processor processor = new Processor(reader, writer, batch ? WarmUpPolicy.LAZY : WarmUpPolicy.BACKGROUND);
+		
+		// recreate the snapshot if the scales had to be read from the text files
+		if (!reader.isSnapshotCurrent()) {
+			processor.writeSnapshot(new SnapshotWriter(snapshotFilename, baseFilename, customFilename, true));
+		}
+		
+		if (batch) {
+			runBatch(processor, args);
+		} else {
+			if (args.length > 0 && args[0].equals("--watch")) {
+				startWatcher(processor, reader);
+			}
+			UserInterface ui = new UserInterface(processor);
+			ui.start();
+		}
+	}
+	
+	/**
+	 * Starts reloading the scale files when they change.
+	 * @param processor the processor to reload
+	 * @param reader the reader the processor was created with
+	 */
+	private static void startWatcher(Processor processor, SnapshotReader reader) {
+		try {
+			new ScaleFileWatcher(processor, reader).start();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Answers the queries given by the batch arguments, writing the results to standard output.
+	 * @param processor the processor for retrieving data
+	 * @param args the command line arguments, starting with "--batch"
+	 */
+	private static void runBatch(Processor processor, String[] args) {
+		String inputFilename = null;
+		BatchInterface.Format format = BatchInterface.Format.TEXT;
+		int numWorkers = Runtime.getRuntime().availableProcessors();
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--format") && i + 1 < args.length) {
+				format = parseFormat(args[++i]);
+				if (format == null) {
+					printBatchUsage("Unknown format: " + args[i]);
+					return;
+				}
+			} else if (args[i].equals("--threads") && i + 1 < args.length) {
+				numWorkers = parseThreads(args[++i]);
+				if (numWorkers < 1) {
+					printBatchUsage("The number of threads must be a positive integer: " + args[i]);
+					return;
+				}
+			} else {
+				inputFilename = args[i];
+			}
+		}
 		
-		ui.start();
+		BatchInterface batchInterface = new BatchInterface(processor, format, numWorkers);
+		try (BufferedReader input = new BufferedReader(inputFilename == null ? new InputStreamReader(System.in) : new FileReader(inputFilename), 64 * 1024);
+				BufferedWriter output = new BufferedWriter(new OutputStreamWriter(System.out), 64 * 1024)) {
+			batchInterface.run(input, output);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Finds the batch format with the given name, ignoring case.
+	 * @param name the name of the format
+	 * @return the format, or null if there is no format with that name
+	 */
+	private static BatchInterface.Format parseFormat(String name) {
+		for (BatchInterface.Format format : BatchInterface.Format.values()) {
+			if (format.name().equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Parses the number of batch threads.
+	 * @param text the number of threads
+	 * @return the number of threads, or 0 if the text is not an integer
+	 */
+	private static int parseThreads(String text) {
+		try {
+			return Integer.parseInt(text);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+	
+	/**
+	 * Prints the given error and the batch usage message to standard error.
+	 * @param error the error
+	 */
+	private static void printBatchUsage(String error) {
+		System.err.println(error);
+		System.err.println(BATCH_USAGE);
 	}
 }
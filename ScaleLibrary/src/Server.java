@@ -0,0 +1,44 @@
+import java.io.IOException;
+
+import datamanagement.JournalWriter;
+import datamanagement.SnapshotReader;
+import datamanagement.SnapshotWriter;
+import datamanagement.Writer;
+import processor.Processor;
+import processor.ScaleFileWatcher;
+import processor.WarmUpPolicy;
+import ui.HttpInterface;
+
+/**
+ * The entry point for running the Scale Library as an HTTP service. The arguments are the port
+ * (8080 by default) and "--watch" to reload the scale files when they are changed by other programs.
+ * @author Joel Gibson
+ */
+public class Server {
+	
+	public static void main(String[] args) throws IOException {
+		// the input file names and the port to listen on
+		String baseFilename = "scales.txt";
+		String customFilename = "custom.txt";
+		String snapshotFilename = "scales.bin";
+		int port = args.length > 0 && !args[0].equals("--watch") ? Integer.parseInt(args[0]) : 8080;
+		boolean watch = args.length > 0 && args[args.length - 1].equals("--watch");
+		
+		// create the class dependencies
+		SnapshotReader reader = new SnapshotReader(baseFilename, customFilename, snapshotFilename);
+		Writer writer = new JournalWriter(customFilename, 64 * 1024);
+		Processor processor = new Processor(reader, writer, WarmUpPolicy.EAGER);
+		HttpInterface http = new HttpInterface(processor, port);
+		
+		// recreate the snapshot if the scales had to be read from the text files
+		if (!reader.isSnapshotCurrent()) {
+			processor.writeSnapshot(new SnapshotWriter(snapshotFilename, baseFilename, customFilename, true));
+		}
+		
+		if (watch) {
+			new ScaleFileWatcher(processor, reader).start();
+		}
+		http.start();
+		System.out.println("Scale Library listening on port " + http.getPort());
+	}
+}
@@ -0,0 +1,313 @@
+package datamanagement;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import util.Scale;
+
+/**
+ * The writer for saving custom scales by appending each change to a journal file, rather than
+ * rewriting the whole custom scales file. Once the journal grows past a size threshold, the custom
+ * scales file is rewritten in the background and the journal is cleared.
+ * 
+ * <p>Each journal record is a single line containing '+' (added) or '-' (removed) followed by the
+ * scale in the custom scales file format and a checksum of the record, so a record that was only
+ * partly written can be recognised. {@link Reader#readCustomScales()} replays the journal over the
+ * custom scales file. Each journal starts with its generation, which is one more than that of the
+ * previous journal. When the custom scales file is rewritten, its first line records the highest
+ * generation it already contains, so those journals are not replayed again if the writer stops before
+ * removing them.
+ * @author Joel Gibson
+ */
+public class JournalWriter extends Writer {
+	/**
+	 * The record type for an added scale.
+	 */
+	public static final char ADD = '+';
+	
+	/**
+	 * The record type for a removed scale.
+	 */
+	public static final char DELETE = '-';
+	
+	/**
+	 * The start of the line giving the highest generation of the journals contained in the custom
+	 * scales file.
+	 */
+	public static final String JOURNALS_HEADER = "# journals:";
+	
+	/**
+	 * The start of the first line of a journal, giving its generation.
+	 */
+	public static final String GENERATION_HEADER = "# generation:";
+	
+	/**
+	 * The journal size (in bytes) above which the custom scales file is rewritten.
+	 */
+	private long compactionThreshold;
+	
+	/**
+	 * Runs compactions in the background, one at a time.
+	 */
+	private ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "journal-compactor");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/**
+	 * Completes when the most recent compaction has finished.
+	 */
+	private CompletableFuture<Void> compaction = CompletableFuture.completedFuture(null);
+	
+	/**
+	 * The generation of the most recently started journal, or of the journals contained in the custom
+	 * scales file if it is higher (guarded by this writer).
+	 */
+	private long generation;
+	
+	/**
+	 * Creates a new journal writer for the given custom scales file.
+	 * @param customFilename the file containing the custom scales
+	 * @param compactionThreshold the journal size (in bytes) above which the custom scales file is rewritten
+	 */
+	public JournalWriter(String customFilename, long compactionThreshold) {
+		super(customFilename);
+		this.compactionThreshold = compactionThreshold;
+		
+		// remove journals left behind by a writer that stopped after rewriting the custom scales file,
+		// so that new records aren't appended to a journal that won't be replayed, along with journals
+		// whose first line was only partly written (which can't contain any complete records)
+		long containedGeneration = readContainedGeneration(customFilename);
+		generation = containedGeneration;
+		for (String filename : new String[] {getCompactingFilename(customFilename), getJournalFilename(customFilename)}) {
+			if (!new File(filename).exists()) {
+				continue;
+			}
+			long journalGeneration = readGeneration(filename);
+			if (journalGeneration == -1 || journalGeneration <= containedGeneration) {
+				new File(filename).delete();
+			} else {
+				generation = Math.max(generation, journalGeneration);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the name of the journal file used with the given custom scales file.
+	 * @param customFilename the file containing the custom scales
+	 * @return the journal file name
+	 */
+	public static String getJournalFilename(String customFilename) {
+		return customFilename + ".log";
+	}
+	
+	/**
+	 * Gets the name of the journal file that is being compacted into the given custom scales file.
+	 * @param customFilename the file containing the custom scales
+	 * @return the compacting journal file name
+	 */
+	public static String getCompactingFilename(String customFilename) {
+		return customFilename + ".log.old";
+	}
+	
+	/**
+	 * Appends a record of the added scale to the journal.
+	 * @param scale the scale that was added
+	 * @param scales the list of custom scales, including the new scale
+	 */
+	@Override
+	public void addScale(Scale scale, List<Scale> scales) {
+		appendRecord(ADD, scale, scales);
+	}
+	
+	/**
+	 * Appends a record of the removed scale to the journal.
+	 * @param scale the scale that was removed
+	 * @param scales the list of remaining custom scales
+	 */
+	@Override
+	public void deleteScale(Scale scale, List<Scale> scales) {
+		appendRecord(DELETE, scale, scales);
+	}
+	
+	/**
+	 * Writes the given list of scales to the custom scales file and clears the journal.
+	 * @param scales the list of scales to write
+	 */
+	@Override
+	public synchronized void writeScales(List<Scale> scales) {
+		awaitCompaction();
+		File journal = new File(getJournalFilename(getCustomFilename()));
+		File compacting = new File(getCompactingFilename(getCustomFilename()));
+		if (replaceScales(scales, createJournalsHeader(generation))) {
+			journal.delete();
+			compacting.delete();
+			recordWritten(journal.getPath(), compacting.getPath());
+		}
+	}
+	
+	/**
+	 * Appends a single record to the journal, starting a compaction if the journal is too large.
+	 * @param type the record type
+	 * @param scale the scale that was changed
+	 * @param scales the current list of custom scales
+	 */
+	protected synchronized void appendRecord(char type, Scale scale, List<Scale> scales) {
+		File journal = new File(getJournalFilename(getCustomFilename()));
+		String record = toRecord(type, scale) + System.lineSeparator();
+		if (!journal.exists()) {
+			// start a new journal, writing its generation with the first record
+			generation++;
+			record = GENERATION_HEADER + " " + generation + System.lineSeparator() + record;
+		}
+		byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+		try (FileOutputStream stream = new FileOutputStream(journal, true)) {
+			stream.write(bytes);
+			recordAppended(journal.getPath(), bytes);
+		} catch (IOException e) {
+			e.printStackTrace();
+			recordWritten(journal.getPath());
+		}
+		
+		if (journal.length() > compactionThreshold && compaction.isDone()) {
+			startCompaction(scales);
+		}
+	}
+	
+	/**
+	 * Moves the journal aside and rewrites the custom scales file in the background. New records are
+	 * written to a fresh journal in the meantime.
+	 * @param scales the current list of custom scales
+	 */
+	protected synchronized void startCompaction(List<Scale> scales) {
+		File journal = new File(getJournalFilename(getCustomFilename()));
+		File compacting = new File(getCompactingFilename(getCustomFilename()));
+		if (!journal.renameTo(compacting)) {
+			return;
+		}
+		recordWritten(journal.getPath(), compacting.getPath());
+		
+		// copy the scales now, as the list may change before the compaction runs
+		List<Scale> snapshot = new ArrayList<>(scales);
+		long compactedGeneration = generation;
+		compaction = CompletableFuture.runAsync(() -> compact(snapshot, compacting, compactedGeneration), compactor);
+	}
+	
+	/**
+	 * Atomically replaces the custom scales file with the given scales, then removes the compacted
+	 * journal. The new file records the generation of the compacted journal, so the journal is not
+	 * replayed again if the writer stops before removing it.
+	 * @param scales the list of scales to write
+	 * @param compacting the compacted journal file
+	 * @param compactedGeneration the generation of the compacted journal
+	 */
+	protected void compact(List<Scale> scales, File compacting, long compactedGeneration) {
+		if (replaceScales(scales, createJournalsHeader(compactedGeneration))) {
+			compacting.delete();
+			recordWritten(compacting.getPath());
+		}
+	}
+	
+	/**
+	 * Reads the highest generation of the journals whose changes are already contained in the given
+	 * custom scales file, from its header line.
+	 * @param filename the name of the custom scales file
+	 * @return the generation, or 0 if the file has no header
+	 */
+	public static long readContainedGeneration(String filename) {
+		long contained = readHeader(filename, JOURNALS_HEADER);
+		return contained == -1 ? 0 : contained;
+	}
+	
+	/**
+	 * Reads the generation of the given journal, from its first line.
+	 * @param filename the name of the journal file
+	 * @return the generation, or -1 if the journal doesn't exist or doesn't start with its generation
+	 */
+	public static long readGeneration(String filename) {
+		return readHeader(filename, GENERATION_HEADER);
+	}
+	
+	/**
+	 * Reads the number following the given header at the start of the first line of a file.
+	 * @param filename the name of the file
+	 * @param header the start of the header line
+	 * @return the number, or -1 if the file doesn't exist or doesn't start with the header
+	 */
+	private static long readHeader(String filename, String header) {
+		File file = new File(filename);
+		if (!file.exists()) {
+			return -1;
+		}
+		
+		try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+			String line = br.readLine();
+			if (line != null && line.startsWith(header)) {
+				return Long.parseLong(line.substring(header.length()).trim());
+			}
+			
+		} catch (IOException | NumberFormatException e) {
+			// a partly written header is treated as missing
+		}
+		return -1;
+	}
+	
+	/**
+	 * Creates the first line of a custom scales file that contains the changes in every journal up to
+	 * the given generation.
+	 * @param containedGeneration the highest contained generation
+	 * @return the header line, or null if no journal has been started
+	 */
+	protected static String createJournalsHeader(long containedGeneration) {
+		return containedGeneration > 0 ? JOURNALS_HEADER + " " + containedGeneration : null;
+	}
+	
+	/**
+	 * Blocks until any running compaction has finished.
+	 */
+	public void awaitCompaction() {
+		compaction.join();
+	}
+	
+	/**
+	 * Converts the given scale into a line of text for a journal record.
+	 * @param scale the scale to convert
+	 * @return the string containing the scale data
+	 */
+	protected static String toRecordLine(Scale scale) {
+		return scale.getName() + "; " + String.join(", ", scale.getIntervalNames()) + "; " + scale.isSimplified();
+	}
+	
+	/**
+	 * Creates a complete journal record, ending with the checksum of the rest of the record.
+	 * @param type the record type
+	 * @param scale the scale that was changed
+	 * @return the record
+	 */
+	protected static String toRecord(char type, Scale scale) {
+		String record = type + " " + toRecordLine(scale);
+		return record + "; " + recordChecksum(record);
+	}
+	
+	/**
+	 * Calculates the checksum that ends a journal record.
+	 * @param record the record without its checksum
+	 * @return the checksum, in hexadecimal
+	 */
+	protected static String recordChecksum(String record) {
+		CRC32 crc = new CRC32();
+		crc.update(record.getBytes(StandardCharsets.UTF_8));
+		return Long.toHexString(crc.getValue());
+	}
+}
@@ -0,0 +1,199 @@
+package datamanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.Interval;
+import util.Scale;
+
+class JournalWriterTest {
+	
+	Scale testScale1;
+	Scale testScale2;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		List<Interval> intervals1 = new ArrayList<>();
+		intervals1.add(Interval.getInterval("1"));
+		intervals1.add(Interval.getInterval("b3"));
+		this.testScale1 = new Scale("testScale1", intervals1, true);
+		
+		List<Interval> intervals2 = new ArrayList<>();
+		intervals2.add(Interval.getInterval("4"));
+		this.testScale2 = new Scale("testScale2", intervals2, false);
+		
+		new File("test4.txt").createNewFile();
+	}
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		new File("test4.txt").delete();
+		new File(JournalWriter.getJournalFilename("test4.txt")).delete();
+		new File(JournalWriter.getCompactingFilename("test4.txt")).delete();
+	}
+
+	@Test
+	void testAddAndDeleteScale() throws IOException {
+		JournalWriter writer = new JournalWriter("test4.txt", Long.MAX_VALUE);
+		List<Scale> scales = new ArrayList<>();
+		
+		// test each change is appended to the journal
+		scales.add(this.testScale1);
+		writer.addScale(this.testScale1, scales);
+		scales.add(this.testScale2);
+		writer.addScale(this.testScale2, scales);
+		scales.remove(this.testScale1);
+		writer.deleteScale(this.testScale1, scales);
+		
+		List<String> lines = Files.readAllLines(new File(JournalWriter.getJournalFilename("test4.txt")).toPath());
+		assertEquals(4, lines.size(), "incorrect number of records written");
+		assertEquals(JournalWriter.GENERATION_HEADER + " 1", lines.get(0), "journal should start with its generation");
+		assertEquals(JournalWriter.toRecord(JournalWriter.ADD, this.testScale1), lines.get(1));
+		assertEquals(JournalWriter.toRecord(JournalWriter.ADD, this.testScale2), lines.get(2));
+		assertEquals(JournalWriter.toRecord(JournalWriter.DELETE, this.testScale1), lines.get(3));
+		assertTrue(lines.get(1).startsWith("+ testScale1; 1, b3; true; "), "record should end with its checksum");
+		assertEquals(0, new File("test4.txt").length(), "custom scales file should not be rewritten");
+		
+		// test the journal is replayed over the custom scales file
+		List<Scale> readScales = new Reader("test1.txt", "test4.txt").readCustomScales();
+		assertEquals(1, readScales.size(), "incorrect number of scales after replaying journal");
+		assertEquals("testScale2", readScales.get(0).getName());
+	}
+
+	@Test
+	void testUnchangedSinceAppend() throws IOException {
+		JournalWriter writer = new JournalWriter("test4.txt", Long.MAX_VALUE);
+		String journal = JournalWriter.getJournalFilename("test4.txt");
+		assertFalse(writer.isUnchangedSinceWrite(journal), "the journal hasn't been written yet");
+		
+		// test the appended records are recorded as written by this writer
+		List<Scale> scales = new ArrayList<>();
+		scales.add(this.testScale1);
+		writer.addScale(this.testScale1, scales);
+		assertTrue(writer.isUnchangedSinceWrite(journal));
+		scales.add(this.testScale2);
+		writer.addScale(this.testScale2, scales);
+		assertTrue(writer.isUnchangedSinceWrite(journal));
+		
+		// test changes made by another program are noticed, including changes that keep the length
+		Path path = new File(journal).toPath();
+		byte[] contents = Files.readAllBytes(path);
+		contents[contents.length - 2] ^= 1;
+		Files.write(path, contents);
+		assertFalse(writer.isUnchangedSinceWrite(journal));
+		writer.deleteScale(this.testScale1, scales);
+		assertFalse(writer.isUnchangedSinceWrite(journal), "the changed contents should stay recorded as changed");
+		
+		Files.writeString(path, "+ extra", StandardOpenOption.APPEND);
+		assertFalse(writer.isUnchangedSinceWrite(journal));
+	}
+
+	@Test
+	void testCompaction() throws IOException {
+		JournalWriter writer = new JournalWriter("test4.txt", 0);
+		List<Scale> scales = new ArrayList<>();
+		
+		// test the custom scales file is rewritten once the journal is too large
+		scales.add(this.testScale1);
+		writer.addScale(this.testScale1, scales);
+		writer.awaitCompaction();
+		
+		List<String> lines = Files.readAllLines(new File("test4.txt").toPath());
+		assertEquals(2, lines.size(), "compacted scales should be written to the custom scales file");
+		assertTrue(lines.get(0).startsWith(JournalWriter.JOURNALS_HEADER));
+		assertEquals("testScale1; 1, b3; true", lines.get(1));
+		assertFalse(new File(JournalWriter.getJournalFilename("test4.txt")).exists(), "journal should have been cleared");
+		assertFalse(new File(JournalWriter.getCompactingFilename("test4.txt")).exists(), "compacted journal should have been removed");
+		assertEquals(1, new Reader("test1.txt", "test4.txt").readCustomScales().size());
+	}
+	
+	@Test
+	void testCompactedJournalNotReplayed() throws IOException {
+		JournalWriter writer = new JournalWriter("test4.txt", Long.MAX_VALUE);
+		List<Scale> scales = new ArrayList<>();
+		scales.add(this.testScale1);
+		writer.addScale(this.testScale1, scales);
+		byte[] journal = Files.readAllBytes(new File(JournalWriter.getJournalFilename("test4.txt")).toPath());
+		writer.startCompaction(scales);
+		writer.awaitCompaction();
+		
+		// test a compacted journal left behind by a writer that stopped is not replayed again
+		Files.write(new File(JournalWriter.getCompactingFilename("test4.txt")).toPath(), journal);
+		assertEquals(1, new Reader("test1.txt", "test4.txt").readCustomScales().size(), "replayed scale should not be duplicated");
+		
+		// test a new writer removes the compacted journal rather than keeping it alongside new records
+		new JournalWriter("test4.txt", Long.MAX_VALUE);
+		assertFalse(new File(JournalWriter.getCompactingFilename("test4.txt")).exists());
+	}
+	
+	@Test
+	void testDuplicateScales() throws IOException {
+		JournalWriter writer = new JournalWriter("test4.txt", Long.MAX_VALUE);
+		List<Scale> scales = new ArrayList<>();
+		
+		// test identical scales are each kept, and removing one keeps the others
+		for (int i = 0; i < 3; i++) {
+			scales.add(this.testScale1);
+			writer.addScale(this.testScale1, scales);
+		}
+		scales.remove(this.testScale1);
+		writer.deleteScale(this.testScale1, scales);
+		assertEquals(2, new Reader("test1.txt", "test4.txt").readCustomScales().size(), "identical scales should be kept");
+		
+		// test the copies survive a rewrite followed by more journal records
+		writer.writeScales(scales);
+		scales.add(this.testScale1);
+		writer.addScale(this.testScale1, scales);
+		scales.remove(this.testScale1);
+		writer.deleteScale(this.testScale1, scales);
+		scales.remove(this.testScale1);
+		writer.deleteScale(this.testScale1, scales);
+		assertEquals(1, new Reader("test1.txt", "test4.txt").readCustomScales().size());
+	}
+
+	@Test
+	void testIdenticalJournalAfterRewrite() throws IOException {
+		JournalWriter writer = new JournalWriter("test4.txt", Long.MAX_VALUE);
+		List<Scale> scales = new ArrayList<>();
+		scales.add(this.testScale1);
+		writer.addScale(this.testScale1, scales);
+		writer.writeScales(scales);
+		
+		// test a new journal with the same contents as a rewritten one is still replayed
+		scales.add(this.testScale1);
+		writer.addScale(this.testScale1, scales);
+		assertEquals(2, new Reader("test1.txt", "test4.txt").readCustomScales().size());
+		
+		// test a new writer keeps the journal, and the scale is still there after a restart
+		new JournalWriter("test4.txt", Long.MAX_VALUE);
+		assertTrue(new File(JournalWriter.getJournalFilename("test4.txt")).exists(), "journal should not be removed");
+		assertEquals(2, new Reader("test1.txt", "test4.txt").readCustomScales().size());
+	}
+
+	@Test
+	void testWriteScales() throws IOException {
+		JournalWriter writer = new JournalWriter("test4.txt", Long.MAX_VALUE);
+		List<Scale> scales = new ArrayList<>();
+		scales.add(this.testScale1);
+		writer.addScale(this.testScale1, scales);
+		
+		// test a full rewrite clears the journal, recording that the file contains it
+		writer.writeScales(scales);
+		List<String> lines = Files.readAllLines(new File("test4.txt").toPath());
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).startsWith(JournalWriter.JOURNALS_HEADER));
+		assertEquals(1, new Reader("test1.txt", "test4.txt").readCustomScales().size());
+		assertFalse(new File(JournalWriter.getJournalFilename("test4.txt")).exists(), "journal should have been cleared");
+	}
+}
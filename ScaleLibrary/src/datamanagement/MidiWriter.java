@@ -0,0 +1,302 @@
+package datamanagement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import util.Note;
+import util.Pitch;
+import util.Scale;
+
+/**
+ * The writer for exporting scales as Standard MIDI Files. A single scale with one root note is
+ * written as a type 0 file, and a list of scales is written as a type 1 file with one track per scale
+ * playing it from every root note. Events are encoded straight into a reused buffer that is written
+ * to the file one track at a time.
+ * @author Joel Gibson
+ */
+public class MidiWriter {
+	/**
+	 * The number of ticks in a quarter note.
+	 */
+	public static final int TICKS_PER_QUARTER = 480;
+	
+	/**
+	 * The largest number of scales that can be written to one file (the track count in the header is
+	 * 16 bits, and includes the tempo track).
+	 */
+	public static final int MAX_SCALES = 0xFFFF - 1;
+	
+	/**
+	 * The tempo (in microseconds per quarter note) of 120 beats per minute.
+	 */
+	private static final int TEMPO = 500000;
+	
+	/**
+	 * The velocity of every note.
+	 */
+	private static final int VELOCITY = 80;
+	
+	/**
+	 * The status byte of a note on event on channel 1.
+	 */
+	private static final int NOTE_ON = 0x90;
+	
+	/**
+	 * The status byte of a note off event on channel 1.
+	 */
+	private static final int NOTE_OFF = 0x80;
+	
+	/**
+	 * The largest number of bytes used by a note event (a 4 byte delta time and 3 bytes of data).
+	 */
+	private static final int MAX_EVENT_BYTES = 7;
+	
+	/**
+	 * The file to write to.
+	 */
+	private String filename;
+	
+	/**
+	 * The length of each note (in ticks).
+	 */
+	private int noteTicks;
+	
+	/**
+	 * The octave of the root note of each scale.
+	 */
+	private int octave;
+	
+	/**
+	 * The buffer each chunk is encoded into before being written, which grows as required.
+	 */
+	private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+	
+	/**
+	 * Creates a new MIDI writer with eighth notes starting from the 4th octave.
+	 * @param filename the file to write to
+	 */
+	public MidiWriter(String filename) {
+		this(filename, TICKS_PER_QUARTER / 2, 4);
+	}
+	
+	/**
+	 * Creates a new MIDI writer.
+	 * @param filename the file to write to
+	 * @param noteTicks the length of each note (in ticks, with 480 ticks in a quarter note)
+	 * @param octave the octave of the root note of each scale (-1 to 9)
+	 */
+	public MidiWriter(String filename, int noteTicks, int octave) {
+		if (octave < Pitch.MIN_OCTAVE || octave > Pitch.MAX_OCTAVE) {
+			throw new IllegalArgumentException("Octave must be from " + Pitch.MIN_OCTAVE + " to " + Pitch.MAX_OCTAVE);
+		}
+		if (noteTicks < 0 || noteTicks > 0x0FFFFFFF) {
+			throw new IllegalArgumentException("Note length must be from 0 to " + 0x0FFFFFFF + " ticks");
+		}
+		this.filename = filename;
+		this.noteTicks = noteTicks;
+		this.octave = octave;
+	}
+	
+	/**
+	 * Writes the given scale with the given root note as a type 0 file. Nothing is played if the scale
+	 * can't be spelled from the root note.
+	 * @param scale the scale to write
+	 * @param root the root note of the scale
+	 */
+	public synchronized void writeScale(Scale scale, Note root) {
+		try (FileChannel channel = openFile()) {
+			writeHeader(channel, 0, 1);
+			
+			startTrack();
+			putTempo();
+			putTrackName(scale.getName() + " " + root);
+			putScale(scale, root, 0);
+			finishTrack(channel, 0);
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Writes the given scales as a type 1 file, with a tempo track followed by one track for each
+	 * scale. Each track plays the scale from every root note in turn, with a rest between them.
+	 * @param scales the list of scales to write (at most {@link #MAX_SCALES})
+	 * @throws IllegalArgumentException if there are too many scales for one file
+	 */
+	public synchronized void writeScales(List<Scale> scales) {
+		if (scales.size() > MAX_SCALES) {
+			throw new IllegalArgumentException("At most " + MAX_SCALES + " scales can be written to a MIDI file");
+		}
+		try (FileChannel channel = openFile()) {
+			writeHeader(channel, 1, scales.size() + 1);
+			
+			startTrack();
+			putTempo();
+			finishTrack(channel, 0);
+			
+			for (Scale scale : scales) {
+				startTrack();
+				putTrackName(scale.getName());
+				int rest = 0;
+				for (Note root : Note.getRootNotes()) {
+					if (putScale(scale, root, rest)) {
+						rest = noteTicks;
+					}
+				}
+				finishTrack(channel, rest);
+			}
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Opens the file for writing, replacing any existing contents.
+	 * @return the channel for writing to the file
+	 * @throws IOException if the file can't be opened
+	 */
+	private FileChannel openFile() throws IOException {
+		return FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+	
+	/**
+	 * Writes the header chunk of the file.
+	 * @param channel the channel to write to
+	 * @param format the file format (0 or 1)
+	 * @param numTracks the number of track chunks that will follow
+	 * @throws IOException if the header can't be written
+	 */
+	private void writeHeader(FileChannel channel, int format, int numTracks) throws IOException {
+		buffer.clear();
+		buffer.put("MThd".getBytes(StandardCharsets.US_ASCII));
+		buffer.putInt(6);
+		buffer.putShort((short) format);
+		buffer.putShort((short) numTracks);
+		buffer.putShort((short) TICKS_PER_QUARTER);
+		writeBuffer(channel);
+	}
+	
+	/**
+	 * Starts a new track chunk in the buffer, leaving space for its length.
+	 */
+	private void startTrack() {
+		buffer.clear();
+		buffer.put("MTrk".getBytes(StandardCharsets.US_ASCII));
+		buffer.putInt(0);
+	}
+	
+	/**
+	 * Ends the track chunk in the buffer, fills in its length and writes it to the file.
+	 * @param channel the channel to write to
+	 * @param delta the time (in ticks) since the previous event
+	 * @throws IOException if the track can't be written
+	 */
+	private void finishTrack(FileChannel channel, int delta) throws IOException {
+		ensureCapacity(MAX_EVENT_BYTES);
+		putVariableLength(delta);
+		buffer.put((byte) 0xFF).put((byte) 0x2F).put((byte) 0);
+		buffer.putInt(4, buffer.position() - 8);
+		writeBuffer(channel);
+	}
+	
+	/**
+	 * Writes the contents of the buffer to the file.
+	 * @param channel the channel to write to
+	 * @throws IOException if the buffer can't be written
+	 */
+	private void writeBuffer(FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+	
+	/**
+	 * Adds a tempo event of 120 beats per minute to the track.
+	 */
+	private void putTempo() {
+		ensureCapacity(MAX_EVENT_BYTES);
+		buffer.put((byte) 0).put((byte) 0xFF).put((byte) 0x51).put((byte) 3);
+		buffer.put((byte) (TEMPO >> 16)).put((byte) (TEMPO >> 8)).put((byte) TEMPO);
+	}
+	
+	/**
+	 * Adds a track name event to the track.
+	 * @param name the track name
+	 */
+	private void putTrackName(String name) {
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(bytes.length + 3 + 4);
+		buffer.put((byte) 0).put((byte) 0xFF).put((byte) 0x03);
+		putVariableLength(bytes.length);
+		buffer.put(bytes);
+	}
+	
+	/**
+	 * Adds the notes of the given scale with the given root note to the track, one after another.
+	 * @param scale the scale to add
+	 * @param root the root note of the scale
+	 * @param delta the time (in ticks) before the first note
+	 * @return true if the notes were added, or false if the scale can't be spelled or played from the root
+	 */
+	private boolean putScale(Scale scale, Note root, int delta) {
+		List<Pitch> pitches = scale.getPitches(Pitch.getPitch(root, octave));
+		if (pitches == null || pitches.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < pitches.size(); i++) {
+			int midiNumber = pitches.get(i).getMidiNumber();
+			if (midiNumber < 0 || midiNumber > 127) {
+				return false;
+			}
+		}
+		
+		ensureCapacity(pitches.size() * 2 * MAX_EVENT_BYTES);
+		for (int i = 0; i < pitches.size(); i++) {
+			int midiNumber = pitches.get(i).getMidiNumber();
+			putVariableLength(i == 0 ? delta : 0);
+			buffer.put((byte) NOTE_ON).put((byte) midiNumber).put((byte) VELOCITY);
+			putVariableLength(noteTicks);
+			buffer.put((byte) NOTE_OFF).put((byte) midiNumber).put((byte) 0);
+		}
+		return true;
+	}
+	
+	/**
+	 * Adds a variable-length quantity (7 bits per byte, most significant first, with the top bit set on
+	 * every byte but the last) to the track.
+	 * @param value the value to add (0 to 0x0FFFFFFF)
+	 */
+	private void putVariableLength(int value) {
+		int shift = 21;
+		while (shift > 0 && (value >>> shift) == 0) {
+			shift -= 7;
+		}
+		for (; shift > 0; shift -= 7) {
+			buffer.put((byte) (0x80 | ((value >>> shift) & 0x7F)));
+		}
+		buffer.put((byte) (value & 0x7F));
+	}
+	
+	/**
+	 * Grows the buffer if it doesn't have room for the given number of bytes, keeping its contents.
+	 * @param bytes the number of bytes required
+	 */
+	private void ensureCapacity(int bytes) {
+		if (buffer.remaining() >= bytes) {
+			return;
+		}
+		ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+		buffer.flip();
+		larger.put(buffer);
+		buffer = larger;
+	}
+}
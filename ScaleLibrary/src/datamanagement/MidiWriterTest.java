@@ -0,0 +1,140 @@
+package datamanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import util.Interval;
+import util.Note;
+import util.Scale;
+
+class MidiWriterTest {
+	
+	/**
+	 * Reads a variable-length quantity from the buffer.
+	 * @param buffer the buffer positioned at the quantity
+	 * @return the value
+	 */
+	private static int getVariableLength(ByteBuffer buffer) {
+		int value = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			value = (value << 7) | (b & 0x7F);
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+	
+	/**
+	 * Reads the note numbers of the note on events in each track of a MIDI file, checking the
+	 * structure of the file.
+	 * @param file the MIDI file
+	 * @param format the expected file format
+	 * @return the list of note numbers in each track
+	 */
+	private static List<List<Integer>> readNotes(Path file, int format) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+		assertEquals(0x4D546864, buffer.getInt(), "MThd");
+		assertEquals(6, buffer.getInt());
+		assertEquals(format, buffer.getShort());
+		int numTracks = buffer.getShort() & 0xFFFF;
+		assertEquals(MidiWriter.TICKS_PER_QUARTER, buffer.getShort());
+		
+		List<List<Integer>> tracks = new ArrayList<>();
+		for (int i = 0; i < numTracks; i++) {
+			assertEquals(0x4D54726B, buffer.getInt(), "MTrk");
+			int end = buffer.getInt() + buffer.position();
+			List<Integer> notes = new ArrayList<>();
+			boolean ended = false;
+			while (buffer.position() < end) {
+				getVariableLength(buffer);
+				int status = buffer.get() & 0xFF;
+				if (status == 0xFF) {
+					int type = buffer.get();
+					int length = getVariableLength(buffer);
+					buffer.position(buffer.position() + length);
+					ended = type == 0x2F;
+				} else {
+					int number = buffer.get();
+					buffer.get();
+					if (status == 0x90) {
+						notes.add(number);
+					}
+				}
+			}
+			assertEquals(end, buffer.position(), "track length should match its events");
+			assertTrue(ended, "track should finish with an end of track event");
+			tracks.add(notes);
+		}
+		assertFalse(buffer.hasRemaining());
+		return tracks;
+	}
+
+	@Test
+	void testWriteScale(@TempDir Path directory) throws IOException {
+		// test a major scale from middle C
+		Path file = directory.resolve("major.mid");
+		Scale major = new Reader("test1.txt", "test2.txt").readBaseScales().get(1);
+		new MidiWriter(file.toString()).writeScale(major, Note.getNote("C"));
+		assertEquals(List.of(List.of(60, 62, 64, 65, 67, 69, 71, 72)), readNotes(file, 0));
+		
+		// test the delta time of a note off event uses 2 bytes (240 ticks)
+		byte[] bytes = Files.readAllBytes(file);
+		int noteOn = 0;
+		while ((bytes[noteOn] & 0xFF) != 0x90) {
+			noteOn++;
+		}
+		assertEquals((byte) 0x81, bytes[noteOn + 3]);
+		assertEquals((byte) 0x70, bytes[noteOn + 4]);
+	}
+
+	@Test
+	void testWriteScales(@TempDir Path directory) throws IOException {
+		// test a track for each scale after the tempo track, with every root note
+		Path file = directory.resolve("base.mid");
+		List<Scale> scales = new Reader("test1.txt", "test2.txt").readBaseScales();
+		new MidiWriter(file.toString(), 120, 3).writeScales(scales);
+		List<List<Integer>> tracks = readNotes(file, 1);
+		assertEquals(scales.size() + 1, tracks.size());
+		assertTrue(tracks.get(0).isEmpty(), "tempo track should have no notes");
+		for (int i = 0; i < scales.size(); i++) {
+			assertEquals(Note.getRootNotes().size() * 8, tracks.get(i + 1).size());
+		}
+		assertEquals(List.of(56, 58, 60, 61, 63, 65, 67, 68), tracks.get(2).subList(0, 8), "major scale on Ab3");
+	}
+
+	@Test
+	void testWriteMaxScales(@TempDir Path directory) throws IOException {
+		// test the largest number of scales fills the 16 bit track count, and more are rejected
+		Path file = directory.resolve("max.mid");
+		List<Scale> scales = new ArrayList<>();
+		for (int i = 0; i < MidiWriter.MAX_SCALES; i++) {
+			scales.add(new Scale("unison " + i, List.of(Interval.getInterval("1")), false));
+		}
+		MidiWriter writer = new MidiWriter(file.toString());
+		writer.writeScales(scales);
+		List<List<Integer>> tracks = readNotes(file, 1);
+		assertEquals(0xFFFF, tracks.size());
+		assertEquals(Note.getRootNotes().size(), tracks.get(0xFFFF - 1).size());
+		
+		scales.add(new Scale("one too many", List.of(Interval.getInterval("1")), false));
+		assertThrows(IllegalArgumentException.class, () -> writer.writeScales(scales));
+	}
+
+	@Test
+	void testInvalidArguments() {
+		// test octaves without pitches and note lengths that can't be encoded are rejected
+		assertThrows(IllegalArgumentException.class, () -> new MidiWriter("test.mid", 240, -2));
+		assertThrows(IllegalArgumentException.class, () -> new MidiWriter("test.mid", 240, 10));
+		assertThrows(IllegalArgumentException.class, () -> new MidiWriter("test.mid", -1, 4));
+		new MidiWriter("test.mid", 240, 9);
+	}
+}
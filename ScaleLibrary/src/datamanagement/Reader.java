@@ -4,10 +4,13 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import metrics.LatencyHistogram;
+import metrics.Metrics;
 import util.Scale;
 import util.Interval;
 
@@ -16,6 +19,11 @@ import util.Interval;
  * @author Joel Gibson
  */
 public class Reader {
+	/**
+	 * The latency of reading a scale file.
+	 */
+	private static final LatencyHistogram readScalesLatency = Metrics.createLatencyHistogram("readScales");
+	
 	/**
 	 * The file containing the base scale set.
 	 */
@@ -36,6 +44,20 @@ public class Reader {
 		this.customFilename = customFilename;
 	}
 	
+	/**
+	 * @return the file containing the base scale set
+	 */
+	public String getBaseFilename() {
+		return baseFilename;
+	}
+	
+	/**
+	 * @return the file containing the custom scale set
+	 */
+	public String getCustomFilename() {
+		return customFilename;
+	}
+	
 	/**
 	 * Reads in the data from the file containing the base scales.
 	 * @return the list of base scales
@@ -49,7 +71,19 @@ public class Reader {
 	 * @return the list of custom scales
 	 */
 	public List<Scale> readCustomScales() {
-		return readScales(customFilename);
+		List<Scale> scales = readScales(customFilename);
+		
+		// apply any changes journaled since the custom scales file was last written, skipping journals
+		// from generations it already contains
+		long containedGeneration = JournalWriter.readContainedGeneration(customFilename);
+		for (String journal : new String[] {JournalWriter.getCompactingFilename(customFilename), JournalWriter.getJournalFilename(customFilename)}) {
+			if (JournalWriter.readGeneration(journal) > containedGeneration) {
+				replayJournal(scales, journal);
+			}
+		}
+		
+		Collections.sort(scales);
+		return scales;
 	}
 	
 	/**
@@ -58,6 +92,7 @@ public class Reader {
 	 * @return the list of scales from the file
 	 */
 	protected List<Scale> readScales(String filename) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
 		List<Scale> scales = new ArrayList<>();
 		
 		File file = new File(filename);
@@ -66,27 +101,17 @@ public class Reader {
 		
 		try {	
 			// create readers to read the file
-			fr = new FileReader(file);
+			fr = new FileReader(file, StandardCharsets.UTF_8);
 			br = new BufferedReader(fr);
 			
 			// read each line from the file
 			String line = "";
 			while ((line = br.readLine()) != null) {
-				String data[] = line.trim().split(";\\s*");
-				
-				// extract the scale parameters
-				String name = data[0].trim();
-				String[] intervalList = data[1].split(",\\s*");
-				boolean simplified = Boolean.valueOf(data[2].trim());
-				
-				// convert each interval name into the associated Interval object
-				List<Interval> intervals = new ArrayList<>();
-				for (String interval : intervalList) {
-					intervals.add(Interval.getInterval(interval));
+				// skip lines without the three scale fields
+				Scale scale = parseLine(line, 0, line.length());
+				if (scale != null) {
+					scales.add(scale);
 				}
-				
-				// create the scale
-				scales.add(new Scale(name, intervals, simplified));
 			}
 			
 		} catch (IOException e) {
@@ -103,6 +128,163 @@ public class Reader {
 		}
 		
 		Collections.sort(scales);
+		if (Metrics.ENABLED) {
+			readScalesLatency.recordSince(start);
+		}
 		return scales;
 	}
+	
+	/**
+	 * Applies each change recorded in the given journal file to the list of scales. Identical scales
+	 * may be stored more than once, so each added record adds one copy of the scale and each removed
+	 * record removes one copy.
+	 * @param scales the list of scales to change
+	 * @param filename the name of the journal file (ignored if it doesn't exist)
+	 */
+	protected void replayJournal(List<Scale> scales, String filename) {
+		File file = new File(filename);
+		if (!file.exists()) {
+			return;
+		}
+		
+		// find the file line of each scale, so identical scales can be found
+		List<String> scaleLines = new ArrayList<>(scales.size());
+		for (Scale scale : scales) {
+			scaleLines.add(JournalWriter.toRecordLine(scale));
+		}
+		
+		try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+			String line = "";
+			while ((line = br.readLine()) != null) {
+				// skip a record that was only partly written, which won't end with its checksum
+				int checksumStart = line.lastIndexOf(';');
+				if (checksumStart < 2 || !line.substring(checksumStart + 1).trim().equals(JournalWriter.recordChecksum(line.substring(0, checksumStart)))) {
+					continue;
+				}
+				Scale scale = parseLine(line, 2, checksumStart);
+				if (scale == null) {
+					continue;
+				}
+				
+				// add or remove one copy of the scale
+				String scaleLine = JournalWriter.toRecordLine(scale);
+				if (line.charAt(0) == JournalWriter.ADD) {
+					scales.add(scale);
+					scaleLines.add(scaleLine);
+				} else if (line.charAt(0) == JournalWriter.DELETE) {
+					int index = scaleLines.lastIndexOf(scaleLine);
+					if (index != -1) {
+						scales.remove(index);
+						scaleLines.remove(index);
+					}
+				}
+			}
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Creates a scale from the given range of text in the scale file format, without using regular
+	 * expressions. The range is trimmed, then split into fields at each ';' (and any whitespace
+	 * following it): the scale name, the comma-separated interval list and the simplified flag.
+	 * @param line the text containing the scale data
+	 * @param start the index of the first character of the scale data
+	 * @param end the index after the last character of the scale data
+	 * @return the scale, or null if the text does not contain all three fields
+	 */
+	protected Scale parseLine(CharSequence line, int start, int end) {
+		// trim the line
+		while (start < end && line.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && line.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		
+		// find the bounds of the first three fields, and the last non-empty field
+		int nameEnd = end;
+		int intervalsStart = end;
+		int intervalsEnd = end;
+		int simplifiedStart = end;
+		int simplifiedEnd = end;
+		int lastField = -1;
+		int fieldStart = start;
+		int field = 0;
+		for (int i = start; i <= end; i++) {
+			if (i < end && line.charAt(i) != ';') {
+				continue;
+			}
+			
+			if (i > fieldStart) {
+				lastField = field;
+			}
+			if (field == 0) {
+				nameEnd = i;
+			} else if (field == 1) {
+				intervalsStart = fieldStart;
+				intervalsEnd = i;
+			} else if (field == 2) {
+				simplifiedStart = fieldStart;
+				simplifiedEnd = i;
+			}
+			
+			// skip any whitespace following the semicolon
+			fieldStart = i + 1;
+			while (fieldStart < end && isWhitespace(line.charAt(fieldStart))) {
+				fieldStart++;
+			}
+			i = fieldStart - 1;
+			field++;
+		}
+		
+		// check that all three fields exist (empty fields at the end of the line don't count)
+		if (lastField < 2) {
+			return null;
+		}
+		
+		// extract the scale parameters
+		String name = line.subSequence(start, nameEnd).toString().trim();
+		List<Interval> intervals = Interval.parseIntervalList(line, intervalsStart, intervalsEnd);
+		boolean simplified = isTrue(line, simplifiedStart, simplifiedEnd);
+		
+		// create the scale
+		return new Scale(name, intervals, simplified);
+	}
+	
+	/**
+	 * Checks whether the given range of text (ignoring surrounding whitespace) is "true", ignoring case.
+	 * @param text the text to check
+	 * @param start the index of the first character
+	 * @param end the index after the last character
+	 * @return true if the text is "true"
+	 */
+	private static boolean isTrue(CharSequence text, int start, int end) {
+		while (start < end && text.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		
+		String expected = "true";
+		if (end - start != expected.length()) {
+			return false;
+		}
+		for (int i = 0; i < expected.length(); i++) {
+			if (Character.toLowerCase(text.charAt(start + i)) != expected.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @param c the character to check
+	 * @return true if the character is an ASCII whitespace character
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
 }
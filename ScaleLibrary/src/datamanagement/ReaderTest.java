@@ -2,10 +2,15 @@ package datamanagement;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import util.Interval;
 import util.Scale;
 
 class ReaderTest {
@@ -27,6 +32,75 @@ class ReaderTest {
 		
 		// test an empty file
 		scales = reader.readCustomScales();
-		assertEquals(0, scales.size(), "empty file read incorrectly");
+		assertEquals(0, scales.size(), "empty file read incorrectly");
+	}
+
+	@Test
+	void testReplayJournal() throws IOException {
+		Reader reader = new Reader("test1.txt", "test2.txt");
+		List<Scale> scales = reader.readBaseScales();
+		
+		// write a journal that adds and removes scales, including a partly written record
+		File journal = new File("test4.log");
+		Scale test = reader.parseLine("test; 1, b3; false", 0, 18);
+		String partial = JournalWriter.toRecord(JournalWriter.ADD, test);
+		Files.write(journal.toPath(), List.of(JournalWriter.toRecord(JournalWriter.ADD, test), JournalWriter.toRecord(JournalWriter.DELETE, scales.get(1)),
+				partial.substring(0, partial.length() - 1), partial.replace("b3", "b2"), "+ test; 1, b3; false", JournalWriter.toRecord(JournalWriter.ADD, test)));
+		reader.replayJournal(scales, "test4.log");
+		journal.delete();
+		
+		assertEquals(4, scales.size(), "incorrect number of scales after replaying journal");
+		assertEquals("harmonic minor", scales.get(0).getName(), "existing scale should be kept");
+		assertEquals("natural minor", scales.get(1).getName(), "existing scale should be kept");
+		assertEquals("test", scales.get(2).getName(), "added scale should be at the end");
+		assertEquals("test", scales.get(3).getName(), "identical scales should each be added");
+	}
+	
+	@Test
+	void testReplayJournalDuplicates() throws IOException {
+		Reader reader = new Reader("test1.txt", "test2.txt");
+		List<Scale> scales = reader.readBaseScales();
+		scales.add(scales.get(1));
+		scales.add(scales.get(1));
+		
+		// test removing a scale with identical copies only removes one copy
+		File journal = new File("test4.log");
+		Files.write(journal.toPath(), List.of(JournalWriter.toRecord(JournalWriter.DELETE, scales.get(1))));
+		reader.replayJournal(scales, "test4.log");
+		journal.delete();
+		
+		assertEquals(4, scales.size(), "only one copy should be removed");
+		assertEquals(2, scales.stream().filter(scale -> scale.getName().equals("major")).count());
+	}
+
+	@Test
+	void testParseLineMatchesSplit() {
+		// test lines with unusual formatting against splitting with the original regexes
+		String[] lines = {"major; 1, 2, 3, 4, 5, 6, 7, 8; false", "  minor ;1,b3;TRUE  ", "a;1;true;extra", "a; 1 , 2; true",
+				"a; ; true", "a;;;true", "a; 1,, 2; false", "a; 1, 2,; yes", "a;1;\ttrue ", "a; x15, bb1; true"};
+		Reader reader = new Reader("test1.txt", "test2.txt");
+		for (String line : lines) {
+			String data[] = line.trim().split(";\\s*");
+			List<Interval> intervals = new ArrayList<>();
+			for (String interval : data[1].split(",\\s*")) {
+				intervals.add(Interval.getInterval(interval));
+			}
+			
+			Scale scale = reader.parseLine(line, 0, line.length());
+			assertEquals(data[0].trim(), scale.getName(), "incorrect name parsed from '" + line + "'");
+			assertEquals(intervals, scale.getIntervals(), "incorrect intervals parsed from '" + line + "'");
+			assertEquals(Boolean.valueOf(data[2].trim()), scale.isSimplified(), "incorrect simplification parsed from '" + line + "'");
+		}
+		
+		// test lines without all three fields
+		String[] invalidLines = {"", "major", "major; 1, 2", "major; 1, 2;", "major; 1, 2; ;"};
+		for (String line : invalidLines) {
+			assertThrows(ArrayIndexOutOfBoundsException.class, () -> {
+				String data[] = line.trim().split(";\\s*");
+				data[1].split(",\\s*");
+				data[2].trim();
+			});
+			assertNull(reader.parseLine(line, 0, line.length()), "no scale should be parsed from '" + line + "'");
+		}
 	}
 }
@@ -0,0 +1,186 @@
+package datamanagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import util.IntervalList;
+import util.Note;
+import util.NoteList;
+import util.Scale;
+
+/**
+ * The reader for loading the scale data from a binary snapshot file (see {@link SnapshotWriter}),
+ * falling back to the text files when the snapshot is missing or was created from different text files.
+ * @author Joel Gibson
+ */
+public class SnapshotReader extends Reader {
+	/**
+	 * The file containing the snapshot.
+	 */
+	private String snapshotFilename;
+	
+	/**
+	 * The text files the snapshot must have been created from (including any custom scale journals).
+	 */
+	private String[] sourceFilenames;
+	
+	/**
+	 * The scale sets loaded from the snapshot, or null if the snapshot is not current.
+	 */
+	private Map<String, List<Scale>> snapshot;
+	
+	/**
+	 * Indicates whether the snapshot file has been checked.
+	 */
+	private boolean loaded;
+	
+	/**
+	 * The checksum of the text files stored in the snapshot, which the text files must still match.
+	 */
+	private long sourceChecksum;
+	
+	/**
+	 * Creates a new snapshot reader.
+	 * @param baseFilename the text file containing the base scale set
+	 * @param customFilename the text file containing the custom scale set
+	 * @param snapshotFilename the snapshot file
+	 */
+	public SnapshotReader(String baseFilename, String customFilename, String snapshotFilename) {
+		super(baseFilename, customFilename);
+		this.snapshotFilename = snapshotFilename;
+		this.sourceFilenames = new String[] {baseFilename, customFilename,
+				JournalWriter.getCompactingFilename(customFilename), JournalWriter.getJournalFilename(customFilename)};
+	}
+	
+	/**
+	 * Reads in the base scales from the snapshot, or from the text file if the snapshot is not current.
+	 * @return the list of base scales
+	 */
+	@Override
+	public List<Scale> readBaseScales() {
+		if (isSnapshotCurrent()) {
+			return new ArrayList<>(snapshot.get("base"));
+		}
+		return super.readBaseScales();
+	}
+	
+	/**
+	 * Reads in the custom scales from the snapshot, or from the text file if the snapshot is not current.
+	 * @return the list of custom scales
+	 */
+	@Override
+	public List<Scale> readCustomScales() {
+		if (isSnapshotCurrent()) {
+			return new ArrayList<>(snapshot.get("custom"));
+		}
+		return super.readCustomScales();
+	}
+	
+	/**
+	 * Checks whether the snapshot file is valid and was created from the current text files. The
+	 * snapshot is only loaded the first time this is checked, and is no longer used once the contents
+	 * of the text files change (for example, when they are reloaded). Comparing contents rather than
+	 * modification times means a change is noticed even if it keeps the length and lands within the
+	 * resolution of the file system clock.
+	 * @return true if the scales can be read from the snapshot
+	 */
+	public synchronized boolean isSnapshotCurrent() {
+		if (!loaded) {
+			snapshot = readSnapshot();
+			loaded = true;
+		} else if (snapshot != null && SnapshotWriter.checksum(sourceFilenames) != sourceChecksum) {
+			snapshot = null;
+		}
+		return snapshot != null;
+	}
+	
+	/**
+	 * Memory-maps the snapshot file and reads in both scale sets.
+	 * @return the map of scale sets, or null if the snapshot is missing, invalid or out of date
+	 */
+	protected Map<String, List<Scale>> readSnapshot() {
+		File file = new File(snapshotFilename);
+		if (!file.exists()) {
+			return null;
+		}
+		
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			
+			// check the header matches the current format and text files
+			if (buffer.getInt() != SnapshotWriter.MAGIC || buffer.getShort() != SnapshotWriter.VERSION) {
+				return null;
+			}
+			boolean includesNotes = (buffer.get() & SnapshotWriter.FLAG_NOTES) != 0;
+			sourceChecksum = buffer.getLong();
+			if (sourceChecksum != SnapshotWriter.checksum(sourceFilenames)) {
+				return null;
+			}
+			
+			// check the payload has not been corrupted
+			long payloadChecksum = buffer.getLong();
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate());
+			if (crc.getValue() != payloadChecksum) {
+				return null;
+			}
+			
+			Map<String, List<Scale>> scaleSets = new HashMap<>();
+			scaleSets.put("base", readScaleSet(buffer, includesNotes));
+			scaleSets.put("custom", readScaleSet(buffer, includesNotes));
+			return scaleSets;
+			
+		} catch (IOException | BufferUnderflowException e) {
+			// an unreadable snapshot is rebuilt from the text files
+			return null;
+		}
+	}
+	
+	/**
+	 * Reads in a single scale set from the snapshot payload.
+	 * @param buffer the buffer positioned at the start of the scale set
+	 * @param includesNotes whether the snapshot contains the notes of each scale for every root note
+	 * @return the list of scales
+	 */
+	protected List<Scale> readScaleSet(MappedByteBuffer buffer, boolean includesNotes) {
+		int numScales = buffer.getInt();
+		List<Scale> scales = new ArrayList<>(numScales);
+		for (int i = 0; i < numScales; i++) {
+			byte[] name = new byte[buffer.getInt()];
+			buffer.get(name);
+			boolean simplified = buffer.get() != 0;
+			
+			// the interval codes are used as they are stored (with -1 read as a missing interval)
+			byte[] intervalCodes = new byte[buffer.getShort()];
+			buffer.get(intervalCodes);
+			int numIntervals = intervalCodes.length;
+			
+			Scale scale = new Scale(new String(name, StandardCharsets.UTF_8), new IntervalList(intervalCodes, 0, numIntervals), simplified);
+			
+			// store the notes of the scale for each root note as slices of one array
+			if (includesNotes) {
+				List<Note> roots = Note.getRootNotes();
+				byte[] noteCodes = new byte[roots.size() * numIntervals];
+				for (int j = 0; j < roots.size(); j++) {
+					if (buffer.get() == SnapshotWriter.MISSING_SCALE) {
+						continue;
+					}
+					buffer.get(noteCodes, j * numIntervals, numIntervals);
+					scale.preloadScale(roots.get(j), new NoteList(noteCodes, j * numIntervals, numIntervals));
+				}
+			}
+			scales.add(scale);
+		}
+		return scales;
+	}
+}
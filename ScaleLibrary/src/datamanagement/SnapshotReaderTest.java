@@ -0,0 +1,140 @@
+package datamanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import util.Note;
+import util.Scale;
+
+class SnapshotReaderTest {
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		new File("test.bin").delete();
+	}
+
+	@Test
+	void testReadSnapshot() {
+		// create a snapshot from the text files, including the notes
+		Reader textReader = new Reader("test1.txt", "test2.txt");
+		new SnapshotWriter("test.bin", "test1.txt", "test2.txt", true).writeSnapshot(textReader.readBaseScales(), textReader.readCustomScales());
+		
+		// test the scales read from the snapshot match the text files
+		SnapshotReader reader = new SnapshotReader("test1.txt", "test2.txt", "test.bin");
+		assertTrue(reader.isSnapshotCurrent(), "snapshot should match the text files");
+		List<Scale> scales = reader.readBaseScales();
+		List<Scale> textScales = textReader.readBaseScales();
+		assertEquals(textScales.size(), scales.size(), "incorrect number of scales read in");
+		for (int i = 0; i < scales.size(); i++) {
+			assertEquals(textScales.get(i).getName(), scales.get(i).getName(), "incorrect name read in");
+			assertEquals(textScales.get(i).getIntervalNames(), scales.get(i).getIntervalNames(), "incorrect intervals read in");
+			assertEquals(textScales.get(i).isSimplified(), scales.get(i).isSimplified(), "incorrect simplification read in");
+			for (Note root : Note.getRootNotes()) {
+				assertEquals(textScales.get(i).getScale(root), scales.get(i).getScale(root), "incorrect notes read in");
+			}
+		}
+		assertEquals(0, reader.readCustomScales().size(), "empty scale set read incorrectly");
+	}
+
+	@Test
+	void testReadSnapshotOutOfDate() {
+		// create a snapshot from different text files
+		Reader textReader = new Reader("test1.txt", "test2.txt");
+		new SnapshotWriter("test.bin", "scales.txt", "test2.txt", false).writeSnapshot(textReader.readBaseScales(), textReader.readCustomScales());
+		
+		// test the text files are read instead
+		SnapshotReader reader = new SnapshotReader("test1.txt", "test2.txt", "test.bin");
+		assertFalse(reader.isSnapshotCurrent(), "snapshot should not match the text files");
+		assertEquals(3, reader.readBaseScales().size(), "scales should be read from the text file");
+	}
+
+	@Test
+	void testReadSnapshotCorrupted() throws IOException {
+		// create a snapshot and change one byte of the payload
+		Reader textReader = new Reader("test1.txt", "test2.txt");
+		new SnapshotWriter("test.bin", "test1.txt", "test2.txt", false).writeSnapshot(textReader.readBaseScales(), textReader.readCustomScales());
+		try (RandomAccessFile file = new RandomAccessFile("test.bin", "rw")) {
+			file.seek(file.length() - 1);
+			file.write(1);
+		}
+		
+		// test the text files are read instead
+		SnapshotReader reader = new SnapshotReader("test1.txt", "test2.txt", "test.bin");
+		assertFalse(reader.isSnapshotCurrent(), "corrupted snapshot should not be used");
+		assertEquals(3, reader.readBaseScales().size(), "scales should be read from the text file");
+		
+		// test a missing snapshot
+		assertFalse(new SnapshotReader("test1.txt", "test2.txt", "missing.bin").isSnapshotCurrent());
+	}
+
+	@Test
+	void testReadSnapshotAfterChange(@TempDir Path directory) throws IOException {
+		// create a snapshot of a copy of the base scales
+		Path base = directory.resolve("base.txt");
+		Files.copy(Path.of("test1.txt"), base);
+		Reader textReader = new Reader(base.toString(), "test2.txt");
+		new SnapshotWriter("test.bin", base.toString(), "test2.txt", false).writeSnapshot(textReader.readBaseScales(), textReader.readCustomScales());
+		SnapshotReader reader = new SnapshotReader(base.toString(), "test2.txt", "test.bin");
+		assertTrue(reader.isSnapshotCurrent());
+		
+		// test the text file is read once it has changed
+		Files.writeString(base, "major; 1, 2, 3, 4, 5, 6, 7, 8; false\n");
+		assertFalse(reader.isSnapshotCurrent(), "snapshot should no longer be used");
+		assertEquals(1, reader.readBaseScales().size());
+	}
+
+	@Test
+	void testReadUnreadableIntervals(@TempDir Path directory) throws IOException {
+		// create a snapshot of scales with an interval that can't be read and with no intervals
+		Path base = directory.resolve("base.txt");
+		Files.writeString(base, "odd; 1, q9, 5; false\nempty; ; false\nmajor; 1, 2, 3, 4, 5, 6, 7, 8; false\n");
+		Reader textReader = new Reader(base.toString(), "test2.txt");
+		List<Scale> textScales = new ArrayList<>(textReader.readBaseScales());
+		textScales.add(new Scale("none", List.of(), false));
+		new SnapshotWriter("test.bin", base.toString(), "test2.txt", true).writeSnapshot(textScales, textReader.readCustomScales());
+		
+		// test the scales are read back the same as from the text file
+		SnapshotReader reader = new SnapshotReader(base.toString(), "test2.txt", "test.bin");
+		assertTrue(reader.isSnapshotCurrent(), "snapshot should have been written");
+		List<Scale> scales = reader.readBaseScales();
+		assertEquals(textScales.size(), scales.size());
+		for (int i = 0; i < scales.size(); i++) {
+			assertEquals(textScales.get(i).getName(), scales.get(i).getName());
+			assertEquals(textScales.get(i).getIntervals(), scales.get(i).getIntervals());
+			for (Note root : Note.getRootNotes()) {
+				assertEquals(textScales.get(i).getScale(root), scales.get(i).getScale(root));
+			}
+		}
+		assertFalse(new File("test.bin.tmp").exists(), "temporary file should have been moved into place");
+	}
+
+	@Test
+	void testReadSnapshotAfterSameLengthChange(@TempDir Path directory) throws IOException {
+		// create a snapshot of a copy of the base scales
+		Path base = directory.resolve("base.txt");
+		Files.copy(Path.of("test1.txt"), base);
+		Reader textReader = new Reader(base.toString(), "test2.txt");
+		new SnapshotWriter("test.bin", base.toString(), "test2.txt", false).writeSnapshot(textReader.readBaseScales(), textReader.readCustomScales());
+		SnapshotReader reader = new SnapshotReader(base.toString(), "test2.txt", "test.bin");
+		assertTrue(reader.isSnapshotCurrent());
+		
+		// test a change keeping the length and modification time is still noticed
+		FileTime modified = Files.getLastModifiedTime(base);
+		Files.writeString(base, Files.readString(base).replace("major;", "mayor;"));
+		Files.setLastModifiedTime(base, modified);
+		assertFalse(reader.isSnapshotCurrent(), "snapshot should no longer be used");
+		assertTrue(reader.readBaseScales().stream().anyMatch(scale -> scale.getName().equals("mayor")));
+	}
+}
@@ -0,0 +1,199 @@
+package datamanagement;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import util.Interval;
+import util.Note;
+import util.Scale;
+
+/**
+ * The writer for saving the whole scale library to a binary snapshot file, which can be loaded
+ * without parsing the text files.
+ * 
+ * <p>The snapshot starts with a header (magic number, format version, flags, the checksum of the
+ * text files the snapshot was created from, and the checksum of the payload). The payload holds
+ * the base and custom scale sets, each as a scale count followed by the scales. Each scale is
+ * stored as its name (UTF-8, after its length in bytes), the simplified flag and its interval codes
+ * (-1 for an interval that could not be read), optionally followed by the notes of the scale for
+ * every root note: a marker saying whether the scale could be created from the root note, followed by
+ * the note codes if it could. The file is written to a temporary file and then moved into place, so a
+ * reader never sees a partly written snapshot.
+ * @author Joel Gibson
+ */
+public class SnapshotWriter {
+	/**
+	 * The number identifying a scale library snapshot file ("SCLB").
+	 */
+	public static final int MAGIC = 0x53434C42;
+	
+	/**
+	 * The current version of the snapshot format.
+	 */
+	public static final short VERSION = 2;
+	
+	/**
+	 * The flag indicating the snapshot contains the notes of each scale for every root note.
+	 */
+	public static final byte FLAG_NOTES = 1;
+	
+	/**
+	 * The note table entry written for a scale that could not be created with a root note.
+	 */
+	public static final byte MISSING_SCALE = -1;
+	
+	/**
+	 * The note table entry written before the notes of a scale created with a root note.
+	 */
+	public static final byte PRESENT_SCALE = 1;
+	
+	/**
+	 * The interval code written for an interval that could not be read.
+	 */
+	public static final byte MISSING_INTERVAL = -1;
+	
+	/**
+	 * The file for writing the snapshot.
+	 */
+	private String snapshotFilename;
+	
+	/**
+	 * The text files the snapshot is created from (including any custom scale journals).
+	 */
+	private String[] sourceFilenames;
+	
+	/**
+	 * Indicates whether the notes of each scale for every root note should be included.
+	 */
+	private boolean includeNotes;
+	
+	/**
+	 * Creates a new snapshot writer.
+	 * @param snapshotFilename the file to write the snapshot to
+	 * @param baseFilename the text file containing the base scale set
+	 * @param customFilename the text file containing the custom scale set
+	 * @param includeNotes whether the notes of each scale for every root note should be included
+	 */
+	public SnapshotWriter(String snapshotFilename, String baseFilename, String customFilename, boolean includeNotes) {
+		this.snapshotFilename = snapshotFilename;
+		this.sourceFilenames = new String[] {baseFilename, customFilename,
+				JournalWriter.getCompactingFilename(customFilename), JournalWriter.getJournalFilename(customFilename)};
+		this.includeNotes = includeNotes;
+	}
+	
+	/**
+	 * Writes the given scale sets to the snapshot file.
+	 * @param baseScales the list of base scales
+	 * @param customScales the list of custom scales
+	 */
+	public void writeSnapshot(List<Scale> baseScales, List<Scale> customScales) {
+		try {
+			// create the payload first so its checksum can be written in the header
+			ByteArrayOutputStream payload = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(payload);
+			writeScaleSet(out, baseScales);
+			writeScaleSet(out, customScales);
+			out.flush();
+			
+			CRC32 crc = new CRC32();
+			crc.update(payload.toByteArray());
+			
+			// write the header and payload to a temporary file, then move it over the snapshot
+			Path target = new File(snapshotFilename).toPath();
+			Path temp = new File(snapshotFilename + ".tmp").toPath();
+			try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+					DataOutputStream file = new DataOutputStream(new BufferedOutputStream(stream))) {
+				file.writeInt(MAGIC);
+				file.writeShort(VERSION);
+				file.writeByte(includeNotes ? FLAG_NOTES : 0);
+				file.writeLong(checksum(sourceFilenames));
+				file.writeLong(crc.getValue());
+				payload.writeTo(file);
+				file.flush();
+				stream.getChannel().force(true);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Writes the given scale set to the payload.
+	 * @param out the stream to write to
+	 * @param scales the list of scales
+	 * @throws IOException if the data could not be written
+	 */
+	protected void writeScaleSet(DataOutputStream out, List<Scale> scales) throws IOException {
+		out.writeInt(scales.size());
+		for (Scale scale : scales) {
+			byte[] name = scale.getName().getBytes(StandardCharsets.UTF_8);
+			out.writeInt(name.length);
+			out.write(name);
+			out.writeBoolean(scale.isSimplified());
+			
+			// write each interval as its code
+			List<Interval> intervals = scale.getIntervals();
+			if (intervals.size() > Short.MAX_VALUE) {
+				throw new IOException("Too many intervals in scale " + scale.getName());
+			}
+			out.writeShort(intervals.size());
+			for (Interval interval : intervals) {
+				out.writeByte(interval == null ? MISSING_INTERVAL : interval.getCode());
+			}
+			
+			// write the note codes of the scale for each root note
+			if (includeNotes) {
+				for (Note root : Note.getRootNotes()) {
+					List<Note> notes = scale.getScale(root);
+					if (notes == null) {
+						out.writeByte(MISSING_SCALE);
+						continue;
+					}
+					out.writeByte(PRESENT_SCALE);
+					for (Note note : notes) {
+						out.writeByte(note.getCode());
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Calculates the combined checksum of the contents of the given files.
+	 * @param filenames the files to check
+	 * @return the checksum
+	 */
+	public static long checksum(String... filenames) {
+		CRC32 crc = new CRC32();
+		for (String filename : filenames) {
+			// include the length (or -1 if missing) so that moving text between the files changes the checksum
+			File file = new File(filename);
+			if (!file.exists()) {
+				crc.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+				continue;
+			}
+			
+			try {
+				byte[] contents = Files.readAllBytes(file.toPath());
+				crc.update(ByteBuffer.allocate(Integer.BYTES).putInt(contents.length).array());
+				crc.update(contents);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return crc.getValue();
+	}
+}
@@ -0,0 +1,79 @@
+package datamanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.Interval;
+import util.Scale;
+
+class SnapshotWriterTest {
+	
+	SnapshotWriter writer;
+	
+	List<Scale> scales;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.writer = new SnapshotWriter("test.bin", "test1.txt", "test2.txt", false);
+		
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(Interval.getInterval("b3"));
+		this.scales = new ArrayList<>();
+		this.scales.add(new Scale("testScale1", intervals, true));
+	}
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		new File("test.bin").delete();
+	}
+
+	@Test
+	void testWriteSnapshot() {
+		this.writer.writeSnapshot(this.scales, new ArrayList<>());
+		
+		// check the header was written correctly
+		try (DataInputStream in = new DataInputStream(new FileInputStream(new File("test.bin")))) {
+			assertEquals(SnapshotWriter.MAGIC, in.readInt(), "incorrect magic number");
+			assertEquals(SnapshotWriter.VERSION, in.readShort(), "incorrect version");
+			assertEquals(0, in.readByte(), "notes should not be flagged as included");
+			assertEquals(SnapshotWriter.checksum("test1.txt", "test2.txt", "test2.txt.log.old", "test2.txt.log"), in.readLong(),
+					"incorrect source checksum");
+			in.readLong();
+			
+			// check the scale data was written correctly
+			assertEquals(1, in.readInt(), "incorrect number of base scales");
+			assertEquals("testScale1".length(), in.readInt());
+			in.skipBytes("testScale1".length());
+			assertTrue(in.readBoolean(), "incorrect simplification written");
+			assertEquals(2, in.readShort(), "incorrect number of intervals");
+			assertEquals(Interval.getInterval("1").getCode(), in.readByte());
+			assertEquals(Interval.getInterval("b3").getCode(), in.readByte());
+			assertEquals(0, in.readInt(), "incorrect number of custom scales");
+			assertEquals(-1, in.read(), "no data should follow the custom scales");
+		} catch (IOException e) {
+			fail();
+		}
+	}
+
+	@Test
+	void testChecksum() {
+		// test the checksum depends on the file contents and order
+		assertEquals(SnapshotWriter.checksum("test1.txt", "test2.txt"), SnapshotWriter.checksum("test1.txt", "test2.txt"));
+		assertNotEquals(SnapshotWriter.checksum("test1.txt", "test2.txt"), SnapshotWriter.checksum("test2.txt", "test1.txt"));
+		
+		// test missing files are distinguished from empty files
+		assertEquals(SnapshotWriter.checksum("missing1.txt"), SnapshotWriter.checksum("missing2.txt"));
+		assertNotEquals(SnapshotWriter.checksum("test2.txt"), SnapshotWriter.checksum("missing.txt"));
+	}
+}
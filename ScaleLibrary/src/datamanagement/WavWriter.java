@@ -0,0 +1,270 @@
+package datamanagement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import util.Note;
+import util.Pitch;
+import util.Scale;
+
+/**
+ * The writer for rendering scales as 16-bit mono PCM WAV files. Each note is played by a wavetable
+ * voice with a few harmonics and a short fade in and out. Samples are rendered one chunk at a time
+ * into buffers allocated with the writer, and each chunk is written to the file before the next is
+ * rendered, so the memory used doesn't depend on the length of the scale.
+ * @author Joel Gibson
+ */
+public class WavWriter {
+	/**
+	 * The default number of samples per second.
+	 */
+	public static final int SAMPLE_RATE = 44100;
+	
+	/**
+	 * The number of samples in each chunk written to the file.
+	 */
+	static final int CHUNK_SAMPLES = 4096;
+	
+	/**
+	 * The number of bytes in the header of the file.
+	 */
+	static final int HEADER_BYTES = 44;
+	
+	/**
+	 * The number of samples in one cycle of the wavetable.
+	 */
+	private static final int TABLE_SIZE = 2048;
+	
+	/**
+	 * The relative amplitudes of the harmonics of the voice, starting from the fundamental.
+	 */
+	private static final float[] HARMONICS = {1f, 0.5f, 0.25f, 0.125f};
+	
+	/**
+	 * One cycle of the voice, normalised to a peak of 1, with the first sample repeated at the end so
+	 * that samples can be interpolated without wrapping.
+	 */
+	private static final float[] wavetable = createWavetable();
+	
+	/**
+	 * The peak amplitude of each note (as a fraction of full scale).
+	 */
+	private static final float VOLUME = 0.5f;
+	
+	/**
+	 * The length of the fade at the start and end of each note (in seconds).
+	 */
+	private static final double FADE_SECONDS = 0.01;
+	
+	/**
+	 * The file to write to.
+	 */
+	private String filename;
+	
+	/**
+	 * The number of samples per second.
+	 */
+	private int sampleRate;
+	
+	/**
+	 * The number of notes played per minute.
+	 */
+	private int tempo;
+	
+	/**
+	 * The octave of the root note of each scale.
+	 */
+	private int octave;
+	
+	/**
+	 * The samples of the current chunk.
+	 */
+	private final float[] samples = new float[CHUNK_SAMPLES];
+	
+	/**
+	 * The samples of the current chunk converted to 16-bit values.
+	 */
+	private final short[] pcm = new short[CHUNK_SAMPLES];
+	
+	/**
+	 * The little-endian bytes of the current chunk, which are written to the file.
+	 */
+	private final ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK_SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * The view of the chunk bytes as 16-bit values.
+	 */
+	private final ShortBuffer shorts = bytes.asShortBuffer();
+	
+	/**
+	 * Creates a new WAV writer playing 2 notes per second from the 4th octave.
+	 * @param filename the file to write to
+	 */
+	public WavWriter(String filename) {
+		this(filename, SAMPLE_RATE, 120, 4);
+	}
+	
+	/**
+	 * Creates a new WAV writer.
+	 * @param filename the file to write to
+	 * @param sampleRate the number of samples per second
+	 * @param tempo the number of notes played per minute
+	 * @param octave the octave of the root note of each scale (-1 to 9)
+	 */
+	public WavWriter(String filename, int sampleRate, int tempo, int octave) {
+		if (sampleRate < 1 || tempo < 1) {
+			throw new IllegalArgumentException("Sample rate and tempo must be positive");
+		}
+		if (octave < Pitch.MIN_OCTAVE || octave > Pitch.MAX_OCTAVE) {
+			throw new IllegalArgumentException("Octave must be from " + Pitch.MIN_OCTAVE + " to " + Pitch.MAX_OCTAVE);
+		}
+		this.filename = filename;
+		this.sampleRate = sampleRate;
+		this.tempo = tempo;
+		this.octave = octave;
+	}
+	
+	/**
+	 * Writes the given scale with the given root note, one note per beat. The file is silent if the
+	 * scale can't be spelled from the root note.
+	 * @param scale the scale to write
+	 * @param root the root note of the scale
+	 */
+	public synchronized void writeScale(Scale scale, Note root) {
+		List<Pitch> pitches = scale.getPitches(Pitch.getPitch(root, octave));
+		int numNotes = pitches == null ? 0 : pitches.size();
+		int noteSamples = (int) ((long) sampleRate * 60 / tempo);
+		
+		try (FileChannel channel = openFile()) {
+			writeHeader(channel, numNotes * noteSamples);
+			for (int i = 0; i < numNotes; i++) {
+				writeNote(channel, pitches.get(i).getFrequency(), noteSamples);
+			}
+		
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Opens the file for writing, replacing any existing contents.
+	 * @return the channel for writing to the file
+	 * @throws IOException if the file can't be opened
+	 */
+	private FileChannel openFile() throws IOException {
+		return FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+	
+	/**
+	 * Writes the RIFF header and the format chunk of the file, and starts the data chunk.
+	 * @param channel the channel to write to
+	 * @param numSamples the number of samples that will follow
+	 * @throws IOException if the header can't be written
+	 */
+	private void writeHeader(FileChannel channel, int numSamples) throws IOException {
+		int dataBytes = numSamples * 2;
+		bytes.clear();
+		bytes.putInt(0x46464952); // "RIFF"
+		bytes.putInt(HEADER_BYTES - 8 + dataBytes);
+		bytes.putInt(0x45564157); // "WAVE"
+		bytes.putInt(0x20746D66); // "fmt "
+		bytes.putInt(16);
+		bytes.putShort((short) 1); // PCM
+		bytes.putShort((short) 1); // mono
+		bytes.putInt(sampleRate);
+		bytes.putInt(sampleRate * 2);
+		bytes.putShort((short) 2);
+		bytes.putShort((short) 16);
+		bytes.putInt(0x61746164); // "data"
+		bytes.putInt(dataBytes);
+		bytes.flip();
+		writeBytes(channel);
+	}
+	
+	/**
+	 * Renders a single note and writes it to the file a chunk at a time.
+	 * @param channel the channel to write to
+	 * @param frequency the frequency of the note (in Hz)
+	 * @param noteSamples the length of the note (in samples)
+	 * @throws IOException if the note can't be written
+	 */
+	private void writeNote(FileChannel channel, double frequency, int noteSamples) throws IOException {
+		// notes above the sample rate advance by more than a whole cycle per sample, which is the same
+		// as advancing by the remainder, so the phase only ever needs to wrap once
+		double phase = 0;
+		double increment = (frequency * TABLE_SIZE / sampleRate) % TABLE_SIZE;
+		int fadeSamples = Math.max(1, Math.min((int) (sampleRate * FADE_SECONDS), noteSamples / 2));
+		
+		for (int start = 0; start < noteSamples; start += CHUNK_SAMPLES) {
+			int length = Math.min(CHUNK_SAMPLES, noteSamples - start);
+			
+			// read the voice from the wavetable, interpolating between neighbouring samples
+			for (int i = 0; i < length; i++) {
+				int index = (int) phase;
+				float fraction = (float) (phase - index);
+				float sample = wavetable[index] + (wavetable[index + 1] - wavetable[index]) * fraction;
+				
+				// fade the note in and out to avoid clicks between notes
+				int position = start + i;
+				int fade = Math.min(position, noteSamples - 1 - position);
+				float envelope = fade < fadeSamples ? (float) fade / fadeSamples : 1f;
+				samples[i] = sample * envelope * VOLUME;
+				
+				phase += increment;
+				if (phase >= TABLE_SIZE) {
+					phase -= TABLE_SIZE;
+				}
+			}
+			
+			// convert the samples to 16-bit values and write the chunk
+			for (int i = 0; i < length; i++) {
+				float sample = Math.max(-1f, Math.min(1f, samples[i]));
+				pcm[i] = (short) Math.round(sample * Short.MAX_VALUE);
+			}
+			shorts.clear();
+			shorts.put(pcm, 0, length);
+			bytes.clear().limit(length * 2);
+			writeBytes(channel);
+		}
+	}
+	
+	/**
+	 * Writes the remaining chunk bytes to the file.
+	 * @param channel the channel to write to
+	 * @throws IOException if the bytes can't be written
+	 */
+	private void writeBytes(FileChannel channel) throws IOException {
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+	}
+	
+	/**
+	 * Creates one cycle of the voice by adding the harmonics together.
+	 * @return the wavetable
+	 */
+	private static float[] createWavetable() {
+		float[] table = new float[TABLE_SIZE + 1];
+		float peak = 0;
+		for (int i = 0; i < TABLE_SIZE; i++) {
+			double sum = 0;
+			for (int h = 0; h < HARMONICS.length; h++) {
+				sum += HARMONICS[h] * Math.sin(2 * Math.PI * (h + 1) * i / TABLE_SIZE);
+			}
+			table[i] = (float) sum;
+			peak = Math.max(peak, Math.abs(table[i]));
+		}
+		for (int i = 0; i < TABLE_SIZE; i++) {
+			table[i] /= peak;
+		}
+		table[TABLE_SIZE] = table[0];
+		return table;
+	}
+}
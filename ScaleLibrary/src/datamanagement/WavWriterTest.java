@@ -0,0 +1,127 @@
+package datamanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import util.Note;
+import util.Scale;
+
+class WavWriterTest {
+	
+	/**
+	 * Reads the samples of a WAV file, checking the header of the file.
+	 * @param file the WAV file
+	 * @param sampleRate the expected number of samples per second
+	 * @return the samples
+	 */
+	private static short[] readSamples(Path file, int sampleRate) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(0x46464952, buffer.getInt(), "RIFF");
+		assertEquals(buffer.capacity() - 8, buffer.getInt());
+		assertEquals(0x45564157, buffer.getInt(), "WAVE");
+		assertEquals(0x20746D66, buffer.getInt(), "fmt ");
+		assertEquals(16, buffer.getInt());
+		assertEquals(1, buffer.getShort(), "PCM");
+		assertEquals(1, buffer.getShort(), "mono");
+		assertEquals(sampleRate, buffer.getInt());
+		assertEquals(sampleRate * 2, buffer.getInt());
+		assertEquals(2, buffer.getShort());
+		assertEquals(16, buffer.getShort());
+		assertEquals(0x61746164, buffer.getInt(), "data");
+		assertEquals(buffer.capacity() - WavWriter.HEADER_BYTES, buffer.getInt());
+		
+		short[] samples = new short[buffer.remaining() / 2];
+		buffer.asShortBuffer().get(samples);
+		return samples;
+	}
+	
+	/**
+	 * Counts the number of times the samples in the given range rise through zero.
+	 * @param samples the samples
+	 * @param start the index of the first sample
+	 * @param end the index after the last sample
+	 * @return the number of rising zero crossings
+	 */
+	private static int countCycles(short[] samples, int start, int end) {
+		int cycles = 0;
+		for (int i = start + 1; i < end; i++) {
+			if (samples[i - 1] < 0 && samples[i] >= 0) {
+				cycles++;
+			}
+		}
+		return cycles;
+	}
+	
+	@Test
+	void testWriteScale(@TempDir Path directory) throws IOException {
+		// test a major scale from middle C, with 2 notes per second
+		Path file = directory.resolve("major.wav");
+		Scale major = new Reader("test1.txt", "test2.txt").readBaseScales().get(1);
+		new WavWriter(file.toString()).writeScale(major, Note.getNote("C"));
+		short[] samples = readSamples(file, WavWriter.SAMPLE_RATE);
+		int noteSamples = WavWriter.SAMPLE_RATE / 2;
+		assertEquals(8 * noteSamples, samples.length);
+		
+		// test the pitch of the first and last notes (C4 and C5) from their number of cycles
+		assertEquals(131, countCycles(samples, 0, noteSamples), 2);
+		assertEquals(262, countCycles(samples, 7 * noteSamples, 8 * noteSamples), 2);
+		
+		// test each note fades in from silence
+		assertEquals(0, samples[0]);
+		assertEquals(0, samples[noteSamples]);
+		assertTrue(Math.abs(samples[noteSamples / 2]) <= Short.MAX_VALUE / 2 + 1);
+	}
+	
+	@Test
+	void testWriteUnspellableScale(@TempDir Path directory) throws IOException {
+		// test a scale that can't be spelled gives a valid empty file
+		Path file = directory.resolve("empty.wav");
+		Scale major = new Reader("test1.txt", "test2.txt").readBaseScales().get(1);
+		new WavWriter(file.toString(), 8000, 60, 4).writeScale(major, Note.getNote("Bx"));
+		assertEquals(0, readSamples(file, 8000).length);
+	}
+	
+	@Test
+	void testWriteAboveSampleRate(@TempDir Path directory) throws IOException {
+		// test notes higher than the sample rate are rendered (aliased) rather than failing
+		Path file = directory.resolve("high.wav");
+		Scale major = new Reader("test1.txt", "test2.txt").readBaseScales().get(1);
+		new WavWriter(file.toString(), 1000, 600, 8).writeScale(major, Note.getNote("C"));
+		assertEquals(8 * 100, readSamples(file, 1000).length);
+	}
+	
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new WavWriter("test.wav", 0, 120, 4));
+		assertThrows(IllegalArgumentException.class, () -> new WavWriter("test.wav", 8000, 0, 4));
+		assertThrows(IllegalArgumentException.class, () -> new WavWriter("test.wav", 8000, 120, 10));
+	}
+	
+	@Test
+	void testBoundedAllocation(@TempDir Path directory) throws IOException {
+		// test rendering a scale 20 times longer doesn't allocate more memory
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Scale major = new Reader("test1.txt", "test2.txt").readBaseScales().get(1);
+		WavWriter fast = new WavWriter(directory.resolve("fast.wav").toString(), WavWriter.SAMPLE_RATE, 600, 4);
+		WavWriter slow = new WavWriter(directory.resolve("slow.wav").toString(), WavWriter.SAMPLE_RATE, 30, 4);
+		fast.writeScale(major, Note.getNote("C"));
+		slow.writeScale(major, Note.getNote("C"));
+		
+		long start = threads.getCurrentThreadAllocatedBytes();
+		fast.writeScale(major, Note.getNote("C"));
+		long fastBytes = threads.getCurrentThreadAllocatedBytes() - start;
+		start = threads.getCurrentThreadAllocatedBytes();
+		slow.writeScale(major, Note.getNote("C"));
+		long slowBytes = threads.getCurrentThreadAllocatedBytes() - start;
+		assertTrue(slowBytes < fastBytes + 16 * 1024, "allocation should not grow with the number of samples: " + fastBytes + ", " + slowBytes);
+	}
+}
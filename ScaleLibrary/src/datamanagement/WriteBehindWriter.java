@@ -0,0 +1,139 @@
+package datamanagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import util.Scale;
+
+/**
+ * The writer for saving custom scales to file in the background. The calling thread only queues a
+ * copy of the scales; a burst of changes within the write delay is coalesced into a single write,
+ * which atomically replaces the custom scales file.
+ * @author Joel Gibson
+ */
+public class WriteBehindWriter extends Writer implements AutoCloseable {
+	/**
+	 * The most recent list of scales that has not been written yet, or null if there is none.
+	 */
+	private AtomicReference<List<Scale>> pending = new AtomicReference<>();
+	
+	/**
+	 * The time (in milliseconds) to wait for further changes before writing.
+	 */
+	private long delayMillis;
+	
+	/**
+	 * Runs the writes in the background, one at a time.
+	 */
+	private ScheduledThreadPoolExecutor executor;
+	
+	/**
+	 * The number of times the custom scales file has been written.
+	 */
+	private AtomicLong writesIssued = new AtomicLong();
+	
+	/**
+	 * The number of requested writes that were replaced by a later write before being issued.
+	 */
+	private AtomicLong writesCoalesced = new AtomicLong();
+	
+	/**
+	 * Creates a new write-behind writer with the given custom scales file.
+	 * @param customFilename the file for writing the custom scales
+	 * @param delayMillis the time (in milliseconds) to wait for further changes before writing
+	 */
+	public WriteBehindWriter(String customFilename, long delayMillis) {
+		super(customFilename);
+		this.delayMillis = delayMillis;
+		this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "write-behind");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+	}
+	
+	/**
+	 * Queues the given list of scales to be written to file, replacing any scales not yet written.
+	 * @param scales the list of scales to write
+	 */
+	@Override
+	public synchronized void writeScales(List<Scale> scales) {
+		if (executor.isShutdown()) {
+			throw new IllegalStateException("Writer has been closed");
+		}
+		
+		// a write is already scheduled if there were pending scales, and it will use the newest copy
+		List<Scale> previous = pending.getAndSet(new ArrayList<>(scales));
+		if (previous != null) {
+			writesCoalesced.incrementAndGet();
+			return;
+		}
+		executor.schedule(this::writePending, delayMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Writes the pending scales to file, if there are any.
+	 */
+	protected void writePending() {
+		List<Scale> scales = pending.getAndSet(null);
+		if (scales != null) {
+			replaceScales(scales);
+			writesIssued.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Writes any pending scales immediately, blocking until the file has been written.
+	 */
+	public void flush() {
+		try {
+			executor.submit(this::writePending).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Stops the background thread, then writes any pending scales. Delayed writes are discarded when
+	 * the thread stops, so the pending scales are written on the calling thread instead.
+	 */
+	@Override
+	public void close() {
+		// no more writes can be queued once the executor has been shut down under the lock
+		synchronized (this) {
+			if (executor.isShutdown()) {
+				return;
+			}
+			executor.shutdown();
+		}
+		
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		writePending();
+	}
+	
+	/**
+	 * @return the number of times the custom scales file has been written
+	 */
+	public long getWritesIssued() {
+		return writesIssued.get();
+	}
+	
+	/**
+	 * @return the number of requested writes that were coalesced into a later write
+	 */
+	public long getWritesCoalesced() {
+		return writesCoalesced.get();
+	}
+}
@@ -0,0 +1,85 @@
+package datamanagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.Interval;
+import util.Scale;
+
+class WriteBehindWriterTest {
+	
+	WriteBehindWriter writer;
+	
+	Scale testScale1;
+	Scale testScale2;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// use a long delay so writes are only issued when flushed
+		this.writer = new WriteBehindWriter("test4.txt", 60000);
+		
+		List<Interval> intervals1 = new ArrayList<>();
+		intervals1.add(Interval.getInterval("1"));
+		intervals1.add(Interval.getInterval("b3"));
+		this.testScale1 = new Scale("testScale1", intervals1, true);
+		
+		List<Interval> intervals2 = new ArrayList<>();
+		intervals2.add(Interval.getInterval("4"));
+		this.testScale2 = new Scale("testScale2", intervals2, false);
+	}
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		this.writer.close();
+		new File("test4.txt").delete();
+	}
+
+	@Test
+	void testWriteScales() throws IOException {
+		// test a burst of changes is coalesced into one write
+		List<Scale> scales = new ArrayList<>();
+		scales.add(this.testScale1);
+		this.writer.writeScales(scales);
+		scales.add(this.testScale2);
+		this.writer.writeScales(scales);
+		scales.remove(this.testScale1);
+		this.writer.writeScales(scales);
+		
+		assertFalse(new File("test4.txt").exists(), "scales should not be written before the delay");
+		this.writer.flush();
+		assertEquals(1, this.writer.getWritesIssued(), "changes should have been written once");
+		assertEquals(2, this.writer.getWritesCoalesced(), "earlier changes should have been coalesced");
+		
+		// check only the latest scales were written
+		List<String> lines = Files.readAllLines(new File("test4.txt").toPath());
+		assertEquals(1, lines.size(), "incorrect number of scales written");
+		assertEquals("testScale2; 4; false", lines.get(0));
+		assertFalse(new File("test4.txt.tmp").exists(), "temporary file should have been renamed");
+		
+		// test flushing with no pending changes doesn't write again
+		this.writer.flush();
+		assertEquals(1, this.writer.getWritesIssued());
+	}
+
+	@Test
+	void testClose() throws IOException {
+		// test pending changes are written when closed
+		List<Scale> scales = new ArrayList<>();
+		scales.add(this.testScale1);
+		this.writer.writeScales(scales);
+		this.writer.close();
+		assertEquals(1, Files.readAllLines(new File("test4.txt").toPath()).size(), "pending scales should be written when closed");
+		
+		// test the writer can't be used after being closed
+		assertThrows(IllegalStateException.class, () -> this.writer.writeScales(scales));
+	}
+}
@@ -4,8 +4,22 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
+import metrics.LatencyHistogram;
+import metrics.Metrics;
 import util.Scale;
 
 /**
@@ -13,11 +27,38 @@ import util.Scale;
  * @author Joel Gibson
  */
 public class Writer {
+	/**
+	 * The latency of writing the custom scales file.
+	 */
+	private static final LatencyHistogram writeScalesLatency = Metrics.createLatencyHistogram("writeScales");
+	
 	/**
 	 * The file for writing the custom scales.
 	 */
 	private String customFilename;
 	
+	/**
+	 * Maps the absolute path of each file this writer has changed to the length and checksum of its
+	 * contents after the change.
+	 */
+	private Map<String, WrittenFile> writtenFiles = new ConcurrentHashMap<>();
+	
+	/**
+	 * The length and checksum of the contents of a file as this writer last left it. The checksum is
+	 * kept running, so appending to the file doesn't require it to be read again.
+	 */
+	private static class WrittenFile {
+		/**
+		 * The length of the file (in bytes), or -1 if it was deleted.
+		 */
+		private long length;
+		
+		/**
+		 * The checksum of the contents of the file (guarded by this object).
+		 */
+		private CRC32 crc = new CRC32();
+	}
+	
 	/**
 	 * Creates a new writer with the given custom scales file.
 	 * @param customFilename
@@ -26,18 +67,44 @@ public class Writer {
 		this.customFilename = customFilename;
 	}
 	
+	/**
+	 * @return the file for writing the custom scales
+	 */
+	public String getCustomFilename() {
+		return customFilename;
+	}
+	
+	/**
+	 * Saves the custom scales after the given scale has been added.
+	 * @param scale the scale that was added
+	 * @param scales the list of custom scales, including the new scale
+	 */
+	public void addScale(Scale scale, List<Scale> scales) {
+		writeScales(scales);
+	}
+	
+	/**
+	 * Saves the custom scales after the given scale has been removed.
+	 * @param scale the scale that was removed
+	 * @param scales the list of remaining custom scales
+	 */
+	public void deleteScale(Scale scale, List<Scale> scales) {
+		writeScales(scales);
+	}
+	
 	/**
 	 * Writes the given list of scales to file.
-	 * @param filename the file to write to
+	 * @param scales the list of scales to write
 	 */
 	public void writeScales(List<Scale> scales) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
 		File file = new File(customFilename);
 		FileWriter fw = null;
 		PrintWriter pw = null;
 		
 		try {
 			// create the file writers
-			fw = new FileWriter(file, false);
+			fw = new FileWriter(file, StandardCharsets.UTF_8, false);
 			pw = new PrintWriter(fw);
 			
 			// write each scale to the file
@@ -58,6 +125,146 @@ public class Writer {
 				e.printStackTrace();
 			}
 		}
+		recordWritten(customFilename);
+		if (Metrics.ENABLED) {
+			writeScalesLatency.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Replaces the custom scales file with the given list of scales, so that the file is never left
+	 * partly written. The scales are written to a temporary file, which is synced to disk once and then
+	 * atomically renamed over the custom scales file.
+	 * @param scales the list of scales to write
+	 * @return true if the file was replaced, or false if an error occurred
+	 */
+	protected boolean replaceScales(List<Scale> scales) {
+		return replaceScales(scales, null);
+	}
+	
+	/**
+	 * Replaces the custom scales file with the given list of scales, starting the file with the given
+	 * header line.
+	 * @param scales the list of scales to write
+	 * @param header the first line of the file (which must not contain ';'), or null for no header
+	 * @return true if the file was replaced, or false if an error occurred
+	 */
+	protected boolean replaceScales(List<Scale> scales, String header) {
+		Path target = new File(customFilename).toPath();
+		Path temp = new File(customFilename + ".tmp").toPath();
+		
+		// convert the scales to the file contents
+		StringBuilder contents = new StringBuilder();
+		if (header != null) {
+			contents.append(header).append(System.lineSeparator());
+		}
+		for (Scale scale : scales) {
+			contents.append(toFileLine(scale)).append(System.lineSeparator());
+		}
+		ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(contents));
+		
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(true);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			recordWritten(customFilename);
+			return true;
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * Records the current contents of the given files as written by this writer, so that the change
+	 * can be told apart from changes made by other programs. Missing files are recorded as deleted.
+	 * @param filenames the files that were written or deleted
+	 */
+	protected void recordWritten(String... filenames) {
+		for (String filename : filenames) {
+			File file = new File(filename);
+			WrittenFile written = new WrittenFile();
+			if (!file.exists()) {
+				written.length = -1;
+			} else {
+				try {
+					byte[] contents = Files.readAllBytes(file.toPath());
+					written.length = contents.length;
+					written.crc.update(contents);
+				} catch (IOException e) {
+					e.printStackTrace();
+					writtenFiles.remove(toKey(filename));
+					continue;
+				}
+			}
+			writtenFiles.put(toKey(filename), written);
+		}
+	}
+	
+	/**
+	 * Records the given bytes as appended to the given file by this writer, updating the recorded
+	 * length and checksum of the file without reading it again. A file that hasn't been recorded yet
+	 * is read in full.
+	 * @param filename the file that was appended to
+	 * @param bytes the appended bytes
+	 */
+	protected void recordAppended(String filename, byte[] bytes) {
+		WrittenFile written = writtenFiles.get(toKey(filename));
+		if (written == null) {
+			recordWritten(filename);
+			return;
+		}
+		synchronized (written) {
+			written.length = Math.max(written.length, 0) + bytes.length;
+			written.crc.update(bytes);
+		}
+	}
+	
+	/**
+	 * Checks whether the given file is as this writer last left it, so a change to it was made by this
+	 * writer rather than by another program. The file is only read if its length is as recorded.
+	 * @param filename the file to check
+	 * @return true if this writer has changed the file, and its contents have not changed since
+	 */
+	public boolean isUnchangedSinceWrite(String filename) {
+		WrittenFile written = writtenFiles.get(toKey(filename));
+		if (written == null) {
+			return false;
+		}
+		long length;
+		long checksum;
+		synchronized (written) {
+			length = written.length;
+			checksum = written.crc.getValue();
+		}
+		
+		File file = new File(filename);
+		if (!file.exists() || file.length() != length) {
+			return !file.exists() && length == -1;
+		}
+		try {
+			CRC32 crc = new CRC32();
+			crc.update(Files.readAllBytes(file.toPath()));
+			return crc.getValue() == checksum;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Converts a filename to the normalised absolute path, so that different names for the same file
+	 * are recorded together.
+	 * @param filename the filename
+	 * @return the normalised absolute path
+	 */
+	private static String toKey(String filename) {
+		return Paths.get(filename).toAbsolutePath().normalize().toString();
 	}
 	
 	/**
@@ -6,11 +6,13 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import util.Interval;
 import util.Scale;
@@ -102,4 +104,22 @@ class WriterTest {
 		// test a scale with only one interval
 		assertEquals("testScale2; 4; false", writer.toFileLine(this.testScale2));
 	}
+
+	@Test
+	void testNonAsciiNames(@TempDir Path directory) throws IOException {
+		// test names outside ASCII are read back unchanged, however the file was written
+		Scale scale = new Scale("gamme r\u00E9 \u266D \u97F3\u968E", this.testScale1.getIntervals(), true);
+		String written = directory.resolve("written.txt").toString();
+		new Writer(written).writeScales(List.of(scale));
+		assertEquals(scale.getName(), new Reader(written, written).readBaseScales().get(0).getName());
+		
+		String replaced = directory.resolve("replaced.txt").toString();
+		assertTrue(new Writer(replaced).replaceScales(List.of(scale)));
+		assertEquals(scale.getName(), new Reader(replaced, replaced).readBaseScales().get(0).getName());
+		
+		String journaled = directory.resolve("journaled.txt").toString();
+		new File(journaled).createNewFile();
+		new JournalWriter(journaled, Long.MAX_VALUE).addScale(scale, List.of(scale));
+		assertEquals(scale.getName(), new Reader(journaled, journaled).readCustomScales().get(0).getName());
+	}
 }
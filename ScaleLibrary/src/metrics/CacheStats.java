@@ -0,0 +1,96 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the hits and misses of a cache. The counters can be updated by many threads at once
+ * without contention.
+ * @author Joel Gibson
+ */
+public class CacheStats implements CacheStatsMBean {
+	/**
+	 * The number of lookups that found an existing entry.
+	 */
+	private LongAdder hits = new LongAdder();
+	
+	/**
+	 * The number of lookups that had to create the entry.
+	 */
+	private LongAdder misses = new LongAdder();
+	
+	/**
+	 * Finds the current number of entries in the cache.
+	 */
+	private LongSupplier size;
+	
+	/**
+	 * Finds the number of entries removed to limit the size of the cache.
+	 */
+	private LongSupplier evictionCount;
+	
+	/**
+	 * Creates new statistics for a cache that never removes entries.
+	 * @param size finds the current number of entries in the cache
+	 */
+	public CacheStats(LongSupplier size) {
+		this(size, () -> 0);
+	}
+	
+	/**
+	 * Creates new cache statistics.
+	 * @param size finds the current number of entries in the cache
+	 * @param evictionCount finds the number of entries removed to limit the size of the cache
+	 */
+	public CacheStats(LongSupplier size, LongSupplier evictionCount) {
+		this.size = size;
+		this.evictionCount = evictionCount;
+	}
+	
+	/**
+	 * Records a lookup that found an existing entry.
+	 */
+	public void recordHit() {
+		hits.increment();
+	}
+	
+	/**
+	 * Records a lookup that had to create the entry.
+	 */
+	public void recordMiss() {
+		misses.increment();
+	}
+	
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	@Override
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+	
+	@Override
+	public long getSize() {
+		return size.getAsLong();
+	}
+	
+	@Override
+	public long getEvictionCount() {
+		return evictionCount.getAsLong();
+	}
+	
+	@Override
+	public void reset() {
+		hits.reset();
+		misses.reset();
+	}
+}
@@ -0,0 +1,37 @@
+package metrics;
+
+/**
+ * The management interface for the statistics of a cache.
+ * @author Joel Gibson
+ */
+public interface CacheStatsMBean {
+	/**
+	 * @return the number of lookups that found an existing entry
+	 */
+	long getHits();
+	
+	/**
+	 * @return the number of lookups that had to create the entry
+	 */
+	long getMisses();
+	
+	/**
+	 * @return the fraction of lookups that found an existing entry (0 if there have been none)
+	 */
+	double getHitRate();
+	
+	/**
+	 * @return the current number of entries in the cache
+	 */
+	long getSize();
+	
+	/**
+	 * @return the number of entries removed to limit the size of the cache
+	 */
+	long getEvictionCount();
+	
+	/**
+	 * Sets the hit and miss counts back to zero.
+	 */
+	void reset();
+}
@@ -0,0 +1,27 @@
+package metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CacheStatsTest {
+
+	@Test
+	void testHitRate() {
+		CacheStats stats = new CacheStats(() -> 7);
+		assertEquals(0, stats.getHitRate());
+		
+		stats.recordMiss();
+		stats.recordHit();
+		stats.recordHit();
+		stats.recordHit();
+		assertEquals(3, stats.getHits());
+		assertEquals(1, stats.getMisses());
+		assertEquals(0.75, stats.getHitRate());
+		assertEquals(7, stats.getSize());
+		
+		stats.reset();
+		assertEquals(0, stats.getHits());
+		assertEquals(0, stats.getMisses());
+	}
+}
@@ -0,0 +1,134 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records operation latencies in buckets whose bounds are powers of two nanoseconds, so recording
+ * is a few additions with no allocation or locking.
+ * @author Joel Gibson
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+	/**
+	 * The number of buckets (bucket i holds latencies below 2^i nanoseconds, and at least 2^(i-1)).
+	 */
+	private static final int NUM_BUCKETS = 64;
+	
+	/**
+	 * The number of operations in each bucket.
+	 */
+	private LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+	
+	/**
+	 * The total latency (in nanoseconds) of every operation.
+	 */
+	private LongAdder totalNanos = new LongAdder();
+	
+	/**
+	 * The maximum latency (in nanoseconds).
+	 */
+	private LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	
+	/**
+	 * Creates a new empty histogram.
+	 */
+	public LatencyHistogram() {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * Records an operation that started at the given time and has just finished.
+	 * @param startNanos the value of System.nanoTime() when the operation started
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+	
+	/**
+	 * Records an operation with the given latency.
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(nanos, 0);
+		buckets[Math.min(64 - Long.numberOfLeadingZeros(nanos), NUM_BUCKETS - 1)].increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+	
+	@Override
+	public long getCount() {
+		long count = 0;
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+		return count;
+	}
+	
+	@Override
+	public double getMeanMicros() {
+		long count = getCount();
+		return count == 0 ? 0 : totalNanos.sum() / 1000.0 / count;
+	}
+	
+	@Override
+	public double getMaxMicros() {
+		return maxNanos.get() / 1000.0;
+	}
+	
+	@Override
+	public double getP50Micros() {
+		return getPercentileMicros(0.5);
+	}
+	
+	@Override
+	public double getP90Micros() {
+		return getPercentileMicros(0.9);
+	}
+	
+	@Override
+	public double getP99Micros() {
+		return getPercentileMicros(0.99);
+	}
+	
+	/**
+	 * Finds the upper bound of the bucket containing the given percentile, limited to the maximum
+	 * recorded latency.
+	 * @param fraction the percentile as a fraction between 0 and 1
+	 * @return the latency in microseconds (0 if there have been no operations)
+	 */
+	public double getPercentileMicros(double fraction) {
+		// take a copy of the counts so that they are consistent while searching
+		long[] counts = new long[NUM_BUCKETS];
+		long total = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		
+		// find the first bucket at which the cumulative count reaches the percentile
+		long target = Math.max((long) Math.ceil(fraction * total), 1);
+		long cumulative = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			cumulative += counts[i];
+			if (cumulative >= target) {
+				long upperBound = i == NUM_BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+				return Math.min(upperBound, maxNanos.get()) / 1000.0;
+			}
+		}
+		return getMaxMicros();
+	}
+	
+	@Override
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		totalNanos.reset();
+		maxNanos.reset();
+	}
+}
@@ -0,0 +1,44 @@
+package metrics;
+
+/**
+ * The management interface for the latency histogram of an operation. Percentiles are reported as
+ * the upper bound of the power-of-two bucket they fall in, so they are accurate to within a factor
+ * of two.
+ * @author Joel Gibson
+ */
+public interface LatencyHistogramMBean {
+	/**
+	 * @return the number of recorded operations
+	 */
+	long getCount();
+	
+	/**
+	 * @return the mean latency in microseconds (0 if there have been no operations)
+	 */
+	double getMeanMicros();
+	
+	/**
+	 * @return the maximum latency in microseconds
+	 */
+	double getMaxMicros();
+	
+	/**
+	 * @return the median latency in microseconds
+	 */
+	double getP50Micros();
+	
+	/**
+	 * @return the 90th percentile latency in microseconds
+	 */
+	double getP90Micros();
+	
+	/**
+	 * @return the 99th percentile latency in microseconds
+	 */
+	double getP99Micros();
+	
+	/**
+	 * Discards every recorded operation.
+	 */
+	void reset();
+}
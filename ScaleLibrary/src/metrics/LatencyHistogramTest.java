@@ -0,0 +1,50 @@
+package metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+	
+	private LatencyHistogram histogram;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		histogram = new LatencyHistogram();
+	}
+
+	@Test
+	void testEmpty() {
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMeanMicros());
+		assertEquals(0, histogram.getP50Micros());
+		assertEquals(0, histogram.getP99Micros());
+	}
+
+	@Test
+	void testPercentiles() {
+		// 99 fast operations and one slow one
+		for (int i = 0; i < 99; i++) {
+			histogram.record(1000);
+		}
+		histogram.record(1_000_000);
+		
+		assertEquals(100, histogram.getCount());
+		assertEquals(1000, histogram.getMaxMicros());
+		assertEquals((99 * 1000 + 1_000_000) / 1000.0 / 100, histogram.getMeanMicros(), 1e-9);
+		
+		// percentiles are within a factor of two of the recorded latencies
+		assertTrue(histogram.getP50Micros() >= 1 && histogram.getP50Micros() < 2);
+		assertTrue(histogram.getP99Micros() >= 1 && histogram.getP99Micros() < 2);
+		assertEquals(1000, histogram.getPercentileMicros(1));
+	}
+
+	@Test
+	void testReset() {
+		histogram.record(500);
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMaxMicros());
+	}
+}
@@ -0,0 +1,91 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Creates the cache statistics and latency histograms used to monitor the library, and publishes
+ * them as MBeans. Metrics are only recorded when the "scalelibrary.metrics" system property is set
+ * to true at startup; otherwise every check of ENABLED is a constant false that the JIT compiler
+ * removes, so disabled metrics cost nothing.
+ * @author Joel Gibson
+ */
+public final class Metrics {
+	/**
+	 * Indicates whether metrics are recorded.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("scalelibrary.metrics");
+	
+	/**
+	 * The domain of the names of the published MBeans.
+	 */
+	public static final String DOMAIN = "scalelibrary";
+	
+	/**
+	 * Prevents instantiation.
+	 */
+	private Metrics() {
+	}
+	
+	/**
+	 * Creates the statistics for a cache, publishing them if metrics are enabled.
+	 * @param name the cache name
+	 * @param size finds the current number of entries in the cache
+	 * @return the cache statistics
+	 */
+	public static CacheStats createCacheStats(String name, LongSupplier size) {
+		return createCacheStats(name, size, () -> 0);
+	}
+	
+	/**
+	 * Creates the statistics for a cache that may remove entries, publishing them if metrics are
+	 * enabled.
+	 * @param name the cache name
+	 * @param size finds the current number of entries in the cache
+	 * @param evictionCount finds the number of entries removed to limit the size of the cache
+	 * @return the cache statistics
+	 */
+	public static CacheStats createCacheStats(String name, LongSupplier size, LongSupplier evictionCount) {
+		CacheStats stats = new CacheStats(size, evictionCount);
+		register("type=Cache,name=" + name, stats);
+		return stats;
+	}
+	
+	/**
+	 * Creates the latency histogram for an operation, publishing it if metrics are enabled.
+	 * @param name the operation name
+	 * @return the latency histogram
+	 */
+	public static LatencyHistogram createLatencyHistogram(String name) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		register("type=Latency,name=" + name, histogram);
+		return histogram;
+	}
+	
+	/**
+	 * Publishes the given MBean on the platform MBean server if metrics are enabled. An MBean that has
+	 * already been published with the same name is replaced.
+	 * @param properties the key properties of the MBean name
+	 * @param mbean the MBean to publish
+	 */
+	private static void register(String properties, Object mbean) {
+		if (!ENABLED) {
+			return;
+		}
+		
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(mbean, name);
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+}
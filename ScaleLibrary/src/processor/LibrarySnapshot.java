@@ -0,0 +1,66 @@
+package processor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable version of the scale library. Readers use a single snapshot for the whole of an
+ * operation, so they never see a scale set part way through a change; writers publish a new snapshot
+ * that shares every scale set they didn't change.
+ * @author Joel Gibson
+ */
+public final class LibrarySnapshot {
+	/**
+	 * The map containing each scale set ("base" and "custom").
+	 */
+	private final Map<String, ScaleCatalog> scaleSets;
+	
+	/**
+	 * The version number, which increases with each change.
+	 */
+	private final long version;
+	
+	/**
+	 * Creates a new snapshot.
+	 * @param scaleSets the map containing each scale set (not changed after this)
+	 * @param version the version number
+	 */
+	LibrarySnapshot(Map<String, ScaleCatalog> scaleSets, long version) {
+		this.scaleSets = scaleSets;
+		this.version = version;
+	}
+	
+	/**
+	 * @param scaleSet the scale set name ("base" or "custom")
+	 * @return the scale set, which must not be changed
+	 */
+	public ScaleCatalog getScaleSet(String scaleSet) {
+		return scaleSets.get(scaleSet);
+	}
+	
+	/**
+	 * @return the version number, which increases with each change
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * @return the map containing each scale set
+	 */
+	Map<String, ScaleCatalog> getScaleSets() {
+		return scaleSets;
+	}
+	
+	/**
+	 * Creates the next version of the library, with the given scale set replaced.
+	 * @param scaleSet the scale set name
+	 * @param scales the new scale set
+	 * @return the new snapshot
+	 */
+	LibrarySnapshot withScaleSet(String scaleSet, ScaleCatalog scales) {
+		Map<String, ScaleCatalog> newScaleSets = new HashMap<>(scaleSets);
+		newScaleSets.put(scaleSet, scales);
+		return new LibrarySnapshot(newScaleSets, version + 1);
+	}
+}
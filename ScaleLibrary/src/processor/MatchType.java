@@ -0,0 +1,39 @@
+package processor;
+
+/**
+ * The ways a set of notes can be matched against the notes of a scale.
+ * @author Joel Gibson
+ */
+public enum MatchType {
+	/**
+	 * The scale contains all of the given notes (and possibly others).
+	 */
+	SUBSET,
+	
+	/**
+	 * All of the notes of the scale are among the given notes.
+	 */
+	SUPERSET,
+	
+	/**
+	 * The scale contains exactly the given notes.
+	 */
+	EXACT;
+	
+	/**
+	 * Checks whether the scale notes match the given notes, with both represented as bitmasks.
+	 * @param scaleMask the bitmask of the scale notes
+	 * @param queryMask the bitmask of the given notes
+	 * @return true if the notes match
+	 */
+	public boolean matches(long scaleMask, long queryMask) {
+		switch (this) {
+		case SUBSET:
+			return (scaleMask & queryMask) == queryMask;
+		case SUPERSET:
+			return (scaleMask & ~queryMask) == 0;
+		default:
+			return scaleMask == queryMask;
+		}
+	}
+}
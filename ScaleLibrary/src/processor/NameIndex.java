@@ -0,0 +1,774 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import util.Scale;
+
+/**
+ * An index of the names of every scale in a scale set, for finding scales by part of their name. Each
+ * name (and each alias, such as "ionian" for "major") is stored as a term in a prefix trie, once from
+ * its start and once from the start of each later word, and in a trigram index for finding terms that
+ * contain the query or are within a couple of typing mistakes of it. Matches are ranked with exact
+ * names first, then names starting with the query, names with a word starting with the query, names
+ * containing the query, and finally names close to the query.
+ * <p>
+ * An index can also record the changes made to an earlier index, so that a scale set that has only
+ * had a few scales added or removed doesn't have to index every name again. The added names are
+ * indexed on their own, and the matches from both indexes are merged.
+ * @author Joel Gibson
+ */
+public class NameIndex {
+	/**
+	 * The common alternative names of the standard scales, mapped to the scale names they refer to.
+	 * Aliases are only used when the scale they refer to is in the index.
+	 */
+	public static final Map<String, String> DEFAULT_ALIASES = createDefaultAliases();
+	
+	/**
+	 * The rank of a name that matches the query exactly.
+	 */
+	private static final int EXACT = 0;
+	
+	/**
+	 * The rank of a name that starts with the query.
+	 */
+	private static final int PREFIX = 1;
+	
+	/**
+	 * The rank of a name containing a word that starts with the query.
+	 */
+	private static final int WORD_PREFIX = 2;
+	
+	/**
+	 * The rank of a name that contains the query.
+	 */
+	private static final int SUBSTRING = 3;
+	
+	/**
+	 * The rank of a name that is close to the query, to which the number of typing mistakes is added.
+	 */
+	private static final int FUZZY = 4;
+	
+	/**
+	 * The pattern matching runs of whitespace, which are replaced by single spaces.
+	 */
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	
+	/**
+	 * The largest number of terms compared with the query when searching for names close to it.
+	 */
+	private static final int MAX_CANDIDATES = 256;
+	
+	/**
+	 * The rank of a name that doesn't match the query.
+	 */
+	private static final int NO_MATCH = Integer.MAX_VALUE;
+	
+	/**
+	 * The alternative names indexed with the scale names.
+	 */
+	private Map<String, String> aliases;
+	
+	/**
+	 * The earlier index that this index records changes to, or null if this index holds every name.
+	 */
+	private NameIndex base;
+	
+	/**
+	 * The index of the names added since the earlier index was created, or null if this index holds
+	 * every name.
+	 */
+	private NameIndex added;
+	
+	/**
+	 * The names removed since the earlier index was created, or null if this index holds every name.
+	 */
+	private Set<String> removed;
+	
+	/**
+	 * The number of terms (names and aliases) in the index.
+	 */
+	private int size;
+	
+	/**
+	 * The names of the scales in the index, without duplicates, in scale set order.
+	 */
+	private String[] names;
+	
+	/**
+	 * The normalised text of each term (each scale name, followed by each alias).
+	 */
+	private String[] terms;
+	
+	/**
+	 * The position of the scale name that each term refers to.
+	 */
+	private int[] termNames;
+	
+	/**
+	 * The term of each trie key, in key order. Each key is the text of a term from the start of one
+	 * of its words.
+	 */
+	private int[] keyTerms;
+	
+	/**
+	 * Indicates whether each trie key starts at the beginning of its term, in key order.
+	 */
+	private boolean[] keyWholeTerms;
+	
+	/**
+	 * The character leading to each trie node from its parent.
+	 */
+	private char[] nodeChars;
+	
+	/**
+	 * The first child of each trie node, or -1 for a leaf.
+	 */
+	private int[] firstChildren;
+	
+	/**
+	 * The next sibling of each trie node, or -1 for the last child.
+	 */
+	private int[] nextSiblings;
+	
+	/**
+	 * The position of the first key below each trie node (the keys below a node are consecutive).
+	 */
+	private int[] keyStarts;
+	
+	/**
+	 * The position after the last key below each trie node.
+	 */
+	private int[] keyEnds;
+	
+	/**
+	 * The position after the last key ending at each trie node (these keys come before the others
+	 * below the node).
+	 */
+	private int[] exactEnds;
+	
+	/**
+	 * The number of nodes in the trie.
+	 */
+	private int numNodes;
+	
+	/**
+	 * Maps each trigram (of the terms padded with a space at each end) to the terms containing it, in
+	 * term order.
+	 */
+	private Map<Long, int[]> trigrams = new HashMap<>();
+	
+	/**
+	 * Creates a new index of the names of the given scales, with the default aliases.
+	 * @param scales the list of scales to index
+	 */
+	public NameIndex(List<Scale> scales) {
+		this(scales, DEFAULT_ALIASES);
+	}
+	
+	/**
+	 * Creates a new index of the names of the given scales.
+	 * @param scales the list of scales to index
+	 * @param aliases maps alternative names to the names of the scales they refer to
+	 */
+	public NameIndex(List<Scale> scales, Map<String, String> aliases) {
+		// find the distinct names and their terms
+		Map<String, Integer> namePositions = new HashMap<>();
+		List<String> nameList = new ArrayList<>();
+		List<String> termList = new ArrayList<>();
+		List<Integer> termNameList = new ArrayList<>();
+		for (Scale scale : scales) {
+			if (!namePositions.containsKey(scale.getName())) {
+				namePositions.put(scale.getName(), nameList.size());
+				termList.add(normalise(scale.getName()));
+				termNameList.add(nameList.size());
+				nameList.add(scale.getName());
+			}
+		}
+		for (Map.Entry<String, String> alias : aliases.entrySet()) {
+			Integer position = namePositions.get(alias.getValue());
+			if (position != null) {
+				termList.add(normalise(alias.getKey()));
+				termNameList.add(position);
+			}
+		}
+		this.names = nameList.toArray(new String[0]);
+		this.terms = termList.toArray(new String[0]);
+		this.termNames = new int[terms.length];
+		for (int i = 0; i < terms.length; i++) {
+			termNames[i] = termNameList.get(i);
+		}
+		
+		this.aliases = aliases;
+		this.size = terms.length;
+		
+		buildTrie();
+		buildTrigrams();
+	}
+	
+	/**
+	 * Creates a new index recording the changes made to the names of an earlier index. Names that
+	 * are added must not already be in the earlier index, and names that are removed must be.
+	 * @param base the earlier index, which must hold every name itself
+	 * @param added the list of scales with the added names, in scale set order
+	 * @param removed the set of removed names
+	 */
+	NameIndex(NameIndex base, List<Scale> added, Set<String> removed) {
+		if (base.isOverlay()) {
+			throw new IllegalArgumentException("The earlier index must hold every name");
+		}
+		this.aliases = base.aliases;
+		this.base = base;
+		this.added = new NameIndex(added, base.aliases);
+		this.removed = removed;
+		
+		// count the terms of the earlier index that remain
+		this.size = base.size + this.added.size;
+		if (!removed.isEmpty()) {
+			for (int term = 0; term < base.terms.length; term++) {
+				if (removed.contains(base.names[base.termNames[term]])) {
+					size--;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Converts a name or query to the form stored in the index, in lower case with single spaces
+	 * between words.
+	 * @param text the text to convert
+	 * @return the normalised text
+	 */
+	static String normalise(String text) {
+		return WHITESPACE.matcher(text.trim().toLowerCase()).replaceAll(" ");
+	}
+	
+	/**
+	 * Checks whether a word starts at the given position of a term.
+	 * @param term the term
+	 * @param position the position in the term
+	 * @return true if the character is a letter or digit that doesn't follow a letter or digit
+	 */
+	private static boolean isWordStart(String term, int position) {
+		return Character.isLetterOrDigit(term.charAt(position))
+				&& (position == 0 || !Character.isLetterOrDigit(term.charAt(position - 1)));
+	}
+	
+	/**
+	 * Creates the trie of every term from the start of each of its words. The keys are sorted first,
+	 * so that the keys below each node are consecutive and can be stored as a range.
+	 */
+	private void buildTrie() {
+		// find the text of every term from the start of each of its words
+		List<String> keyList = new ArrayList<>();
+		List<Integer> keyTermList = new ArrayList<>();
+		for (int i = 0; i < terms.length; i++) {
+			for (int j = 0; j < terms[i].length(); j++) {
+				if (j == 0 || isWordStart(terms[i], j)) {
+					keyList.add(terms[i].substring(j));
+					keyTermList.add(j == 0 ? i : -1 - i);
+				}
+			}
+		}
+		String[] unsorted = keyList.toArray(new String[0]);
+		Integer[] order = new Integer[unsorted.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> unsorted[a].compareTo(unsorted[b]));
+		
+		String[] keys = new String[order.length];
+		this.keyTerms = new int[keys.length];
+		this.keyWholeTerms = new boolean[keys.length];
+		int numChars = 0;
+		for (int i = 0; i < keys.length; i++) {
+			int term = keyTermList.get(order[i]);
+			keys[i] = unsorted[order[i]];
+			keyTerms[i] = term >= 0 ? term : -1 - term;
+			keyWholeTerms[i] = term >= 0;
+			numChars += keys[i].length();
+		}
+		
+		// add each key in order, extending the path of the previous key
+		int capacity = numChars + 1;
+		this.nodeChars = new char[capacity];
+		this.firstChildren = new int[capacity];
+		this.nextSiblings = new int[capacity];
+		this.keyStarts = new int[capacity];
+		this.keyEnds = new int[capacity];
+		this.exactEnds = new int[capacity];
+		this.numNodes = 1;
+		firstChildren[0] = -1;
+		nextSiblings[0] = -1;
+		keyEnds[0] = keys.length;
+		int[] path = new int[maxLength(keys) + 1];
+		String previous = "";
+		for (int i = 0; i < keys.length; i++) {
+			String key = keys[i];
+			int shared = 0;
+			while (shared < key.length() && shared < previous.length() && key.charAt(shared) == previous.charAt(shared)) {
+				shared++;
+			}
+			for (int depth = shared; depth < key.length(); depth++) {
+				int node = numNodes++;
+				nodeChars[node] = key.charAt(depth);
+				firstChildren[node] = -1;
+				nextSiblings[node] = firstChildren[path[depth]];
+				firstChildren[path[depth]] = node;
+				keyStarts[node] = i;
+				exactEnds[node] = i;
+				path[depth + 1] = node;
+			}
+			for (int depth = 1; depth <= key.length(); depth++) {
+				keyEnds[path[depth]] = i + 1;
+			}
+			exactEnds[path[key.length()]] = i + 1;
+			previous = key;
+		}
+		
+		// release the space reserved for nodes shared between keys
+		nodeChars = Arrays.copyOf(nodeChars, numNodes);
+		firstChildren = Arrays.copyOf(firstChildren, numNodes);
+		nextSiblings = Arrays.copyOf(nextSiblings, numNodes);
+		keyStarts = Arrays.copyOf(keyStarts, numNodes);
+		keyEnds = Arrays.copyOf(keyEnds, numNodes);
+		exactEnds = Arrays.copyOf(exactEnds, numNodes);
+	}
+	
+	/**
+	 * @param keys the keys
+	 * @return the length of the longest key
+	 */
+	private static int maxLength(String[] keys) {
+		int max = 0;
+		for (String key : keys) {
+			max = Math.max(max, key.length());
+		}
+		return max;
+	}
+	
+	/**
+	 * Creates the map from each trigram to the terms containing it.
+	 */
+	private void buildTrigrams() {
+		// number each distinct trigram, and record each (trigram, term) pair as a single value
+		Map<Long, Integer> ids = new HashMap<>();
+		List<Long> keys = new ArrayList<>();
+		int numPairs = 0;
+		for (String term : terms) {
+			numPairs += term.length();
+		}
+		long[] pairs = new long[numPairs];
+		numPairs = 0;
+		for (int i = 0; i < terms.length; i++) {
+			String padded = " " + terms[i] + " ";
+			for (int j = 0; j + 3 <= padded.length(); j++) {
+				Long key = trigram(padded, j);
+				Integer id = ids.get(key);
+				if (id == null) {
+					id = keys.size();
+					ids.put(key, id);
+					keys.add(key);
+				}
+				pairs[numPairs++] = ((long) id << 32) | i;
+			}
+		}
+		
+		// sorting the pairs groups the terms of each trigram together, in term order
+		Arrays.sort(pairs, 0, numPairs);
+		int start = 0;
+		while (start < numPairs) {
+			int id = (int) (pairs[start] >>> 32);
+			int end = start;
+			int numTerms = 0;
+			while (end < numPairs && (int) (pairs[end] >>> 32) == id) {
+				if (end == start || pairs[end] != pairs[end - 1]) {
+					numTerms++;
+				}
+				end++;
+			}
+			int[] postings = new int[numTerms];
+			numTerms = 0;
+			for (int i = start; i < end; i++) {
+				if (i == start || pairs[i] != pairs[i - 1]) {
+					postings[numTerms++] = (int) pairs[i];
+				}
+			}
+			trigrams.put(keys.get(id), postings);
+			start = end;
+		}
+	}
+	
+	/**
+	 * Packs the three characters at the given position into a single key.
+	 * @param text the text
+	 * @param position the position of the first character
+	 * @return the trigram key
+	 */
+	private static long trigram(String text, int position) {
+		return ((long) text.charAt(position) << 32) | ((long) text.charAt(position + 1) << 16) | text.charAt(position + 2);
+	}
+	
+	/**
+	 * @return the number of terms (names and aliases) in the index
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return true if this index records the changes made to an earlier index
+	 */
+	boolean isOverlay() {
+		return base != null;
+	}
+	
+	/**
+	 * Finds the scale names that best match the given query, ignoring case. Aliases match as the name
+	 * they refer to. Names containing the query, and then names close to the query (within 1 typing
+	 * mistake, or 2 for queries of 8 or more characters), are only searched for when there are not
+	 * enough better matches.
+	 * @param query the full or partial name to search for
+	 * @param limit the maximum number of names to find
+	 * @return the list of matching scale names, best match first (and in scale set order for equally
+	 * good matches)
+	 */
+	public List<String> search(String query, int limit) {
+		String text = normalise(query);
+		if (text.isEmpty() || limit <= 0) {
+			return Collections.emptyList();
+		}
+		if (isOverlay()) {
+			return searchChanges(text, limit);
+		}
+		
+		long[] best = selectBest(rankNames(text, limit), limit);
+		List<String> result = new ArrayList<>(best.length);
+		for (long entry : best) {
+			result.add(names[(int) entry]);
+		}
+		return result;
+	}
+	
+	/**
+	 * Finds the scale names that best match the given query in an index recording changes, merging
+	 * the matches from the earlier index with the matches from the added names.
+	 * @param text the normalised query
+	 * @param limit the maximum number of names to find
+	 * @return the list of matching scale names, best match first
+	 */
+	private List<String> searchChanges(String text, int limit) {
+		// find enough matches in the earlier index to replace any removed names
+		int baseLimit = limit + removed.size();
+		long[] fromBase = base.selectBest(base.rankNames(text, baseLimit), baseLimit);
+		long[] fromAdded = added.selectBest(added.rankNames(text, limit), limit);
+		
+		// merge the matches in rank order, with equally good matches in scale set order
+		List<String> result = new ArrayList<>(Math.min(limit, fromBase.length + fromAdded.length));
+		int i = 0;
+		int j = 0;
+		while (result.size() < limit && (i < fromBase.length || j < fromAdded.length)) {
+			if (i < fromBase.length && removed.contains(base.names[(int) fromBase[i]])) {
+				i++;
+				continue;
+			}
+			boolean fromBaseFirst = j == fromAdded.length;
+			if (i < fromBase.length && j < fromAdded.length) {
+				int baseRank = (int) (fromBase[i] >>> 32);
+				int addedRank = (int) (fromAdded[j] >>> 32);
+				fromBaseFirst = baseRank != addedRank ? baseRank < addedRank
+						: base.names[(int) fromBase[i]].compareToIgnoreCase(added.names[(int) fromAdded[j]]) <= 0;
+			}
+			result.add(fromBaseFirst ? base.names[(int) fromBase[i++]] : added.names[(int) fromAdded[j++]]);
+		}
+		return result;
+	}
+	
+	/**
+	 * Finds the best rank of each name for the given query. Names containing the query, and names
+	 * close to it, are only searched for when fewer than the given number of names have been found.
+	 * @param text the normalised query
+	 * @param limit the number of names wanted
+	 * @return the best rank of each name
+	 */
+	private int[] rankNames(String text, int limit) {
+		int[] ranks = new int[names.length];
+		Arrays.fill(ranks, NO_MATCH);
+		int found = searchPrefixes(text, ranks);
+		if (found < limit && text.length() >= 3) {
+			found += searchSubstrings(text, ranks);
+		}
+		if (found < limit) {
+			searchSimilar(text, ranks);
+		}
+		return ranks;
+	}
+	
+	/**
+	 * Ranks the names with a term or word of a term starting with the query, using the trie.
+	 * @param text the normalised query
+	 * @param ranks the best rank of each name, which is updated
+	 * @return the number of names that were ranked for the first time
+	 */
+	private int searchPrefixes(String text, int[] ranks) {
+		// follow the path of the query through the trie
+		int node = 0;
+		for (int i = 0; i < text.length() && node != -1; i++) {
+			int child = firstChildren[node];
+			while (child != -1 && nodeChars[child] != text.charAt(i)) {
+				child = nextSiblings[child];
+			}
+			node = child;
+		}
+		if (node == -1) {
+			return 0;
+		}
+		
+		int found = 0;
+		for (int key = keyStarts[node]; key < keyEnds[node]; key++) {
+			int term = keyTerms[key];
+			int rank;
+			if (!keyWholeTerms[key]) {
+				rank = WORD_PREFIX;
+			} else {
+				rank = key < exactEnds[node] ? EXACT : PREFIX;
+			}
+			found += rank(ranks, term, rank);
+		}
+		return found;
+	}
+	
+	/**
+	 * Ranks the names with a term containing the query, using the trigram index to find the terms
+	 * containing every trigram of the query.
+	 * @param text the normalised query (at least 3 characters)
+	 * @param ranks the best rank of each name, which is updated
+	 * @return the number of names that were ranked for the first time
+	 */
+	private int searchSubstrings(String text, int[] ranks) {
+		// start from the trigram with the fewest terms
+		int[] smallest = null;
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			int[] postings = trigrams.get(trigram(text, i));
+			if (postings == null) {
+				return 0;
+			}
+			if (smallest == null || postings.length < smallest.length) {
+				smallest = postings;
+			}
+		}
+		
+		int found = 0;
+		for (int term : smallest) {
+			if (terms[term].contains(text)) {
+				found += rank(ranks, term, SUBSTRING);
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Ranks the names with a term close to the query. The terms sharing the most trigrams with the
+	 * query are compared with it, and are ranked by the fewest typing mistakes (insertions, deletions,
+	 * substitutions or swaps of neighbouring characters) needed to change the query into the start of
+	 * one of the term's words.
+	 * @param text the normalised query
+	 * @param ranks the best rank of each name, which is updated
+	 */
+	private void searchSimilar(String text, int[] ranks) {
+		// allow 1 mistake in short queries and 2 in longer ones
+		int maxMistakes = text.length() < 8 ? 1 : 2;
+		String padded = " " + text + " ";
+		
+		// find the postings of the trigrams of the query, ignoring trigrams found in most terms as
+		// they don't help tell terms apart
+		int[][] postingLists = new int[padded.length() - 2][];
+		int numTrigrams = 0;
+		int numPostings = 0;
+		for (int i = 0; i + 3 <= padded.length(); i++) {
+			int[] postings = trigrams.get(trigram(padded, i));
+			if (postings == null) {
+				numTrigrams++;
+			} else if (postings.length <= terms.length / 4 || terms.length <= MAX_CANDIDATES) {
+				postingLists[numTrigrams++] = postings;
+				numPostings += postings.length;
+			}
+		}
+		
+		// count the trigrams each term shares with the query (each mistake changes at most 4 of them)
+		int[] shared = new int[terms.length];
+		int[] touched = new int[Math.min(numPostings, terms.length)];
+		int numTouched = 0;
+		for (int i = 0; i < numTrigrams; i++) {
+			if (postingLists[i] == null) {
+				continue;
+			}
+			for (int term : postingLists[i]) {
+				if (shared[term]++ == 0) {
+					touched[numTouched++] = term;
+				}
+			}
+		}
+		int minShared = Math.max(1, numTrigrams - 4 * maxMistakes);
+		
+		// only compare the terms sharing the most trigrams with the query
+		int[] numSharing = new int[numTrigrams + 1];
+		for (int i = 0; i < numTouched; i++) {
+			numSharing[shared[touched[i]]]++;
+		}
+		int cutoff = numTrigrams;
+		int numCandidates = numSharing[cutoff];
+		while (cutoff > minShared && numCandidates + numSharing[cutoff - 1] <= MAX_CANDIDATES) {
+			cutoff--;
+			numCandidates += numSharing[cutoff];
+		}
+		
+		int[] row0 = new int[text.length() + 1];
+		int[] row1 = new int[text.length() + 1];
+		int[] row2 = new int[text.length() + 1];
+		int compared = 0;
+		for (int i = 0; i < numTouched && compared < MAX_CANDIDATES; i++) {
+			int term = touched[i];
+			if (shared[term] < cutoff || shared[term] < minShared || ranks[termNames[term]] < FUZZY * 2) {
+				continue;
+			}
+			compared++;
+			int mistakes = countMistakes(text, terms[term], maxMistakes, row0, row1, row2);
+			if (mistakes <= maxMistakes) {
+				rank(ranks, term, FUZZY + mistakes);
+			}
+		}
+	}
+	
+	/**
+	 * Finds the fewest typing mistakes needed to change the query into the start of a word of the
+	 * given term.
+	 * @param text the normalised query
+	 * @param term the term
+	 * @param maxMistakes the largest number of mistakes of interest
+	 * @param row0 a reused row of the distance table
+	 * @param row1 a reused row of the distance table
+	 * @param row2 a reused row of the distance table
+	 * @return the number of mistakes (more than the maximum if no word is close enough)
+	 */
+	private static int countMistakes(String text, String term, int maxMistakes, int[] row0, int[] row1, int[] row2) {
+		int best = maxMistakes + 1;
+		for (int start = 0; start < term.length() && best > 0; start++) {
+			if (!isWordStart(term, start)) {
+				continue;
+			}
+			
+			// compare the query with the term from this word, with the distance table stored by
+			// column (one column per term character) so that the end of the match can be anywhere
+			int[] beforePrevious = row0;
+			int[] previous = row1;
+			int[] current = row2;
+			for (int i = 0; i <= text.length(); i++) {
+				previous[i] = i;
+			}
+			best = Math.min(best, previous[text.length()]);
+			int end = Math.min(term.length(), start + text.length() + maxMistakes);
+			for (int j = start; j < end; j++) {
+				current[0] = j - start + 1;
+				int columnMin = current[0];
+				for (int i = 1; i <= text.length(); i++) {
+					int cost = text.charAt(i - 1) == term.charAt(j) ? 0 : 1;
+					int distance = Math.min(Math.min(previous[i] + 1, current[i - 1] + 1), previous[i - 1] + cost);
+					if (i > 1 && j > start && text.charAt(i - 1) == term.charAt(j - 1) && text.charAt(i - 2) == term.charAt(j)) {
+						distance = Math.min(distance, beforePrevious[i - 2] + 1);
+					}
+					current[i] = distance;
+					columnMin = Math.min(columnMin, distance);
+				}
+				best = Math.min(best, current[text.length()]);
+				
+				int[] swap = beforePrevious;
+				beforePrevious = previous;
+				previous = current;
+				current = swap;
+				if (columnMin > maxMistakes) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * Records the rank of a matching term for its name if it is better than the name's current rank.
+	 * A match with an alias ranks just below the same kind of match with a scale name.
+	 * @param ranks the best rank of each name
+	 * @param term the position of the term
+	 * @param rank the rank of the match
+	 * @return 1 if the name had not been ranked before, otherwise 0
+	 */
+	private int rank(int[] ranks, int term, int rank) {
+		int name = termNames[term];
+		int current = ranks[name];
+		int termRank = rank * 2 + (term >= names.length ? 1 : 0);
+		if (termRank < current) {
+			ranks[name] = termRank;
+		}
+		return current == NO_MATCH ? 1 : 0;
+	}
+	
+	/**
+	 * Selects the best ranked names, keeping a small sorted array of the best so far.
+	 * @param ranks the best rank of each name
+	 * @param limit the maximum number of names to select
+	 * @return the rank and position of each selected name (packed as the rank followed by the
+	 * position), best first
+	 */
+	private long[] selectBest(int[] ranks, int limit) {
+		// each entry holds the rank followed by the name position, so entries sort by both
+		long[] best = new long[Math.min(limit, names.length)];
+		int numBest = 0;
+		for (int name = 0; name < ranks.length; name++) {
+			if (ranks[name] == NO_MATCH) {
+				continue;
+			}
+			long entry = ((long) ranks[name] << 32) | name;
+			if (numBest == best.length && entry >= best[numBest - 1]) {
+				continue;
+			}
+			int position = numBest == best.length ? numBest - 1 : numBest++;
+			while (position > 0 && best[position - 1] > entry) {
+				best[position] = best[position - 1];
+				position--;
+			}
+			best[position] = entry;
+		}
+		
+		return Arrays.copyOf(best, numBest);
+	}
+	
+	/**
+	 * Creates the map of common alternative scale names.
+	 * @return the unmodifiable map from each alias to the scale name it refers to
+	 */
+	private static Map<String, String> createDefaultAliases() {
+		Map<String, String> aliases = new LinkedHashMap<>();
+		aliases.put("ionian", "major");
+		aliases.put("aeolian", "natural minor");
+		aliases.put("minor", "natural minor");
+		aliases.put("melodic minor", "melodic minor (ascending)");
+		aliases.put("jazz minor", "melodic minor (ascending)");
+		aliases.put("diminished", "octatonic (tone-semitone)");
+		aliases.put("half-whole diminished", "octatonic (semitone-tone)");
+		aliases.put("whole tone", "whole-tone");
+		aliases.put("altered", "super-locrian");
+		aliases.put("locrian #2", "half diminished");
+		aliases.put("lydian dominant", "acoustic");
+		aliases.put("mixolydian b6", "aeolian dominant");
+		aliases.put("double harmonic", "Arabic");
+		return Collections.unmodifiableMap(aliases);
+	}
+}
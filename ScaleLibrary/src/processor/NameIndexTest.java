@@ -0,0 +1,94 @@
+package processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import datamanagement.Reader;
+import util.Scale;
+
+class NameIndexTest {
+
+	NameIndex index;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		// index every scale in the base library
+		Reader reader = new Reader("scales.txt", "custom.txt");
+		this.index = new NameIndex(new ScaleCatalog(reader.readBaseScales()).getScales());
+	}
+	
+	@Test
+	void testSearchPrefix() {
+		// test exact names come before names starting with the query, then names with a word starting with it
+		assertEquals(List.of("major", "major pentatonic"), this.index.search("major", 5));
+		assertEquals(List.of("lydian", "lydian augmented", "acoustic", "mixolydian"), this.index.search("LYDIAN", 4));
+		assertEquals(List.of("locrian", "half diminished", "super-locrian"), this.index.search("locr", 5));
+		assertEquals(List.of("melodic minor (ascending)", "melodic minor (descending)"), this.index.search("  melodic   minor ", 2));
+		assertEquals(List.of("melodic minor (ascending)"), this.index.search("asc", 5));
+	}
+	
+	@Test
+	void testSearchAlias() {
+		// test aliases find the scale they refer to, and names still match themselves first
+		assertEquals(List.of("natural minor"), this.index.search("minor", 1));
+		assertEquals(List.of("super-locrian"), this.index.search("altered", 1));
+		assertEquals(List.of("aeolian", "natural minor"), this.index.search("aeolian", 2));
+		assertEquals(List.of("octatonic (tone-semitone)", "half diminished", "octatonic (semitone-tone)"), this.index.search("diminished", 5));
+	}
+	
+	@Test
+	void testSearchSubstring() {
+		// test names containing the query within a word
+		assertEquals(List.of("chromatic"), this.index.search("omat", 5));
+		assertTrue(this.index.search("tonic", 10).containsAll(List.of("major pentatonic", "minor pentatonic")));
+	}
+	
+	@Test
+	void testSearchTypos() {
+		// test names within a couple of typing mistakes
+		assertEquals(List.of("dorian"), this.index.search("dorain", 1), "swapped letters");
+		assertEquals(List.of("mixolydian", "aeolian dominant"), this.index.search("mixolidian", 5), "substituted letter, and in an alias");
+		assertEquals(List.of("harmonic minor"), this.index.search("harmnic", 1), "missing letter");
+		assertEquals(List.of("phrygian"), this.index.search("phrygain", 1));
+		assertTrue(this.index.search("xyzzy", 5).isEmpty());
+		assertTrue(this.index.search(" ", 5).isEmpty());
+	}
+	
+	@Test
+	void testSearchLimit() {
+		// test the number of results is limited, keeping the best matches
+		assertEquals(List.of("major"), this.index.search("maj", 1));
+		assertTrue(this.index.search("a", 3).size() == 3);
+		assertTrue(this.index.search("major", 0).isEmpty());
+	}
+	
+	@Test
+	void testCustomAliases() {
+		// test aliases are only used for names in the index
+		List<Scale> scales = new ArrayList<>();
+		scales.add(new Scale("major", null, false));
+		scales.add(new Scale("major", null, false));
+		NameIndex custom = new NameIndex(scales, Map.of("ionian", "major", "aeolian", "natural minor"));
+		assertEquals(2, custom.size(), "duplicate names should be indexed once");
+		assertEquals(List.of("major"), custom.search("ionian", 5));
+		assertTrue(custom.search("aeolian", 5).isEmpty());
+	}
+	
+	@Test
+	void testSearchLargeIndex() {
+		// test the best match is found among many names (the search speed is measured by NameIndexBenchmark)
+		List<Scale> scales = new ArrayList<>();
+		for (int i = 0; i < 50000; i++) {
+			scales.add(new Scale("custom scale " + Integer.toString(i, 36) + " mode " + (i % 7), null, false));
+		}
+		NameIndex large = new NameIndex(scales);
+		assertEquals(List.of("custom scale 1z2 mode 3"), large.search("1z2", 1));
+		assertEquals(10, large.search("cusotm scale zz", 10).size());
+	}
+}
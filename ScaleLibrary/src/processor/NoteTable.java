@@ -0,0 +1,144 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import util.Note;
+import util.Scale;
+import util.ScalePattern;
+
+/**
+ * An immutable table of the note names of every scale in a scale set for every root note. Scales
+ * with the same interval pattern share one row of the table, and a table created after a change to
+ * the scale set reuses the rows of the previous table, so only new interval patterns are computed.
+ * @author Joel Gibson
+ */
+public class NoteTable {
+	/**
+	 * The position of each note in the list of root notes, indexed by note code (-1 if not a root).
+	 */
+	private static final int[] rootIndexes = createRootIndexes();
+	
+	/**
+	 * The number of root notes for each scale.
+	 */
+	private static final int numRoots = Note.getRootNotes().size();
+	
+	/**
+	 * The scales in the table, in scale set order.
+	 */
+	private Scale[] scales;
+	
+	/**
+	 * The row of note names used by each scale (indexed by root position), indexed by the scale
+	 * position.
+	 */
+	private List<String>[][] rows;
+	
+	/**
+	 * The row of note names of each interval pattern in the table.
+	 */
+	private Map<ScalePattern, List<String>[]> patternRows = new IdentityHashMap<>();
+	
+	/**
+	 * Creates a new note table for the given scales, generating the scales in parallel.
+	 * @param scales the list of scales to include
+	 */
+	public NoteTable(List<Scale> scales) {
+		this(scales, null);
+	}
+	
+	/**
+	 * Creates a new note table for the given scales, reusing the rows of the given table for interval
+	 * patterns it contains and generating the other scales in parallel.
+	 * @param scales the list of scales to include
+	 * @param previous the table to reuse rows from, or null to generate every row
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public NoteTable(List<Scale> scales, NoteTable previous) {
+		List<Note> roots = Note.getRootNotes();
+		this.scales = scales.toArray(new Scale[0]);
+		this.rows = new List[this.scales.length][];
+		
+		// give each distinct interval pattern a row, using the first scale with a new pattern
+		List<Scale> newRowScales = new ArrayList<>();
+		List<List<String>[]> newRows = new ArrayList<>();
+		for (int i = 0; i < this.scales.length; i++) {
+			ScalePattern pattern = this.scales[i].getPattern();
+			List<String>[] row = patternRows.get(pattern);
+			if (row == null && previous != null) {
+				row = previous.patternRows.get(pattern);
+				if (row != null) {
+					patternRows.put(pattern, row);
+				}
+			}
+			if (row == null) {
+				row = new List[numRoots];
+				patternRows.put(pattern, row);
+				newRowScales.add(this.scales[i]);
+				newRows.add(row);
+			}
+			rows[i] = row;
+		}
+		
+		// each entry is independent, so split the work over the common fork-join pool
+		IntStream.range(0, newRows.size() * numRoots).parallel().forEach(i -> {
+			List<Note> scale = newRowScales.get(i / numRoots).getScale(roots.get(i % numRoots));
+			newRows.get(i / numRoots)[i % numRoots] = toNoteNames(scale);
+		});
+	}
+	
+	/**
+	 * Checks whether the table contains the given scale at the given position and root.
+	 * @param index the position of the scale in the scale set
+	 * @param scale the scale expected at that position
+	 * @param root the root note of the scale
+	 * @return true if the notes can be read from the table
+	 */
+	public boolean contains(int index, Scale scale, Note root) {
+		return index >= 0 && index < scales.length && scales[index] == scale && rootIndexes[root.getCode()] != -1;
+	}
+	
+	/**
+	 * Gets the note names of the scale at the given position with the given root.
+	 * @param index the position of the scale in the scale set
+	 * @param root the root note of the scale
+	 * @return the unmodifiable list of note names, or null if the scale could not be created
+	 */
+	public List<String> getNotes(int index, Note root) {
+		return rows[index][rootIndexes[root.getCode()]];
+	}
+	
+	/**
+	 * Converts the given notes to an unmodifiable list of note names.
+	 * @param scale the list of notes
+	 * @return the list of note names, or null if the scale is null
+	 */
+	protected static List<String> toNoteNames(List<Note> scale) {
+		if (scale == null) {
+			return null;
+		}
+		
+		List<String> names = new ArrayList<>(scale.size());
+		for (Note note : scale) {
+			names.add(note.toString());
+		}
+		return Collections.unmodifiableList(names);
+	}
+	
+	/**
+	 * Finds the position of each root note in the list of root notes.
+	 * @return the array of positions, indexed by note code
+	 */
+	private static int[] createRootIndexes() {
+		int[] indexes = new int[Note.NUM_CODES];
+		for (int code = 0; code < Note.NUM_CODES; code++) {
+			indexes[code] = Note.getRootNotes().indexOf(Note.fromCode(code));
+		}
+		return indexes;
+	}
+}
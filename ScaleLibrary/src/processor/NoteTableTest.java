@@ -0,0 +1,86 @@
+package processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.Interval;
+import util.Note;
+import util.Scale;
+
+class NoteTableTest {
+	
+	Scale testScale1;
+	Scale testScale2;
+	NoteTable table;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		List<Interval> intervals1 = new ArrayList<>();
+		intervals1.add(Interval.getInterval("1"));
+		intervals1.add(Interval.getInterval("b3"));
+		intervals1.add(Interval.getInterval("bb7"));
+		this.testScale1 = new Scale("test1", intervals1, false);
+		
+		List<Interval> intervals2 = new ArrayList<>();
+		intervals2.add(Interval.getInterval("1"));
+		intervals2.add(Interval.getInterval("#4"));
+		this.testScale2 = new Scale("test2", intervals2, true);
+		
+		List<Scale> scales = new ArrayList<>();
+		scales.add(this.testScale1);
+		scales.add(this.testScale2);
+		this.table = new NoteTable(scales);
+	}
+
+	@Test
+	void testContains() {
+		// test scales in the table
+		assertTrue(this.table.contains(0, this.testScale1, Note.getNote("C")));
+		assertTrue(this.table.contains(1, this.testScale2, Note.getNote("F#")));
+		
+		// test a scale that is not at the given position
+		assertFalse(this.table.contains(0, this.testScale2, Note.getNote("C")), "scale at position 0 is test1");
+		assertFalse(this.table.contains(2, this.testScale1, Note.getNote("C")), "position outside of the table");
+		
+		// test a root note with two accidentals
+		assertFalse(this.table.contains(0, this.testScale1, Note.getNote("Cx")), "only root notes with one accidental are precomputed");
+	}
+
+	@Test
+	void testGetNotes() {
+		// test some valid scales
+		assertEquals(List.of("C", "Eb", "Bbb"), this.table.getNotes(0, Note.getNote("C")));
+		assertEquals(List.of("C#", "G"), this.table.getNotes(1, Note.getNote("C#")), "Fx should have been simplified to G");
+		
+		// test a scale that would require more than 2 sharps/flats
+		assertNull(this.table.getNotes(0, Note.getNote("Cb")));
+		
+		// test the notes were also stored in the scale
+		assertSame(Note.getNote("Eb"), this.testScale1.getScale(Note.getNote("C")).get(1));
+	}
+
+	@Test
+	void testSharedRows() {
+		// test scales with the same interval pattern share their note names
+		Scale alias = new Scale("alias", this.testScale1.getIntervals(), false);
+		NoteTable table = new NoteTable(List.of(this.testScale1, this.testScale2, alias));
+		assertTrue(table.contains(2, alias, Note.getNote("C")));
+		assertSame(table.getNotes(0, Note.getNote("D")), table.getNotes(2, Note.getNote("D")));
+		assertEquals(List.of("C#", "G"), table.getNotes(1, Note.getNote("C#")));
+	}
+
+	@Test
+	void testReusedRows() {
+		// test a table for a changed scale set reuses the rows of unchanged patterns
+		Scale added = new Scale("added", List.of(Interval.getInterval("1"), Interval.getInterval("5")), false);
+		NoteTable table = new NoteTable(List.of(added, this.testScale1), this.table);
+		assertSame(this.table.getNotes(0, Note.getNote("D")), table.getNotes(1, Note.getNote("D")));
+		assertEquals(List.of("D", "A"), table.getNotes(0, Note.getNote("D")));
+		assertFalse(table.contains(2, this.testScale2, Note.getNote("C")), "removed scales should not be in the table");
+	}
+}
@@ -1,26 +1,82 @@
 package processor;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import datamanagement.MidiWriter;
 import datamanagement.Reader;
+import datamanagement.SnapshotWriter;
+import datamanagement.WavWriter;
 import datamanagement.Writer;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
 import util.Interval;
 import util.Note;
 import util.Scale;
 
 /**
- * The processor for handling scale data.
+ * The processor for handling scale data. The scale sets are published as immutable snapshots, so
+ * any number of threads can read them without locking while changes are made one at a time.
  * @author Joel Gibson
  */
 public class Processor {
 	/**
-	 * The map containing each scale set ("base" and "custom").
+	 * The latency of finding the notes of a scale.
 	 */
-	protected Map<String, List<Scale>> scaleSets = new HashMap<>();
+	private static final LatencyHistogram getScaleNotesLatency = Metrics.createLatencyHistogram("getScaleNotes");
+	
+	/**
+	 * The latency of adding a custom scale.
+	 */
+	private static final LatencyHistogram addCustomScaleLatency = Metrics.createLatencyHistogram("addCustomScale");
+	
+	/**
+	 * The latency of deleting a custom scale.
+	 */
+	private static final LatencyHistogram deleteCustomScaleLatency = Metrics.createLatencyHistogram("deleteCustomScale");
+	
+	/**
+	 * The result of every query for a scale that can't be spelled.
+	 */
+	private static final ScaleQueryResult UNSPELLABLE = new ScaleQueryResult(QueryStatus.UNSPELLABLE, null);
+	
+	/**
+	 * The result of every query for a missing scale.
+	 */
+	private static final ScaleQueryResult NO_SUCH_SCALE = new ScaleQueryResult(QueryStatus.NO_SUCH_SCALE, null);
+	
+	/**
+	 * The result of every query for a missing scale set.
+	 */
+	private static final ScaleQueryResult NO_SUCH_SCALE_SET = new ScaleQueryResult(QueryStatus.NO_SUCH_SCALE_SET, null);
+	
+	/**
+	 * The current version of the scale sets ("base" and "custom"). Each read of this field sees a
+	 * consistent library; changes replace it with a new snapshot.
+	 */
+	protected volatile LibrarySnapshot library;
+	
+	/**
+	 * Held while changing the scale sets, so that each change is made to the latest snapshot.
+	 */
+	private final Object writeLock = new Object();
+	
+	/**
+	 * The reader for loading the scale sets again when their files change.
+	 */
+	private Reader reader;
 	
 	/**
 	 * The writer for saving custom scales to file.
@@ -28,14 +84,204 @@ public class Processor {
 	private Writer writer;
 	
 	/**
-	 * Creates a new processor with the given reader and writer.
+	 * Determines when the note tables are created.
+	 */
+	private WarmUpPolicy warmUpPolicy;
+	
+	/**
+	 * Completes when the most recently requested warm-up has finished. Each warm-up runs after the
+	 * previous one, so it can reuse the rows of the note table built before it.
+	 */
+	private volatile CompletableFuture<Void> warmUp = CompletableFuture.completedFuture(null);
+	
+	/**
+	 * Held while queueing a warm-up.
+	 */
+	private final Object warmUpLock = new Object();
+	
+	/**
+	 * The most recently built note table of each scale set (only used by warm-ups).
+	 */
+	private final Map<String, NoteTable> builtNoteTables = new ConcurrentHashMap<>();
+	
+	/**
+	 * Creates a new processor with the given reader and writer, creating scales only when requested.
 	 * @param reader the reader for loading the input data
 	 * @param writer the writer for saving custom scales to file
 	 */
 	public Processor(Reader reader, Writer writer) {
-		scaleSets.put("base", reader.readBaseScales());
-		scaleSets.put("custom", reader.readCustomScales());
+		this(reader, writer, WarmUpPolicy.LAZY);
+	}
+	
+	/**
+	 * Creates a new processor with the given reader, writer and warm-up policy.
+	 * @param reader the reader for loading the input data
+	 * @param writer the writer for saving custom scales to file
+	 * @param warmUpPolicy determines when the notes of every scale are precomputed
+	 */
+	public Processor(Reader reader, Writer writer, WarmUpPolicy warmUpPolicy) {
+		Map<String, ScaleCatalog> scaleSets = new HashMap<>();
+		scaleSets.put("base", new ScaleCatalog(reader.readBaseScales()));
+		scaleSets.put("custom", new ScaleCatalog(reader.readCustomScales()));
+		this.library = new LibrarySnapshot(scaleSets, 0);
+		this.reader = reader;
 		this.writer = writer;
+		this.warmUpPolicy = warmUpPolicy;
+		warmUp("base", scaleSets.get("base"));
+		warmUp("custom", scaleSets.get("custom"));
+	}
+	
+	/**
+	 * @return the current version of the scale sets, which will not change
+	 */
+	public LibrarySnapshot getSnapshot() {
+		return library;
+	}
+	
+	/**
+	 * Changes a copy of the given scale set and publishes it in a new snapshot. Changes are made one at
+	 * a time, and readers see either the old or the new scale set, never one part way through the change.
+	 * The notes of the new scale set are warmed up after the change is published, without holding the
+	 * lock, so an eager warm-up never blocks other changes.
+	 * @param scaleSet the scale set to change ("base" or "custom")
+	 * @param change the change to make to the copy of the scale set
+	 * @return the new scale set
+	 */
+	protected ScaleCatalog updateScaleSet(String scaleSet, Consumer<ScaleCatalog> change) {
+		ScaleCatalog scales;
+		synchronized (writeLock) {
+			scales = publishChange(scaleSet, change);
+		}
+		warmUp(scaleSet, scales);
+		return scales;
+	}
+	
+	/**
+	 * Changes a copy of the given scale set and publishes it in a new snapshot, without warming it up.
+	 * Must be called while holding the write lock.
+	 * @param scaleSet the scale set to change ("base" or "custom")
+	 * @param change the change to make to the copy of the scale set
+	 * @return the new scale set
+	 */
+	private ScaleCatalog publishChange(String scaleSet, Consumer<ScaleCatalog> change) {
+		ScaleCatalog scales = new ScaleCatalog(library.getScaleSet(scaleSet));
+		change.accept(scales);
+		library = library.withScaleSet(scaleSet, scales);
+		return scales;
+	}
+	
+	/**
+	 * Reads the file of the given scale set again and publishes any changes. Scales that are unchanged
+	 * (with the same name, intervals and simplification) are kept, along with their IDs and stored
+	 * notes, so only added and removed scales affect the new snapshot. Queries are not blocked while
+	 * the file is read.
+	 * @param scaleSet the scale set to reload ("base" or "custom")
+	 * @return true if the scale set changed
+	 */
+	public boolean reloadScaleSet(String scaleSet) {
+		ScaleCatalog reloaded;
+		synchronized (writeLock) {
+			reloaded = reload(scaleSet);
+		}
+		if (reloaded == null) {
+			return false;
+		}
+		warmUp(scaleSet, reloaded);
+		return true;
+	}
+	
+	/**
+	 * Reads the file of the given scale set again and publishes any changes, without warming up the
+	 * new scale set. Must be called while holding the write lock.
+	 * @param scaleSet the scale set to reload ("base" or "custom")
+	 * @return the new scale set, or null if the scale set didn't change
+	 */
+	private ScaleCatalog reload(String scaleSet) {
+		List<Scale> scales = scaleSet.equals("base") ? reader.readBaseScales() : reader.readCustomScales();
+		ScaleCatalog current = library.getScaleSet(scaleSet);
+		
+		// match each scale read to an unmatched loaded scale with the same name and pattern
+		Map<String, List<Scale>> unmatched = new HashMap<>();
+		for (Scale scale : current) {
+			unmatched.computeIfAbsent(scale.getName(), name -> new ArrayList<>()).add(scale);
+		}
+		List<Scale> added = new ArrayList<>();
+		for (Scale scale : scales) {
+			List<Scale> sameName = unmatched.get(scale.getName());
+			int match = -1;
+			for (int i = 0; sameName != null && i < sameName.size() && match == -1; i++) {
+				if (sameName.get(i).getPattern() == scale.getPattern()) {
+					match = i;
+				}
+			}
+			if (match == -1) {
+				added.add(scale);
+			} else {
+				sameName.remove(match);
+			}
+		}
+		List<Scale> removed = new ArrayList<>();
+		for (List<Scale> sameName : unmatched.values()) {
+			removed.addAll(sameName);
+		}
+		if (added.isEmpty() && removed.isEmpty()) {
+			return null;
+		}
+		
+		// publish the new version in a single swap
+		return publishChange(scaleSet, catalog -> {
+			for (Scale scale : removed) {
+				catalog.remove(catalog.indexOf(scale));
+			}
+			for (Scale scale : added) {
+				catalog.add(scale);
+			}
+		});
+	}
+	
+	/**
+	 * Reloads the given scale set if any of the given files were changed by another program. Files
+	 * that are just as the writer of this processor left them are ignored, so saving a change does not
+	 * cause a reload of the scale set it was made to.
+	 * @param scaleSet the scale set to reload ("base" or "custom")
+	 * @param filenames the changed files belonging to the scale set
+	 * @return true if the scale set changed
+	 */
+	public boolean reloadScaleSet(String scaleSet, Collection<String> filenames) {
+		ScaleCatalog reloaded = null;
+		synchronized (writeLock) {
+			for (String filename : filenames) {
+				if (!writer.isUnchangedSinceWrite(filename)) {
+					reloaded = reload(scaleSet);
+					break;
+				}
+			}
+		}
+		if (reloaded == null) {
+			return false;
+		}
+		warmUp(scaleSet, reloaded);
+		return true;
+	}
+	
+	/**
+	 * Checks whether the given name can be used for a custom scale. Names are stored one scale per
+	 * line with ';' between fields, so names must not contain ';', ',' or control characters (such as
+	 * line breaks), and must not be blank.
+	 * @param name the scale name
+	 * @return true if the name is valid
+	 */
+	public static boolean isValidScaleName(String name) {
+		if (name == null || name.isBlank()) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c == ';' || c == ',' || Character.isISOControl(c) || c == '\u2028' || c == '\u2029') {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	/**
@@ -43,11 +289,23 @@ public class Processor {
 	 * @param name the scale name/type
 	 * @param intervals the list of intervals in the scale
 	 * @param simplify whether the notes should be simplified using enharmonics
+	 * @return the ID of the new scale
+	 * @throws IllegalArgumentException if the name is not valid
 	 */
-	public void addCustomScale(String name, List<Interval> intervals, boolean simplified) {
-		scaleSets.get("custom").add(new Scale(name, intervals, simplified));
-		writeCustomScales();
-		Collections.sort(scaleSets.get("custom"));
+	public long addCustomScale(String name, List<Interval> intervals, boolean simplified) {
+		if (!isValidScaleName(name)) {
+			throw new IllegalArgumentException("Invalid scale name");
+		}
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		Scale scale = new Scale(name, intervals, simplified);
+		ScaleCatalog customScales = updateScaleSet("custom", scales -> {
+			scales.add(scale);
+			writer.addScale(scale, scales.getScales());
+		});
+		if (Metrics.ENABLED) {
+			addCustomScaleLatency.recordSince(start);
+		}
+		return customScales.getId(scale);
 	}
 	
 	/**
@@ -55,21 +313,190 @@ public class Processor {
 	 * @param index the position in the list of custom scales
 	 */
 	public void deleteCustomScale(int index) {
-		scaleSets.get("custom").remove(index);
-		writeCustomScales();
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		updateScaleSet("custom", scales -> writer.deleteScale(scales.remove(index), scales.getScales()));
+		if (Metrics.ENABLED) {
+			deleteCustomScaleLatency.recordSince(start);
+		}
+	}
+	
+	/**
+	 * Removes the custom scale with the given ID.
+	 * @param id the ID of the scale
+	 * @return true if the scale was removed, or false if there is no custom scale with the ID
+	 */
+	public boolean deleteCustomScaleById(long id) {
+		synchronized (writeLock) {
+			ScaleCatalog customScales = library.getScaleSet("custom");
+			Scale scale = customScales.getById(id);
+			if (scale == null) {
+				return false;
+			}
+			deleteCustomScale(customScales.indexOf(scale));
+			return true;
+		}
+	}
+	
+	/**
+	 * Removes the first custom scale with the given name.
+	 * @param name the scale name
+	 * @return true if the scale was removed, or false if there is no custom scale with the name
+	 */
+	public boolean deleteCustomScale(String name) {
+		synchronized (writeLock) {
+			ScaleCatalog customScales = library.getScaleSet("custom");
+			Scale scale = customScales.getByName(name);
+			if (scale == null) {
+				return false;
+			}
+			deleteCustomScale(customScales.indexOf(scale));
+			return true;
+		}
 	}
 	
 	/**
 	 * Gets the list of scale names in the given scale set.
 	 * @param scaleSet the scale set to search ("base" or "custom")
-	 * @return the list of scale names
+	 * @return the unmodifiable list of scale names, which doesn't change if the scale set changes
 	 */
 	public List<String> getScaleNames(String scaleSet) {
-		List<String> scaleNames = new ArrayList<>();
-		for (Scale scale : scaleSets.get(scaleSet)) {
-			scaleNames.add(scale.getName());
+		return toScaleNames(library.getScaleSet(scaleSet).getScales());
+	}
+	
+	/**
+	 * Gets the list of scale names in the given scale set that are within the given range, ignoring
+	 * case.
+	 * @param scaleSet the scale set to search ("base" or "custom")
+	 * @param fromName the lowest name (inclusive)
+	 * @param toName the highest name (exclusive)
+	 * @return the unmodifiable list of scale names, in order
+	 */
+	public List<String> getScaleNames(String scaleSet, String fromName, String toName) {
+		return toScaleNames(library.getScaleSet(scaleSet).getRange(fromName, toName));
+	}
+	
+	/**
+	 * Finds the scale names in the given scale set that best match the given full or partial name,
+	 * ignoring case. Names match if they start with, contain a word starting with, or contain the
+	 * query, or if they are within a couple of typing mistakes of it, and common alternative names
+	 * (such as "ionian" for "major") match the name they refer to.
+	 * @param scaleSet the scale set to search ("base" or "custom")
+	 * @param query the full or partial name to search for
+	 * @param limit the maximum number of names to find
+	 * @return the list of matching scale names, best match first
+	 */
+	public List<String> searchScaleNames(String scaleSet, String query, int limit) {
+		return library.getScaleSet(scaleSet).getNameIndex().search(query, limit);
+	}
+	
+	/**
+	 * Finds the positions of the scales in the given scale set whose names best match the given full
+	 * or partial name (see {@link #searchScaleNames}). Every scale with a matching name is found, so
+	 * scales with the same name can still be told apart.
+	 * @param scaleSet the scale set to search ("base" or "custom")
+	 * @param query the full or partial name to search for
+	 * @param limit the maximum number of scales to find
+	 * @return the list of scale positions, best match first (and in scale set order for scales with
+	 * the same name)
+	 */
+	public List<Integer> searchScaleIndexes(String scaleSet, String query, int limit) {
+		ScaleCatalog scales = library.getScaleSet(scaleSet);
+		List<Integer> indexes = new ArrayList<>();
+		for (String name : scales.getNameIndex().search(query, limit)) {
+			for (Scale scale : scales.getAllByName(name)) {
+				if (indexes.size() == limit) {
+					return indexes;
+				}
+				indexes.add(scales.indexOf(scale));
+			}
+		}
+		return indexes;
+	}
+	
+	/**
+	 * Creates a view of the names of the given scales. Published scale sets are never changed, so the
+	 * names don't need to be copied.
+	 * @param scales the scales
+	 * @return the unmodifiable list of scale names
+	 */
+	private static List<String> toScaleNames(List<Scale> scales) {
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				return scales.get(index).getName();
+			}
+			
+			@Override
+			public int size() {
+				return scales.size();
+			}
+		};
+	}
+	
+	/**
+	 * Finds the position of the first scale in the given scale set with the given name.
+	 * @param scaleSet the scale set ("base" or "custom")
+	 * @param name the scale name
+	 * @return the position of the scale, or -1 if there is no scale with the name
+	 */
+	public int getScaleIndex(String scaleSet, String name) {
+		ScaleCatalog scales = library.getScaleSet(scaleSet);
+		Scale scale = scales.getByName(name);
+		return scale == null ? -1 : scales.indexOf(scale);
+	}
+	
+	/**
+	 * Finds the ID of the scale at the given position in the given scale set. The ID stays the same
+	 * when other scales are added or deleted.
+	 * @param scaleSet the scale set ("base" or "custom")
+	 * @param index the position of the scale in the scale set
+	 * @return the scale ID
+	 */
+	public long getScaleId(String scaleSet, int index) {
+		ScaleCatalog scales = library.getScaleSet(scaleSet);
+		return scales.getId(scales.get(index));
+	}
+	
+	/**
+	 * Finds the ID of the first scale in the given scale set with the given name.
+	 * @param scaleSet the scale set ("base" or "custom")
+	 * @param name the scale name
+	 * @return the scale ID, or -1 if there is no scale with the name
+	 */
+	public long getScaleId(String scaleSet, String name) {
+		ScaleCatalog scales = library.getScaleSet(scaleSet);
+		Scale scale = scales.getByName(name);
+		return scale == null ? -1 : scales.getId(scale);
+	}
+	
+	/**
+	 * Finds the list of note names in the first scale with the given name.
+	 * @param scaleSet the scale set ("base" or "custom")
+	 * @param name the scale name
+	 * @param root the root note of the scale being searched
+	 * @return the list of note names
+	 * @throws NoSuchElementException if there is no scale with the name
+	 */
+	public List<String> getScaleNotes(String scaleSet, String name, Note root) {
+		ScaleCatalog scales = library.getScaleSet(scaleSet);
+		return getScaleNotes(scales, scales.indexOf(findScale(scales.getByName(name), name)), root);
+	}
+	
+	/**
+	 * Finds the list of note names in the scale with the given ID.
+	 * @param id the scale ID
+	 * @param root the root note of the scale being searched
+	 * @return the list of note names
+	 * @throws NoSuchElementException if there is no scale with the ID
+	 */
+	public List<String> getScaleNotesById(long id, Note root) {
+		for (ScaleCatalog scales : library.getScaleSets().values()) {
+			Scale scale = scales.getById(id);
+			if (scale != null) {
+				return getScaleNotes(scales, scales.indexOf(scale), root);
+			}
 		}
-		return scaleNames;
+		throw new NoSuchElementException("No scale with ID " + id);
 	}
 	
 	/**
@@ -80,7 +507,42 @@ public class Processor {
 	 * @return the list of note names
 	 */
 	public List<String> getScaleNotes(String scaleSet, int index, Note root) {
-		Scale scale = getScale(scaleSet, index);
+		return getScaleNotes(library.getScaleSet(scaleSet), index, root);
+	}
+	
+	/**
+	 * Finds the list of note names in the scale at the given position in the given scale set.
+	 * @param scales the scale set
+	 * @param index the position of the scale in the scale set
+	 * @param root the root note of the scale being searched
+	 * @return the list of note names
+	 */
+	private List<String> getScaleNotes(ScaleCatalog scales, int index, Note root) {
+		if (!Metrics.ENABLED) {
+			return findScaleNotes(scales, index, root);
+		}
+		long start = System.nanoTime();
+		List<String> notes = findScaleNotes(scales, index, root);
+		getScaleNotesLatency.recordSince(start);
+		return notes;
+	}
+	
+	/**
+	 * Finds the list of note names in the scale with the given parameters, without recording metrics.
+	 * @param scales the scale set
+	 * @param index the position of the scale in the scale set
+	 * @param root the root note of the scale being searched
+	 * @return the list of note names
+	 */
+	private List<String> findScaleNotes(ScaleCatalog scales, int index, Note root) {
+		Scale scale = scales.get(index);
+		
+		// use the precomputed notes if the scale set has been warmed up
+		NoteTable table = scales.getNoteTable();
+		if (table != null && table.contains(index, scale, root)) {
+			return table.getNotes(index, root);
+		}
+		
 		List<Note> notes = scale.getScale(root);
 		
 		// check if all notes could be calculated
@@ -96,11 +558,179 @@ public class Processor {
 		return output;
 	}
 	
+	/**
+	 * Answers a batch of scale queries against a single snapshot of the library. Equal queries are
+	 * only answered once, and the distinct queries are answered in parallel on the common fork-join pool.
+	 * @param queries the queries to answer
+	 * @return the result of each query, in the same order as the queries
+	 */
+	public List<ScaleQueryResult> getScaleNotes(Collection<ScaleQuery> queries) {
+		LibrarySnapshot library = this.library;
+		
+		// find the distinct queries, and which one each query is equal to
+		Map<ScaleQuery, Integer> positions = new HashMap<>();
+		List<ScaleQuery> distinctQueries = new ArrayList<>();
+		int[] resultPositions = new int[queries.size()];
+		int i = 0;
+		for (ScaleQuery query : queries) {
+			Integer position = positions.putIfAbsent(query, distinctQueries.size());
+			if (position == null) {
+				position = distinctQueries.size();
+				distinctQueries.add(query);
+			}
+			resultPositions[i++] = position;
+		}
+		
+		// each distinct query is independent, so split the work over the common fork-join pool
+		ScaleQueryResult[] distinctResults = new ScaleQueryResult[distinctQueries.size()];
+		IntStream.range(0, distinctResults.length).parallel().forEach(j -> {
+			distinctResults[j] = answerQuery(library, distinctQueries.get(j));
+		});
+		
+		List<ScaleQueryResult> results = new ArrayList<>(resultPositions.length);
+		for (int position : resultPositions) {
+			results.add(distinctResults[position]);
+		}
+		return results;
+	}
+	
+	/**
+	 * Answers a stream of scale queries against a single snapshot of the library.
+	 * @param queries the queries to answer
+	 * @return the result of each query, in the same order as the queries
+	 * @see #getScaleNotes(Collection)
+	 */
+	public List<ScaleQueryResult> getScaleNotes(Stream<ScaleQuery> queries) {
+		return getScaleNotes(queries.collect(Collectors.toList()));
+	}
+	
+	/**
+	 * Answers a scale query using the given snapshot of the library.
+	 * @param library the snapshot of the library
+	 * @param query the query to answer
+	 * @return the result of the query
+	 */
+	private static ScaleQueryResult answerQuery(LibrarySnapshot library, ScaleQuery query) {
+		ScaleCatalog scales = library.getScaleSet(query.getScaleSet());
+		if (scales == null) {
+			return NO_SUCH_SCALE_SET;
+		}
+		if (query.getIndex() < 0 || query.getIndex() >= scales.size()) {
+			return NO_SUCH_SCALE;
+		}
+		List<Note> notes = scales.get(query.getIndex()).getScale(query.getRoot());
+		return notes == null ? UNSPELLABLE : new ScaleQueryResult(QueryStatus.OK, notes);
+	}
+	
+	/**
+	 * Finds every scale and root note in the given scale set whose notes match the given notes.
+	 * @param scaleSet the scale set to search ("base" or "custom")
+	 * @param notes the notes to search for
+	 * @param matchType how the scale notes must match the given notes
+	 * @param exactSpelling whether notes only match if they are spelled identically
+	 * @return the list of matches
+	 */
+	public List<ScaleMatch> findScales(String scaleSet, Collection<Note> notes, MatchType matchType, boolean exactSpelling) {
+		return library.getScaleSet(scaleSet).getScaleIndex().findScales(notes, matchType, exactSpelling);
+	}
+	
+	/**
+	 * Enumerates every set of pitch classes containing the root on the common fork-join pool, naming
+	 * the sets after the base and custom scales with the same pitch classes.
+	 * @return the universe of pitch class sets
+	 */
+	public ScaleUniverse enumerateUniverse() {
+		LibrarySnapshot library = this.library;
+		List<Scale> knownScales = new ArrayList<>(library.getScaleSet("base").getScales());
+		knownScales.addAll(library.getScaleSet("custom").getScales());
+		return ScaleUniverse.enumerate(ForkJoinPool.commonPool(), knownScales);
+	}
+	
+	/**
+	 * Precomputes the notes of every scale in the given scale set for every root note, according to
+	 * the warm-up policy. The scale sets are never changed once published, so the tables always match
+	 * the scale set they are attached to. Warm-ups run one at a time, and only compute the rows for
+	 * interval patterns that were not in the previously built table. A warm-up is skipped if a newer
+	 * version of the scale set has been published before it starts, so a burst of changes leads to
+	 * one table for the latest version.
+	 * @param scaleSet the name of the scale set ("base" or "custom")
+	 * @param scales the published scale set to warm up
+	 */
+	protected void warmUp(String scaleSet, ScaleCatalog scales) {
+		if (warmUpPolicy == WarmUpPolicy.LAZY) {
+			return;
+		}
+		
+		CompletableFuture<Void> task;
+		synchronized (warmUpLock) {
+			task = warmUp.exceptionally(e -> null).thenRunAsync(() -> {
+				if (library.getScaleSet(scaleSet) == scales) {
+					NoteTable table = new NoteTable(scales.getScales(), builtNoteTables.get(scaleSet));
+					scales.setNoteTable(table);
+					builtNoteTables.put(scaleSet, table);
+				}
+			}, ForkJoinPool.commonPool());
+			warmUp = task;
+		}
+		if (warmUpPolicy == WarmUpPolicy.EAGER) {
+			task.join();
+		}
+	}
+	
+	/**
+	 * Blocks until all requested warm-ups have finished.
+	 */
+	public void awaitWarmUp() {
+		warmUp.join();
+	}
+	
 	/**
 	 * Writes the list of custom scales to file.
 	 */
 	public void writeCustomScales() {
-		writer.writeScales(scaleSets.get("custom"));
+		writer.writeScales(library.getScaleSet("custom").getScales());
+	}
+	
+	/**
+	 * Writes both scale sets to a binary snapshot file.
+	 * @param snapshotWriter the writer for saving the snapshot
+	 */
+	public void writeSnapshot(SnapshotWriter snapshotWriter) {
+		LibrarySnapshot library = this.library;
+		snapshotWriter.writeSnapshot(library.getScaleSet("base").getScales(), library.getScaleSet("custom").getScales());
+	}
+	
+	/**
+	 * Exports every scale in the given scale set, from every root note, to a MIDI file.
+	 * @param scaleSet the scale set to export
+	 * @param midiWriter the writer for saving the MIDI file
+	 * @throws IllegalArgumentException if the scale set has more than {@link MidiWriter#MAX_SCALES}
+	 * scales
+	 */
+	public void writeMidi(String scaleSet, MidiWriter midiWriter) {
+		midiWriter.writeScales(library.getScaleSet(scaleSet).getScales());
+	}
+	
+	/**
+	 * Exports the scale at the given index with the given root note to a MIDI file.
+	 * @param scaleSet the scale set containing the scale
+	 * @param index the position of the scale in the scale set
+	 * @param root the root note of the scale
+	 * @param midiWriter the writer for saving the MIDI file
+	 */
+	public void writeMidi(String scaleSet, int index, Note root, MidiWriter midiWriter) {
+		midiWriter.writeScale(getScale(scaleSet, index), root);
+	}
+	
+	/**
+	 * Renders the scale at the given index with the given root note to a WAV file.
+	 * @param scaleSet the scale set containing the scale
+	 * @param index the position of the scale in the scale set
+	 * @param root the root note of the scale
+	 * @param wavWriter the writer for saving the WAV file
+	 */
+	public void writeWav(String scaleSet, int index, Note root, WavWriter wavWriter) {
+		wavWriter.writeScale(getScale(scaleSet, index), root);
 	}
 	
 	/**
@@ -110,7 +740,7 @@ public class Processor {
 	 * @return the scale
 	 */
 	protected Scale getScale(String scaleSet, int index) {
-		return scaleSets.get(scaleSet).get(index);
+		return library.getScaleSet(scaleSet).get(index);
 	}
 	
 	/**
@@ -122,4 +752,29 @@ public class Processor {
 	public List<String> getIntervalList(String scaleSet, int index) {
 		return getScale(scaleSet, index).getIntervalNames();
 	}
+	
+	/**
+	 * Gets the list of interval names in the first scale with the given name in the specified scale set.
+	 * @param scaleSet the scale set to search
+	 * @param name the scale name
+	 * @return the list of interval names
+	 * @throws NoSuchElementException if there is no scale with the name
+	 */
+	public List<String> getIntervalList(String scaleSet, String name) {
+		return findScale(library.getScaleSet(scaleSet).getByName(name), name).getIntervalNames();
+	}
+	
+	/**
+	 * Checks that a scale was found by name.
+	 * @param scale the scale that was found, or null
+	 * @param name the scale name
+	 * @return the scale
+	 * @throws NoSuchElementException if the scale is null
+	 */
+	private static Scale findScale(Scale scale, String name) {
+		if (scale == null) {
+			throw new NoSuchElementException("No scale named " + name);
+		}
+		return scale;
+	}
 }
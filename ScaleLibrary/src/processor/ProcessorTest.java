@@ -6,12 +6,22 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import datamanagement.JournalWriter;
 import datamanagement.Reader;
 import datamanagement.Writer;
 import util.Interval;
@@ -28,18 +38,48 @@ class ProcessorTest {
 		Writer writer = new Writer("test3.txt");
 		this.processor = new Processor(reader, writer);
 	}
+	
+	/**
+	 * @return the custom scale set in the processor's current snapshot
+	 */
+	private ScaleCatalog getCustomScales() {
+		return this.processor.getSnapshot().getScaleSet("custom");
+	}
+	
+	/**
+	 * Adds the given scales to the custom scale set without writing them to file.
+	 * @param scales the scales to add
+	 */
+	private void addCustomScales(Scale... scales) {
+		this.processor.updateScaleSet("custom", customScales -> {
+			for (Scale scale : scales) {
+				customScales.add(scale);
+			}
+		});
+	}
 
+	@Test
+	void testAddInvalidScaleName() {
+		// test names that would break the scale file format are rejected before anything is written
+		List<Interval> intervals = List.of(Interval.getInterval("1"));
+		for (String name : new String[] {"", " ", "a;b", "a,b", "a\nb", "a\rb", "a\u0000b"}) {
+			assertFalse(Processor.isValidScaleName(name), "'" + name + "' should be invalid");
+			assertThrows(IllegalArgumentException.class, () -> this.processor.addCustomScale(name, intervals, false));
+		}
+		assertTrue(getCustomScales().isEmpty());
+		assertTrue(Processor.isValidScaleName("locrian #2 (b\u00E9bop)"));
+	}
+	
 	@Test
 	void testAddCustomScale() {
 		// test adding a custom scale
-		List<Scale> customScales = this.processor.scaleSets.get("custom");
-		assertTrue(customScales.isEmpty(), "custom scale set should be empty at the start");
+		assertTrue(getCustomScales().isEmpty(), "custom scale set should be empty at the start");
 		List<Interval> intervals = new ArrayList<>();
 		intervals.add(Interval.getInterval("1"));
 		intervals.add(Interval.getInterval("b3"));
 		
 		this.processor.addCustomScale("test1", intervals, false);
-		assertEquals(1, customScales.size(), "new scale should have been added to custom set");
+		assertEquals(1, getCustomScales().size(), "new scale should have been added to custom set");
 		
 		// check the scale was written to file
 		List<String> lines = new ArrayList<>();
@@ -75,18 +115,18 @@ class ProcessorTest {
 		intervals2.add(Interval.getInterval("1"));
 		intervals2.add(Interval.getInterval("3"));
 		
-		List<Scale> customScales = this.processor.scaleSets.get("custom");
-		customScales.add(new Scale("test1", intervals1, true));
-		customScales.add(new Scale("test2", intervals2, true));
+		addCustomScales(new Scale("test1", intervals1, true), new Scale("test2", intervals2, true));
 		
 		// test removing each scale
+		ScaleCatalog customScales = getCustomScales();
 		assertEquals(2, customScales.size());
 		this.processor.deleteCustomScale(0);
-		assertEquals(1, customScales.size(), "first custom scale should have been removed from the scale list");
-		assertEquals("test2", customScales.get(0).getName(), "second custom scale should still be in list");
+		assertEquals(1, getCustomScales().size(), "first custom scale should have been removed from the scale list");
+		assertEquals("test2", getCustomScales().get(0).getName(), "second custom scale should still be in list");
+		assertEquals(2, customScales.size(), "earlier snapshot should not change");
 		
 		this.processor.deleteCustomScale(0);
-		assertEquals(0, customScales.size(), "second custom scale should have been removed from the scale list");
+		assertEquals(0, getCustomScales().size(), "second custom scale should have been removed from the scale list");
 		
 		// check the custom scale file is now empty
 		List<String> lines = new ArrayList<>();
@@ -113,9 +153,7 @@ class ProcessorTest {
 	@Test
 	void testGetScaleNames() {
 		// test some valid scale names
-		List<Scale> customScales = this.processor.scaleSets.get("custom");
-		customScales.add(new Scale("test1", null, true));
-		customScales.add(new Scale("test2", null, true));
+		addCustomScales(new Scale("test1", null, true), new Scale("test2", null, true));
 		
 		List<String> scaleNames = this.processor.getScaleNames("custom");
 		assertEquals(2, scaleNames.size(), "incorrect number of scale names");
@@ -123,19 +161,18 @@ class ProcessorTest {
 		assertEquals("test2", scaleNames.get(1), "second scale name incorrect");
 		
 		// test an empty scale list
-		customScales.clear();
+		this.processor.updateScaleSet("custom", scales -> scales.clear());
 		assertTrue(this.processor.getScaleNames("custom").isEmpty(), "no scale names should be returned when there are none");
 	}
 
 	@Test
 	void testGetScaleNotes() {
 		// test a valid scale
-		List<Scale> customScales = this.processor.scaleSets.get("custom");
 		List<Interval> intervals = new ArrayList<>();
 		intervals.add(Interval.getInterval("1"));
 		intervals.add(Interval.getInterval("b3"));
 		intervals.add(Interval.getInterval("bb7"));
-		customScales.add(new Scale("test1", intervals, false));
+		addCustomScales(new Scale("test1", intervals, false));
 		
 		List<String> notes = this.processor.getScaleNotes("custom", 0, Note.getNote("C"));
 		assertEquals(3, notes.size(), "incorrect number of note names");
@@ -147,6 +184,66 @@ class ProcessorTest {
 		assertNull(this.processor.getScaleNotes("custom", 0, Note.getNote("Cb")), "scales requiring more than 2 sharps/flats should be returned as null");
 	}
 
+	@Test
+	void testWarmUp() {
+		// test the base scales are precomputed for every root when warmed up eagerly
+		Processor lazyProcessor = this.processor;
+		Processor eagerProcessor = new Processor(new Reader("test1.txt", "test2.txt"), new Writer("test3.txt"), WarmUpPolicy.EAGER);
+		assertNull(lazyProcessor.getSnapshot().getScaleSet("base").getNoteTable(), "no scales should be precomputed when lazy");
+		assertNotNull(eagerProcessor.getSnapshot().getScaleSet("base").getNoteTable(), "base scales should be precomputed when eager");
+		
+		for (int i = 0; i < eagerProcessor.getScaleNames("base").size(); i++) {
+			for (Note root : Note.getRootNotes()) {
+				assertEquals(lazyProcessor.getScaleNotes("base", i, root), eagerProcessor.getScaleNotes("base", i, root),
+						"precomputed notes should match the lazily created notes");
+			}
+		}
+		
+		// test the custom scales are precomputed again after a change
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(Interval.getInterval("b3"));
+		eagerProcessor.addCustomScale("test1", intervals, false);
+		assertEquals(List.of("C", "Eb"), eagerProcessor.getSnapshot().getScaleSet("custom").getNoteTable().getNotes(0, Note.getNote("C")));
+		
+		// test unchanged rows are reused when the custom scales are precomputed again
+		List<String> notes = eagerProcessor.getSnapshot().getScaleSet("custom").getNoteTable().getNotes(0, Note.getNote("C"));
+		eagerProcessor.addCustomScale("test2", intervals, false);
+		assertSame(notes, eagerProcessor.getSnapshot().getScaleSet("custom").getNoteTable().getNotes(0, Note.getNote("C")), "unchanged rows should be reused");
+		
+		// test notes for roots outside the table are still created
+		assertEquals(List.of("Cx", "E#"), eagerProcessor.getScaleNotes("custom", 0, Note.getNote("Cx")));
+	}
+
+	@Test
+	void testWarmUpBackground() {
+		// test the scales are precomputed once the background warm-up finishes
+		Processor backgroundProcessor = new Processor(new Reader("test1.txt", "test2.txt"), new Writer("test3.txt"), WarmUpPolicy.BACKGROUND);
+		backgroundProcessor.awaitWarmUp();
+		assertNotNull(backgroundProcessor.getSnapshot().getScaleSet("base").getNoteTable());
+		assertNotNull(backgroundProcessor.getSnapshot().getScaleSet("custom").getNoteTable());
+	}
+
+	@Test
+	void testFindScales() {
+		// test finding a base scale by its notes
+		List<Note> notes = List.of(Note.getNote("A"), Note.getNote("C"), Note.getNote("G#"));
+		List<ScaleMatch> matches = this.processor.findScales("base", notes, MatchType.SUBSET, true);
+		assertEquals(1, matches.size(), "only A harmonic minor contains these spellings");
+		assertEquals("harmonic minor", matches.get(0).getScaleName());
+		
+		// test the custom index is rebuilt after a scale is added
+		assertTrue(this.processor.findScales("custom", notes, MatchType.SUBSET, true).isEmpty());
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(Interval.getInterval("b3"));
+		intervals.add(Interval.getInterval("7"));
+		this.processor.addCustomScale("test1", intervals, false);
+		matches = this.processor.findScales("custom", notes, MatchType.EXACT, true);
+		assertEquals(1, matches.size(), "new custom scale should be found");
+		assertSame(Note.getNote("A"), matches.get(0).getRoot());
+	}
+
 	@Test
 	void testWriteCustomScales() {
 		// create some custom scales to write
@@ -161,9 +258,7 @@ class ProcessorTest {
 		Scale testScale2 = new Scale("test2", intervals2, true);
 		
 		// test writing the custom scales to file
-		List<Scale> customScales = this.processor.scaleSets.get("custom");
-		customScales.add(testScale1);
-		customScales.add(testScale2);
+		addCustomScales(testScale1, testScale2);
 		this.processor.writeCustomScales();
 
 		// check the scales were written to file
@@ -193,10 +288,7 @@ class ProcessorTest {
 	@Test
 	void testGetScale() {
 		// test some valid scales
-		List<Scale> customScales = this.processor.scaleSets.get("custom");
-		customScales.add(new Scale("test1", null, false));
-		customScales.add(new Scale("test2", null, false));
-		customScales.add(new Scale("test3", null, false));
+		addCustomScales(new Scale("test1", null, false), new Scale("test2", null, false), new Scale("test3", null, false));
 		
 		assertEquals("test1", this.processor.getScale("custom", 0).getName(), "first scale incorrectly returned");
 		assertEquals("test2", this.processor.getScale("custom", 1).getName(), "middle scale incorrectly returned");
@@ -206,12 +298,11 @@ class ProcessorTest {
 	@Test
 	void testGetIntervalList() {
 		// test a valid scale
-		List<Scale> customScales = this.processor.scaleSets.get("custom");
 		List<Interval> intervals = new ArrayList<>();
 		intervals.add(Interval.getInterval("1"));
 		intervals.add(Interval.getInterval("b3"));
 		intervals.add(Interval.getInterval("bb7"));
-		customScales.add(new Scale("test1", intervals, false));
+		addCustomScales(new Scale("test1", intervals, false));
 
 		List<String> intervalNames = this.processor.getIntervalList("custom", 0);
 		assertEquals(3, intervalNames.size(), "incorrect number of intervals");
@@ -219,4 +310,192 @@ class ProcessorTest {
 		assertEquals("b3", intervalNames.get(1), "lowered interval name incorrect");
 		assertEquals("bb7", intervalNames.get(2), "doubly lowered interval name incorrect");
 	}
+	@Test
+	void testLookUpByNameAndId() {
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(Interval.getInterval("b3"));
+		long id2 = this.processor.addCustomScale("test2", intervals, false);
+		long id1 = this.processor.addCustomScale("test1", intervals, false);
+		
+		// IDs stay with their scale when positions shift
+		assertEquals(id1, this.processor.getScaleId("custom", 0));
+		assertEquals(id2, this.processor.getScaleId("custom", 1));
+		assertEquals(id2, this.processor.getScaleId("custom", "test2"));
+		assertEquals(-1, this.processor.getScaleId("custom", "test3"));
+		
+		assertEquals(List.of("C", "Eb"), this.processor.getScaleNotes("custom", "test2", Note.getNote("C")));
+		assertEquals(List.of("C", "Eb"), this.processor.getScaleNotesById(id1, Note.getNote("C")));
+		assertEquals(List.of("1", "b3"), this.processor.getIntervalList("custom", "test1"));
+		assertThrows(NoSuchElementException.class, () -> this.processor.getScaleNotes("custom", "test3", Note.getNote("C")));
+		assertEquals(List.of("test1"), this.processor.getScaleNames("custom", "a", "test2"));
+		
+		// delete by ID and by name
+		assertTrue(this.processor.deleteCustomScaleById(id1));
+		assertFalse(this.processor.deleteCustomScaleById(id1), "scale should only be deleted once");
+		assertEquals(id2, this.processor.getScaleId("custom", 0));
+		assertTrue(this.processor.deleteCustomScale("test2"));
+		assertTrue(this.processor.getScaleNames("custom").isEmpty());
+		assertThrows(NoSuchElementException.class, () -> this.processor.getScaleNotesById(id2, Note.getNote("C")));
+	}
+
+	@Test
+	void testSearchScaleNames() {
+		// test searching by part of a name, by alias and with a typing mistake
+		assertEquals(List.of("natural minor", "harmonic minor"), this.processor.searchScaleNames("base", "min", 5), "the \"minor\" alias should rank first");
+		assertEquals(List.of("natural minor"), this.processor.searchScaleNames("base", "Aeolian", 5));
+		assertEquals(List.of("major"), this.processor.searchScaleNames("base", "majro", 5));
+		assertEquals(1, this.processor.getScaleIndex("base", "major"));
+		assertEquals(-1, this.processor.getScaleIndex("base", "lydian"));
+		
+		// test the index is replaced when the scale set changes
+		assertTrue(this.processor.searchScaleNames("custom", "lyd", 5).isEmpty());
+		addCustomScales(new Scale("lydian", null, false));
+		assertEquals(List.of("lydian"), this.processor.searchScaleNames("custom", "lyd", 5));
+		assertEquals(0, this.processor.getScaleIndex("custom", "lydian"));
+	}
+
+	@Test
+	void testSearchScaleIndexes() {
+		// test every scale with a matching name is found, so each duplicate can be selected
+		addCustomScales(new Scale("aeolian", null, false), new Scale("lydian", null, false), new Scale("lydian", null, false));
+		assertEquals(List.of(1, 2), this.processor.searchScaleIndexes("custom", "lyd", 5));
+		assertEquals(List.of(1), this.processor.searchScaleIndexes("custom", "lyd", 1));
+		assertEquals(List.of(0), this.processor.searchScaleIndexes("custom", "aeo", 5));
+		assertTrue(this.processor.searchScaleIndexes("custom", "xyz", 5).isEmpty());
+	}
+
+	@Test
+	void testConcurrentReadersAndWriter() throws Exception {
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(Interval.getInterval("b3"));
+		
+		// readers check that every snapshot they see is complete and in order while scales are changed
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		AtomicBoolean done = new AtomicBoolean();
+		List<Future<?>> readers = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			readers.add(executor.submit(() -> {
+				while (!done.get()) {
+					LibrarySnapshot snapshot = this.processor.getSnapshot();
+					List<Scale> scales = snapshot.getScaleSet("custom").getScales();
+					for (int j = 1; j < scales.size(); j++) {
+						assertTrue(scales.get(j - 1).compareTo(scales.get(j)) <= 0, "snapshot should be sorted");
+					}
+					for (Scale scale : scales) {
+						assertNotNull(scale.getScale(Note.getNote("C")));
+					}
+				}
+				return null;
+			}));
+		}
+		
+		for (int i = 0; i < 200; i++) {
+			long version = this.processor.getSnapshot().getVersion();
+			this.processor.updateScaleSet("custom", scales -> scales.add(new Scale("test" + (int) (Math.random() * 100), intervals, false)));
+			assertEquals(version + 1, this.processor.getSnapshot().getVersion());
+		}
+		while (!getCustomScales().isEmpty()) {
+			this.processor.updateScaleSet("custom", scales -> scales.remove(0));
+		}
+		done.set(true);
+		for (Future<?> reader : readers) {
+			reader.get(10, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+	}
+
+	@Test
+	void testBatchQuery() {
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(Interval.getInterval("b3"));
+		intervals.add(Interval.getInterval("bb7"));
+		addCustomScales(new Scale("test1", intervals, false));
+		
+		List<ScaleQuery> queries = new ArrayList<>();
+		queries.add(new ScaleQuery("custom", 0, Note.getNote("C")));
+		queries.add(new ScaleQuery("custom", 0, Note.getNote("Cb")));
+		queries.add(new ScaleQuery("custom", 1, Note.getNote("C")));
+		queries.add(new ScaleQuery("other", 0, Note.getNote("C")));
+		queries.add(new ScaleQuery("custom", 0, Note.getNote("C")));
+		List<ScaleQueryResult> results = this.processor.getScaleNotes(queries);
+		
+		// results are in query order, with an explicit status for each
+		assertEquals(5, results.size());
+		assertEquals(QueryStatus.OK, results.get(0).getStatus());
+		assertEquals(List.of(Note.getNote("C"), Note.getNote("Eb"), Note.getNote("Bbb")), results.get(0).getNotes());
+		assertEquals(QueryStatus.UNSPELLABLE, results.get(1).getStatus());
+		assertNull(results.get(1).getNotes());
+		assertEquals(QueryStatus.NO_SUCH_SCALE, results.get(2).getStatus());
+		assertEquals(QueryStatus.NO_SUCH_SCALE_SET, results.get(3).getStatus());
+		assertSame(results.get(0), results.get(4), "equal queries should share a result");
+		
+		// results match the single query method for every scale and root
+		List<ScaleQuery> allQueries = new ArrayList<>();
+		for (int i = 0; i < this.processor.getScaleNames("base").size(); i++) {
+			for (Note root : Note.getRootNotes()) {
+				allQueries.add(new ScaleQuery("base", i, root));
+			}
+		}
+		List<ScaleQueryResult> allResults = this.processor.getScaleNotes(allQueries.stream());
+		for (int i = 0; i < allQueries.size(); i++) {
+			ScaleQuery query = allQueries.get(i);
+			List<String> expected = this.processor.getScaleNotes("base", query.getIndex(), query.getRoot());
+			ScaleQueryResult result = allResults.get(i);
+			assertEquals(expected == null ? QueryStatus.UNSPELLABLE : QueryStatus.OK, result.getStatus());
+			if (expected != null) {
+				assertEquals(expected, NoteTable.toNoteNames(result.getNotes()));
+			}
+		}
+	}
+
+	@Test
+	void testReloadScaleSet(@TempDir Path directory) throws Exception {
+		Path base = directory.resolve("base.txt");
+		Path custom = directory.resolve("custom.txt");
+		Files.writeString(base, "major; 1, 2, 3, 4, 5, 6, 7, 8; false\nnatural minor; 1, 2, b3, 4, 5, b6, b7, 8; false\n");
+		Files.writeString(custom, "");
+		Processor processor = new Processor(new Reader(base.toString(), custom.toString()), new Writer(custom.toString()));
+		ScaleCatalog before = processor.getSnapshot().getScaleSet("base");
+		Scale major = before.getByName("major");
+		long majorId = before.getId(major);
+		
+		// test an unchanged file does not publish a new snapshot
+		LibrarySnapshot snapshot = processor.getSnapshot();
+		assertFalse(processor.reloadScaleSet("base"));
+		assertSame(snapshot, processor.getSnapshot());
+		
+		// test unchanged scales are kept, and changed scales are replaced
+		Files.writeString(base, "major; 1, 2, 3, 4, 5, 6, 7, 8; false\nnatural minor; 1, 2, b3, 4, 5, b6, b7, 8; true\nlydian; 1, 2, 3, #4, 5, 6, 7, 8; false\n");
+		assertTrue(processor.reloadScaleSet("base"));
+		ScaleCatalog after = processor.getSnapshot().getScaleSet("base");
+		assertEquals(List.of("lydian", "major", "natural minor"), processor.getScaleNames("base"));
+		assertSame(major, after.getByName("major"), "unchanged scales should be reused");
+		assertEquals(majorId, after.getId(major), "unchanged scales should keep their IDs");
+		assertTrue(after.getByName("natural minor").isSimplified());
+		assertEquals(2, before.size(), "the previous snapshot should not change");
+		assertSame(processor.getSnapshot().getScaleSet("custom"), snapshot.getScaleSet("custom"), "only the reloaded set should change");
+	}
+
+	@Test
+	void testJournalledDuplicateSurvivesRestart(@TempDir Path directory) throws Exception {
+		Path base = directory.resolve("base.txt");
+		Path custom = directory.resolve("custom.txt");
+		Files.writeString(base, "major; 1, 2, 3, 4, 5, 6, 7, 8; false\n");
+		Files.writeString(custom, "");
+		List<Interval> intervals = List.of(Interval.getInterval("1"), Interval.getInterval("3"), Interval.getInterval("5"));
+		
+		// add a scale, rewrite the custom scales file, then journal an identical scale
+		Processor processor = new Processor(new Reader(base.toString(), custom.toString()), new JournalWriter(custom.toString(), 64 * 1024));
+		processor.addCustomScale("triad", intervals, false);
+		processor.writeCustomScales();
+		processor.addCustomScale("triad", intervals, false);
+		assertEquals(List.of("triad", "triad"), processor.getScaleNames("custom"));
+		
+		// test both copies are loaded after a restart
+		Processor restarted = new Processor(new Reader(base.toString(), custom.toString()), new JournalWriter(custom.toString(), 64 * 1024));
+		assertEquals(List.of("triad", "triad"), restarted.getScaleNames("custom"));
+	}
 }
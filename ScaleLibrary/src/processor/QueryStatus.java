@@ -0,0 +1,32 @@
+package processor;
+
+/**
+ * The outcome of a scale query.
+ * @author Joel Gibson
+ */
+public enum QueryStatus {
+	/**
+	 * The notes of the scale were found.
+	 */
+	OK,
+	
+	/**
+	 * The scale can't be spelled with the root note, as a note would need more than 2 sharps or flats.
+	 */
+	UNSPELLABLE,
+	
+	/**
+	 * There is no scale at the requested position in the scale set.
+	 */
+	NO_SUCH_SCALE,
+	
+	/**
+	 * There is no scale set with the requested name.
+	 */
+	NO_SUCH_SCALE_SET,
+	
+	/**
+	 * The query could not be read (for example, the root note name is not valid).
+	 */
+	INVALID_QUERY
+}
@@ -0,0 +1,386 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import util.Scale;
+
+/**
+ * A scale set kept in name order, with each scale given a stable ID. Scales can be found by
+ * position, by name or by ID; lookups by name or ID take constant time, and inserting a scale finds
+ * its position by binary search rather than re-sorting the set. A catalog must not be changed once it
+ * has been published in a LibrarySnapshot; changes are made to a copy instead. The methods that change
+ * a catalog are package-private, so code outside the processor can only read a published catalog.
+ * @author Joel Gibson
+ */
+public class ScaleCatalog implements Iterable<Scale> {
+	/**
+	 * The next scale ID (IDs are unique across every catalog).
+	 */
+	private static final AtomicLong nextId = new AtomicLong(1);
+	
+	/**
+	 * The largest number of names that can be added or removed since the name index was last
+	 * created before it is created again, rather than recording the changes to it.
+	 */
+	private static final int MAX_NAME_CHANGES = 1024;
+	
+	/**
+	 * The scales in name order (scales with equal names are kept in the order they were added).
+	 */
+	private List<Scale> scales = new ArrayList<>();
+	
+	/**
+	 * Maps scale names to the scales with that name, in name order.
+	 */
+	private Map<String, List<Scale>> scalesByName = new HashMap<>();
+	
+	/**
+	 * Maps IDs to scales.
+	 */
+	private Map<Long, Scale> scalesById = new HashMap<>();
+	
+	/**
+	 * Maps scales to their IDs.
+	 */
+	private Map<Scale, Long> ids = new IdentityHashMap<>();
+	
+	/**
+	 * The precomputed note names of the scales, if they have been created.
+	 */
+	private volatile NoteTable noteTable;
+	
+	/**
+	 * The index for finding scales by their notes, if it has been created.
+	 */
+	private volatile ScaleIndex scaleIndex;
+	
+	/**
+	 * The index for finding scales by their names, if it has been created.
+	 */
+	private volatile NameIndex nameIndex;
+	
+	/**
+	 * The name index of an earlier catalog that this catalog was copied from, or null if there is
+	 * none. Searches record the name changes since then rather than indexing every name again.
+	 */
+	private NameIndex earlierNameIndex;
+	
+	/**
+	 * The names added since the earlier name index was created, in the order they were added.
+	 */
+	private Set<String> addedNames = new LinkedHashSet<>();
+	
+	/**
+	 * The names removed since the earlier name index was created.
+	 */
+	private Set<String> removedNames = new HashSet<>();
+	
+	/**
+	 * Creates an empty catalog.
+	 */
+	public ScaleCatalog() {
+	}
+	
+	/**
+	 * Creates a copy of the given catalog, in which the scales keep their IDs. The note table and
+	 * scale index are not copied, but the name index is carried forward so that changes to the copy
+	 * can be recorded against it.
+	 * @param other the catalog to copy
+	 */
+	public ScaleCatalog(ScaleCatalog other) {
+		this.scales = new ArrayList<>(other.scales);
+		for (Map.Entry<String, List<Scale>> entry : other.scalesByName.entrySet()) {
+			this.scalesByName.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+		}
+		this.scalesById.putAll(other.scalesById);
+		this.ids.putAll(other.ids);
+		
+		// carry forward the latest name index that holds every name
+		NameIndex index = other.nameIndex;
+		if (index != null && !index.isOverlay()) {
+			this.earlierNameIndex = index;
+		} else if (other.earlierNameIndex != null) {
+			this.earlierNameIndex = other.earlierNameIndex;
+			this.addedNames.addAll(other.addedNames);
+			this.removedNames.addAll(other.removedNames);
+		}
+	}
+	
+	/**
+	 * Creates a catalog containing the given scales.
+	 * @param scales the scales to add
+	 */
+	public ScaleCatalog(Collection<Scale> scales) {
+		// sort once rather than finding the position of each scale
+		List<Scale> sorted = new ArrayList<>(scales);
+		Collections.sort(sorted);
+		this.scales = sorted;
+		for (Scale scale : sorted) {
+			index(scale, nextId.getAndIncrement());
+		}
+	}
+	
+	/**
+	 * Adds the given scale in name order, after any scales with an equal name.
+	 * @param scale the scale to add
+	 * @return the ID of the scale
+	 */
+	long add(Scale scale) {
+		if (earlierNameIndex != null && !scalesByName.containsKey(scale.getName()) && !removedNames.remove(scale.getName())) {
+			addedNames.add(scale.getName());
+		}
+		scales.add(upperBound(scale.getName()), scale);
+		long id = nextId.getAndIncrement();
+		index(scale, id);
+		return id;
+	}
+	
+	/**
+	 * Adds the given scale to the name and ID maps.
+	 * @param scale the scale to add
+	 * @param id the ID of the scale
+	 */
+	private void index(Scale scale, long id) {
+		scalesByName.computeIfAbsent(scale.getName(), name -> new ArrayList<>(1)).add(scale);
+		scalesById.put(id, scale);
+		ids.put(scale, id);
+	}
+	
+	/**
+	 * Removes the scale at the given position.
+	 * @param index the position of the scale
+	 * @return the removed scale
+	 */
+	Scale remove(int index) {
+		Scale scale = scales.remove(index);
+		
+		// remove the scale from the name and ID maps
+		List<Scale> named = scalesByName.get(scale.getName());
+		named.removeIf(other -> other == scale);
+		if (named.isEmpty()) {
+			scalesByName.remove(scale.getName());
+			if (earlierNameIndex != null && !addedNames.remove(scale.getName())) {
+				removedNames.add(scale.getName());
+			}
+		}
+		scalesById.remove(ids.remove(scale));
+		return scale;
+	}
+	
+	/**
+	 * Removes every scale.
+	 */
+	void clear() {
+		scales.clear();
+		scalesByName.clear();
+		scalesById.clear();
+		ids.clear();
+		earlierNameIndex = null;
+		addedNames.clear();
+		removedNames.clear();
+	}
+	
+	/**
+	 * @param index the position of the scale
+	 * @return the scale at the given position
+	 */
+	public Scale get(int index) {
+		return scales.get(index);
+	}
+	
+	/**
+	 * @return the number of scales
+	 */
+	public int size() {
+		return scales.size();
+	}
+	
+	/**
+	 * @return true if there are no scales
+	 */
+	public boolean isEmpty() {
+		return scales.isEmpty();
+	}
+	
+	/**
+	 * @return an unmodifiable view of the scales in name order
+	 */
+	public List<Scale> getScales() {
+		return Collections.unmodifiableList(scales);
+	}
+	
+	@Override
+	public Iterator<Scale> iterator() {
+		return getScales().iterator();
+	}
+	
+	/**
+	 * Finds the first scale (in name order) with exactly the given name.
+	 * @param name the scale name
+	 * @return the scale, or null if there is none
+	 */
+	public Scale getByName(String name) {
+		List<Scale> named = scalesByName.get(name);
+		return named == null ? null : named.get(0);
+	}
+	
+	/**
+	 * Finds every scale with exactly the given name.
+	 * @param name the scale name
+	 * @return the unmodifiable list of scales, in name order (which is empty if there are none)
+	 */
+	public List<Scale> getAllByName(String name) {
+		List<Scale> named = scalesByName.get(name);
+		return named == null ? Collections.emptyList() : Collections.unmodifiableList(named);
+	}
+	
+	/**
+	 * @param id the scale ID
+	 * @return the scale with the given ID, or null if there is none
+	 */
+	public Scale getById(long id) {
+		return scalesById.get(id);
+	}
+	
+	/**
+	 * @param scale the scale
+	 * @return the ID of the given scale, or -1 if it is not in the catalog
+	 */
+	public long getId(Scale scale) {
+		Long id = ids.get(scale);
+		return id == null ? -1 : id;
+	}
+	
+	/**
+	 * Finds the position of the given scale.
+	 * @param scale the scale
+	 * @return the position of the scale, or -1 if it is not in the catalog
+	 */
+	public int indexOf(Scale scale) {
+		if (!ids.containsKey(scale)) {
+			return -1;
+		}
+		
+		// search the scales with an equal name
+		for (int i = lowerBound(scale.getName()); i < scales.size(); i++) {
+			if (scales.get(i) == scale) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * @return the precomputed note names of the scales, or null if they have not been created
+	 */
+	NoteTable getNoteTable() {
+		return noteTable;
+	}
+	
+	/**
+	 * @param noteTable the precomputed note names of the scales
+	 */
+	void setNoteTable(NoteTable noteTable) {
+		this.noteTable = noteTable;
+	}
+	
+	/**
+	 * Gets the index for finding scales by their notes, creating it if required.
+	 * @return the scale index
+	 */
+	ScaleIndex getScaleIndex() {
+		ScaleIndex index = scaleIndex;
+		if (index == null) {
+			// racing threads create equivalent indexes, so either may be kept
+			index = new ScaleIndex(scales);
+			scaleIndex = index;
+		}
+		return index;
+	}
+	
+	/**
+	 * Gets the index for finding scales by their names, creating it if required. If this catalog was
+	 * copied from one with a name index, and only a few names have changed since, the new index
+	 * records the changes to the earlier one rather than indexing every name again.
+	 * @return the name index
+	 */
+	NameIndex getNameIndex() {
+		NameIndex index = nameIndex;
+		if (index == null) {
+			// racing threads create equivalent indexes, so either may be kept
+			if (earlierNameIndex != null && addedNames.size() + removedNames.size() <= MAX_NAME_CHANGES) {
+				List<Scale> added = new ArrayList<>(addedNames.size());
+				for (String name : addedNames) {
+					added.add(scalesByName.get(name).get(0));
+				}
+				Collections.sort(added);
+				index = new NameIndex(earlierNameIndex, added, removedNames);
+			} else {
+				index = new NameIndex(scales);
+			}
+			nameIndex = index;
+		}
+		return index;
+	}
+	
+	/**
+	 * Finds the scales whose names are within the given range, ignoring case.
+	 * @param fromName the lowest name (inclusive)
+	 * @param toName the highest name (exclusive)
+	 * @return an unmodifiable view of the scales in name order
+	 */
+	public List<Scale> getRange(String fromName, String toName) {
+		int from = lowerBound(fromName);
+		int to = Math.max(from, lowerBound(toName));
+		return getScales().subList(from, to);
+	}
+	
+	/**
+	 * Finds the position of the first scale whose name is not less than the given name.
+	 * @param name the scale name
+	 * @return the position
+	 */
+	private int lowerBound(String name) {
+		int low = 0;
+		int high = scales.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (scales.get(mid).getName().compareToIgnoreCase(name) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Finds the position of the first scale whose name is greater than the given name.
+	 * @param name the scale name
+	 * @return the position
+	 */
+	private int upperBound(String name) {
+		int low = 0;
+		int high = scales.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (scales.get(mid).getName().compareToIgnoreCase(name) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
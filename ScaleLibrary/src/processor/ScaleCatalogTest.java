@@ -0,0 +1,103 @@
+package processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import datamanagement.Reader;
+import util.Scale;
+
+class ScaleCatalogTest {
+	
+	ScaleCatalog catalog;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		List<Scale> scales = new ArrayList<>();
+		scales.add(new Scale("dorian", null, false));
+		scales.add(new Scale("Aeolian", null, false));
+		scales.add(new Scale("major", null, false));
+		this.catalog = new ScaleCatalog(scales);
+	}
+
+	@Test
+	void testAdd() {
+		// scales are kept in name order, ignoring case
+		assertEquals("Aeolian", this.catalog.get(0).getName());
+		assertEquals("dorian", this.catalog.get(1).getName());
+		assertEquals("major", this.catalog.get(2).getName());
+		
+		// equal names are kept in the order they were added
+		Scale first = new Scale("Lydian", null, false);
+		Scale second = new Scale("lydian", null, false);
+		long firstId = this.catalog.add(first);
+		long secondId = this.catalog.add(second);
+		assertNotEquals(firstId, secondId);
+		assertSame(first, this.catalog.get(2));
+		assertSame(second, this.catalog.get(3));
+		assertEquals(3, this.catalog.indexOf(second));
+		assertEquals("major", this.catalog.get(4).getName());
+		
+		assertSame(first, this.catalog.getById(firstId));
+		assertEquals(secondId, this.catalog.getId(second));
+		assertSame(second, this.catalog.getByName("lydian"));
+		assertNull(this.catalog.getByName("locrian"));
+	}
+
+	@Test
+	void testRemove() {
+		Scale dorian = this.catalog.get(1);
+		long id = this.catalog.getId(dorian);
+		assertSame(dorian, this.catalog.remove(1));
+		assertEquals(2, this.catalog.size());
+		assertNull(this.catalog.getById(id));
+		assertNull(this.catalog.getByName("dorian"));
+		assertEquals(-1, this.catalog.getId(dorian));
+		assertEquals(-1, this.catalog.indexOf(dorian));
+		assertEquals("major", this.catalog.get(1).getName());
+	}
+
+	@Test
+	void testGetRange() {
+		List<Scale> range = this.catalog.getRange("b", "Major");
+		assertEquals(1, range.size());
+		assertEquals("dorian", range.get(0).getName());
+		assertEquals(3, this.catalog.getRange("", "z").size());
+		assertTrue(this.catalog.getRange("z", "a").isEmpty());
+	}
+
+	@Test
+	void testNameIndexCarriedForward() throws Exception {
+		// test a copy records its name changes against the earlier name index
+		ScaleCatalog base = new ScaleCatalog(new Reader("scales.txt", "custom.txt").readBaseScales());
+		base.getNameIndex();
+		ScaleCatalog copy = new ScaleCatalog(base);
+		copy.add(new Scale("majestic", null, false));
+		copy.add(new Scale("Dorian", null, false));
+		copy.add(new Scale("lydian", null, false));
+		copy.remove(copy.indexOf(copy.getByName("major")));
+		copy.remove(copy.indexOf(copy.getByName("mixolydian")));
+		copy.add(new Scale("mixolydian", null, false));
+		ScaleCatalog second = new ScaleCatalog(copy);
+		second.add(new Scale("super major", null, false));
+		assertTrue(second.getNameIndex().isOverlay(), "the earlier name index should be carried forward");
+		
+		// test the searches match an index of every name
+		NameIndex full = new NameIndex(second.getScales());
+		assertEquals(full.size(), second.getNameIndex().size());
+		for (String query : List.of("major", "maj", "ionian", "dorian", "lydian", "mixolydain", "minor", "tonic", "a")) {
+			assertEquals(full.search(query, 5), second.getNameIndex().search(query, 5), query);
+		}
+		
+		// test clearing the catalog indexes every name again
+		ScaleCatalog cleared = new ScaleCatalog(second);
+		cleared.clear();
+		cleared.add(new Scale("major", null, false));
+		assertFalse(cleared.getNameIndex().isOverlay());
+		assertEquals(List.of("major"), cleared.getNameIndex().search("ionian", 5));
+	}
+}
@@ -0,0 +1,161 @@
+package processor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import datamanagement.JournalWriter;
+import datamanagement.Reader;
+
+/**
+ * Watches the scale files for changes made by other programs, reloading the changed scale set into
+ * the processor. Reloading publishes a new snapshot, so queries in progress are never blocked.
+ * Changes made by the processor's own writer are ignored.
+ * @author Joel Gibson
+ */
+public class ScaleFileWatcher implements Closeable {
+	/**
+	 * The time (in milliseconds) to wait for further changes before reloading, so that a file written
+	 * in several steps is only reloaded once.
+	 */
+	private static final long SETTLE_MILLIS = 50;
+	
+	/**
+	 * The processor to reload.
+	 */
+	private Processor processor;
+	
+	/**
+	 * Maps the path of each watched file to the scale set it belongs to.
+	 */
+	private Map<Path, String> scaleSets = new HashMap<>();
+	
+	/**
+	 * The service notifying of changes to the watched directories.
+	 */
+	private WatchService watchService;
+	
+	/**
+	 * The thread waiting for changes.
+	 */
+	private Thread thread;
+	
+	/**
+	 * Creates a new watcher for the files read by the given reader. The custom scale journals are
+	 * watched along with the custom scales file.
+	 * @param processor the processor to reload
+	 * @param reader the reader the processor was created with
+	 */
+	public ScaleFileWatcher(Processor processor, Reader reader) {
+		this.processor = processor;
+		String customFilename = reader.getCustomFilename();
+		scaleSets.put(toPath(reader.getBaseFilename()), "base");
+		scaleSets.put(toPath(customFilename), "custom");
+		scaleSets.put(toPath(JournalWriter.getJournalFilename(customFilename)), "custom");
+		scaleSets.put(toPath(JournalWriter.getCompactingFilename(customFilename)), "custom");
+	}
+	
+	/**
+	 * Starts watching the files in a background thread.
+	 * @throws IOException if the directories can't be watched
+	 */
+	public void start() throws IOException {
+		watchService = FileSystems.getDefault().newWatchService();
+		Set<Path> directories = new HashSet<>();
+		for (Path path : scaleSets.keySet()) {
+			directories.add(path.getParent());
+		}
+		for (Path directory : directories) {
+			directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		}
+		
+		thread = new Thread(this::watch, "scale-file-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Stops watching the files.
+	 * @throws IOException if the watch service can't be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (watchService != null) {
+			watchService.close();
+		}
+	}
+	
+	/**
+	 * Waits for changes to the watched files, reloading the scale sets they belong to.
+	 */
+	private void watch() {
+		try {
+			while (true) {
+				// wait for a change, then collect any further changes until the files settle
+				Map<String, Set<String>> changed = new HashMap<>();
+				WatchKey key = watchService.take();
+				while (key != null) {
+					collectChanges(key, changed);
+					key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+				}
+				
+				for (Map.Entry<String, Set<String>> entry : changed.entrySet()) {
+					try {
+						processor.reloadScaleSet(entry.getKey(), entry.getValue());
+					} catch (RuntimeException e) {
+						// keep the loaded scales if the file can't be read, and try again on the next change
+						e.printStackTrace();
+					}
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// the watcher has been closed
+		}
+	}
+	
+	/**
+	 * Adds the watched files changed in the given events to the scale sets they belong to.
+	 * @param key the key holding the events
+	 * @param changed maps each changed scale set to its changed files
+	 */
+	private void collectChanges(WatchKey key, Map<String, Set<String>> changed) {
+		Path directory = (Path) key.watchable();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				// events were lost, so check every file
+				for (Map.Entry<Path, String> entry : scaleSets.entrySet()) {
+					changed.computeIfAbsent(entry.getValue(), set -> new HashSet<>()).add(entry.getKey().toString());
+				}
+				continue;
+			}
+			Path path = directory.resolve((Path) event.context());
+			String scaleSet = scaleSets.get(path);
+			if (scaleSet != null) {
+				changed.computeIfAbsent(scaleSet, set -> new HashSet<>()).add(path.toString());
+			}
+		}
+		key.reset();
+	}
+	
+	/**
+	 * Converts a filename to an absolute path, so that it can be compared with changed files.
+	 * @param filename the filename
+	 * @return the normalised absolute path
+	 */
+	private static Path toPath(String filename) {
+		return Paths.get(filename).toAbsolutePath().normalize();
+	}
+}
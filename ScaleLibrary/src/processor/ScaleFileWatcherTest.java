@@ -0,0 +1,65 @@
+package processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import datamanagement.JournalWriter;
+import datamanagement.Reader;
+import datamanagement.Writer;
+import util.Interval;
+
+class ScaleFileWatcherTest {
+
+	@Test
+	void testReloadOnChange(@TempDir Path directory) throws Exception {
+		Path base = directory.resolve("base.txt");
+		Path custom = directory.resolve("custom.txt");
+		Files.writeString(base, "major; 1, 2, 3, 4, 5, 6, 7, 8; false\n");
+		Files.writeString(custom, "");
+		Reader reader = new Reader(base.toString(), custom.toString());
+		Processor processor = new Processor(reader, new Writer(custom.toString()));
+		
+		try (ScaleFileWatcher watcher = new ScaleFileWatcher(processor, reader)) {
+			watcher.start();
+			
+			// test a change made by another program is picked up
+			Files.writeString(custom, "blues; 1, b3, 4, b5, 5, b7, 8; false\n");
+			long deadline = System.currentTimeMillis() + 10000;
+			while (processor.getScaleNames("custom").isEmpty() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(List.of("blues"), processor.getScaleNames("custom"));
+			assertEquals(List.of("major"), processor.getScaleNames("base"));
+		}
+	}
+
+	@Test
+	void testOwnWritesIgnored(@TempDir Path directory) throws Exception {
+		Path base = directory.resolve("base.txt");
+		Path custom = directory.resolve("custom.txt");
+		Files.writeString(base, "major; 1, 2, 3, 4, 5, 6, 7, 8; false\n");
+		Files.writeString(custom, "");
+		Reader reader = new Reader(base.toString(), custom.toString());
+		Processor processor = new Processor(reader, new JournalWriter(custom.toString(), 64 * 1024));
+		String journal = JournalWriter.getJournalFilename(custom.toString());
+		
+		// test the journal written by the processor does not cause a reload
+		List<Interval> intervals = List.of(Interval.getInterval("1"), Interval.getInterval("b3"), Interval.getInterval("5"), Interval.getInterval("8"));
+		processor.addCustomScale("triad", intervals, false);
+		processor.addCustomScale("triad", intervals, false);
+		assertFalse(processor.reloadScaleSet("custom", List.of(journal)));
+		assertEquals(List.of("triad", "triad"), processor.getScaleNames("custom"));
+		
+		// test a change made by another program to the same file does
+		Files.writeString(custom, "blues; 1, b3, 4, b5, 5, b7, 8; false\n");
+		Files.delete(Path.of(journal));
+		assertTrue(processor.reloadScaleSet("custom", List.of(journal, custom.toString())));
+		assertEquals(List.of("blues"), processor.getScaleNames("custom"));
+	}
+}
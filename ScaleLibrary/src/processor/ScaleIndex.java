@@ -0,0 +1,128 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import util.Note;
+import util.Scale;
+
+/**
+ * An index of the notes in every scale of a scale set for every root note, for finding which scales
+ * contain a given set of notes. Each scale is stored as a bitmask of its 12 pitch classes (so
+ * enharmonic notes match), and as a bitmask of its note codes (so only identically spelled notes match).
+ * @author Joel Gibson
+ */
+public class ScaleIndex {
+	/**
+	 * The mask stored for a scale that could not be created with a root note.
+	 */
+	private static final long MISSING_SCALE = -1;
+	
+	/**
+	 * The number of root notes for each scale.
+	 */
+	private static final int numRoots = Note.getRootNotes().size();
+	
+	/**
+	 * The scales in the index, in scale set order.
+	 */
+	private Scale[] scales;
+	
+	/**
+	 * The pitch class bitmask of each scale, indexed by the scale position and root position.
+	 */
+	private int[] pitchClassMasks;
+	
+	/**
+	 * The note code bitmask of each scale, indexed by the scale position and root position.
+	 */
+	private long[] spellingMasks;
+	
+	/**
+	 * Creates a new index of the given scales.
+	 * @param scales the list of scales to index
+	 */
+	public ScaleIndex(List<Scale> scales) {
+		List<Note> roots = Note.getRootNotes();
+		this.scales = scales.toArray(new Scale[0]);
+		this.pitchClassMasks = new int[this.scales.length * numRoots];
+		this.spellingMasks = new long[this.scales.length * numRoots];
+		
+		for (int i = 0; i < pitchClassMasks.length; i++) {
+			List<Note> notes = this.scales[i / numRoots].getScale(roots.get(i % numRoots));
+			if (notes == null) {
+				pitchClassMasks[i] = (int) MISSING_SCALE;
+				spellingMasks[i] = MISSING_SCALE;
+				continue;
+			}
+			pitchClassMasks[i] = toPitchClassMask(notes);
+			spellingMasks[i] = toSpellingMask(notes);
+		}
+	}
+	
+	/**
+	 * Finds every scale and root note whose notes match the given notes.
+	 * @param notes the notes to search for
+	 * @param matchType how the scale notes must match the given notes
+	 * @param exactSpelling whether notes only match if they are spelled identically (otherwise
+	 * enharmonic notes also match)
+	 * @return the list of matches, in scale set order then root order
+	 */
+	public List<ScaleMatch> findScales(Collection<Note> notes, MatchType matchType, boolean exactSpelling) {
+		List<ScaleMatch> matches = new ArrayList<>();
+		if (exactSpelling) {
+			long query = toSpellingMask(notes);
+			for (int i = 0; i < spellingMasks.length; i++) {
+				if (spellingMasks[i] != MISSING_SCALE && matchType.matches(spellingMasks[i], query)) {
+					matches.add(createMatch(i));
+				}
+			}
+		} else {
+			int query = toPitchClassMask(notes);
+			for (int i = 0; i < pitchClassMasks.length; i++) {
+				if (pitchClassMasks[i] != (int) MISSING_SCALE && matchType.matches(pitchClassMasks[i], query)) {
+					matches.add(createMatch(i));
+				}
+			}
+		}
+		return matches;
+	}
+	
+	/**
+	 * Creates the match for the scale and root at the given position in the index.
+	 * @param i the index position
+	 * @return the match
+	 */
+	private ScaleMatch createMatch(int i) {
+		Scale scale = scales[i / numRoots];
+		Note root = Note.getRootNotes().get(i % numRoots);
+		return new ScaleMatch(scale.getName(), root, scale.getScale(root));
+	}
+	
+	/**
+	 * Converts the given notes to a bitmask with one bit set for each pitch class.
+	 * @param notes the notes to convert
+	 * @return the bitmask
+	 */
+	protected static int toPitchClassMask(Collection<Note> notes) {
+		int mask = 0;
+		for (Note note : notes) {
+			mask |= 1 << note.getPitchClass();
+		}
+		return mask;
+	}
+	
+	/**
+	 * Converts the given notes to a bitmask with one bit set for each note code.
+	 * @param notes the notes to convert
+	 * @return the bitmask
+	 */
+	protected static long toSpellingMask(Collection<Note> notes) {
+		long mask = 0;
+		for (Note note : notes) {
+			mask |= 1L << note.getCode();
+		}
+		return mask;
+	}
+}
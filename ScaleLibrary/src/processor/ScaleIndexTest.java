@@ -0,0 +1,97 @@
+package processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import datamanagement.Reader;
+import util.Interval;
+import util.Note;
+import util.Scale;
+
+class ScaleIndexTest {
+	
+	ScaleIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// index the major, natural minor and harmonic minor scales
+		Reader reader = new Reader("test1.txt", "test2.txt");
+		this.index = new ScaleIndex(reader.readBaseScales());
+	}
+	
+	/**
+	 * Converts the given note names to a list of notes.
+	 */
+	private List<Note> toNotes(String... noteNames) {
+		List<Note> notes = new ArrayList<>();
+		for (String noteName : noteNames) {
+			notes.add(Note.getNote(noteName));
+		}
+		return notes;
+	}
+	
+	/**
+	 * Converts the given matches to a list of strings.
+	 */
+	private List<String> toStrings(List<ScaleMatch> matches) {
+		List<String> strings = new ArrayList<>();
+		for (ScaleMatch match : matches) {
+			strings.add(match.toString());
+		}
+		return strings;
+	}
+
+	@Test
+	void testFindScalesSubset() {
+		// test the scales containing a C major scale's notes
+		List<ScaleMatch> matches = this.index.findScales(toNotes("C", "D", "E", "F", "G", "A", "B"), MatchType.SUBSET, false);
+		assertEquals(List.of("B# major", "C major", "A natural minor"), toStrings(matches), "enharmonic roots should also match");
+		
+		// test the spelling of a match is reported
+		assertEquals(toNotes("A", "B", "C", "D", "E", "F", "G", "A"), matches.get(2).getNotes());
+		assertSame(Note.getNote("A"), matches.get(2).getRoot());
+		
+		// test enharmonic notes match
+		matches = this.index.findScales(toNotes("B#", "D", "E", "F", "G", "A", "B"), MatchType.SUBSET, false);
+		assertEquals(3, matches.size(), "enharmonic notes should match when spelling is not exact");
+	}
+
+	@Test
+	void testFindScalesExactSpelling() {
+		// test enharmonic notes don't match
+		assertTrue(this.index.findScales(toNotes("B#", "D", "E"), MatchType.SUBSET, true).isEmpty(),
+				"enharmonic notes should not match when spelling is exact");
+		
+		// test identically spelled notes match
+		List<ScaleMatch> matches = this.index.findScales(toNotes("C", "D", "E", "F", "G", "A", "B"), MatchType.SUBSET, true);
+		assertEquals(List.of("C major", "A natural minor"), toStrings(matches));
+	}
+
+	@Test
+	void testFindScalesSupersetAndExact() {
+		// test scales whose notes are all among the given notes
+		List<Note> chromatic = toNotes("C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B");
+		assertEquals(3 * Note.getRootNotes().size(), this.index.findScales(chromatic, MatchType.SUPERSET, false).size(),
+				"every scale should be within the chromatic scale");
+		
+		// test scales with exactly the given notes
+		List<ScaleMatch> matches = this.index.findScales(toNotes("A", "B", "C", "D", "E", "F", "G#"), MatchType.EXACT, false);
+		assertEquals(List.of("A harmonic minor"), toStrings(matches));
+		assertTrue(this.index.findScales(toNotes("C", "D", "E"), MatchType.EXACT, false).isEmpty());
+	}
+
+	@Test
+	void testMissingScales() {
+		// test scales that can't be created don't match
+		List<Scale> scales = new ArrayList<>();
+		scales.add(new Scale("test", List.of(Interval.getInterval("1"), Interval.getInterval("bb7")), false));
+		ScaleIndex testIndex = new ScaleIndex(scales);
+		assertEquals(19, testIndex.findScales(new ArrayList<>(), MatchType.SUBSET, false).size(),
+				"Cb and Fb with a bb7 would need 3 flats so should be excluded");
+	}
+}
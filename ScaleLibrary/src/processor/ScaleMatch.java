@@ -0,0 +1,64 @@
+package processor;
+
+import java.util.List;
+
+import util.Note;
+
+/**
+ * A scale and root note found to match a set of notes.
+ * @author Joel Gibson
+ */
+public class ScaleMatch {
+	/**
+	 * The scale name.
+	 */
+	private String scaleName;
+	
+	/**
+	 * The root note of the scale.
+	 */
+	private Note root;
+	
+	/**
+	 * The notes of the scale with the root note.
+	 */
+	private List<Note> notes;
+	
+	/**
+	 * Creates a new match with the given parameters.
+	 * @param scaleName the scale name
+	 * @param root the root note of the scale
+	 * @param notes the notes of the scale with the root note
+	 */
+	public ScaleMatch(String scaleName, Note root, List<Note> notes) {
+		this.scaleName = scaleName;
+		this.root = root;
+		this.notes = notes;
+	}
+	
+	/**
+	 * @return the scale name
+	 */
+	public String getScaleName() {
+		return scaleName;
+	}
+	
+	/**
+	 * @return the root note of the scale
+	 */
+	public Note getRoot() {
+		return root;
+	}
+	
+	/**
+	 * @return the notes of the scale with the root note
+	 */
+	public List<Note> getNotes() {
+		return notes;
+	}
+	
+	@Override
+	public String toString() {
+		return root + " " + scaleName;
+	}
+}
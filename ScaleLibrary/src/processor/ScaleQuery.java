@@ -0,0 +1,77 @@
+package processor;
+
+import util.Note;
+
+/**
+ * A request for the notes of the scale at a position in a scale set with a root note. Equal queries
+ * are only answered once in a batch.
+ * @author Joel Gibson
+ */
+public final class ScaleQuery {
+	/**
+	 * The scale set ("base" or "custom").
+	 */
+	private final String scaleSet;
+	
+	/**
+	 * The position of the scale in the scale set.
+	 */
+	private final int index;
+	
+	/**
+	 * The root note of the scale.
+	 */
+	private final Note root;
+	
+	/**
+	 * Creates a new query with the given parameters.
+	 * @param scaleSet the scale set ("base" or "custom")
+	 * @param index the position of the scale in the scale set
+	 * @param root the root note of the scale
+	 */
+	public ScaleQuery(String scaleSet, int index, Note root) {
+		this.scaleSet = scaleSet;
+		this.index = index;
+		this.root = root;
+	}
+	
+	/**
+	 * @return the scale set
+	 */
+	public String getScaleSet() {
+		return scaleSet;
+	}
+	
+	/**
+	 * @return the position of the scale in the scale set
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * @return the root note of the scale
+	 */
+	public Note getRoot() {
+		return root;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof ScaleQuery)) {
+			return false;
+		}
+		ScaleQuery other = (ScaleQuery) obj;
+		return index == other.index && root.equals(other.root) && scaleSet.equals(other.scaleSet);
+	}
+	
+	@Override
+	public int hashCode() {
+		return (scaleSet.hashCode() * 31 + index) * Note.NUM_CODES + root.hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return scaleSet + "[" + index + "] " + root;
+	}
+}
@@ -0,0 +1,59 @@
+package processor;
+
+import java.util.Collections;
+import java.util.List;
+
+import util.Note;
+
+/**
+ * The answer to a scale query. The notes are the shared Note objects rather than copies of their
+ * names, and equal queries in a batch share the same result.
+ * @author Joel Gibson
+ */
+public final class ScaleQueryResult {
+	/**
+	 * The outcome of the query.
+	 */
+	private final QueryStatus status;
+	
+	/**
+	 * The unmodifiable list of notes, or null unless the status is OK.
+	 */
+	private final List<Note> notes;
+	
+	/**
+	 * Creates a new result.
+	 * @param status the outcome of the query
+	 * @param notes the notes of the scale, or null unless the status is OK
+	 */
+	ScaleQueryResult(QueryStatus status, List<Note> notes) {
+		this.status = status;
+		this.notes = notes == null ? null : Collections.unmodifiableList(notes);
+	}
+	
+	/**
+	 * @return the outcome of the query
+	 */
+	public QueryStatus getStatus() {
+		return status;
+	}
+	
+	/**
+	 * @return true if the notes of the scale were found
+	 */
+	public boolean isOk() {
+		return status == QueryStatus.OK;
+	}
+	
+	/**
+	 * @return the unmodifiable list of notes, or null unless the status is OK
+	 */
+	public List<Note> getNotes() {
+		return notes;
+	}
+	
+	@Override
+	public String toString() {
+		return isOk() ? notes.toString() : status.toString();
+	}
+}
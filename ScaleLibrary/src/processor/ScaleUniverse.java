@@ -0,0 +1,340 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import datamanagement.Reader;
+import datamanagement.SnapshotWriter;
+import datamanagement.Writer;
+import util.Note;
+import util.Scale;
+
+/**
+ * The universe of every set of pitch classes containing the root, with the sets found by mask, size,
+ * prime form, notes or name. The sets are enumerated in parallel on a fork-join pool, and can be
+ * saved and loaded in the same formats as the scale library.
+ * @author Joel Gibson
+ */
+public class ScaleUniverse {
+	/**
+	 * The number of sets of pitch classes containing the root.
+	 */
+	public static final int NUM_SETS = 1 << 11;
+	
+	/**
+	 * The number of sets each task enumerates without splitting.
+	 */
+	private static final int THRESHOLD = 32;
+	
+	/**
+	 * The sets, indexed by their masks without the root bit.
+	 */
+	private final UniverseScale[] sets;
+	
+	/**
+	 * The sets as a scale set, in name order.
+	 */
+	private final ScaleCatalog catalog;
+	
+	/**
+	 * Maps the names of library scales to the name of the set with their pitch classes.
+	 */
+	private final Map<String, String> aliases = new HashMap<>();
+	
+	/**
+	 * Maps prime forms to the sets with that prime form, in mask order.
+	 */
+	private final Map<Integer, List<UniverseScale>> setsByPrimeForm = new HashMap<>();
+	
+	/**
+	 * The sets with each number of pitch classes, in mask order.
+	 */
+	private final List<List<UniverseScale>> setsBySize = new ArrayList<>();
+	
+	/**
+	 * The index for finding sets by their names or the names of library scales, if it has been created.
+	 */
+	private volatile NameIndex nameIndex;
+	
+	/**
+	 * Creates the universe from the enumerated sets.
+	 * @param sets the sets, indexed by their masks without the root bit
+	 */
+	private ScaleUniverse(UniverseScale[] sets) {
+		this.sets = sets;
+		List<Scale> scales = new ArrayList<>(sets.length);
+		for (int size = 0; size <= 12; size++) {
+			setsBySize.add(new ArrayList<>());
+		}
+		for (UniverseScale set : sets) {
+			scales.add(set.getScale());
+			setsBySize.get(set.size()).add(set);
+			setsByPrimeForm.computeIfAbsent(set.getPrimeForm(), primeForm -> new ArrayList<>()).add(set);
+			for (String name : set.getKnownNames()) {
+				aliases.putIfAbsent(name, set.getScale().getName());
+			}
+		}
+		this.catalog = new ScaleCatalog(scales);
+	}
+	
+	/**
+	 * Enumerates every set of pitch classes containing the root, generating an interval pattern for
+	 * each set.
+	 * @param pool the pool to enumerate the sets on
+	 * @param knownScales the library scales to name the sets with
+	 * @return the universe
+	 */
+	public static ScaleUniverse enumerate(ForkJoinPool pool, Collection<Scale> knownScales) {
+		return fromScales(pool, Collections.emptyList(), knownScales);
+	}
+	
+	/**
+	 * Creates the universe from previously saved scales, generating an interval pattern for any set
+	 * that is missing. Scales with the same pitch classes as an earlier scale are ignored.
+	 * @param pool the pool to enumerate the sets on
+	 * @param scales the saved scales
+	 * @param knownScales the library scales to name the sets with
+	 * @return the universe
+	 */
+	public static ScaleUniverse fromScales(ForkJoinPool pool, Collection<Scale> scales, Collection<Scale> knownScales) {
+		// find the saved scale and the known names of each set
+		Scale[] saved = new Scale[NUM_SETS];
+		for (Scale scale : scales) {
+			int mask = UniverseScale.toMask(scale);
+			if (isSet(mask) && saved[mask >>> 1] == null) {
+				saved[mask >>> 1] = scale;
+			}
+		}
+		Map<Integer, List<String>> knownNames = new HashMap<>();
+		for (Scale scale : knownScales) {
+			int mask = UniverseScale.toMask(scale);
+			if (isSet(mask)) {
+				knownNames.computeIfAbsent(mask, m -> new ArrayList<>()).add(scale.getName());
+			}
+		}
+		
+		UniverseScale[] sets = new UniverseScale[NUM_SETS];
+		pool.invoke(new EnumerateTask(sets, saved, knownNames, 0, NUM_SETS));
+		return new ScaleUniverse(sets);
+	}
+	
+	/**
+	 * Checks whether the given mask is a set of pitch classes containing the root.
+	 * @param mask the pitch class mask
+	 * @return true if the mask contains the root and no bits beyond the octave
+	 */
+	private static boolean isSet(int mask) {
+		return (mask & 1) != 0 && (mask & ~UniverseScale.ALL_PITCH_CLASSES) == 0;
+	}
+	
+	/**
+	 * Reads the universe from the base scale file of the given reader, generating any sets that are
+	 * missing.
+	 * @param reader the reader for the saved universe
+	 * @param pool the pool to enumerate the sets on
+	 * @param knownScales the library scales to name the sets with
+	 * @return the universe
+	 */
+	public static ScaleUniverse read(Reader reader, ForkJoinPool pool, Collection<Scale> knownScales) {
+		return fromScales(pool, reader.readBaseScales(), knownScales);
+	}
+	
+	/**
+	 * Saves the interval pattern of every set to file, in name order.
+	 * @param writer the writer for saving the sets
+	 */
+	public void write(Writer writer) {
+		writer.writeScales(catalog.getScales());
+	}
+	
+	/**
+	 * Saves every set to a binary snapshot file as its base scale set.
+	 * @param snapshotWriter the writer for saving the snapshot
+	 */
+	public void writeSnapshot(SnapshotWriter snapshotWriter) {
+		snapshotWriter.writeSnapshot(catalog.getScales(), Collections.emptyList());
+	}
+	
+	/**
+	 * @return the number of sets
+	 */
+	public int size() {
+		return sets.length;
+	}
+	
+	/**
+	 * Finds the set with the given mask.
+	 * @param mask the pitch class mask
+	 * @return the set, or null if the mask is not a set of pitch classes containing the root
+	 */
+	public UniverseScale get(int mask) {
+		if (!isSet(mask)) {
+			return null;
+		}
+		return sets[mask >>> 1];
+	}
+	
+	/**
+	 * Finds the set with the given name, which is either the name of a set (e.g. "0-2-4-5-7-9-11") or
+	 * the name of a library scale (e.g. "major").
+	 * @param name the name
+	 * @return the set, or null if there is no set with that name
+	 */
+	public UniverseScale get(String name) {
+		Scale scale = catalog.getByName(aliases.getOrDefault(name, name));
+		return scale == null ? null : get(UniverseScale.toMask(scale));
+	}
+	
+	/**
+	 * Finds every set with the given number of pitch classes.
+	 * @param size the number of pitch classes
+	 * @return the unmodifiable list of sets, in mask order
+	 */
+	public List<UniverseScale> findBySize(int size) {
+		if (size < 1 || size > 12) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(setsBySize.get(size));
+	}
+	
+	/**
+	 * Finds every set that is a transposition or inversion of the set with the given mask.
+	 * @param mask the pitch class mask
+	 * @return the unmodifiable list of sets, in mask order
+	 */
+	public List<UniverseScale> findByPrimeForm(int mask) {
+		List<UniverseScale> found = setsByPrimeForm.get(UniverseScale.findPrimeForm(mask));
+		return found == null ? Collections.emptyList() : Collections.unmodifiableList(found);
+	}
+	
+	/**
+	 * @return the masks of the distinct prime forms, in ascending order
+	 */
+	public List<Integer> getPrimeForms() {
+		return new ArrayList<>(new TreeSet<>(setsByPrimeForm.keySet()));
+	}
+	
+	/**
+	 * Finds the distinct modes of the set with the given mask.
+	 * @param mask the pitch class mask
+	 * @return the list of sets, starting with the set itself, or an empty list if the mask is not a set
+	 * of pitch classes containing the root
+	 */
+	public List<UniverseScale> findModes(int mask) {
+		UniverseScale set = get(mask);
+		if (set == null) {
+			return Collections.emptyList();
+		}
+		List<UniverseScale> modes = new ArrayList<>();
+		for (int mode : set.getModes()) {
+			UniverseScale modeSet = get(mode);
+			if (!modes.contains(modeSet)) {
+				modes.add(modeSet);
+			}
+		}
+		return modes;
+	}
+	
+	/**
+	 * Finds every set and root note whose notes match the given notes.
+	 * @param notes the notes to search for
+	 * @param matchType how the scale notes must match the given notes
+	 * @param exactSpelling whether notes only match if they are spelled identically
+	 * @return the list of matches, in name order then root order
+	 */
+	public List<ScaleMatch> findScales(Collection<Note> notes, MatchType matchType, boolean exactSpelling) {
+		return catalog.getScaleIndex().findScales(notes, matchType, exactSpelling);
+	}
+	
+	/**
+	 * Finds the names of the sets best matching the given query, which can also be the name of a
+	 * library scale.
+	 * @param query the query
+	 * @param limit the maximum number of names
+	 * @return the list of set names, best match first
+	 */
+	public List<String> search(String query, int limit) {
+		NameIndex nameIndex = this.nameIndex;
+		if (nameIndex == null) {
+			nameIndex = new NameIndex(catalog.getScales(), aliases);
+			this.nameIndex = nameIndex;
+		}
+		return nameIndex.search(query, limit);
+	}
+	
+	/**
+	 * @return the sets as a scale set, in name order
+	 */
+	public ScaleCatalog getCatalog() {
+		return catalog;
+	}
+	
+	/**
+	 * Enumerates a range of masks, splitting the range between two tasks until it is small enough.
+	 */
+	private static class EnumerateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * The sets, indexed by their masks without the root bit.
+		 */
+		private final UniverseScale[] sets;
+		
+		/**
+		 * The saved scale of each set, or null to generate it.
+		 */
+		private final Scale[] saved;
+		
+		/**
+		 * Maps masks to the names of library scales with those pitch classes.
+		 */
+		private final Map<Integer, List<String>> knownNames;
+		
+		/**
+		 * The first index to enumerate.
+		 */
+		private final int from;
+		
+		/**
+		 * The index after the last index to enumerate.
+		 */
+		private final int to;
+		
+		/**
+		 * Creates a task for enumerating the given range of indexes.
+		 * @param sets the array to store the sets in
+		 * @param saved the saved scale of each set, or null to generate it
+		 * @param knownNames maps masks to the names of library scales
+		 * @param from the first index
+		 * @param to the index after the last index
+		 */
+		EnumerateTask(UniverseScale[] sets, Scale[] saved, Map<Integer, List<String>> knownNames, int from, int to) {
+			this.sets = sets;
+			this.saved = saved;
+			this.knownNames = knownNames;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from > THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new EnumerateTask(sets, saved, knownNames, from, middle), new EnumerateTask(sets, saved, knownNames, middle, to));
+				return;
+			}
+			for (int i = from; i < to; i++) {
+				int mask = (i << 1) | 1;
+				List<String> names = knownNames.getOrDefault(mask, Collections.emptyList());
+				sets[i] = saved[i] != null ? new UniverseScale(mask, saved[i], names) : new UniverseScale(mask, names);
+			}
+		}
+	}
+}
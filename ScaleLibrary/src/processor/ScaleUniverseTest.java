@@ -0,0 +1,164 @@
+package processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import datamanagement.Reader;
+import datamanagement.Writer;
+import util.Note;
+import util.Scale;
+
+class ScaleUniverseTest {
+	
+	static final int MAJOR = 0xAB5;
+	
+	static final int WHOLE_TONE = 0x555;
+	
+	static List<Scale> knownScales;
+	
+	static ScaleUniverse universe;
+	
+	@BeforeAll
+	static void setUp() {
+		// enumerate the universe, naming the sets after the base library
+		knownScales = new Reader("scales.txt", "custom.txt").readBaseScales();
+		universe = ScaleUniverse.enumerate(ForkJoinPool.commonPool(), knownScales);
+	}
+	
+	@Test
+	void testEnumerate() {
+		// test every set containing the root is enumerated once
+		assertEquals(ScaleUniverse.NUM_SETS, universe.size());
+		assertEquals(ScaleUniverse.NUM_SETS, universe.getCatalog().size());
+		for (int mask = 1; mask <= UniverseScale.ALL_PITCH_CLASSES; mask += 2) {
+			assertEquals(mask, universe.get(mask).getMask());
+			assertEquals(mask, UniverseScale.toMask(universe.get(mask).getScale()));
+		}
+		assertNull(universe.get(MAJOR - 1), "sets must contain the root");
+		assertNull(universe.get(0x1001));
+		assertEquals(1, universe.findBySize(1).size());
+		assertEquals(462, universe.findBySize(7).size());
+		assertEquals(1, universe.findBySize(12).size());
+	}
+	
+	@Test
+	void testSpelling() {
+		// test sets are spelled with as few accidentals as possible
+		UniverseScale major = universe.get(MAJOR);
+		assertEquals("0-2-4-5-7-9-11", major.getScale().getName());
+		assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8"), major.getScale().getIntervalNames());
+		assertEquals(List.of("1", "2", "3", "b5", "b6", "b7", "8"), universe.get(WHOLE_TONE).getScale().getIntervalNames());
+		assertEquals(List.of("1", "b3", "4", "b5", "5", "b7", "8"), universe.get(0x4E9).getScale().getIntervalNames(), "blues");
+		assertEquals(List.of("1", "b2", "2", "b3", "3", "4", "b5", "5", "b6", "6", "b7", "7", "8"), universe.get(UniverseScale.ALL_PITCH_CLASSES).getScale().getIntervalNames());
+		
+		// test every set has notes with every root note
+		for (int mask = 1; mask <= UniverseScale.ALL_PITCH_CLASSES; mask += 2) {
+			UniverseScale set = universe.get(mask);
+			for (Note root : Note.getRootNotes()) {
+				assertEquals(set.size() + 1, set.getNotes(root).size(), set + " from " + root);
+			}
+		}
+		assertEquals(List.of("C", "D", "E", "F", "G", "A", "B", "C"), major.getNotes(Note.getNote("C")).stream().map(Note::toString).toList());
+	}
+	
+	@Test
+	void testKnownNames() {
+		// test sets are named after the library scales with the same pitch classes
+		UniverseScale major = universe.get(MAJOR);
+		assertTrue(major.getKnownNames().containsAll(List.of("major", "ionian")));
+		assertSame(major, universe.get("major"));
+		assertSame(major, universe.get("0-2-4-5-7-9-11"));
+		assertNull(universe.get("no such scale"));
+		assertEquals(List.of("0-2-4-5-7-9-11"), universe.search("ionian", 1));
+		assertEquals(List.of("0-2-4-5-7-9-11"), universe.search("0-2-4-5-7-9-11", 1));
+	}
+	
+	@Test
+	void testPrimeForms() {
+		// test the prime forms of the major and whole-tone scales, and the number of set classes
+		assertEquals(0x56B, universe.get(MAJOR).getPrimeForm());
+		assertEquals(WHOLE_TONE, universe.get(WHOLE_TONE).getPrimeForm());
+		assertEquals(223, universe.getPrimeForms().size());
+		assertEquals(7, universe.findByPrimeForm(MAJOR).size());
+		assertEquals(1, universe.findByPrimeForm(WHOLE_TONE).size());
+		for (UniverseScale set : universe.findByPrimeForm(MAJOR)) {
+			assertEquals(7, set.size());
+		}
+	}
+	
+	@Test
+	void testModes() {
+		// test the modes of the major scale include the natural minor scale, and symmetric sets have fewer modes
+		UniverseScale major = universe.get(MAJOR);
+		assertEquals(7, major.countDistinctModes());
+		List<UniverseScale> modes = universe.findModes(MAJOR);
+		assertEquals(7, modes.size());
+		assertSame(major, modes.get(0));
+		assertTrue(modes.contains(universe.get("natural minor")));
+		assertEquals(1, universe.get(WHOLE_TONE).countDistinctModes());
+		assertEquals(List.of(universe.get(WHOLE_TONE)), universe.findModes(WHOLE_TONE));
+		assertEquals(2, universe.get(0x6DB).countDistinctModes(), "octatonic");
+	}
+	
+	@Test
+	void testFindScales() {
+		// test finding the sets containing a C major triad
+		List<Note> triad = List.of(Note.getNote("C"), Note.getNote("E"), Note.getNote("G"));
+		List<ScaleMatch> matches = universe.findScales(triad, MatchType.EXACT, false);
+		assertEquals(5, matches.size(), "0-4-7 from C and B#, 0-3-8 from E and Fb, and 0-5-9 from G");
+		assertEquals(List.of("0-3-8", "0-4-7", "0-5-9"), universe.findScales(triad, MatchType.EXACT, true).stream().map(ScaleMatch::getScaleName).toList());
+		assertTrue(universe.findScales(triad, MatchType.SUBSET, false).size() > 500);
+	}
+	
+	@Test
+	void testPersistence(@TempDir Path directory) {
+		// test the universe can be written and read back
+		String filename = directory.resolve("universe.txt").toString();
+		universe.write(new Writer(filename));
+		ScaleUniverse read = ScaleUniverse.read(new Reader(filename, filename), ForkJoinPool.commonPool(), knownScales);
+		assertEquals(ScaleUniverse.NUM_SETS, read.size());
+		for (int mask = 1; mask <= UniverseScale.ALL_PITCH_CLASSES; mask += 2) {
+			assertEquals(universe.get(mask).getScale().getIntervalNames(), read.get(mask).getScale().getIntervalNames());
+			assertEquals(universe.get(mask).getKnownNames(), read.get(mask).getKnownNames());
+		}
+	}
+	
+	@Test
+	void testIntervalsOutsideOctave(@TempDir Path directory) throws Exception {
+		// test intervals below the root are folded into the octave rather than giving a negative mask
+		String filename = directory.resolve("universe.txt").toString();
+		Files.writeString(Path.of(filename), "flat root; 1, bb2, b1; false\n");
+		List<Scale> saved = new Reader(filename, filename).readBaseScales();
+		assertEquals(0x801, UniverseScale.toMask(saved.get(0)));
+		ScaleUniverse read = ScaleUniverse.read(new Reader(filename, filename), ForkJoinPool.commonPool(), saved);
+		assertEquals(ScaleUniverse.NUM_SETS, read.size());
+		assertEquals(List.of("1", "bb2", "b1"), read.get(0x801).getScale().getIntervalNames());
+		assertEquals(List.of("flat root"), read.get(0x801).getKnownNames());
+	}
+	
+	@Test
+	void testParallelEnumeration() {
+		// test enumerating on one thread gives the same sets as on several
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool parallel = new ForkJoinPool(4);
+		try {
+			ScaleUniverse first = ScaleUniverse.enumerate(single, knownScales);
+			ScaleUniverse second = ScaleUniverse.enumerate(parallel, knownScales);
+			for (int mask = 1; mask <= UniverseScale.ALL_PITCH_CLASSES; mask += 2) {
+				assertEquals(first.get(mask).getScale().getIntervalNames(), second.get(mask).getScale().getIntervalNames());
+				assertEquals(first.get(mask).getPrimeForm(), second.get(mask).getPrimeForm());
+			}
+		} finally {
+			single.shutdown();
+			parallel.shutdown();
+		}
+	}
+}
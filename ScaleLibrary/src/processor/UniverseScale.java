@@ -0,0 +1,391 @@
+package processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import util.Interval;
+import util.Note;
+import util.Scale;
+
+/**
+ * One of the 2048 sets of pitch classes containing the root, with a generated interval pattern, its
+ * modes, its prime form, and its notes with every root note. Each set is stored as a 12 bit mask, with
+ * bit n set if the pitch class n semitones above the root is in the set.
+ * @author Joel Gibson
+ */
+public class UniverseScale {
+	/**
+	 * The mask containing every pitch class.
+	 */
+	public static final int ALL_PITCH_CLASSES = 0xFFF;
+	
+	/**
+	 * The number of semitones above the root of each natural degree of the major scale.
+	 */
+	private static final int[] NATURAL_SEMITONES = {0, 2, 4, 5, 7, 9, 11};
+	
+	/**
+	 * The interval used for each pitch class when the set can't be spelled from a root note.
+	 */
+	private static final String[] DEFAULT_INTERVALS = {"1", "b2", "2", "b3", "3", "4", "b5", "5", "b6", "6", "b7", "7"};
+	
+	/**
+	 * The quality symbol of each alteration from -2 to 2 semitones.
+	 */
+	private static final String[] QUALITIES = {"bb", "b", "", "#", "x"};
+	
+	/**
+	 * The cost of a spelling that uses a degree for two pitch classes.
+	 */
+	private static final int REPEATED_DEGREE_COST = 12;
+	
+	/**
+	 * The cost of a spelling that isn't possible.
+	 */
+	private static final int IMPOSSIBLE = Integer.MAX_VALUE;
+	
+	/**
+	 * The pitch class mask.
+	 */
+	private final int mask;
+	
+	/**
+	 * The scale with the generated interval pattern.
+	 */
+	private final Scale scale;
+	
+	/**
+	 * The scale using the default interval for each pitch class, simplified using enharmonics, for
+	 * root notes the generated pattern can't be spelled from (without more than 2 sharps or flats).
+	 */
+	private final Scale fallbackScale;
+	
+	/**
+	 * The prime form of the set.
+	 */
+	private final int primeForm;
+	
+	/**
+	 * The mask of the mode starting on each pitch class of the set, in ascending order.
+	 */
+	private final int[] modes;
+	
+	/**
+	 * The names of the library scales with this set of pitch classes.
+	 */
+	private final List<String> knownNames;
+	
+	/**
+	 * The notes of the scale with each root note, in root note order.
+	 */
+	private final List<List<Note>> notes;
+	
+	/**
+	 * Creates the set with the given mask, spelling it with every root note.
+	 * @param mask the pitch class mask (which must contain the root)
+	 * @param knownNames the names of the library scales with this set of pitch classes
+	 */
+	UniverseScale(int mask, List<String> knownNames) {
+		this(mask, createScale(mask), knownNames);
+	}
+	
+	/**
+	 * Creates the set with the given mask and scale, spelling it with every root note.
+	 * @param mask the pitch class mask (which must contain the root)
+	 * @param scale the scale with the interval pattern of the set
+	 * @param knownNames the names of the library scales with this set of pitch classes
+	 */
+	UniverseScale(int mask, Scale scale, List<String> knownNames) {
+		this.mask = mask;
+		this.scale = scale;
+		this.fallbackScale = new Scale(scale.getName(), createIntervals(mask, null), true);
+		this.primeForm = findPrimeForm(mask);
+		this.knownNames = Collections.unmodifiableList(new ArrayList<>(knownNames));
+		
+		// find the mode starting on each pitch class
+		this.modes = new int[Integer.bitCount(mask)];
+		int mode = 0;
+		for (int pitchClass = 0; pitchClass < 12; pitchClass++) {
+			if ((mask & (1 << pitchClass)) != 0) {
+				modes[mode++] = transpose(mask, pitchClass);
+			}
+		}
+		
+		// spell the scale with each root note, using the fallback pattern if required
+		List<List<Note>> notes = new ArrayList<>();
+		for (Note root : Note.getRootNotes()) {
+			List<Note> rootNotes = scale.getScale(root);
+			notes.add(rootNotes != null ? rootNotes : fallbackScale.getScale(root));
+		}
+		this.notes = Collections.unmodifiableList(notes);
+	}
+	
+	/**
+	 * Finds the pitch class mask of the given scale. Intervals below the root (such as "b1") or above
+	 * the octave are folded into the octave.
+	 * @param scale the scale
+	 * @return the mask, or 0 if any interval could not be read
+	 */
+	public static int toMask(Scale scale) {
+		int mask = 0;
+		for (Interval interval : scale.getIntervals()) {
+			if (interval == null) {
+				return 0;
+			}
+			mask |= 1 << Math.floorMod(Interval.intervalToSemitones(interval), 12);
+		}
+		return mask;
+	}
+	
+	/**
+	 * Creates the name of the set with the given mask, listing its pitch classes.
+	 * @param mask the pitch class mask
+	 * @return the name (e.g. "0-2-4-5-7-9-11" for the major scale)
+	 */
+	public static String toName(int mask) {
+		StringBuilder name = new StringBuilder();
+		for (int pitchClass = 0; pitchClass < 12; pitchClass++) {
+			if ((mask & (1 << pitchClass)) != 0) {
+				if (name.length() > 0) {
+					name.append('-');
+				}
+				name.append(pitchClass);
+			}
+		}
+		return name.toString();
+	}
+	
+	/**
+	 * Transposes the set with the given mask down by the given number of semitones.
+	 * @param mask the pitch class mask
+	 * @param semitones the number of semitones (0 to 11)
+	 * @return the transposed mask
+	 */
+	public static int transpose(int mask, int semitones) {
+		return ((mask >>> semitones) | (mask << (12 - semitones))) & ALL_PITCH_CLASSES;
+	}
+	
+	/**
+	 * Inverts the set with the given mask around the root.
+	 * @param mask the pitch class mask
+	 * @return the inverted mask
+	 */
+	public static int invert(int mask) {
+		int inverted = 0;
+		for (int pitchClass = 0; pitchClass < 12; pitchClass++) {
+			if ((mask & (1 << pitchClass)) != 0) {
+				inverted |= 1 << ((12 - pitchClass) % 12);
+			}
+		}
+		return inverted;
+	}
+	
+	/**
+	 * Finds the prime form of the set with the given mask, which is the same for every transposition
+	 * and inversion of the set. Of the transpositions of the set and its inversion that contain the
+	 * root, the one with the smallest mask is used, which is the one most packed towards the root when
+	 * comparing from the highest pitch class down.
+	 * @param mask the pitch class mask
+	 * @return the mask of the prime form
+	 */
+	public static int findPrimeForm(int mask) {
+		int inverted = invert(mask);
+		int best = ALL_PITCH_CLASSES;
+		for (int semitones = 0; semitones < 12; semitones++) {
+			if ((mask & (1 << semitones)) != 0) {
+				best = Math.min(best, transpose(mask, semitones));
+			}
+			if ((inverted & (1 << semitones)) != 0) {
+				best = Math.min(best, transpose(inverted, semitones));
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * Creates the scale of the set with the given mask, spelled with the fewest accidentals.
+	 * @param mask the pitch class mask
+	 * @return the scale
+	 */
+	static Scale createScale(int mask) {
+		int[] degrees = findDegrees(mask);
+		return new Scale(toName(mask), createIntervals(mask, degrees), degrees == null);
+	}
+	
+	/**
+	 * Creates the interval pattern of the set, ending with the octave.
+	 * @param mask the pitch class mask
+	 * @param degrees the degree (0 to 6) of each pitch class of the set, or null to use the default
+	 * intervals
+	 * @return the list of intervals
+	 */
+	private static List<Interval> createIntervals(int mask, int[] degrees) {
+		List<Interval> intervals = new ArrayList<>();
+		for (int pitchClass = 0, i = 0; pitchClass < 12; pitchClass++) {
+			if ((mask & (1 << pitchClass)) == 0) {
+				continue;
+			}
+			if (degrees == null) {
+				intervals.add(Interval.getInterval(DEFAULT_INTERVALS[pitchClass]));
+			} else {
+				int alteration = pitchClass - NATURAL_SEMITONES[degrees[i]];
+				intervals.add(Interval.getInterval(QUALITIES[alteration + 2] + (degrees[i] + 1)));
+			}
+			i++;
+		}
+		intervals.add(Interval.getInterval("8"));
+		return intervals;
+	}
+	
+	/**
+	 * Assigns a degree of the scale to each pitch class of the set, in ascending order, so that the
+	 * spelling is as simple as possible. Each accidental costs 10, a double accidental a further 100,
+	 * a degree used twice 12, and a sharp 1 more than a flat, so the blues scale is spelled 1, b3, 4,
+	 * b5, 5, b7 rather than 1, #2, #3, #4, 5, b7.
+	 * @param mask the pitch class mask
+	 * @return the degree (0 to 6) of each pitch class, or null if the set can't be spelled without
+	 * triple accidentals
+	 */
+	private static int[] findDegrees(int mask) {
+		int size = Integer.bitCount(mask);
+		int[] pitchClasses = new int[size];
+		for (int pitchClass = 0, i = 0; pitchClass < 12; pitchClass++) {
+			if ((mask & (1 << pitchClass)) != 0) {
+				pitchClasses[i++] = pitchClass;
+			}
+		}
+		
+		// find the lowest cost of spelling the first i + 1 pitch classes with pitch class i on degree d
+		int numDegrees = NATURAL_SEMITONES.length;
+		int[][] costs = new int[size][numDegrees];
+		int[][] previous = new int[size][numDegrees];
+		for (int[] row : costs) {
+			Arrays.fill(row, IMPOSSIBLE);
+		}
+		costs[0][0] = 0;
+		for (int i = 1; i < size; i++) {
+			for (int d = 1; d < numDegrees; d++) {
+				int cost = spellingCost(pitchClasses[i] - NATURAL_SEMITONES[d]);
+				if (cost == IMPOSSIBLE) {
+					continue;
+				}
+				for (int p = 0; p <= d; p++) {
+					if (costs[i - 1][p] == IMPOSSIBLE) {
+						continue;
+					}
+					int total = costs[i - 1][p] + cost + (p == d ? REPEATED_DEGREE_COST : 0);
+					if (total < costs[i][d]) {
+						costs[i][d] = total;
+						previous[i][d] = p;
+					}
+				}
+			}
+		}
+		
+		// follow the cheapest spelling back from the highest pitch class
+		int best = -1;
+		for (int d = 0; d < numDegrees; d++) {
+			if (costs[size - 1][d] != IMPOSSIBLE && (best == -1 || costs[size - 1][d] < costs[size - 1][best])) {
+				best = d;
+			}
+		}
+		if (best == -1) {
+			return null;
+		}
+		int[] degrees = new int[size];
+		for (int i = size - 1; i >= 0; i--) {
+			degrees[i] = best;
+			best = previous[i][best];
+		}
+		return degrees;
+	}
+	
+	/**
+	 * Finds the cost of spelling a pitch class with the given alteration of its degree.
+	 * @param alteration the number of semitones from the natural degree
+	 * @return the cost, or IMPOSSIBLE if the alteration is more than 2 semitones
+	 */
+	private static int spellingCost(int alteration) {
+		if (Math.abs(alteration) > 2) {
+			return IMPOSSIBLE;
+		}
+		return Math.abs(alteration) * 10 + (Math.abs(alteration) == 2 ? 100 : 0) + (alteration > 0 ? 1 : 0);
+	}
+	
+	/**
+	 * @return the pitch class mask
+	 */
+	public int getMask() {
+		return mask;
+	}
+	
+	/**
+	 * @return the number of pitch classes in the set
+	 */
+	public int size() {
+		return Integer.bitCount(mask);
+	}
+	
+	/**
+	 * @return the scale with the generated interval pattern
+	 */
+	public Scale getScale() {
+		return scale;
+	}
+	
+	/**
+	 * @return the mask of the prime form of the set
+	 */
+	public int getPrimeForm() {
+		return primeForm;
+	}
+	
+	/**
+	 * @return the masks of the modes starting on each pitch class of the set, in ascending order (the
+	 * first is the set itself)
+	 */
+	public int[] getModes() {
+		return modes.clone();
+	}
+	
+	/**
+	 * Counts the distinct modes of the set. Sets that repeat within the octave, such as the whole-tone
+	 * scale, have fewer distinct modes than pitch classes.
+	 * @return the number of distinct modes
+	 */
+	public int countDistinctModes() {
+		// a set repeats after its smallest transposition onto itself, which divides the octave
+		for (int semitones = 1; semitones < 12; semitones++) {
+			if (12 % semitones == 0 && transpose(mask, semitones) == mask) {
+				return size() * semitones / 12;
+			}
+		}
+		return size();
+	}
+	
+	/**
+	 * @return the unmodifiable list of names of library scales with this set of pitch classes
+	 */
+	public List<String> getKnownNames() {
+		return knownNames;
+	}
+	
+	/**
+	 * Finds the notes of the scale with the given root note. Root notes the generated pattern can't be
+	 * spelled from (without more than 2 sharps or flats) use the default intervals instead, simplified
+	 * using enharmonics.
+	 * @param root the root note
+	 * @return the unmodifiable list of notes, or null if the root note is not one of the 21 root notes
+	 */
+	public List<Note> getNotes(Note root) {
+		int index = Note.getRootNotes().indexOf(root);
+		return index == -1 ? null : notes.get(index);
+	}
+	
+	@Override
+	public String toString() {
+		return scale.getName();
+	}
+}
@@ -0,0 +1,22 @@
+package processor;
+
+/**
+ * Controls when the processor precomputes the notes of every scale for every root note.
+ * @author Joel Gibson
+ */
+public enum WarmUpPolicy {
+	/**
+	 * Scales are only created when they are first requested.
+	 */
+	LAZY,
+	
+	/**
+	 * All scales are created before the processor is constructed.
+	 */
+	EAGER,
+	
+	/**
+	 * All scales are created in the background while the processor is already in use.
+	 */
+	BACKGROUND
+}
@@ -0,0 +1,275 @@
+package ui;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import processor.LibrarySnapshot;
+import processor.Processor;
+import processor.QueryStatus;
+import util.Note;
+import util.Scale;
+
+/**
+ * The non-interactive interface for answering scale queries read line by line, such as
+ * "major C#" (a scale name followed by a root note). Base scales are searched before custom scales.
+ * Lines are answered in chunks by parallel workers, but the results are written in the same order as
+ * the queries, and only a few chunks are held in memory at once.
+ * @author Joel Gibson
+ */
+public class BatchInterface {
+	/**
+	 * The formats the results can be written in.
+	 */
+	public enum Format {
+		/**
+		 * "major C#: C# D# E# F# G# A# B# C#", with the status in place of the notes if they weren't found.
+		 */
+		TEXT,
+		
+		/**
+		 * Tab separated scale name, root, status and space separated notes.
+		 */
+		TSV,
+		
+		/**
+		 * One JSON object per line, with the members "scale", "root", "status" and "notes".
+		 */
+		JSON
+	}
+	
+	/**
+	 * The default number of lines answered together by a worker.
+	 */
+	private static final int DEFAULT_CHUNK_SIZE = 4096;
+	
+	/**
+	 * The processor for retrieving data.
+	 */
+	private Processor processor;
+	
+	/**
+	 * The format the results are written in.
+	 */
+	private Format format;
+	
+	/**
+	 * The number of parallel workers.
+	 */
+	private int numWorkers;
+	
+	/**
+	 * The number of lines answered together by a worker.
+	 */
+	private int chunkSize;
+	
+	/**
+	 * Creates a new batch interface.
+	 * @param processor the processor for retrieving data
+	 * @param format the format the results are written in
+	 * @param numWorkers the number of parallel workers
+	 */
+	public BatchInterface(Processor processor, Format format, int numWorkers) {
+		this(processor, format, numWorkers, DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Creates a new batch interface with the given chunk size.
+	 * @param processor the processor for retrieving data
+	 * @param format the format the results are written in
+	 * @param numWorkers the number of parallel workers
+	 * @param chunkSize the number of lines answered together by a worker
+	 */
+	BatchInterface(Processor processor, Format format, int numWorkers, int chunkSize) {
+		if (numWorkers < 1) {
+			throw new IllegalArgumentException("The number of workers must be positive");
+		}
+		this.processor = processor;
+		this.format = format;
+		this.numWorkers = numWorkers;
+		this.chunkSize = chunkSize;
+	}
+	
+	/**
+	 * Answers every query read from the input, writing the results to the output. Blank lines are
+	 * ignored. The output is flushed but not closed.
+	 * @param input the reader for the queries
+	 * @param output the writer for the results
+	 * @throws IOException if the input can't be read or the output can't be written
+	 */
+	public void run(BufferedReader input, Writer output) throws IOException {
+		// every query is answered from the same version of the library
+		LibrarySnapshot snapshot = processor.getSnapshot();
+		ExecutorService executor = Executors.newFixedThreadPool(numWorkers, runnable -> {
+			Thread thread = new Thread(runnable, "batch-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		try {
+			Deque<Future<String>> pending = new ArrayDeque<>();
+			List<String> chunk = new ArrayList<>(chunkSize);
+			String line;
+			while ((line = input.readLine()) != null) {
+				chunk.add(line);
+				if (chunk.size() < chunkSize) {
+					continue;
+				}
+				List<String> lines = chunk;
+				pending.add(executor.submit(() -> answerChunk(snapshot, lines)));
+				chunk = new ArrayList<>(chunkSize);
+				
+				// wait for the oldest chunk once enough are in progress, so memory use stays bounded
+				while (pending.size() > numWorkers * 2) {
+					output.write(getResult(pending.poll()));
+				}
+			}
+			if (!chunk.isEmpty()) {
+				List<String> lines = chunk;
+				pending.add(executor.submit(() -> answerChunk(snapshot, lines)));
+			}
+			while (!pending.isEmpty()) {
+				output.write(getResult(pending.poll()));
+			}
+			output.flush();
+			
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Waits for the results of a chunk.
+	 * @param future the future results
+	 * @return the results
+	 */
+	private static String getResult(Future<String> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while answering queries", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to answer queries", e.getCause());
+		}
+	}
+	
+	/**
+	 * Answers each of the given lines.
+	 * @param snapshot the version of the library to read
+	 * @param lines the queries
+	 * @return the results, one line each
+	 */
+	private String answerChunk(LibrarySnapshot snapshot, List<String> lines) {
+		StringBuilder results = new StringBuilder(lines.size() * 48);
+		for (String line : lines) {
+			answerLine(snapshot, line.trim(), results);
+		}
+		return results.toString();
+	}
+	
+	/**
+	 * Answers the query on the given line.
+	 * @param snapshot the version of the library to read
+	 * @param line the trimmed query
+	 * @param results the builder to append the result line to
+	 */
+	protected void answerLine(LibrarySnapshot snapshot, String line, StringBuilder results) {
+		if (line.isEmpty()) {
+			return;
+		}
+		
+		// the root note follows the last space, and the scale name is everything before it
+		int split = line.length() - 1;
+		while (split >= 0 && !Character.isWhitespace(line.charAt(split))) {
+			split--;
+		}
+		if (split < 0) {
+			appendResult(results, line, "", QueryStatus.INVALID_QUERY, null);
+			return;
+		}
+		String scaleName = line.substring(0, split).trim();
+		String rootName = line.substring(split + 1);
+		Note root = Note.getNote(rootName);
+		if (root == null) {
+			appendResult(results, scaleName, rootName, QueryStatus.INVALID_QUERY, null);
+			return;
+		}
+		
+		Scale scale = findScale(snapshot, scaleName);
+		if (scale == null) {
+			appendResult(results, scaleName, root.toString(), QueryStatus.NO_SUCH_SCALE, null);
+			return;
+		}
+		List<Note> notes = scale.getScale(root);
+		appendResult(results, scaleName, root.toString(), notes == null ? QueryStatus.UNSPELLABLE : QueryStatus.OK, notes);
+	}
+	
+	/**
+	 * Finds the scale with the given name, searching the base scales before the custom scales.
+	 * @param snapshot the version of the library to read
+	 * @param scaleName the scale name
+	 * @return the scale, or null if there is none
+	 */
+	private static Scale findScale(LibrarySnapshot snapshot, String scaleName) {
+		Scale scale = snapshot.getScaleSet("base").getByName(scaleName);
+		if (scale == null) {
+			scale = snapshot.getScaleSet("custom").getByName(scaleName);
+		}
+		return scale;
+	}
+	
+	/**
+	 * Appends a result line in the output format.
+	 * @param results the builder to append to
+	 * @param scaleName the scale name
+	 * @param rootName the root note name
+	 * @param status the outcome of the query
+	 * @param notes the notes of the scale, or null unless the status is OK
+	 */
+	private void appendResult(StringBuilder results, String scaleName, String rootName, QueryStatus status, List<Note> notes) {
+		switch (format) {
+		case TEXT:
+			results.append(scaleName).append(' ').append(rootName).append(':');
+			if (notes == null) {
+				results.append(' ').append(status);
+			} else {
+				for (Note note : notes) {
+					results.append(' ').append(note);
+				}
+			}
+			break;
+			
+		case TSV:
+			results.append(scaleName.replace('\t', ' ')).append('\t').append(rootName).append('\t').append(status).append('\t');
+			if (notes != null) {
+				for (int i = 0; i < notes.size(); i++) {
+					results.append(i == 0 ? "" : " ").append(notes.get(i));
+				}
+			}
+			break;
+			
+		case JSON:
+			results.append("{\"scale\":");
+			Json.write(results, scaleName);
+			results.append(",\"root\":");
+			Json.write(results, rootName);
+			results.append(",\"status\":\"").append(status).append('"');
+			if (notes != null) {
+				results.append(",\"notes\":");
+				Json.write(results, notes);
+			}
+			results.append('}');
+			break;
+		}
+		results.append('\n');
+	}
+}
@@ -0,0 +1,81 @@
+package ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import datamanagement.Reader;
+import datamanagement.Writer;
+import processor.Processor;
+import util.Note;
+
+class BatchInterfaceTest {
+	
+	Processor processor;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.processor = new Processor(new Reader("test1.txt", "test2.txt"), new Writer("test3.txt"));
+	}
+	
+	/**
+	 * Runs a batch interface over the given input.
+	 * @param format the output format
+	 * @param chunkSize the number of lines answered together
+	 * @param input the queries
+	 * @return the output
+	 */
+	private String run(BatchInterface.Format format, int chunkSize, String input) throws Exception {
+		StringWriter output = new StringWriter();
+		new BatchInterface(this.processor, format, 2, chunkSize).run(new BufferedReader(new StringReader(input)), output);
+		return output.toString();
+	}
+
+	@Test
+	void testText() throws Exception {
+		String output = run(BatchInterface.Format.TEXT, 4096, "major C#\n\n  natural minor   A \nmajor Bx\nlydian C\nmajor\nmajor H\n");
+		assertEquals("major C#: C# D# E# F# G# A# B# C#\n"
+				+ "natural minor A: A B C D E F G A\n"
+				+ "major Bx: UNSPELLABLE\n"
+				+ "lydian C: NO_SUCH_SCALE\n"
+				+ "major : INVALID_QUERY\n"
+				+ "major H: INVALID_QUERY\n", output);
+	}
+
+	@Test
+	void testTsvAndJson() throws Exception {
+		assertEquals("major\tD\tOK\tD E F# G A B C# D\nlydian\tC\tNO_SUCH_SCALE\t\n",
+				run(BatchInterface.Format.TSV, 4096, "major D\nlydian C"));
+		assertEquals("{\"scale\":\"major\",\"root\":\"D\",\"status\":\"OK\",\"notes\":[\"D\",\"E\",\"F#\",\"G\",\"A\",\"B\",\"C#\",\"D\"]}\n"
+				+ "{\"scale\":\"lydian\",\"root\":\"C\",\"status\":\"NO_SUCH_SCALE\"}\n",
+				run(BatchInterface.Format.JSON, 4096, "major D\nlydian C"));
+	}
+
+	@Test
+	void testOrderAcrossChunks() throws Exception {
+		// many small chunks, so results from several workers must be put back in order
+		String[] roots = {"C", "G", "D", "A", "E", "B", "F#", "F", "Bb", "Eb", "Ab", "Db"};
+		StringBuilder input = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			String root = roots[i % roots.length];
+			input.append("major ").append(root).append('\n');
+			expected.append("major ").append(root).append(':');
+			for (String note : this.processor.getScaleNotes("base", "major", Note.getNote(root))) {
+				expected.append(' ').append(note);
+			}
+			expected.append('\n');
+		}
+		assertEquals(expected.toString(), run(BatchInterface.Format.TEXT, 7, input.toString()));
+	}
+
+	@Test
+	void testInvalidWorkers() {
+		assertThrows(IllegalArgumentException.class, () -> new BatchInterface(this.processor, BatchInterface.Format.TEXT, 0));
+	}
+}
@@ -0,0 +1,635 @@
+package ui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import processor.LibrarySnapshot;
+import processor.MatchType;
+import processor.Processor;
+import processor.ScaleCatalog;
+import processor.ScaleMatch;
+import util.Interval;
+import util.Note;
+import util.Scale;
+
+/**
+ * The HTTP interface for querying and changing the Scale Library with JSON requests and responses.
+ * The resources are:
+ * <ul>
+ * <li>GET /scales/{set} - the ID and name of each scale in the set ("base" or "custom")</li>
+ * <li>GET /scales/{set}/{index}/intervals - the interval names of a scale</li>
+ * <li>GET /scales/{set}/{index}/notes?root={note} - the note names of a scale with a root note</li>
+ * <li>POST /scales/custom - adds a custom scale given {"name", "intervals", "simplified"}</li>
+ * <li>DELETE /scales/custom/{index} - deletes a custom scale</li>
+ * <li>POST /identify - finds the scales matching {"notes", "match", "exactSpelling"}</li>
+ * </ul>
+ * GET responses are stored for the current version of the library, so repeated requests are answered
+ * without being processed again.
+ * @author Joel Gibson
+ */
+public class HttpInterface {
+	/**
+	 * The maximum number of stored GET responses.
+	 */
+	private static final int MAX_CACHED_RESPONSES = 4096;
+	
+	/**
+	 * The number of scales found by a name search when no limit is given.
+	 */
+	private static final int DEFAULT_SEARCH_LIMIT = 10;
+	
+	/**
+	 * The scale set names.
+	 */
+	private static final String[] SCALE_SETS = {"base", "custom"};
+	
+	/**
+	 * A response status and JSON body.
+	 */
+	private static class Response {
+		/**
+		 * The HTTP status code.
+		 */
+		private final int status;
+		
+		/**
+		 * The UTF-8 encoded body, or null if there is none.
+		 */
+		private final byte[] body;
+		
+		/**
+		 * Creates a response with the given value as its JSON body.
+		 * @param status the HTTP status code
+		 * @param value the value to write as JSON, or null for an empty body
+		 */
+		Response(int status, Object value) {
+			this.status = status;
+			this.body = value == null ? null : Json.toJson(value).getBytes(StandardCharsets.UTF_8);
+		}
+	}
+	
+	/**
+	 * The GET responses for one version of the library.
+	 */
+	private static class ResponseCache {
+		/**
+		 * The version of the library the responses were created from.
+		 */
+		private final long version;
+		
+		/**
+		 * Maps request URIs to their responses.
+		 */
+		private final Map<String, Response> responses = new ConcurrentHashMap<>();
+		
+		/**
+		 * Creates an empty cache.
+		 * @param version the version of the library the responses are created from
+		 */
+		ResponseCache(long version) {
+			this.version = version;
+		}
+	}
+	
+	/**
+	 * The processor for processing and retrieving data.
+	 */
+	private Processor processor;
+	
+	/**
+	 * The server receiving the requests.
+	 */
+	private HttpServer server;
+	
+	/**
+	 * Runs each request on its own thread.
+	 */
+	private ExecutorService executor;
+	
+	/**
+	 * The stored GET responses for the latest version of the library seen.
+	 */
+	private volatile ResponseCache cache = new ResponseCache(-1);
+	
+	/**
+	 * Creates a new HTTP interface using the given processor. The interface doesn't accept requests
+	 * until it is started.
+	 * @param processor the processor for handling the data
+	 * @param port the port to listen on (0 to choose any free port)
+	 * @throws IOException if the port can't be used
+	 */
+	public HttpInterface(Processor processor, int port) throws IOException {
+		this.processor = processor;
+		this.executor = createExecutor();
+		this.server = HttpServer.create(new InetSocketAddress(port), 0);
+		this.server.createContext("/", this::handle);
+		this.server.setExecutor(executor);
+	}
+	
+	/**
+	 * Creates the executor that runs each request on a new virtual thread if the Java runtime supports
+	 * them (Java 21 and later), or otherwise on a pooled platform thread.
+	 * @return the executor
+	 */
+	private static ExecutorService createExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+	
+	/**
+	 * Prepares the responses to the common GET requests for the current library, then starts accepting
+	 * requests.
+	 */
+	public void start() {
+		LibrarySnapshot snapshot = processor.getSnapshot();
+		ResponseCache cache = new ResponseCache(snapshot.getVersion());
+		this.cache = cache;
+		precomputeResponses(snapshot, cache);
+		server.start();
+	}
+	
+	/**
+	 * Stops accepting requests, waiting up to the given time for current requests to finish.
+	 * @param delaySeconds the maximum time to wait (in seconds)
+	 */
+	public void stop(int delaySeconds) {
+		server.stop(delaySeconds);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * @return the port the interface is listening on
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+	
+	/**
+	 * Stores the responses to the scale list, interval and note requests for the given version of the
+	 * library, in that order, until the cache holds the maximum number of responses. Stops early if the
+	 * cache is replaced by a newer version.
+	 * @param snapshot the version of the library
+	 * @param cache the stored responses for that version
+	 */
+	private void precomputeResponses(LibrarySnapshot snapshot, ResponseCache cache) {
+		for (String scaleSet : SCALE_SETS) {
+			if (!store(cache, "/scales/" + scaleSet, () -> listScales(snapshot.getScaleSet(scaleSet)))) {
+				return;
+			}
+		}
+		for (String scaleSet : SCALE_SETS) {
+			ScaleCatalog scales = snapshot.getScaleSet(scaleSet);
+			for (int i = 0; i < scales.size(); i++) {
+				Scale scale = scales.get(i);
+				if (!store(cache, "/scales/" + scaleSet + "/" + i + "/intervals", () -> new Response(200, scale.getIntervalNames()))) {
+					return;
+				}
+			}
+		}
+		for (String scaleSet : SCALE_SETS) {
+			ScaleCatalog scales = snapshot.getScaleSet(scaleSet);
+			for (int i = 0; i < scales.size(); i++) {
+				Scale scale = scales.get(i);
+				for (Note root : Note.getRootNotes()) {
+					String uri = "/scales/" + scaleSet + "/" + i + "/notes?root=" + root.toString().replace("#", "%23");
+					if (!store(cache, uri, () -> getNotes(scale, root))) {
+						return;
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stores the response to the given request, unless it is already stored.
+	 * @param cache the stored responses
+	 * @param uri the request URI
+	 * @param response creates the response
+	 * @return false if the cache is full or has been replaced by a newer version, so no more responses
+	 * should be stored
+	 */
+	private boolean store(ResponseCache cache, String uri, Supplier<Response> response) {
+		if (cache.responses.size() >= MAX_CACHED_RESPONSES || this.cache != cache) {
+			return false;
+		}
+		if (!cache.responses.containsKey(uri)) {
+			cache.responses.putIfAbsent(uri, response.get());
+		}
+		return true;
+	}
+	
+	/**
+	 * Gets the stored responses for the given version of the library, discarding the responses for any
+	 * earlier version. The responses for a new version are prepared in the background, which stops
+	 * once a newer version is seen. A version older than the stored responses never replaces them.
+	 * @param snapshot the version of the library
+	 * @return the stored responses, or null if responses for a newer version are already stored
+	 */
+	ResponseCache getCache(LibrarySnapshot snapshot) {
+		ResponseCache cache = this.cache;
+		if (cache.version == snapshot.getVersion()) {
+			return cache;
+		}
+		
+		ResponseCache newCache;
+		synchronized (this) {
+			// only install responses for a newer version, as requests may finish out of order
+			cache = this.cache;
+			if (cache.version >= snapshot.getVersion()) {
+				return cache.version == snapshot.getVersion() ? cache : null;
+			}
+			newCache = new ResponseCache(snapshot.getVersion());
+			this.cache = newCache;
+		}
+		try {
+			executor.execute(() -> precomputeResponses(snapshot, newCache));
+		} catch (RejectedExecutionException e) {
+			// the interface is stopping, so the responses won't be needed
+		}
+		return newCache;
+	}
+	
+	/**
+	 * Handles a request.
+	 * @param exchange the request and response
+	 * @throws IOException if the response can't be sent
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		Response response;
+		try {
+			response = route(exchange);
+		} catch (IllegalArgumentException e) {
+			response = error(400, e.getMessage());
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			response = error(500, "Internal error");
+		}
+		
+		// send the response
+		try (OutputStream body = exchange.getResponseBody()) {
+			if (response.body == null) {
+				exchange.sendResponseHeaders(response.status, -1);
+			} else {
+				exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+				exchange.sendResponseHeaders(response.status, response.body.length);
+				body.write(response.body);
+			}
+		}
+	}
+	
+	/**
+	 * Finds the response to a request.
+	 * @param exchange the request
+	 * @return the response
+	 * @throws IOException if the request body can't be read
+	 */
+	private Response route(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		URI uri = exchange.getRequestURI();
+		String[] path = uri.getPath().substring(1).split("/");
+		
+		if (path[0].equals("scales") && path.length >= 2) {
+			if (method.equals("GET")) {
+				return getCachedResponse(uri);
+			}
+			if (method.equals("POST") && path.length == 2 && path[1].equals("custom")) {
+				return addCustomScale(readBody(exchange));
+			}
+			if (method.equals("DELETE") && path.length == 3 && path[1].equals("custom")) {
+				return deleteCustomScale(path[2]);
+			}
+			return error(405, "Method not allowed");
+		}
+		if (path[0].equals("identify") && path.length == 1) {
+			if (method.equals("POST")) {
+				return identify(readBody(exchange));
+			}
+			return error(405, "Method not allowed");
+		}
+		return error(404, "Not found");
+	}
+	
+	/**
+	 * Finds the response to a GET request, using the stored response if there is one.
+	 * @param uri the request URI
+	 * @return the response
+	 */
+	private Response getCachedResponse(URI uri) {
+		LibrarySnapshot snapshot = processor.getSnapshot();
+		ResponseCache cache = getCache(snapshot);
+		if (cache == null) {
+			// the library has changed since the snapshot was taken, so the response isn't stored
+			return get(snapshot, uri);
+		}
+		String key = uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+		Response response = cache.responses.get(key);
+		if (response != null) {
+			return response;
+		}
+		
+		// only store successful responses, and only up to a limit, so unusual requests can't fill memory
+		response = get(snapshot, uri);
+		if (response.status == 200 && cache.responses.size() < MAX_CACHED_RESPONSES) {
+			cache.responses.putIfAbsent(key, response);
+		}
+		return response;
+	}
+	
+	/**
+	 * Finds the response to a GET request for a scale resource.
+	 * @param snapshot the version of the library to read
+	 * @param uri the request URI
+	 * @return the response
+	 */
+	private Response get(LibrarySnapshot snapshot, URI uri) {
+		String[] path = uri.getPath().substring(1).split("/");
+		ScaleCatalog scales = snapshot.getScaleSet(path[1]);
+		if (scales == null) {
+			return error(404, "No scale set named " + path[1]);
+		}
+		if (path.length == 2) {
+			Map<String, String> parameters = getQueryParameters(uri);
+			if (parameters.containsKey("q")) {
+				return searchScales(path[1], scales, parameters);
+			}
+			return listScales(scales);
+		}
+		if (path.length != 4) {
+			return error(404, "Not found");
+		}
+		
+		Scale scale = findScale(scales, path[2]);
+		if (scale == null) {
+			return error(404, "No scale at position " + path[2]);
+		}
+		switch (path[3]) {
+		case "intervals":
+			return new Response(200, scale.getIntervalNames());
+		case "notes":
+			String rootName = getQueryParameters(uri).get("root");
+			if (rootName == null) {
+				return error(400, "Missing root parameter");
+			}
+			Note root = Note.getNote(rootName);
+			if (root == null) {
+				return error(400, "Invalid root note " + rootName);
+			}
+			return getNotes(scale, root);
+		default:
+			return error(404, "Not found");
+		}
+	}
+	
+	/**
+	 * Creates the response listing the given scale set.
+	 * @param scales the scale set
+	 * @return the response
+	 */
+	private static Response listScales(ScaleCatalog scales) {
+		List<Map<String, Object>> list = new ArrayList<>();
+		for (Scale scale : scales) {
+			Map<String, Object> item = new LinkedHashMap<>();
+			item.put("id", scales.getId(scale));
+			item.put("name", scale.getName());
+			list.add(item);
+		}
+		return new Response(200, list);
+	}
+	
+	/**
+	 * Creates the response listing the scales in the given scale set that best match the name in
+	 * the "q" parameter, best match first, with at most "limit" scales (10 by default).
+	 * @param scaleSet the scale set name
+	 * @param scales the scale set
+	 * @param parameters the query parameters
+	 * @return the response
+	 */
+	private Response searchScales(String scaleSet, ScaleCatalog scales, Map<String, String> parameters) {
+		int limit = DEFAULT_SEARCH_LIMIT;
+		if (parameters.containsKey("limit")) {
+			try {
+				limit = Integer.parseInt(parameters.get("limit"));
+			} catch (NumberFormatException e) {
+				return error(400, "Invalid limit " + parameters.get("limit"));
+			}
+		}
+		
+		List<Map<String, Object>> list = new ArrayList<>();
+		for (String name : processor.searchScaleNames(scaleSet, parameters.get("q"), limit)) {
+			// skip names removed since the snapshot was taken
+			Scale scale = scales.getByName(name);
+			if (scale != null) {
+				Map<String, Object> item = new LinkedHashMap<>();
+				item.put("id", scales.getId(scale));
+				item.put("name", scale.getName());
+				list.add(item);
+			}
+		}
+		return new Response(200, list);
+	}
+	
+	/**
+	 * Creates the response containing the notes of the given scale with the given root note.
+	 * @param scale the scale
+	 * @param root the root note
+	 * @return the response
+	 */
+	private static Response getNotes(Scale scale, Note root) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		List<Note> notes = scale.getScale(root);
+		result.put("status", notes == null ? "UNSPELLABLE" : "OK");
+		if (notes != null) {
+			result.put("notes", notes);
+		}
+		return new Response(200, result);
+	}
+	
+	/**
+	 * Adds a custom scale.
+	 * @param body the JSON request body
+	 * @return the response
+	 */
+	private Response addCustomScale(Object body) {
+		Map<?, ?> request = asMap(body);
+		if (!(request.get("name") instanceof String) || ((String) request.get("name")).isBlank()) {
+			return error(400, "Missing scale name");
+		}
+		String name = ((String) request.get("name")).trim();
+		if (!Processor.isValidScaleName(name)) {
+			return error(400, "Scale name must not contain ';', ',' or control characters");
+		}
+		
+		// convert the interval names
+		if (!(request.get("intervals") instanceof List) || ((List<?>) request.get("intervals")).isEmpty()) {
+			return error(400, "Missing intervals");
+		}
+		List<Interval> intervals = new ArrayList<>();
+		for (Object intervalName : (List<?>) request.get("intervals")) {
+			Interval interval = intervalName instanceof String ? Interval.getInterval((String) intervalName) : null;
+			if (interval == null) {
+				return error(400, "Invalid interval " + intervalName);
+			}
+			intervals.add(interval);
+		}
+		boolean simplified = Boolean.TRUE.equals(request.get("simplified"));
+		
+		long id = processor.addCustomScale(name, intervals, simplified);
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("id", id);
+		return new Response(201, result);
+	}
+	
+	/**
+	 * Deletes a custom scale.
+	 * @param index the position of the scale in the custom scale set
+	 * @return the response
+	 */
+	private Response deleteCustomScale(String index) {
+		// delete by ID, so a scale moved by a concurrent change is never deleted by mistake
+		ScaleCatalog customScales = processor.getSnapshot().getScaleSet("custom");
+		Scale scale = findScale(customScales, index);
+		if (scale == null) {
+			return error(404, "No scale at position " + index);
+		}
+		if (!processor.deleteCustomScaleById(customScales.getId(scale))) {
+			return error(404, "Scale was already deleted");
+		}
+		return new Response(204, null);
+	}
+	
+	/**
+	 * Finds the scales in both scale sets that match the given notes.
+	 * @param body the JSON request body
+	 * @return the response
+	 */
+	private Response identify(Object body) {
+		Map<?, ?> request = asMap(body);
+		if (!(request.get("notes") instanceof List)) {
+			return error(400, "Missing notes");
+		}
+		List<Note> notes = new ArrayList<>();
+		for (Object noteName : (List<?>) request.get("notes")) {
+			Note note = noteName instanceof String ? Note.getNote((String) noteName) : null;
+			if (note == null) {
+				return error(400, "Invalid note " + noteName);
+			}
+			notes.add(note);
+		}
+		MatchType matchType = MatchType.SUBSET;
+		if (request.get("match") != null) {
+			matchType = MatchType.valueOf(request.get("match").toString().toUpperCase());
+		}
+		boolean exactSpelling = Boolean.TRUE.equals(request.get("exactSpelling"));
+		
+		List<Map<String, Object>> result = new ArrayList<>();
+		for (String scaleSet : SCALE_SETS) {
+			for (ScaleMatch match : processor.findScales(scaleSet, notes, matchType, exactSpelling)) {
+				Map<String, Object> item = new LinkedHashMap<>();
+				item.put("scaleSet", scaleSet);
+				item.put("name", match.getScaleName());
+				item.put("root", match.getRoot());
+				item.put("notes", match.getNotes());
+				result.add(item);
+			}
+		}
+		return new Response(200, result);
+	}
+	
+	/**
+	 * Finds the scale at the given position.
+	 * @param scales the scale set
+	 * @param index the position as text
+	 * @return the scale, or null if the position is not valid
+	 */
+	private static Scale findScale(ScaleCatalog scales, String index) {
+		try {
+			int position = Integer.parseInt(index);
+			return position >= 0 && position < scales.size() ? scales.get(position) : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Reads the request body as JSON.
+	 * @param exchange the request
+	 * @return the JSON value
+	 * @throws IOException if the body can't be read
+	 */
+	private static Object readBody(HttpExchange exchange) throws IOException {
+		try (InputStream body = exchange.getRequestBody()) {
+			return Json.parse(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+	
+	/**
+	 * Checks that a JSON value is an object.
+	 * @param value the JSON value
+	 * @return the object's members
+	 */
+	private static Map<?, ?> asMap(Object value) {
+		if (!(value instanceof Map)) {
+			throw new IllegalArgumentException("Expected a JSON object");
+		}
+		return (Map<?, ?>) value;
+	}
+	
+	/**
+	 * Decodes the query parameters of the given URI.
+	 * @param uri the request URI
+	 * @return the map of parameter names to values
+	 */
+	private static Map<String, String> getQueryParameters(URI uri) {
+		Map<String, String> parameters = new HashMap<>();
+		if (uri.getRawQuery() == null) {
+			return parameters;
+		}
+		for (String parameter : uri.getRawQuery().split("&")) {
+			int equals = parameter.indexOf('=');
+			if (equals > 0) {
+				parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+						URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+			}
+		}
+		return parameters;
+	}
+	
+	/**
+	 * Creates an error response.
+	 * @param status the HTTP status code
+	 * @param message the description of the error
+	 * @return the response
+	 */
+	private static Response error(int status, String message) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("error", message);
+		return new Response(status, result);
+	}
+}
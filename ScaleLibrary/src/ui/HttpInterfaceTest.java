@@ -0,0 +1,133 @@
+package ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import datamanagement.Reader;
+import datamanagement.Writer;
+import processor.LibrarySnapshot;
+import processor.Processor;
+
+class HttpInterfaceTest {
+	
+	Processor processor;
+	HttpInterface http;
+	HttpClient client;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.processor = new Processor(new Reader("test1.txt", "test2.txt"), new Writer("test3.txt"));
+		this.http = new HttpInterface(this.processor, 0);
+		this.http.start();
+		this.client = HttpClient.newHttpClient();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		this.http.stop(0);
+	}
+	
+	/**
+	 * Sends a request to the interface.
+	 * @param method the HTTP method
+	 * @param path the path and query of the request
+	 * @param body the JSON request body, or null
+	 * @return the response
+	 */
+	private HttpResponse<String> send(String method, String path, String body) throws Exception {
+		HttpRequest.BodyPublisher publisher = body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body);
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + this.http.getPort() + path))
+				.method(method, publisher).build();
+		return this.client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	@Test
+	void testGet() throws Exception {
+		HttpResponse<String> response = send("GET", "/scales/base", null);
+		assertEquals(200, response.statusCode());
+		List<?> scales = (List<?>) Json.parse(response.body());
+		assertEquals(3, scales.size());
+		assertEquals("harmonic minor", ((Map<?, ?>) scales.get(0)).get("name"));
+		
+		response = send("GET", "/scales/base/1/intervals", null);
+		assertEquals("[\"1\",\"2\",\"3\",\"4\",\"5\",\"6\",\"7\",\"8\"]", response.body());
+		
+		response = send("GET", "/scales/base/1/notes?root=C%23", null);
+		assertEquals("{\"status\":\"OK\",\"notes\":[\"C#\",\"D#\",\"E#\",\"F#\",\"G#\",\"A#\",\"B#\",\"C#\"]}", response.body());
+		
+		// notes for roots outside the precomputed responses
+		response = send("GET", "/scales/base/1/notes?root=Bx", null);
+		assertEquals("{\"status\":\"UNSPELLABLE\"}", response.body());
+		
+		// search scale names
+		response = send("GET", "/scales/base?q=minr&limit=1", null);
+		scales = (List<?>) Json.parse(response.body());
+		assertEquals(1, scales.size());
+		assertEquals("harmonic minor", ((Map<?, ?>) scales.get(0)).get("name"));
+		assertEquals(400, send("GET", "/scales/base?q=minor&limit=x", null).statusCode());
+		
+		assertEquals(404, send("GET", "/scales/other", null).statusCode());
+		assertEquals(404, send("GET", "/scales/base/3/intervals", null).statusCode());
+		assertEquals(400, send("GET", "/scales/base/0/notes?root=H", null).statusCode());
+		assertEquals(400, send("GET", "/scales/base/0/notes", null).statusCode());
+		assertEquals(404, send("GET", "/other", null).statusCode());
+	}
+
+	@Test
+	void testOlderVersionNotCached() throws Exception {
+		// test a request still holding an older version doesn't replace the stored newer responses
+		LibrarySnapshot older = this.processor.getSnapshot();
+		assertEquals(201, send("POST", "/scales/custom", "{\"name\": \"test1\", \"intervals\": [\"1\", \"b3\"]}").statusCode());
+		LibrarySnapshot newer = this.processor.getSnapshot();
+		assertNotNull(this.http.getCache(newer));
+		assertNull(this.http.getCache(older), "an older version should not replace a newer one");
+		assertSame(this.http.getCache(newer), this.http.getCache(newer));
+		assertTrue(send("GET", "/scales/custom", null).body().contains("\"name\":\"test1\""));
+	}
+
+	@Test
+	void testAddAndDelete() throws Exception {
+		HttpResponse<String> response = send("POST", "/scales/custom", "{\"name\": \"test1\", \"intervals\": [\"1\", \"b3\"], \"simplified\": false}");
+		assertEquals(201, response.statusCode());
+		assertTrue(((Map<?, ?>) Json.parse(response.body())).containsKey("id"));
+		
+		// stored responses are replaced once the library changes
+		response = send("GET", "/scales/custom/0/notes?root=C", null);
+		assertEquals("{\"status\":\"OK\",\"notes\":[\"C\",\"Eb\"]}", response.body());
+		
+		assertEquals(400, send("POST", "/scales/custom", "{\"name\": \"test2\", \"intervals\": [\"1\", \"y3\"]}").statusCode());
+		assertEquals(400, send("POST", "/scales/custom", "{\"name\": ").statusCode());
+		assertEquals(400, send("POST", "/scales/custom", "{\"name\": \"test2\\n+ injected\", \"intervals\": [\"1\"]}").statusCode(), "line breaks in names");
+		assertEquals(400, send("POST", "/scales/custom", "{\"name\": \"a; b\", \"intervals\": [\"1\"]}").statusCode());
+		assertEquals(400, send("POST", "/scales/custom", "{\"name\": \"a, b\", \"intervals\": [\"1\"]}").statusCode());
+		assertEquals(405, send("POST", "/scales/base", "{}").statusCode());
+		
+		assertEquals(204, send("DELETE", "/scales/custom/0", null).statusCode());
+		assertEquals("[]", send("GET", "/scales/custom", null).body());
+		assertEquals(404, send("DELETE", "/scales/custom/0", null).statusCode());
+	}
+
+	@Test
+	void testIdentify() throws Exception {
+		HttpResponse<String> response = send("POST", "/identify", "{\"notes\": [\"C\", \"D\", \"E\", \"F\", \"G\", \"A\", \"B\"], \"match\": \"exact\", \"exactSpelling\": true}");
+		assertEquals(200, response.statusCode());
+		List<?> matches = (List<?>) Json.parse(response.body());
+		assertEquals(2, matches.size());
+		assertEquals("major", ((Map<?, ?>) matches.get(0)).get("name"));
+		assertEquals("C", ((Map<?, ?>) matches.get(0)).get("root"));
+		assertEquals("natural minor", ((Map<?, ?>) matches.get(1)).get("name"));
+		assertEquals("A", ((Map<?, ?>) matches.get(1)).get("root"));
+		
+		assertEquals(400, send("POST", "/identify", "{\"notes\": [\"C\"], \"match\": \"most\"}").statusCode());
+	}
+}
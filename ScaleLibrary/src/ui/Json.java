@@ -0,0 +1,325 @@
+package ui;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the small JSON documents used by the HTTP interface. Objects are read as maps,
+ * arrays as lists, numbers as doubles, and strings, booleans and null as themselves.
+ * @author Joel Gibson
+ */
+public class Json {
+	/**
+	 * The text being read.
+	 */
+	private String text;
+	
+	/**
+	 * The position of the next character to read.
+	 */
+	private int position;
+	
+	/**
+	 * Creates a reader for the given text.
+	 * @param text the JSON text
+	 */
+	private Json(String text) {
+		this.text = text;
+	}
+	
+	/**
+	 * Reads the JSON value in the given text.
+	 * @param text the JSON text
+	 * @return the value
+	 * @throws IllegalArgumentException if the text is not a single valid JSON value
+	 */
+	public static Object parse(String text) {
+		Json json = new Json(text);
+		Object value = json.readValue();
+		json.skipWhitespace();
+		if (json.position != text.length()) {
+			throw json.error("Unexpected text after value");
+		}
+		return value;
+	}
+	
+	/**
+	 * Writes the given value as JSON. Maps, collections, strings, numbers, booleans and null are
+	 * supported.
+	 * @param value the value to write
+	 * @return the JSON text
+	 */
+	public static String toJson(Object value) {
+		StringBuilder builder = new StringBuilder();
+		write(builder, value);
+		return builder.toString();
+	}
+	
+	/**
+	 * Appends the given value as JSON.
+	 * @param builder the builder to append to
+	 * @param value the value to write
+	 */
+	static void write(StringBuilder builder, Object value) {
+		if (value == null || value instanceof Boolean || value instanceof Number) {
+			builder.append(value);
+			
+		} else if (value instanceof Map) {
+			builder.append('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				if (!first) {
+					builder.append(',');
+				}
+				first = false;
+				writeString(builder, entry.getKey().toString());
+				builder.append(':');
+				write(builder, entry.getValue());
+			}
+			builder.append('}');
+			
+		} else if (value instanceof Collection) {
+			builder.append('[');
+			boolean first = true;
+			for (Object element : (Collection<?>) value) {
+				if (!first) {
+					builder.append(',');
+				}
+				first = false;
+				write(builder, element);
+			}
+			builder.append(']');
+			
+		} else {
+			writeString(builder, value.toString());
+		}
+	}
+	
+	/**
+	 * Appends the given string as a JSON string, escaping characters where required.
+	 * @param builder the builder to append to
+	 * @param string the string to write
+	 */
+	private static void writeString(StringBuilder builder, String string) {
+		builder.append('"');
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c == '"' || c == '\\') {
+				builder.append('\\').append(c);
+			} else if (c < 0x20) {
+				builder.append(String.format("\\u%04x", (int) c));
+			} else {
+				builder.append(c);
+			}
+		}
+		builder.append('"');
+	}
+	
+	/**
+	 * Reads the value starting at the current position.
+	 * @return the value
+	 */
+	private Object readValue() {
+		skipWhitespace();
+		if (position >= text.length()) {
+			throw error("Expected a value");
+		}
+		char c = text.charAt(position);
+		switch (c) {
+		case '{':
+			return readObject();
+		case '[':
+			return readArray();
+		case '"':
+			return readString();
+		case 't':
+			readWord("true");
+			return Boolean.TRUE;
+		case 'f':
+			readWord("false");
+			return Boolean.FALSE;
+		case 'n':
+			readWord("null");
+			return null;
+		default:
+			return readNumber();
+		}
+	}
+	
+	/**
+	 * Reads the object starting at the current position.
+	 * @return the map of the object's members, in order
+	 */
+	private Map<String, Object> readObject() {
+		Map<String, Object> object = new LinkedHashMap<>();
+		position++;
+		skipWhitespace();
+		if (peek() == '}') {
+			position++;
+			return object;
+		}
+		while (true) {
+			skipWhitespace();
+			if (peek() != '"') {
+				throw error("Expected a member name");
+			}
+			String name = readString();
+			skipWhitespace();
+			expect(':');
+			object.put(name, readValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				position++;
+			} else {
+				expect('}');
+				return object;
+			}
+		}
+	}
+	
+	/**
+	 * Reads the array starting at the current position.
+	 * @return the list of the array's elements
+	 */
+	private List<Object> readArray() {
+		List<Object> array = new ArrayList<>();
+		position++;
+		skipWhitespace();
+		if (peek() == ']') {
+			position++;
+			return array;
+		}
+		while (true) {
+			array.add(readValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				position++;
+			} else {
+				expect(']');
+				return array;
+			}
+		}
+	}
+	
+	/**
+	 * Reads the string starting at the current position.
+	 * @return the string, with escapes replaced
+	 */
+	private String readString() {
+		StringBuilder builder = new StringBuilder();
+		position++;
+		while (true) {
+			if (position >= text.length()) {
+				throw error("Unterminated string");
+			}
+			char c = text.charAt(position++);
+			if (c == '"') {
+				return builder.toString();
+			}
+			if (c != '\\') {
+				builder.append(c);
+				continue;
+			}
+			if (position >= text.length()) {
+				throw error("Unterminated string");
+			}
+			char escape = text.charAt(position++);
+			switch (escape) {
+			case 'b':
+				builder.append('\b');
+				break;
+			case 'f':
+				builder.append('\f');
+				break;
+			case 'n':
+				builder.append('\n');
+				break;
+			case 'r':
+				builder.append('\r');
+				break;
+			case 't':
+				builder.append('\t');
+				break;
+			case 'u':
+				if (position + 4 > text.length()) {
+					throw error("Invalid unicode escape");
+				}
+				try {
+					builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+				} catch (NumberFormatException e) {
+					throw error("Invalid unicode escape");
+				}
+				position += 4;
+				break;
+			default:
+				builder.append(escape);
+			}
+		}
+	}
+	
+	/**
+	 * Reads the number starting at the current position.
+	 * @return the number
+	 */
+	private Double readNumber() {
+		int start = position;
+		while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) != -1) {
+			position++;
+		}
+		try {
+			return Double.valueOf(text.substring(start, position));
+		} catch (NumberFormatException e) {
+			throw error("Invalid number");
+		}
+	}
+	
+	/**
+	 * Reads the given word at the current position.
+	 * @param word the expected word
+	 */
+	private void readWord(String word) {
+		if (!text.startsWith(word, position)) {
+			throw error("Expected " + word);
+		}
+		position += word.length();
+	}
+	
+	/**
+	 * Reads the given character at the current position.
+	 * @param c the expected character
+	 */
+	private void expect(char c) {
+		if (peek() != c) {
+			throw error("Expected '" + c + "'");
+		}
+		position++;
+	}
+	
+	/**
+	 * @return the character at the current position, or 0 at the end of the text
+	 */
+	private char peek() {
+		return position < text.length() ? text.charAt(position) : 0;
+	}
+	
+	/**
+	 * Moves the current position past any whitespace.
+	 */
+	private void skipWhitespace() {
+		while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+			position++;
+		}
+	}
+	
+	/**
+	 * Creates the exception for invalid JSON at the current position.
+	 * @param message the description of the problem
+	 * @return the exception
+	 */
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + position);
+	}
+}
@@ -0,0 +1,39 @@
+package ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class JsonTest {
+
+	@Test
+	void testParse() {
+		Object value = Json.parse(" {\"name\": \"a \\\"b\\\"\\u0041\", \"list\": [1, 2.5, true, null], \"empty\": {}} ");
+		Map<?, ?> object = (Map<?, ?>) value;
+		assertEquals("a \"b\"A", object.get("name"));
+		assertEquals(Arrays.asList(1.0, 2.5, true, null), object.get("list"));
+		assertTrue(((Map<?, ?>) object.get("empty")).isEmpty());
+		assertEquals(List.of(), Json.parse("[]"));
+		
+		// invalid JSON
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"name\": }"));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("[1, 2"));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("\"abc"));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("1 2"));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse(""));
+	}
+
+	@Test
+	void testToJson() {
+		Map<String, Object> object = new LinkedHashMap<>();
+		object.put("name", "a\"b\n");
+		object.put("list", Arrays.asList(1, 2L, false, null));
+		assertEquals("{\"name\":\"a\\\"b\\u000a\",\"list\":[1,2,false,null]}", Json.toJson(object));
+		assertEquals(object.get("name"), ((Map<?, ?>) Json.parse(Json.toJson(object))).get("name"));
+	}
+}
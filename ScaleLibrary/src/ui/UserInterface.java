@@ -4,7 +4,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
+import processor.MatchType;
 import processor.Processor;
+import processor.ScaleMatch;
 import util.Interval;
 import util.Note;
 
@@ -13,6 +15,11 @@ import util.Note;
  * @author Joel Gibson
  */
 public class UserInterface {
+	/**
+	 * The largest number of scales listed at once. Larger scale sets are searched by name instead.
+	 */
+	private static final int MAX_LISTED = 30;
+	
 	/**
 	 * The processor for processing and retrieving data to display.
 	 */
@@ -91,7 +98,7 @@ public class UserInterface {
 		int option;
 		while (true) {
 			printMainMenu();
-			option = getOption(4);
+			option = getOption(5);
 			
 			if (option == 0) {
 				break;
@@ -103,6 +110,8 @@ public class UserInterface {
 				createCustomScale();
 			} else if (option == 4) {
 				removeCustomScale();
+			} else if (option == 5) {
+				findScales();
 			}
 		}
 		
@@ -129,7 +138,7 @@ public class UserInterface {
 		}
 		
 		// find which scale the user wants to search
-		int index = chooseScale(scales);
+		int index = chooseScale(scaleSet, scales);
 		if (index == -1) {
 			return;
 		}
@@ -188,7 +197,7 @@ public class UserInterface {
 			// check if note is valid
 			if (root == null) {
 				System.out.println("Invalid note name.\n");
-			} else if (Math.abs(root.getSemitoneChange()) > 1) {
+			} else if (!root.isRoot()) {
 				System.out.println("Invalid root (maximum one sharp or flat).\n");
 			} else {
 				return root;
@@ -211,6 +220,64 @@ public class UserInterface {
 		return getOption(scales.size()) - 1;
 	}
 	
+	/**
+	 * Prompts the user to select a scale from the given scale set. Small scale sets are listed in
+	 * full, and larger ones are searched by part of the scale name.
+	 * @param scaleSet the scale set to search (either "base" or "custom")
+	 * @param scales the list of scale names in the scale set
+	 * @return the index of the selected scale, or -1 if user selected to quit
+	 */
+	public int chooseScale(String scaleSet, List<String> scales) {
+		if (scales.size() <= MAX_LISTED) {
+			return chooseScale(scales);
+		}
+		
+		while (true) {
+			System.out.print("Enter part of the scale name, or 'q' to quit: ");
+			String input = getUserInput();
+			
+			// check if user wants to quit
+			if ("q".equals(input.toLowerCase())) {
+				System.out.println();
+				return -1;
+			}
+			
+			// list the best matching scales, searching again if the user doesn't pick one
+			List<Integer> matches = processor.searchScaleIndexes(scaleSet, input, MAX_LISTED);
+			if (matches.isEmpty()) {
+				System.out.println("No scales found.\n");
+				continue;
+			}
+			System.out.println();
+			int option = chooseScale(describeScales(scaleSet, scales, matches));
+			if (option != -1) {
+				return matches.get(option);
+			}
+		}
+	}
+	
+	/**
+	 * Describes the scales at the given positions by name, adding the intervals of any scale that
+	 * shares its name with another listed scale so that they can be told apart.
+	 * @param scaleSet the scale set (either "base" or "custom")
+	 * @param scales the list of scale names in the scale set
+	 * @param indexes the positions of the scales to describe
+	 * @return the list of descriptions
+	 */
+	private List<String> describeScales(String scaleSet, List<String> scales, List<Integer> indexes) {
+		List<String> descriptions = new ArrayList<>();
+		for (int i = 0; i < indexes.size(); i++) {
+			String name = scales.get(indexes.get(i));
+			boolean duplicate = (i > 0 && name.equals(scales.get(indexes.get(i - 1))))
+					|| (i + 1 < indexes.size() && name.equals(scales.get(indexes.get(i + 1))));
+			if (duplicate) {
+				name += " (" + String.join(", ", processor.getIntervalList(scaleSet, indexes.get(i))) + ")";
+			}
+			descriptions.add(name);
+		}
+		return descriptions;
+	}
+	
 	/**
 	 * Prints the given list of notes.
 	 * @param scale the list of notes
@@ -263,15 +330,22 @@ public class UserInterface {
 	 * @return the scale name, or null if user selected to quit
 	 */
 	private String chooseScaleName() {
-		System.out.print("Enter the scale name (e.g. major), or 'q' to quit: ");
-		String input = getUserInput().toLowerCase();
-		System.out.println();
-		
-		// check if user wants to quit
-		if ("q".equals(input)) {
-			return null;
+		while (true) {
+			System.out.print("Enter the scale name (e.g. major), or 'q' to quit: ");
+			String input = getUserInput().toLowerCase();
+			System.out.println();
+			
+			// check if user wants to quit
+			if ("q".equals(input)) {
+				return null;
+			}
+			
+			// check if name is valid
+			if (Processor.isValidScaleName(input)) {
+				return input;
+			}
+			System.out.println("Invalid scale name (must not contain ';' or ',').\n");
 		}
-        return input;
 	}
 	
 	/**
@@ -291,10 +365,7 @@ public class UserInterface {
 			}
 			
 			// create each interval
-			String[] intervalList = input.split(",\\s*");
-			for (String interval : intervalList) {
-				intervals.add(Interval.getInterval(interval));
-			}
+			intervals.addAll(Interval.parseIntervalList(input, 0, input.length()));
 			
 			// check if all intervals are valid
 			if (intervals.contains(null)) {
@@ -334,6 +405,69 @@ public class UserInterface {
 		}
 	}
 	
+	/**
+	 * Prompts the user to enter a list of notes, then displays every scale containing those notes.
+	 */
+	private void findScales() {
+		printHeading("Find scales");
+		
+		while (true) {
+			// prompt user for the notes to search for
+			List<Note> notes = chooseNotes();
+			if (notes == null) {
+				return;
+			}
+			
+			// find the matching scales in both scale sets
+			List<ScaleMatch> matches = new ArrayList<>();
+			matches.addAll(processor.findScales("base", notes, MatchType.SUBSET, false));
+			matches.addAll(processor.findScales("custom", notes, MatchType.SUBSET, false));
+			if (matches.isEmpty()) {
+				System.out.println("No scales found.\n");
+				continue;
+			}
+			
+			// display each matching scale
+			System.out.println();
+			for (ScaleMatch match : matches) {
+				System.out.println(match + " scale:");
+				List<String> noteNames = new ArrayList<>();
+				for (Note note : match.getNotes()) {
+					noteNames.add(note.toString());
+				}
+				printScale(noteNames);
+			}
+		}
+	}
+	
+	/**
+	 * Prompts the user to enter a list of notes.
+	 * @return the note list, or null if user selected to quit
+	 */
+	private List<Note> chooseNotes() {
+		while (true) {
+			System.out.print("Enter the notes to search for (e.g. C, Eb, G), or 'q' to quit: ");
+			String input = getUserInput();
+			
+			// check if user wants to quit
+			if ("q".equals(input.toLowerCase())) {
+				System.out.println();
+				return null;
+			}
+			
+			// find each note
+			List<Note> notes = Note.parseNoteList(input, 0, input.length());
+			
+			// check if all notes are valid
+			if (notes.contains(null)) {
+				System.out.println("Invalid note list.\n");
+				continue;
+			}
+			
+			return notes;
+		}
+	}
+	
 	/**
 	 * Prompts the user to remove a custom scale from the library.
 	 */
@@ -348,7 +482,7 @@ public class UserInterface {
 		}
 
 		// find which scale the user wants to remove
-		int index = chooseScale(scales);
+		int index = chooseScale("custom", scales);
 		if (index == -1) {
 			return;
 		}
@@ -382,6 +516,7 @@ public class UserInterface {
 		System.out.println("1. Search scales.");
 		System.out.println("2. Search custom scales.");
 		System.out.println("3. Create custom scale.");
-		System.out.println("4. Delete custom scale.\n");
+		System.out.println("4. Delete custom scale.");
+		System.out.println("5. Find scales containing notes.\n");
 	}
 }
@@ -18,6 +18,11 @@ public class Alteration {
 	 */
 	private int semitoneChange;
 	
+	/**
+	 * The value returned when parsing an invalid alteration symbol.
+	 */
+	public static final int INVALID = Integer.MIN_VALUE;
+	
 	/**
 	 * Maps alteration symbols to the associated Alteration object.
 	 */
@@ -49,6 +54,34 @@ public class Alteration {
 		return alterations.get(symbol);
 	}
 	
+	/**
+	 * Finds the semitone change of the alteration symbol occupying exactly the given range of text.
+	 * @param text the text containing the symbol
+	 * @param start the index of the first character of the symbol
+	 * @param end the index after the last character of the symbol
+	 * @return the number of semitones, or {@link #INVALID} if the range is not a valid symbol
+	 */
+	public static int parseSemitoneChange(CharSequence text, int start, int end) {
+		int length = end - start;
+		if (length == 0) {
+			return 0;
+		}
+		
+		char symbol = text.charAt(start);
+		if (length == 1) {
+			if (symbol == '#') {
+				return 1;
+			} else if (symbol == 'b') {
+				return -1;
+			} else if (symbol == 'x') {
+				return 2;
+			}
+		} else if (length == 2 && symbol == 'b' && text.charAt(start + 1) == 'b') {
+			return -2;
+		}
+		return INVALID;
+	}
+	
 	/**
 	 * Gets the Alteration object associated with the given semitone change.
 	 * @param semitoneChange the number of semitones
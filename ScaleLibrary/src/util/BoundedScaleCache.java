@@ -0,0 +1,350 @@
+package util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The scale cache that holds at most a fixed number of note sequences, or a fixed estimated number
+ * of bytes, across every scale. When the limit is exceeded the least recently used note sequences are
+ * removed.
+ *
+ * <p>Lookups take no lock and allocate nothing: each pattern has an array of its note sequences
+ * indexed by root code. A lookup records the note sequence it used in a small buffer, and the
+ * recorded uses are applied to the least recently used order under a lock, either when the buffer
+ * fills or before a note sequence is stored. If lookups outpace the draining, the oldest records are
+ * overwritten, so the order is then only approximately least recently used.
+ * @author Joel Gibson
+ */
+public class BoundedScaleCache implements ScaleCache {
+	/**
+	 * The estimated size (in bytes) of a stored note sequence, excluding its elements: the node, its
+	 * share of the pattern array, the NoteList and the header of its code array.
+	 */
+	public static final long ENTRY_BYTES = 48 + 24 + 24 + 16;
+	
+	/**
+	 * The estimated size (in bytes) of each element of a stored note sequence (one note code).
+	 */
+	public static final long NOTE_BYTES = 1;
+	
+	/**
+	 * The number of uses the read buffer holds (a power of 2).
+	 */
+	private static final int READ_BUFFER_SIZE = 128;
+	
+	/**
+	 * The number of uses recorded between attempts to drain the read buffer (a power of 2).
+	 */
+	private static final int DRAIN_INTERVAL = READ_BUFFER_SIZE / 2;
+	
+	/**
+	 * A stored note sequence, linked into the least recently used order.
+	 */
+	private static class Node {
+		/**
+		 * The interval pattern of the scale.
+		 */
+		final ScalePattern pattern;
+		
+		/**
+		 * The code of the root note.
+		 */
+		final int rootCode;
+		
+		/**
+		 * The list of notes in the scale.
+		 */
+		final List<Note> notes;
+		
+		/**
+		 * The weight of the note sequence.
+		 */
+		final long weight;
+		
+		/**
+		 * The previous and next nodes in the least recently used order (guarded by the lock).
+		 */
+		Node previous, next;
+		
+		/**
+		 * Indicates whether the node has been removed from the cache (guarded by the lock).
+		 */
+		boolean removed;
+		
+		/**
+		 * Creates a new node.
+		 * @param pattern the interval pattern of the scale
+		 * @param rootCode the code of the root note
+		 * @param notes the list of notes in the scale
+		 * @param weight the weight of the note sequence
+		 */
+		Node(ScalePattern pattern, int rootCode, List<Note> notes, long weight) {
+			this.pattern = pattern;
+			this.rootCode = rootCode;
+			this.notes = notes;
+			this.weight = weight;
+		}
+	}
+	
+	/**
+	 * The stored note sequences of one pattern.
+	 */
+	private static class PatternNodes {
+		/**
+		 * The node of each root note, indexed by root code.
+		 */
+		final AtomicReferenceArray<Node> nodes = new AtomicReferenceArray<>(Note.NUM_CODES);
+		
+		/**
+		 * The number of stored nodes (guarded by the lock).
+		 */
+		int count;
+	}
+	
+	/**
+	 * The stored note sequences of each pattern. Patterns are removed once they have no note sequences.
+	 */
+	private Map<ScalePattern, PatternNodes> patterns = new ConcurrentHashMap<>();
+	
+	/**
+	 * Guards the least recently used order, the weight and the counts.
+	 */
+	private ReentrantLock lock = new ReentrantLock();
+	
+	/**
+	 * The least recently used node, or null if the cache is empty (guarded by the lock).
+	 */
+	private Node head;
+	
+	/**
+	 * The most recently used node, or null if the cache is empty (guarded by the lock).
+	 */
+	private Node tail;
+	
+	/**
+	 * The nodes recently used by lookups that have not yet been applied to the order.
+	 */
+	private AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+	
+	/**
+	 * The number of uses recorded in the read buffer.
+	 */
+	private AtomicLong readCount = new AtomicLong();
+	
+	/**
+	 * The number of recorded uses that have been applied to the order (guarded by the lock).
+	 */
+	private long drainedCount;
+	
+	/**
+	 * The maximum total weight of the stored note sequences.
+	 */
+	private long capacity;
+	
+	/**
+	 * Indicates whether each note sequence is weighed by its estimated size in bytes, rather than
+	 * counting as one.
+	 */
+	private boolean capacityInBytes;
+	
+	/**
+	 * The number of stored note sequences (guarded by the lock).
+	 */
+	private long size;
+	
+	/**
+	 * The total weight of the stored note sequences (guarded by the lock).
+	 */
+	private long weight;
+	
+	/**
+	 * The number of note sequences removed to stay within the capacity (guarded by the lock).
+	 */
+	private long evictionCount;
+	
+	/**
+	 * Creates a new bounded cache.
+	 * @param capacity the maximum number of note sequences, or the maximum estimated number of bytes
+	 * @param capacityInBytes whether the capacity is in estimated bytes rather than note sequences
+	 */
+	public BoundedScaleCache(long capacity, boolean capacityInBytes) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative");
+		}
+		this.capacity = capacity;
+		this.capacityInBytes = capacityInBytes;
+	}
+	
+	/**
+	 * Estimates the weight of the given note sequence.
+	 * @param notes the list of notes in the scale
+	 * @return 1, or the estimated number of bytes used by storing the notes
+	 */
+	protected long weigh(List<Note> notes) {
+		return capacityInBytes ? ENTRY_BYTES + NOTE_BYTES * notes.size() : 1;
+	}
+	
+	@Override
+	public List<Note> get(ScalePattern pattern, Note root) {
+		PatternNodes patternNodes = patterns.get(pattern);
+		Node node = patternNodes == null ? null : patternNodes.nodes.get(root.getCode());
+		if (node == null) {
+			return null;
+		}
+		
+		// record the use, and apply the recorded uses if nobody else is doing so
+		long count = readCount.getAndIncrement();
+		readBuffer.lazySet((int) (count & (READ_BUFFER_SIZE - 1)), node);
+		if ((count & (DRAIN_INTERVAL - 1)) == DRAIN_INTERVAL - 1 && lock.tryLock()) {
+			try {
+				drainReads();
+			} finally {
+				lock.unlock();
+			}
+		}
+		return node.notes;
+	}
+	
+	@Override
+	public List<Note> putIfAbsent(ScalePattern pattern, Note root, List<Note> notes) {
+		lock.lock();
+		try {
+			drainReads();
+			PatternNodes patternNodes = patterns.computeIfAbsent(pattern, key -> new PatternNodes());
+			Node existing = patternNodes.nodes.get(root.getCode());
+			if (existing != null) {
+				moveToTail(existing);
+				return existing.notes;
+			}
+			
+			Node node = new Node(pattern, root.getCode(), notes, weigh(notes));
+			patternNodes.nodes.set(root.getCode(), node);
+			patternNodes.count++;
+			linkAtTail(node);
+			size++;
+			weight += node.weight;
+			
+			// remove the least recently used note sequences until the cache is within its capacity
+			while (weight > capacity && head != null) {
+				remove(head);
+				evictionCount++;
+			}
+			return null;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Applies the uses recorded in the read buffer to the least recently used order. Must be called
+	 * while holding the lock.
+	 */
+	private void drainReads() {
+		long count = readCount.get();
+		for (long i = Math.max(drainedCount, count - READ_BUFFER_SIZE); i < count; i++) {
+			Node node = readBuffer.getAndSet((int) (i & (READ_BUFFER_SIZE - 1)), null);
+			if (node != null && !node.removed) {
+				moveToTail(node);
+			}
+		}
+		drainedCount = count;
+	}
+	
+	/**
+	 * Adds the given node as the most recently used. Must be called while holding the lock.
+	 * @param node the node to add
+	 */
+	private void linkAtTail(Node node) {
+		node.previous = tail;
+		node.next = null;
+		if (tail == null) {
+			head = node;
+		} else {
+			tail.next = node;
+		}
+		tail = node;
+	}
+	
+	/**
+	 * Removes the given node from the least recently used order. Must be called while holding the lock.
+	 * @param node the node to remove
+	 */
+	private void unlink(Node node) {
+		if (node.previous == null) {
+			head = node.next;
+		} else {
+			node.previous.next = node.next;
+		}
+		if (node.next == null) {
+			tail = node.previous;
+		} else {
+			node.next.previous = node.previous;
+		}
+		node.previous = null;
+		node.next = null;
+	}
+	
+	/**
+	 * Makes the given node the most recently used. Must be called while holding the lock.
+	 * @param node the node to move
+	 */
+	private void moveToTail(Node node) {
+		if (node != tail) {
+			unlink(node);
+			linkAtTail(node);
+		}
+	}
+	
+	/**
+	 * Removes the given node from the cache, along with its pattern if it was the pattern's last
+	 * node. Must be called while holding the lock.
+	 * @param node the node to remove
+	 */
+	private void remove(Node node) {
+		unlink(node);
+		node.removed = true;
+		PatternNodes patternNodes = patterns.get(node.pattern);
+		patternNodes.nodes.set(node.rootCode, null);
+		if (--patternNodes.count == 0) {
+			patterns.remove(node.pattern);
+		}
+		size--;
+		weight -= node.weight;
+	}
+	
+	@Override
+	public long size() {
+		lock.lock();
+		try {
+			return size;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * @return the total weight of the stored note sequences (a count or estimated bytes)
+	 */
+	public long getWeight() {
+		lock.lock();
+		try {
+			return weight;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	@Override
+	public long getEvictionCount() {
+		lock.lock();
+		try {
+			return evictionCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
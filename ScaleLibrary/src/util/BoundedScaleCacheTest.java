@@ -0,0 +1,142 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BoundedScaleCacheTest {
+	
+	Scale testScale1;
+	Scale testScale2;
+	List<Note> notes;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(Interval.getInterval("3"));
+		intervals.add(Interval.getInterval("5"));
+		this.testScale1 = new Scale("test1", intervals, false);
+		this.testScale2 = new Scale("test2", intervals, true);
+		this.notes = this.testScale1.generateScale(Note.getNote("C"));
+	}
+
+	@Test
+	void testCapacityInEntries() {
+		// the capacity is shared by both patterns
+		BoundedScaleCache cache = new BoundedScaleCache(2, false);
+		assertNull(cache.putIfAbsent(this.testScale1.getPattern(), Note.getNote("C"), this.notes));
+		assertNull(cache.putIfAbsent(this.testScale2.getPattern(), Note.getNote("C"), this.notes));
+		assertEquals(2, cache.size());
+		assertEquals(0, cache.getEvictionCount());
+		
+		// using the first scale makes the second scale the least recently used
+		assertSame(this.notes, cache.get(this.testScale1.getPattern(), Note.getNote("C")));
+		assertNull(cache.putIfAbsent(this.testScale1.getPattern(), Note.getNote("D"), this.notes));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertNull(cache.get(this.testScale2.getPattern(), Note.getNote("C")), "least recently used scale should be evicted");
+		assertNotNull(cache.get(this.testScale1.getPattern(), Note.getNote("C")));
+		assertNotNull(cache.get(this.testScale1.getPattern(), Note.getNote("D")));
+	}
+
+	@Test
+	void testPutIfAbsent() {
+		BoundedScaleCache cache = new BoundedScaleCache(10, false);
+		List<Note> other = this.testScale1.generateScale(Note.getNote("C"));
+		assertNull(cache.putIfAbsent(this.testScale1.getPattern(), Note.getNote("C"), this.notes));
+		assertSame(this.notes, cache.putIfAbsent(this.testScale1.getPattern(), Note.getNote("C"), other), "existing notes should be kept");
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void testCapacityInBytes() {
+		long entryBytes = BoundedScaleCache.ENTRY_BYTES + BoundedScaleCache.NOTE_BYTES * this.notes.size();
+		BoundedScaleCache cache = new BoundedScaleCache(entryBytes * 3, true);
+		for (Note root : Note.getRootNotes()) {
+			cache.putIfAbsent(this.testScale1.getPattern(), root, this.notes);
+			assertTrue(cache.getWeight() <= entryBytes * 3);
+		}
+		assertEquals(3, cache.size());
+		assertEquals(3 * entryBytes, cache.getWeight());
+		assertEquals(Note.getRootNotes().size() - 3, cache.getEvictionCount());
+	}
+
+	@Test
+	void testScaleUsesCache() {
+		BoundedScaleCache cache = new BoundedScaleCache(1, false);
+		ScaleCache previous = Scale.getCache();
+		Scale.setCache(cache);
+		try {
+			List<Note> scale = this.testScale1.getScale(Note.getNote("C"));
+			assertSame(scale, this.testScale1.getScale(Note.getNote("C")));
+			this.testScale2.getScale(Note.getNote("C"));
+			assertEquals(1, cache.size());
+			assertEquals(1, cache.getEvictionCount());
+			assertNotSame(scale, this.testScale1.getScale(Note.getNote("C")), "evicted scale should be created again");
+			assertTrue(this.testScale1.getPattern().scales.isEmpty(), "bounded cache should not use the pattern's own map");
+		} finally {
+			Scale.setCache(previous);
+		}
+	}
+
+	@Test
+	void testGetDoesNotAllocate() {
+		BoundedScaleCache cache = new BoundedScaleCache(10, false);
+		ScalePattern pattern = this.testScale1.getPattern();
+		Note root = Note.getNote("C");
+		cache.putIfAbsent(pattern, root, this.notes);
+		for (int i = 0; i < 10000; i++) {
+			cache.get(pattern, root);
+		}
+		
+		// test lookups that hit the cache don't allocate, including when they update the order
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long start = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < 10000; i++) {
+			cache.get(pattern, root);
+		}
+		long allocated = threads.getCurrentThreadAllocatedBytes() - start;
+		assertTrue(allocated < 1024, "lookups should not allocate: " + allocated);
+	}
+
+	@Test
+	void testConcurrentUse() throws Exception {
+		// test lookups and stores from several threads keep the cache within its capacity
+		BoundedScaleCache cache = new BoundedScaleCache(5, false);
+		List<Note> roots = Note.getRootNotes();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 20000; i++) {
+						Note root = roots.get(i % roots.size());
+						ScalePattern pattern = (i & 1) == 0 ? this.testScale1.getPattern() : this.testScale2.getPattern();
+						List<Note> found = cache.get(pattern, root);
+						if (found == null) {
+							cache.putIfAbsent(pattern, root, this.notes);
+						} else {
+							assertSame(this.notes, found);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(5, cache.size());
+		assertEquals(5, cache.getWeight());
+	}
+}
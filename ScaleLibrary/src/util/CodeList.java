@@ -0,0 +1,81 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list view over a slice of an array of one-byte codes, so that large numbers of
+ * small sequences can be stored without a reference per element. The array must not be changed
+ * while it is in use by the view.
+ * @author Joel Gibson
+ * @param <E> the type of object represented by each code
+ */
+abstract class CodeList<E> extends AbstractList<E> implements RandomAccess {
+	/**
+	 * The array holding the codes.
+	 */
+	private final byte[] codes;
+	
+	/**
+	 * The position of the first code in the array.
+	 */
+	private final int offset;
+	
+	/**
+	 * The number of codes in the list.
+	 */
+	private final int size;
+	
+	/**
+	 * Creates a new view over the given slice of the array.
+	 * @param codes the array holding the codes
+	 * @param offset the position of the first code in the array
+	 * @param size the number of codes in the list
+	 */
+	CodeList(byte[] codes, int offset, int size) {
+		if (offset < 0 || size < 0 || offset + size > codes.length) {
+			throw new IndexOutOfBoundsException("Slice " + offset + "+" + size + " outside array of length " + codes.length);
+		}
+		this.codes = codes;
+		this.offset = offset;
+		this.size = size;
+	}
+	
+	/**
+	 * Converts a code into the object it represents.
+	 * @param code the code
+	 * @return the object, or null if the code is invalid
+	 */
+	protected abstract E fromCode(int code);
+	
+	/**
+	 * Gets the code at the given position without looking up the object it represents.
+	 * @param index the position in the list
+	 * @return the code
+	 */
+	public int getCode(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+		return codes[offset + index];
+	}
+	
+	/**
+	 * @return a new array holding the codes of the list
+	 */
+	public byte[] toCodes() {
+		byte[] copy = new byte[size];
+		System.arraycopy(codes, offset, copy, 0, size);
+		return copy;
+	}
+	
+	@Override
+	public E get(int index) {
+		return fromCode(getCode(index));
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+}
@@ -1,9 +1,13 @@
 package util;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
+
+import metrics.CacheStats;
+import metrics.Metrics;
 
 /**
  * Represents a musical interval.
@@ -21,14 +25,29 @@ public class Interval {
 	private Alteration quality;
 	
 	/**
-	 * The regex pattern for parsing interval names.
+	 * The primitive code of the interval, packing the size and quality into a single int.
+	 */
+	private int code;
+	
+	/**
+	 * The largest interval number that can be represented (2 octaves).
+	 */
+	public static final int MAX_SIZE = 15;
+	
+	/**
+	 * The number of distinct interval codes (one for each size and quality).
 	 */
-	private static Pattern pattern;
+	public static final int NUM_CODES = MAX_SIZE * Note.NUM_ACCIDENTALS;
 	
 	/**
-	 * Maps interval names to the associated Interval objects.
+	 * Maps interval names to the associated Interval objects (safe for concurrent access).
 	 */
-	protected static Map<String, Interval> intervals = new HashMap<>();
+	protected static Map<String, Interval> intervals = new ConcurrentHashMap<>();
+	
+	/**
+	 * The hit and miss counts of the interval name cache.
+	 */
+	private static final CacheStats cacheStats = Metrics.createCacheStats("intervals", () -> intervals.size());
 	
 	/**
 	 * The pattern of tones (T) and semitones (S) in a major scale.
@@ -40,6 +59,27 @@ public class Interval {
 	 */
 	private static String[] chromaticNotes = {"C", "C#", "D", "Eb", "E", "F", "F#", "G", "Ab", "A", "Bb", "B"};
 	
+	/**
+	 * The number of semitones in each interval as a simple interval, indexed by interval code.
+	 */
+	private static final int[] semitoneTable = createSemitoneTable();
+	
+	/**
+	 * The number of semitones in each interval including whole octaves (e.g. 14 for a 9th), indexed
+	 * by interval code.
+	 */
+	private static final int[] compoundSemitoneTable = createCompoundSemitoneTable();
+	
+	/**
+	 * The number of semitones between each pair of notes, indexed by the lower and upper note codes.
+	 */
+	private static final int[] semitoneCountTable = createSemitoneCountTable();
+	
+	/**
+	 * The interned Interval object for each interval code.
+	 */
+	private static final Interval[] codeTable = createCodeTable();
+	
 	/**
 	 * Creates a new Interval with the given size and quality.
 	 * @param size the interval number
@@ -48,6 +88,7 @@ public class Interval {
 	protected Interval(int size, String quality) {
 		this.size = size;
 		this.quality = Alteration.getAlteration(quality);
+		this.code = (size - 1) * Note.NUM_ACCIDENTALS + this.quality.getSemitoneChange() + 2;
 	}
 	
 	/**
@@ -57,14 +98,21 @@ public class Interval {
 	 */
 	public static Interval getInterval(String intervalName) {
 		// get interval if it has already been created
-		if (intervals.containsKey(intervalName)) {
-			return intervals.get(intervalName);
+		Interval interval = intervals.get(intervalName);
+		if (interval != null) {
+			if (Metrics.ENABLED) {
+				cacheStats.recordHit();
+			}
+			return interval;
+		}
+		if (Metrics.ENABLED) {
+			cacheStats.recordMiss();
 		}
 		
-		// create new interval
-		Interval interval = parseInterval(intervalName);
+		// find the new interval (parsing always resolves to the interned interval, so racing threads agree)
+		interval = parseInterval(intervalName);
 		if (interval != null) {
-			intervals.put(intervalName, interval);
+			intervals.putIfAbsent(intervalName, interval);
 		}
 		return interval;
 	}
@@ -75,24 +123,110 @@ public class Interval {
 	 * @return the Interval object, or null if interval name was not valid
 	 */
 	protected static Interval parseInterval(String intervalName) {
-		// create regex pattern for extracting the interval components
-		if (pattern == null) {
-			String regex = "^(?<quality>[#bx]?|bb)(?<size>[0-9]{1,2})$";
-			pattern = Pattern.compile(regex);
+		return parseInterval(intervalName, 0, intervalName.length());
+	}
+	
+	/**
+	 * Finds the interned interval whose name occupies exactly the given range of text, without
+	 * creating any objects. An interval name is an optional quality ('#', 'b', 'x' or 'bb') followed by
+	 * a 1 or 2 digit size from 1 to 15.
+	 * @param text the text containing the interval name
+	 * @param start the index of the first character of the interval name
+	 * @param end the index after the last character of the interval name
+	 * @return the Interval object, or null if the range is not a valid interval name
+	 */
+	public static Interval parseInterval(CharSequence text, int start, int end) {
+		// read the size from the digits at the end of the name
+		int sizeStart = end;
+		int size = 0;
+		int scale = 1;
+		while (sizeStart > start && end - sizeStart < 2 && isDigit(text.charAt(sizeStart - 1))) {
+			sizeStart--;
+			size += (text.charAt(sizeStart) - '0') * scale;
+			scale *= 10;
 		}
 		
-		Matcher matcher = pattern.matcher(intervalName);
-		if (!matcher.matches()) {
+		// check if size is valid (maximum 2 octaves = 15 notes)
+		if (sizeStart == end || size == 0 || size > MAX_SIZE) {
 			return null;
 		}
 		
-		// check if size is valid (maximum 2 octaves = 15 notes)
-		int size = Integer.parseInt(matcher.group("size"));
-		if (size == 0 || size > 15) {
+		// find the quality preceding the size
+		int semitones = Alteration.parseSemitoneChange(text, start, sizeStart);
+		if (semitones == Alteration.INVALID) {
 			return null;
 		}
+		return codeTable[(size - 1) * Note.NUM_ACCIDENTALS + semitones + 2];
+	}
+	
+	/**
+	 * Finds the interned intervals in the given range of text, which contains interval names separated
+	 * by commas (each optionally followed by whitespace). Empty names at the end of the list are ignored.
+	 * @param text the text containing the interval names
+	 * @param start the index of the first character of the list
+	 * @param end the index after the last character of the list
+	 * @return the list of intervals, containing null for each invalid interval name
+	 */
+	public static List<Interval> parseIntervalList(CharSequence text, int start, int end) {
+		List<Interval> intervals = new ArrayList<>();
+		int emptyNames = 0;
+		int nameStart = start;
+		for (int i = start; i <= end; i++) {
+			if (i < end && text.charAt(i) != ',') {
+				continue;
+			}
+			
+			// empty names are only kept if a non-empty name follows them
+			if (i == nameStart) {
+				emptyNames++;
+			} else {
+				for (; emptyNames > 0; emptyNames--) {
+					intervals.add(null);
+				}
+				intervals.add(parseInterval(text, nameStart, i));
+			}
+			
+			// skip any whitespace following the comma
+			nameStart = i + 1;
+			while (nameStart < end && isWhitespace(text.charAt(nameStart))) {
+				nameStart++;
+			}
+			i = nameStart - 1;
+		}
 		
-		return new Interval(size, matcher.group("quality"));
+		// text without any commas is a single (possibly empty) name
+		if (intervals.isEmpty() && emptyNames == 1) {
+			intervals.add(null);
+		}
+		return intervals;
+	}
+	
+	/**
+	 * @param c the character to check
+	 * @return true if the character is an ASCII digit
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+	
+	/**
+	 * @param c the character to check
+	 * @return true if the character is an ASCII whitespace character
+	 */
+	static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+	
+	/**
+	 * Gets the interned Interval object associated with the given interval code.
+	 * @param code the interval code
+	 * @return the Interval object, or null if the code was invalid
+	 */
+	public static Interval fromCode(int code) {
+		if (code < 0 || code >= NUM_CODES) {
+			return null;
+		}
+		return codeTable[code];
 	}
 	
 	/**
@@ -102,6 +236,13 @@ public class Interval {
 		return quality.getSemitoneChange();
 	}
 	
+	/**
+	 * @return the primitive interval code
+	 */
+	public int getCode() {
+		return code;
+	}
+	
 	/**
 	 * Converts the interval size into a simple interval size (within 1 octave).
 	 * @return the simple interval size
@@ -117,26 +258,34 @@ public class Interval {
 	 * @return the number of semitones
 	 */
 	public static int countSemitones(Note firstNote, Note secondNote) {
-		// find the index of the lower note's letter name in the chromatic notes array
-		int i = 0;
-		while (!firstNote.getLetter().equals(chromaticNotes[i])) {
-			i++;
-		}
-		
-		// account for the accidental of the lower note
-		int start = i + firstNote.getSemitoneChange();
-		
-		// find the number of positions to the second note's letter name in the chromatic notes array,
-		// wrapping around the array if necessary
-		while (!secondNote.getLetter().equals(chromaticNotes[i % 12])) {
-			i++;
-		}
-		
-		// account for the accidental of the upper note
-		int end = i + secondNote.getSemitoneChange();
-		
-		// calculate the change in semitones
-		return end - start;
+		return countSemitones(firstNote.getCode(), secondNote.getCode());
+	}
+	
+	/**
+	 * Counts the number of semitones between the notes with the given codes (within 1 octave).
+	 * @param firstCode the code of the lower note
+	 * @param secondCode the code of the upper note
+	 * @return the number of semitones
+	 */
+	static int countSemitones(int firstCode, int secondCode) {
+		return semitoneCountTable[firstCode * Note.NUM_CODES + secondCode];
+	}
+	
+	/**
+	 * @return the number of semitones in the interval, including whole octaves for compound intervals
+	 */
+	public int getSemitones() {
+		return compoundSemitoneTable[code];
+	}
+	
+	/**
+	 * Converts the interval with the given code into its number of semitones, including whole octaves
+	 * for compound intervals.
+	 * @param code the interval code
+	 * @return the number of semitones
+	 */
+	static int compoundSemitones(int code) {
+		return compoundSemitoneTable[code];
 	}
 	
 	/**
@@ -145,19 +294,95 @@ public class Interval {
 	 * @return the number of semitones
 	 */
 	public static int intervalToSemitones(Interval interval) {
-		// count the semitones according to the major scale pattern, starting from an interval of a major 2nd
-		int semitones = 0;
-		for (int i = 2; i <= interval.simplifySize(); i++) {
-			// add 1 for each semitone and 2 for each tone
-			if ("S".equals(tonePattern[(i - 2) % 7])) {
-				semitones += 1;
-			} else {
-				semitones += 2;
+		return intervalToSemitones(interval.code);
+	}
+	
+	/**
+	 * Converts the interval with the given code into its equivalent number of semitones as a simple interval.
+	 * @param code the interval code
+	 * @return the number of semitones
+	 */
+	static int intervalToSemitones(int code) {
+		return semitoneTable[code];
+	}
+	
+	/**
+	 * Creates the interned Interval object for every interval code.
+	 * @return the array of intervals, indexed by interval code
+	 */
+	private static Interval[] createCodeTable() {
+		Interval[] table = new Interval[NUM_CODES];
+		for (int code = 0; code < NUM_CODES; code++) {
+			String quality = Alteration.getAlteration(code % Note.NUM_ACCIDENTALS - 2).toString();
+			table[code] = new Interval(code / Note.NUM_ACCIDENTALS + 1, quality);
+		}
+		return table;
+	}
+	
+	/**
+	 * Calculates the number of semitones in every possible interval.
+	 * @return the semitone table, indexed by interval code
+	 */
+	private static int[] createSemitoneTable() {
+		int[] table = new int[NUM_CODES];
+		for (int code = 0; code < NUM_CODES; code++) {
+			int simpleSize = (code / Note.NUM_ACCIDENTALS) % 7 + 1;
+			
+			// count the semitones according to the major scale pattern, starting from an interval of a major 2nd
+			int semitones = 0;
+			for (int i = 2; i <= simpleSize; i++) {
+				// add 1 for each semitone and 2 for each tone
+				if ("S".equals(tonePattern[(i - 2) % 7])) {
+					semitones += 1;
+				} else {
+					semitones += 2;
+				}
 			}
+			
+			// account for the quality of the interval
+			table[code] = semitones + code % Note.NUM_ACCIDENTALS - 2;
+		}
+		return table;
+	}
+	
+	/**
+	 * Calculates the number of semitones in every possible interval, including whole octaves.
+	 * @return the semitone table, indexed by interval code
+	 */
+	private static int[] createCompoundSemitoneTable() {
+		int[] table = new int[NUM_CODES];
+		for (int code = 0; code < NUM_CODES; code++) {
+			int octaves = (code / Note.NUM_ACCIDENTALS) / 7;
+			table[code] = semitoneTable[code] + 12 * octaves;
+		}
+		return table;
+	}
+	
+	/**
+	 * Calculates the number of semitones between every possible pair of notes (within 1 octave).
+	 * @return the semitone table, indexed by the lower and upper note codes
+	 */
+	private static int[] createSemitoneCountTable() {
+		// find the index of each letter name (in note code order) in the chromatic notes array
+		int[] positions = new int[Note.NUM_LETTERS];
+		for (int letter = 0; letter < Note.NUM_LETTERS; letter++) {
+			positions[letter] = Arrays.asList(chromaticNotes).indexOf(String.valueOf((char) ('A' + letter)));
 		}
 		
-		// account for the quality of the interval
-		return semitones + interval.getSemitoneChange();
+		int[] table = new int[Note.NUM_CODES * Note.NUM_CODES];
+		for (int first = 0; first < Note.NUM_CODES; first++) {
+			for (int second = 0; second < Note.NUM_CODES; second++) {
+				// find the number of positions between the letter names, wrapping around the octave if necessary
+				int start = positions[first / Note.NUM_ACCIDENTALS];
+				int end = positions[second / Note.NUM_ACCIDENTALS];
+				int distance = (end - start + 12) % 12;
+				
+				// account for the accidentals of both notes
+				table[first * Note.NUM_CODES + second] = distance
+						+ (second % Note.NUM_ACCIDENTALS - 2) - (first % Note.NUM_ACCIDENTALS - 2);
+			}
+		}
+		return table;
 	}
 	
 	@Override
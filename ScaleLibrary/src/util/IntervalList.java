@@ -0,0 +1,43 @@
+package util;
+
+import java.util.List;
+
+/**
+ * An unmodifiable list of intervals stored as one-byte interval codes. Intervals that could not be
+ * read are stored as -1 and appear as null.
+ * @author Joel Gibson
+ */
+public final class IntervalList extends CodeList<Interval> {
+	/**
+	 * Creates a new list viewing the given slice of an array of interval codes. The array is not
+	 * copied, so several lists can share one large array.
+	 * @param codes the array holding the interval codes
+	 * @param offset the position of the first interval code in the array
+	 * @param size the number of intervals in the list
+	 */
+	public IntervalList(byte[] codes, int offset, int size) {
+		super(codes, offset, size);
+	}
+	
+	/**
+	 * Creates a compact copy of the given intervals.
+	 * @param intervals the list of intervals (which may contain null)
+	 * @return the new list, or the given list if it is already an IntervalList
+	 */
+	public static IntervalList copyOf(List<Interval> intervals) {
+		if (intervals instanceof IntervalList) {
+			return (IntervalList) intervals;
+		}
+		byte[] codes = new byte[intervals.size()];
+		for (int i = 0; i < codes.length; i++) {
+			Interval interval = intervals.get(i);
+			codes[i] = (byte) (interval == null ? -1 : interval.getCode());
+		}
+		return new IntervalList(codes, 0, codes.length);
+	}
+	
+	@Override
+	protected Interval fromCode(int code) {
+		return Interval.fromCode(code);
+	}
+}
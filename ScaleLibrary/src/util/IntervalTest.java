@@ -2,6 +2,16 @@ package util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -35,6 +45,37 @@ class IntervalTest {
 		assertNull(Interval.getInterval("b 3"));
 	}
 
+	@Test
+	void testGetIntervalConcurrent() throws Exception {
+		// request every interval name from many threads at once, starting from an empty cache
+		String[] intervalNames = {"1", "b3", "#4", "bb7", "x2", "15", "b10"};
+		int numThreads = 32;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Interval[]>> results = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				Interval[] found = new Interval[intervalNames.length];
+				for (int j = 0; j < intervalNames.length; j++) {
+					found[j] = Interval.getInterval(intervalNames[j]);
+				}
+				return found;
+			}));
+		}
+		start.countDown();
+		
+		// test every thread received the same interned interval objects
+		for (Future<Interval[]> result : results) {
+			Interval[] found = result.get(10, TimeUnit.SECONDS);
+			for (int j = 0; j < intervalNames.length; j++) {
+				assertSame(Interval.getInterval(intervalNames[j]), found[j], "all threads should share the interned interval");
+			}
+		}
+		assertEquals(intervalNames.length, Interval.intervals.size(), "each interval should be stored exactly once");
+		executor.shutdown();
+	}
+
 	@Test
 	void testParseInterval() {
 		// test valid intervals
@@ -59,6 +100,61 @@ class IntervalTest {
 		assertNull(Interval.parseInterval("b 3"), "whitespace not allowed");
 	}
 
+	@Test
+	void testParseIntervalMatchesRegex() {
+		// test every short string over characters that appear in interval names against the original regex parser
+		Pattern pattern = Pattern.compile("^(?<quality>[#bx]?|bb)(?<size>[0-9]{1,2})$");
+		char[] characters = {'#', 'b', 'x', 'B', '0', '1', '5', '9', ' '};
+		for (String text : NoteTest.allStrings(characters, 4)) {
+			Matcher matcher = pattern.matcher(text);
+			String expected = null;
+			if (matcher.matches()) {
+				int size = Integer.parseInt(matcher.group("size"));
+				if (size > 0 && size <= 15) {
+					expected = matcher.group("quality") + size;
+				}
+			}
+			Interval interval = Interval.parseInterval(text);
+			assertEquals(expected, interval == null ? null : interval.toString(), "incorrect interval parsed from '" + text + "'");
+			
+			// test the interval is found within a larger piece of text
+			assertSame(interval, Interval.parseInterval("1" + text + "1", 1, text.length() + 1));
+		}
+	}
+
+	@Test
+	void testParseIntervalListMatchesSplit() {
+		// test lists with unusual separators against splitting with the original regex
+		String[] lists = {"1, 2, b3", "1,2,b3", "1,  \t2", "", ",", ", ,", "1,", "1, ", ",1", "1,,2", "1, ,2", "1 , 2", " 1", "1,2,,"};
+		for (String list : lists) {
+			List<Interval> expected = new ArrayList<>();
+			for (String name : list.split(",\\s*")) {
+				expected.add(Interval.getInterval(name));
+			}
+			assertEquals(expected, Interval.parseIntervalList(list, 0, list.length()), "incorrect intervals parsed from '" + list + "'");
+		}
+	}
+
+	@Test
+	void testGetCode() {
+		// test intervals with the same size have adjacent codes
+		assertEquals(Interval.getInterval("3").getCode() - 1, Interval.getInterval("b3").getCode());
+		assertEquals(Interval.getInterval("4").getCode() + 2, Interval.getInterval("x4").getCode());
+		
+		// test the code range covers all valid intervals
+		assertEquals(0, Interval.getInterval("bb1").getCode());
+		assertEquals(Interval.NUM_CODES - 1, Interval.getInterval("x15").getCode());
+		
+		// test each interval code maps back to the same interned interval
+		for (int code = 0; code < Interval.NUM_CODES; code++) {
+			Interval testInterval = Interval.fromCode(code);
+			assertEquals(code, testInterval.getCode());
+			assertSame(testInterval, Interval.getInterval(testInterval.toString()), "the interned interval should be returned for each code");
+		}
+		assertNull(Interval.fromCode(-1));
+		assertNull(Interval.fromCode(Interval.NUM_CODES));
+	}
+
 	@Test
 	void testSimplifySize() {
 		// test simple intervals
@@ -1,9 +1,14 @@
 package util;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+
+import metrics.CacheStats;
+import metrics.Metrics;
 
 /**
  * Represents a musical note.
@@ -20,20 +25,60 @@ public class Note {
 	 */
 	private Alteration accidental;
 	
+	/**
+	 * The full note name (letter name and accidental).
+	 */
+	private String name;
+	
+	/**
+	 * The primitive code of the note, packing the letter name and accidental into a single int.
+	 */
+	private int code;
+	
 	/**
 	 * The sequence of possible letter names.
 	 */
 	public static final String[] LETTER_NAMES = {"A", "B", "C", "D", "E", "F", "G"};
 	
 	/**
-	 * The regex pattern for parsing note names.
+	 * The number of possible letter names.
+	 */
+	public static final int NUM_LETTERS = 7;
+	
+	/**
+	 * The number of possible accidentals (from 2 flats to 2 sharps).
+	 */
+	public static final int NUM_ACCIDENTALS = 5;
+	
+	/**
+	 * The number of distinct note codes (one for each letter name and accidental).
+	 */
+	public static final int NUM_CODES = NUM_LETTERS * NUM_ACCIDENTALS;
+	
+	/**
+	 * Maps note names to the associated Note object (safe for concurrent access).
+	 */
+	protected static Map<String, Note> notes = new ConcurrentHashMap<>();
+	
+	/**
+	 * The hit and miss counts of the note name cache.
+	 */
+	private static final CacheStats cacheStats = Metrics.createCacheStats("notes", () -> notes.size());
+	
+	/**
+	 * The interned Note object for each note code.
 	 */
-	private static Pattern pattern;
+	private static final Note[] codeTable = createCodeTable();
 	
 	/**
-	 * Maps note names to the associated Note object.
+	 * The note obtained by applying each interval to each note, indexed by the note code and interval code.
 	 */
-	protected static Map<String, Note> notes = new HashMap<>();
+	private static final Note[] intervalTable = createIntervalTable();
+	
+	/**
+	 * The notes that can be used as the root of a scale (with at most one sharp or flat).
+	 */
+	private static final List<Note> rootNotes = createRootNotes();
 	
 	/**
 	 * Creates a new Note with the given letter name and accidental.
@@ -43,6 +88,8 @@ public class Note {
 	protected Note(String letter, String accidental) {
 		this.letter = letter;
 		this.accidental = Alteration.getAlteration(accidental);
+		this.name = letter + this.accidental;
+		this.code = Arrays.asList(LETTER_NAMES).indexOf(letter) * NUM_ACCIDENTALS + this.accidental.getSemitoneChange() + 2;
 	}
 	
 	/**
@@ -65,6 +112,48 @@ public class Note {
 	public int getSemitoneChange() {
 		return accidental.getSemitoneChange();
 	}
+	
+	/**
+	 * @return the primitive note code
+	 */
+	public int getCode() {
+		return code;
+	}
+	
+	/**
+	 * @return the pitch class of the note, as the number of semitones above C (0 to 11)
+	 */
+	public int getPitchClass() {
+		// count the semitones from C (the natural note with the third letter name)
+		return Math.floorMod(Interval.countSemitones(2 * NUM_ACCIDENTALS + 2, code), 12);
+	}
+	
+	/**
+	 * Gets the interned Note object associated with the given note code.
+	 * @param code the note code
+	 * @return the Note object, or null if the code was invalid
+	 */
+	public static Note fromCode(int code) {
+		if (code < 0 || code >= NUM_CODES) {
+			return null;
+		}
+		return codeTable[code];
+	}
+
+	/**
+	 * @return the list of notes that can be used as the root of a scale, in note code order
+	 */
+	public static List<Note> getRootNotes() {
+		return rootNotes;
+	}
+	
+	/**
+	 * Checks whether the note can be used as the root of a scale.
+	 * @return true if the note has at most one sharp or flat
+	 */
+	public boolean isRoot() {
+		return Math.abs(getSemitoneChange()) <= 1;
+	}
 
 	/**
 	 * Static factory method for creating/retrieving the Note object associated with the given name.
@@ -75,14 +164,21 @@ public class Note {
 		noteName = noteName.toLowerCase();
 		
 		// get note if it has been created previously
-		if (notes.containsKey(noteName)) {
-			return notes.get(noteName);
+		Note note = notes.get(noteName);
+		if (note != null) {
+			if (Metrics.ENABLED) {
+				cacheStats.recordHit();
+			}
+			return note;
+		}
+		if (Metrics.ENABLED) {
+			cacheStats.recordMiss();
 		}
 		
-		// create new note
-		Note note = Note.parseNote(noteName);
+		// find the new note (parsing always resolves to the interned note, so racing threads agree)
+		note = Note.parseNote(noteName);
 		if (note != null) {
-			notes.put(noteName, note);
+			notes.putIfAbsent(noteName, note);
 		}
 		return note;
 	}
@@ -93,18 +189,82 @@ public class Note {
 	 * @return the Note object, or null if note name was invalid
 	 */
 	protected static Note parseNote(String noteName) {
-		// create regex pattern for extracting the note components
-		if (pattern == null) {
-			String regex = "^(?<letter>[a-gA-G])(?<accidental>[#bx]?|bb)$";
-			pattern = Pattern.compile(regex);
+		return parseNote(noteName, 0, noteName.length());
+	}
+	
+	/**
+	 * Finds the interned note whose name occupies exactly the given range of text, without creating
+	 * any objects. A note name is a letter from A to G (in either case) followed by an optional
+	 * accidental ('#', 'b', 'x' or 'bb').
+	 * @param text the text containing the note name
+	 * @param start the index of the first character of the note name
+	 * @param end the index after the last character of the note name
+	 * @return the Note object, or null if the range is not a valid note name
+	 */
+	public static Note parseNote(CharSequence text, int start, int end) {
+		if (start >= end) {
+			return null;
 		}
 		
-		Matcher matcher = pattern.matcher(noteName);
-		if (!matcher.matches()) {
+		// find the position of the letter name
+		char letter = text.charAt(start);
+		int letterIndex;
+		if (letter >= 'A' && letter <= 'G') {
+			letterIndex = letter - 'A';
+		} else if (letter >= 'a' && letter <= 'g') {
+			letterIndex = letter - 'a';
+		} else {
 			return null;
 		}
 		
-		return new Note(matcher.group("letter").toUpperCase(), matcher.group("accidental"));
+		// find the accidental following the letter name
+		int semitones = Alteration.parseSemitoneChange(text, start + 1, end);
+		if (semitones == Alteration.INVALID) {
+			return null;
+		}
+		return codeTable[letterIndex * NUM_ACCIDENTALS + semitones + 2];
+	}
+	
+	/**
+	 * Finds the interned notes in the given range of text, which contains note names separated by
+	 * commas (each optionally followed by whitespace). Empty names at the end of the list are ignored.
+	 * @param text the text containing the note names
+	 * @param start the index of the first character of the list
+	 * @param end the index after the last character of the list
+	 * @return the list of notes, containing null for each invalid note name
+	 */
+	public static List<Note> parseNoteList(CharSequence text, int start, int end) {
+		List<Note> notes = new ArrayList<>();
+		int emptyNames = 0;
+		int nameStart = start;
+		for (int i = start; i <= end; i++) {
+			if (i < end && text.charAt(i) != ',') {
+				continue;
+			}
+			
+			// empty names are only kept if a non-empty name follows them
+			if (i == nameStart) {
+				emptyNames++;
+			} else {
+				for (; emptyNames > 0; emptyNames--) {
+					notes.add(null);
+				}
+				notes.add(parseNote(text, nameStart, i));
+			}
+			
+			// skip any whitespace following the comma
+			nameStart = i + 1;
+			while (nameStart < end && Interval.isWhitespace(text.charAt(nameStart))) {
+				nameStart++;
+			}
+			i = nameStart - 1;
+		}
+		
+		// text without any commas is a single (possibly empty) name
+		if (notes.isEmpty() && emptyNames == 1) {
+			notes.add(null);
+		}
+		return notes;
 	}
 	
 	/**
@@ -121,7 +281,7 @@ public class Note {
 			return null;
 		}
 
-		return Note.getNote(letter + Alteration.getAlteration(newSemitones));
+		return codeTable[code + semitones];
 	}
 	
 	/**
@@ -130,35 +290,76 @@ public class Note {
 	 * @return the new note, or null if more than 2 sharps/flats would be required to create the new note
 	 */
 	public Note addInterval(Interval interval) {
-		// calculate the required number of semitones to increase the note by
-		int requiredSemitones = Interval.intervalToSemitones(interval);
-		
-		// find the position of the current note in the array of letter names, then add the interval
-		// to find the letter name of the second note
-		String letterName = null;
-		for (int i = 0; i < LETTER_NAMES.length; i++) {
-			if (letter.equals(LETTER_NAMES[i])) {
-				letterName = LETTER_NAMES[(i + interval.simplifySize() - 1) % LETTER_NAMES.length];
-				break;
+		return intervalTable[code * Interval.NUM_CODES + interval.getCode()];
+	}
+	
+	/**
+	 * Creates the interned Note object for every note code.
+	 * @return the array of notes, indexed by note code
+	 */
+	private static Note[] createCodeTable() {
+		Note[] table = new Note[NUM_CODES];
+		for (int code = 0; code < NUM_CODES; code++) {
+			String letter = LETTER_NAMES[code / NUM_ACCIDENTALS];
+			table[code] = new Note(letter, Alteration.getAlteration(code % NUM_ACCIDENTALS - 2).toString());
+		}
+		return table;
+	}
+	
+	/**
+	 * Finds every note that can be used as the root of a scale.
+	 * @return the unmodifiable list of root notes
+	 */
+	private static List<Note> createRootNotes() {
+		List<Note> roots = new ArrayList<>();
+		for (Note note : codeTable) {
+			if (note.isRoot()) {
+				roots.add(note);
 			}
 		}
-		
-		// get the new note (without any accidentals)
-		Note newNote = Note.getNote(letterName);
-		
-		// calculate how many semitones are still required and apply an accidental to account for the difference
-		int currentSemitones = Interval.countSemitones(this, newNote);
-		return newNote.changeAccidental(requiredSemitones - currentSemitones);
+		return Collections.unmodifiableList(roots);
+	}
+	
+	/**
+	 * Calculates the note obtained by applying every possible interval to every possible note.
+	 * @return the array of notes (null where more than 2 sharps/flats would be required), indexed by
+	 * the note code and interval code
+	 */
+	private static Note[] createIntervalTable() {
+		Note[] table = new Note[NUM_CODES * Interval.NUM_CODES];
+		for (int code = 0; code < NUM_CODES; code++) {
+			for (int intervalCode = 0; intervalCode < Interval.NUM_CODES; intervalCode++) {
+				// calculate the required number of semitones to increase the note by
+				int requiredSemitones = Interval.intervalToSemitones(intervalCode);
+				
+				// add the simple interval size to the letter name to find the letter name of the second note
+				int simpleSize = (intervalCode / NUM_ACCIDENTALS) % 7 + 1;
+				int letter = (code / NUM_ACCIDENTALS + simpleSize - 1) % NUM_LETTERS;
+				int naturalCode = letter * NUM_ACCIDENTALS + 2;
+				
+				// calculate how many semitones are still required and apply an accidental to account for the difference
+				int newSemitones = requiredSemitones - Interval.countSemitones(code, naturalCode);
+				if (Math.abs(newSemitones) <= 2) {
+					table[code * Interval.NUM_CODES + intervalCode] = codeTable[naturalCode + newSemitones];
+				}
+			}
+		}
+		return table;
 	}
 	
 	@Override
 	public String toString() {
-		return letter + accidental;
+		return name;
 	}
 	
 	@Override
 	public boolean equals(Object o) {
 		Note otherNote = (Note) o;
-		return this.toString().equals(otherNote.toString());
+		return code == otherNote.code;
+	}
+	
+	@Override
+	public int hashCode() {
+		return code;
 	}
 }
@@ -0,0 +1,41 @@
+package util;
+
+import java.util.List;
+
+/**
+ * An unmodifiable list of notes stored as one-byte note codes.
+ * @author Joel Gibson
+ */
+public final class NoteList extends CodeList<Note> {
+	/**
+	 * Creates a new list viewing the given slice of an array of note codes. The array is not copied,
+	 * so several lists can share one large array.
+	 * @param codes the array holding the note codes
+	 * @param offset the position of the first note code in the array
+	 * @param size the number of notes in the list
+	 */
+	public NoteList(byte[] codes, int offset, int size) {
+		super(codes, offset, size);
+	}
+	
+	/**
+	 * Creates a compact copy of the given notes.
+	 * @param notes the list of notes
+	 * @return the new list, or the given list if it is already a NoteList
+	 */
+	public static NoteList copyOf(List<Note> notes) {
+		if (notes instanceof NoteList) {
+			return (NoteList) notes;
+		}
+		byte[] codes = new byte[notes.size()];
+		for (int i = 0; i < codes.length; i++) {
+			codes[i] = (byte) notes.get(i).getCode();
+		}
+		return new NoteList(codes, 0, codes.length);
+	}
+	
+	@Override
+	protected Note fromCode(int code) {
+		return Note.fromCode(code);
+	}
+}
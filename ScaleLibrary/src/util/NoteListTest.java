@@ -0,0 +1,58 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NoteListTest {
+
+	@Test
+	void testSlices() {
+		// test two lists sharing one array
+		List<Note> first = List.of(Note.getNote("C"), Note.getNote("E"), Note.getNote("G"));
+		List<Note> second = List.of(Note.getNote("F#"), Note.getNote("A#"), Note.getNote("C#"));
+		byte[] codes = new byte[6];
+		for (int i = 0; i < 3; i++) {
+			codes[i] = (byte) first.get(i).getCode();
+			codes[i + 3] = (byte) second.get(i).getCode();
+		}
+		NoteList list1 = new NoteList(codes, 0, 3);
+		NoteList list2 = new NoteList(codes, 3, 3);
+		assertEquals(first, list1);
+		assertEquals(second, list2);
+		assertEquals(first.hashCode(), list1.hashCode());
+		assertSame(Note.getNote("A#"), list2.get(1));
+		assertEquals(Note.getNote("G").getCode(), list1.getCode(2));
+		
+		// test positions outside the slice
+		assertThrows(IndexOutOfBoundsException.class, () -> list1.get(3));
+		assertThrows(IndexOutOfBoundsException.class, () -> new NoteList(codes, 4, 3));
+	}
+
+	@Test
+	void testCopyOf() {
+		// test copying a list of notes
+		List<Note> notes = new ArrayList<>(List.of(Note.getNote("Bb"), Note.getNote("Cx")));
+		NoteList copy = NoteList.copyOf(notes);
+		notes.set(0, Note.getNote("D"));
+		assertEquals(List.of(Note.getNote("Bb"), Note.getNote("Cx")), copy, "the copy should not change with the original");
+		assertSame(copy, NoteList.copyOf(copy));
+		assertThrows(UnsupportedOperationException.class, () -> copy.set(0, Note.getNote("D")));
+	}
+
+	@Test
+	void testIntervalList() {
+		// test intervals that could not be read are kept as null
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(null);
+		intervals.add(Interval.getInterval("bb7"));
+		IntervalList copy = IntervalList.copyOf(intervals);
+		assertEquals(intervals, copy);
+		assertEquals(-1, copy.getCode(1));
+		assertArrayEquals(new byte[] {(byte) Interval.getInterval("1").getCode(), -1, (byte) Interval.getInterval("bb7").getCode()}, copy.toCodes());
+	}
+}
@@ -2,6 +2,16 @@ package util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -36,6 +46,36 @@ class NoteTest {
 		assertNull(Note.getNote("A b"));
 	}
 
+	@Test
+	void testGetNoteConcurrent() throws Exception {
+		// request every note name from many threads at once, starting from an empty cache
+		String[] noteNames = {"A", "c#", "Bb", "fx", "Ebb", "G", "d", "B#"};
+		int numThreads = 32;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Note[]>> results = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				Note[] found = new Note[noteNames.length];
+				for (int j = 0; j < noteNames.length; j++) {
+					found[j] = Note.getNote(noteNames[j]);
+				}
+				return found;
+			}));
+		}
+		start.countDown();
+		
+		// test every thread received the same interned note objects
+		for (Future<Note[]> result : results) {
+			Note[] found = result.get(10, TimeUnit.SECONDS);
+			for (int j = 0; j < noteNames.length; j++) {
+				assertSame(Note.getNote(noteNames[j]), found[j], "all threads should share the interned note");
+			}
+		}
+		executor.shutdown();
+	}
+
 	@Test
 	void testParseNote() {
 		// test valid notes
@@ -63,6 +103,51 @@ class NoteTest {
 		assertNull(Note.parseNote("A b"));
 	}
 
+	@Test
+	void testParseNoteListMatchesSplit() {
+		// test lists with unusual separators against splitting with the original regex
+		String[] lists = {"C, Eb, G", "C,Eb,G", "C,  \tf#", "", ",", ", ,", "C,", "C, ", ",C", "C,,D", "C, ,D", "C , D", " C", "C,D,,"};
+		for (String list : lists) {
+			List<Note> expected = new ArrayList<>();
+			for (String name : list.split(",\\s*")) {
+				expected.add(Note.getNote(name));
+			}
+			assertEquals(expected, Note.parseNoteList(list, 0, list.length()), "incorrect notes parsed from '" + list + "'");
+		}
+	}
+
+	@Test
+	void testParseNoteMatchesRegex() {
+		// test every short string over characters that appear in note names against the original regex parser
+		Pattern pattern = Pattern.compile("^(?<letter>[a-gA-G])(?<accidental>[#bx]?|bb)$");
+		char[] characters = {'a', 'b', 'g', 'h', 'A', 'B', 'G', 'H', '#', 'x', 'X', ' ', '1'};
+		for (String text : allStrings(characters, 3)) {
+			Matcher matcher = pattern.matcher(text);
+			String expected = matcher.matches() ? matcher.group("letter").toUpperCase() + matcher.group("accidental") : null;
+			Note note = Note.parseNote(text);
+			assertEquals(expected, note == null ? null : note.toString(), "incorrect note parsed from '" + text + "'");
+			
+			// test the note is found within a larger piece of text
+			assertSame(note, Note.parseNote("[" + text + "]", 1, text.length() + 1));
+		}
+	}
+	
+	/**
+	 * Creates every string up to the given length using the given characters.
+	 */
+	static List<String> allStrings(char[] characters, int maxLength) {
+		List<String> strings = new ArrayList<>();
+		strings.add("");
+		for (int i = 0; i < strings.size(); i++) {
+			if (strings.get(i).length() < maxLength) {
+				for (char c : characters) {
+					strings.add(strings.get(i) + c);
+				}
+			}
+		}
+		return strings;
+	}
+
 	@Test
 	void testChangeAccidental() {
 		// test some valid changes
@@ -95,6 +180,60 @@ class NoteTest {
 		assertNull(testNote5.addInterval(Interval.getInterval("#5")), "notes that would require more than 2 sharps are invalid");
 	}
 
+	@Test
+	void testGetCode() {
+		// test each note code maps back to the same interned note
+		for (int code = 0; code < Note.NUM_CODES; code++) {
+			Note testNote = Note.fromCode(code);
+			assertEquals(code, testNote.getCode());
+			assertSame(testNote, Note.getNote(testNote.toString()), "the interned note should be returned for each code");
+		}
+		
+		// test notes with the same letter name have adjacent codes
+		assertEquals(Note.getNote("C").getCode() + 1, Note.getNote("C#").getCode());
+		assertEquals(Note.getNote("C").getCode() - 2, Note.getNote("Cbb").getCode());
+		
+		// test invalid codes
+		assertNull(Note.fromCode(-1));
+		assertNull(Note.fromCode(Note.NUM_CODES));
+	}
+
+	@Test
+	void testGetPitchClass() {
+		// test some natural notes
+		assertEquals(0, Note.getNote("C").getPitchClass());
+		assertEquals(9, Note.getNote("A").getPitchClass());
+		
+		// test enharmonic notes have the same pitch class
+		assertEquals(Note.getNote("F#").getPitchClass(), Note.getNote("Gb").getPitchClass());
+		assertEquals(0, Note.getNote("B#").getPitchClass(), "pitch class should wrap around the octave");
+		assertEquals(11, Note.getNote("Cb").getPitchClass(), "pitch class should wrap around the octave");
+		assertEquals(10, Note.getNote("Cbb").getPitchClass());
+	}
+
+	@Test
+	void testAddIntervalAllCombinations() {
+		// test every interval applied to every note against the interval's semitones and letter name
+		String[] qualities = {"bb", "b", "", "#", "x"};
+		for (int code = 0; code < Note.NUM_CODES; code++) {
+			Note testNote = Note.fromCode(code);
+			for (int size = 1; size <= 15; size++) {
+				for (String quality : qualities) {
+					Interval interval = Interval.getInterval(quality + size);
+					Note newNote = testNote.addInterval(interval);
+					if (newNote == null) {
+						continue;
+					}
+					
+					int letterDistance = (newNote.getCode() / Note.NUM_ACCIDENTALS - code / Note.NUM_ACCIDENTALS + 7) % 7;
+					assertEquals(interval.simplifySize() - 1, letterDistance, "incorrect letter name for " + testNote + " + " + interval);
+					assertEquals(Math.floorMod(Interval.intervalToSemitones(interval), 12),
+							Math.floorMod(Interval.countSemitones(testNote, newNote), 12), "incorrect pitch for " + testNote + " + " + interval);
+				}
+			}
+		}
+	}
+
 	@Test
 	void testToString() {
 		// test some notes with different accidentals
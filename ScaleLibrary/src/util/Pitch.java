@@ -0,0 +1,267 @@
+package util;
+
+/**
+ * Represents a spelled note in a particular octave, using scientific pitch notation (middle C is C4,
+ * MIDI number 60). The octave belongs to the letter name, so B#3 sounds the same as C4. Pitches are
+ * interned, and all calculations use precomputed tables.
+ * @author Joel Gibson
+ */
+public final class Pitch {
+	/**
+	 * The lowest octave that can be represented.
+	 */
+	public static final int MIN_OCTAVE = -1;
+	
+	/**
+	 * The highest octave that can be represented.
+	 */
+	public static final int MAX_OCTAVE = 9;
+	
+	/**
+	 * The number of octaves that can be represented.
+	 */
+	public static final int NUM_OCTAVES = MAX_OCTAVE - MIN_OCTAVE + 1;
+	
+	/**
+	 * The number of distinct pitch codes (one for each note in each octave).
+	 */
+	public static final int NUM_CODES = NUM_OCTAVES * Note.NUM_CODES;
+	
+	/**
+	 * Marks an interval that can't be applied to a note in the interval offset table.
+	 */
+	private static final int INVALID_OFFSET = Integer.MIN_VALUE;
+	
+	/**
+	 * The number of semitones each note is above the C of the same octave (-2 for Cbb to 13 for Bx),
+	 * indexed by note code.
+	 */
+	private static final int[] noteOffsets = createNoteOffsets();
+	
+	/**
+	 * The change in pitch code made by applying each interval to each note, indexed by the note code
+	 * and interval code (INVALID_OFFSET where more than 2 sharps/flats would be required).
+	 */
+	private static final int[] intervalOffsets = createIntervalOffsets();
+	
+	/**
+	 * The interned Pitch object for each pitch code.
+	 */
+	private static final Pitch[] codeTable = createCodeTable();
+	
+	/**
+	 * The spelled note.
+	 */
+	private final Note note;
+	
+	/**
+	 * The octave number.
+	 */
+	private final int octave;
+	
+	/**
+	 * The primitive code of the pitch, packing the octave and note code into a single int.
+	 */
+	private final int code;
+	
+	/**
+	 * The MIDI note number.
+	 */
+	private final int midiNumber;
+	
+	/**
+	 * The pitch name (e.g. C#4).
+	 */
+	private final String name;
+	
+	/**
+	 * Creates a new pitch with the given code.
+	 * @param code the pitch code
+	 */
+	private Pitch(int code) {
+		this.note = Note.fromCode(code % Note.NUM_CODES);
+		this.octave = code / Note.NUM_CODES + MIN_OCTAVE;
+		this.code = code;
+		this.midiNumber = 12 * (octave + 1) + noteOffsets[note.getCode()];
+		this.name = note.toString() + octave;
+	}
+	
+	/**
+	 * Gets the interned pitch with the given note and octave.
+	 * @param note the spelled note
+	 * @param octave the octave number
+	 * @return the Pitch object, or null if the octave is outside the range that can be represented
+	 */
+	public static Pitch getPitch(Note note, int octave) {
+		if (octave < MIN_OCTAVE || octave > MAX_OCTAVE) {
+			return null;
+		}
+		return codeTable[(octave - MIN_OCTAVE) * Note.NUM_CODES + note.getCode()];
+	}
+	
+	/**
+	 * Gets the interned pitch with the given name, such as "C#4" or "Bb-1".
+	 * @param pitchName the pitch name
+	 * @return the Pitch object, or null if the pitch name was invalid
+	 */
+	public static Pitch getPitch(String pitchName) {
+		// the octave is the digits at the end of the name, with an optional minus sign
+		int octaveStart = pitchName.length();
+		while (octaveStart > 0 && Character.isDigit(pitchName.charAt(octaveStart - 1))) {
+			octaveStart--;
+		}
+		if (octaveStart == pitchName.length() || pitchName.length() - octaveStart > 2) {
+			return null;
+		}
+		int octave = Integer.parseInt(pitchName.substring(octaveStart));
+		if (octaveStart > 0 && pitchName.charAt(octaveStart - 1) == '-') {
+			octaveStart--;
+			octave = -octave;
+		}
+		
+		Note note = Note.parseNote(pitchName, 0, octaveStart);
+		return note == null ? null : getPitch(note, octave);
+	}
+	
+	/**
+	 * Gets the pitch spelled with the given note that has the given MIDI number.
+	 * @param midiNumber the MIDI note number
+	 * @param note the spelled note
+	 * @return the Pitch object, or null if the note is not a spelling of the MIDI number or the octave
+	 * is outside the range that can be represented
+	 */
+	public static Pitch fromMidiNumber(int midiNumber, Note note) {
+		int semitones = midiNumber - noteOffsets[note.getCode()];
+		if (Math.floorMod(semitones, 12) != 0) {
+			return null;
+		}
+		return getPitch(note, Math.floorDiv(semitones, 12) - 1);
+	}
+	
+	/**
+	 * Gets the interned Pitch object associated with the given pitch code.
+	 * @param code the pitch code
+	 * @return the Pitch object, or null if the code was invalid
+	 */
+	public static Pitch fromCode(int code) {
+		if (code < 0 || code >= NUM_CODES) {
+			return null;
+		}
+		return codeTable[code];
+	}
+	
+	/**
+	 * @return the spelled note
+	 */
+	public Note getNote() {
+		return note;
+	}
+	
+	/**
+	 * @return the octave number
+	 */
+	public int getOctave() {
+		return octave;
+	}
+	
+	/**
+	 * @return the primitive pitch code
+	 */
+	public int getCode() {
+		return code;
+	}
+	
+	/**
+	 * @return the MIDI note number (60 for C4), which may be outside 0 to 127 at the ends of the range
+	 */
+	public int getMidiNumber() {
+		return midiNumber;
+	}
+	
+	/**
+	 * @return the frequency (in Hz) of the pitch in equal temperament, with A4 at 440 Hz
+	 */
+	public double getFrequency() {
+		return 440 * Math.pow(2, (midiNumber - 69) / 12.0);
+	}
+	
+	/**
+	 * Finds the pitch obtained by applying the given interval above this pitch. Compound intervals
+	 * keep their octaves, so a 9th is an octave above a 2nd.
+	 * @param interval the interval to apply
+	 * @return the new pitch, or null if more than 2 sharps/flats would be required or the octave is
+	 * outside the range that can be represented
+	 */
+	public Pitch addInterval(Interval interval) {
+		int offset = intervalOffsets[note.getCode() * Interval.NUM_CODES + interval.getCode()];
+		if (offset == INVALID_OFFSET) {
+			return null;
+		}
+		return fromCode(code + offset);
+	}
+	
+	/**
+	 * Counts the number of semitones from this pitch to the given pitch.
+	 * @param other the other pitch
+	 * @return the number of semitones (negative if the other pitch is lower)
+	 */
+	public int countSemitones(Pitch other) {
+		return other.midiNumber - midiNumber;
+	}
+	
+	/**
+	 * Calculates the number of semitones each note is above the C of the same octave.
+	 * @return the table of semitones, indexed by note code
+	 */
+	private static int[] createNoteOffsets() {
+		int[] offsets = new int[Note.NUM_CODES];
+		Note c = Note.getNote("C");
+		for (int code = 0; code < Note.NUM_CODES; code++) {
+			Note note = Note.fromCode(code);
+			Note natural = Note.fromCode(code - note.getSemitoneChange());
+			offsets[code] = Interval.countSemitones(c, natural) + note.getSemitoneChange();
+		}
+		return offsets;
+	}
+	
+	/**
+	 * Calculates the change in pitch code made by applying every interval to every note.
+	 * @return the table of offsets, indexed by the note code and interval code
+	 */
+	private static int[] createIntervalOffsets() {
+		int[] offsets = new int[Note.NUM_CODES * Interval.NUM_CODES];
+		for (int code = 0; code < Note.NUM_CODES; code++) {
+			Note note = Note.fromCode(code);
+			for (int intervalCode = 0; intervalCode < Interval.NUM_CODES; intervalCode++) {
+				Note newNote = note.addInterval(Interval.fromCode(intervalCode));
+				if (newNote == null) {
+					offsets[code * Interval.NUM_CODES + intervalCode] = INVALID_OFFSET;
+					continue;
+				}
+				
+				// the octave changes by the number of times the letter names pass C
+				int lettersAboveC = Math.floorMod(code / Note.NUM_ACCIDENTALS - 2, Note.NUM_LETTERS);
+				int octaves = (lettersAboveC + intervalCode / Note.NUM_ACCIDENTALS) / Note.NUM_LETTERS;
+				offsets[code * Interval.NUM_CODES + intervalCode] = octaves * Note.NUM_CODES + newNote.getCode() - code;
+			}
+		}
+		return offsets;
+	}
+	
+	/**
+	 * Creates the interned Pitch object for every pitch code.
+	 * @return the array of pitches, indexed by pitch code
+	 */
+	private static Pitch[] createCodeTable() {
+		Pitch[] table = new Pitch[NUM_CODES];
+		for (int code = 0; code < NUM_CODES; code++) {
+			table[code] = new Pitch(code);
+		}
+		return table;
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
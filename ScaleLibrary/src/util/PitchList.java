@@ -0,0 +1,42 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of pitches stored as offsets from a root pitch, so that the pitches of a scale
+ * can share one array of offsets in every octave.
+ * @author Joel Gibson
+ */
+public final class PitchList extends AbstractList<Pitch> implements RandomAccess {
+	/**
+	 * The code of the root pitch.
+	 */
+	private final int rootCode;
+	
+	/**
+	 * The offset of each pitch code from the root pitch code.
+	 */
+	private final int[] offsets;
+	
+	/**
+	 * Creates a new list of pitches. Every offset must give a valid pitch code, and the array must not
+	 * be changed while it is in use by the list.
+	 * @param rootCode the code of the root pitch
+	 * @param offsets the offset of each pitch code from the root pitch code
+	 */
+	PitchList(int rootCode, int[] offsets) {
+		this.rootCode = rootCode;
+		this.offsets = offsets;
+	}
+	
+	@Override
+	public Pitch get(int index) {
+		return Pitch.fromCode(rootCode + offsets[index]);
+	}
+	
+	@Override
+	public int size() {
+		return offsets.length;
+	}
+}
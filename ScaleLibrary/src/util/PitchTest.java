@@ -0,0 +1,117 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PitchTest {
+
+	@Test
+	void testGetPitch() {
+		// test some valid pitch names
+		Pitch middleC = Pitch.getPitch("C4");
+		assertSame(Note.getNote("C"), middleC.getNote());
+		assertEquals(4, middleC.getOctave());
+		assertEquals(60, middleC.getMidiNumber());
+		assertEquals("C4", middleC.toString());
+		assertSame(middleC, Pitch.getPitch(Note.getNote("C"), 4), "pitches should be interned");
+		assertEquals(69, Pitch.getPitch("A4").getMidiNumber());
+		assertEquals(10, Pitch.getPitch("Bb-1").getMidiNumber());
+		assertEquals(-1, Pitch.getPitch("Bb-1").getOctave());
+		
+		// test the octave belongs to the letter name
+		assertEquals(60, Pitch.getPitch("B#3").getMidiNumber());
+		assertEquals(59, Pitch.getPitch("Cb4").getMidiNumber());
+		
+		// test some invalid pitch names
+		assertNull(Pitch.getPitch("C"));
+		assertNull(Pitch.getPitch("H4"));
+		assertNull(Pitch.getPitch("C10"));
+		assertNull(Pitch.getPitch("C-2"));
+		assertNull(Pitch.getPitch("4"));
+	}
+
+	@Test
+	void testFromMidiNumber() {
+		// test a note and its enharmonics
+		assertSame(Pitch.getPitch("C4"), Pitch.fromMidiNumber(60, Note.getNote("C")));
+		assertSame(Pitch.getPitch("B#3"), Pitch.fromMidiNumber(60, Note.getNote("B#")));
+		assertSame(Pitch.getPitch("Dbb4"), Pitch.fromMidiNumber(60, Note.getNote("Dbb")));
+		
+		// test a note that is not a spelling of the MIDI number
+		assertNull(Pitch.fromMidiNumber(61, Note.getNote("C")));
+	}
+
+	@Test
+	void testAddInterval() {
+		// test simple and compound intervals
+		Pitch middleC = Pitch.getPitch("C4");
+		assertSame(Pitch.getPitch("D4"), middleC.addInterval(Interval.getInterval("2")));
+		assertSame(Pitch.getPitch("D5"), middleC.addInterval(Interval.getInterval("9")));
+		assertSame(Pitch.getPitch("C6"), middleC.addInterval(Interval.getInterval("15")));
+		assertSame(Pitch.getPitch("C5"), Pitch.getPitch("B4").addInterval(Interval.getInterval("b2")));
+		assertSame(Pitch.getPitch("B#4"), Pitch.getPitch("A4").addInterval(Interval.getInterval("#2")));
+		assertEquals(14, middleC.countSemitones(middleC.addInterval(Interval.getInterval("9"))));
+		
+		// test every interval agrees with the semitone count of the interval
+		for (int code = 0; code < Pitch.NUM_CODES; code++) {
+			Pitch pitch = Pitch.fromCode(code);
+			for (int intervalCode = 0; intervalCode < Interval.NUM_CODES; intervalCode++) {
+				Interval interval = Interval.fromCode(intervalCode);
+				Pitch result = pitch.addInterval(interval);
+				if (result != null) {
+					assertEquals(interval.getSemitones(), pitch.countSemitones(result), pitch + " + " + interval);
+					assertSame(pitch.getNote().addInterval(interval), result.getNote());
+				}
+			}
+		}
+		
+		// test intervals leaving the range that can be represented
+		assertNull(Pitch.getPitch("G9").addInterval(Interval.getInterval("5")));
+		assertNull(middleC.addInterval(Interval.getInterval("bb2")).addInterval(Interval.getInterval("b2")), "Dbb4 + b2 needs 3 flats");
+	}
+
+	@Test
+	void testGetFrequency() {
+		// test equal temperament tuning from A4
+		assertEquals(440, Pitch.getPitch("A4").getFrequency(), 1e-9);
+		assertEquals(220, Pitch.getPitch("A3").getFrequency(), 1e-9);
+		assertEquals(261.626, Pitch.getPitch("C4").getFrequency(), 1e-3);
+		assertEquals(Pitch.getPitch("C#4").getFrequency(), Pitch.getPitch("Db4").getFrequency(), 1e-9, "enharmonic pitches should match");
+	}
+
+	@Test
+	void testGetSemitones() {
+		// test simple and compound intervals
+		assertEquals(2, Interval.getInterval("2").getSemitones());
+		assertEquals(14, Interval.getInterval("9").getSemitones());
+		assertEquals(12, Interval.getInterval("8").getSemitones());
+		assertEquals(24, Interval.getInterval("15").getSemitones());
+		assertEquals(18, Interval.getInterval("#11").getSemitones());
+		assertEquals(2, Interval.intervalToSemitones(Interval.getInterval("9")), "simple semitones should be unchanged");
+	}
+
+	@Test
+	void testScalePitches() {
+		// test a two octave scale keeps its octaves
+		List<Interval> intervals = new ArrayList<>();
+		for (String name : new String[] {"1", "3", "5", "8", "9", "#11", "15"}) {
+			intervals.add(Interval.getInterval(name));
+		}
+		Scale scale = new Scale("test", intervals, false);
+		assertEquals("[C4, E4, G4, C5, D5, F#5, C6]", scale.getPitches(Pitch.getPitch("C4")).toString());
+		
+		// test simplified notes keep their MIDI numbers across an octave boundary
+		Scale simplified = new Scale("test", List.of(Interval.getInterval("1"), Interval.getInterval("7")), true);
+		List<Pitch> pitches = simplified.getPitches(Pitch.getPitch("C#4"));
+		assertEquals("[C#4, C5]", pitches.toString(), "B#4 should have been simplified to C5");
+		assertEquals(72, pitches.get(1).getMidiNumber());
+		
+		// test scales that can't be represented
+		assertNull(scale.getPitches(Pitch.getPitch("C9")));
+		assertNull(new Scale("test", List.of(Interval.getInterval("bb3")), false).getPitches(Pitch.getPitch("Cb4")));
+	}
+}
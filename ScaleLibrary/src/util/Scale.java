@@ -1,9 +1,10 @@
 package util;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+
+import metrics.CacheStats;
+import metrics.Metrics;
 
 /**
  * Represents a musical scale type.
@@ -11,24 +12,25 @@ import java.util.Map;
  */
 public class Scale implements Comparable<Scale> {
 	/**
-	 * Maps root note names to note sequences already created for this scale type.
+	 * The cache of note sequences shared by every scale type.
 	 */
-	protected Map<String, List<Note>> scales = new HashMap<>();
+	private static volatile ScaleCache cache = new UnboundedScaleCache();
 	
 	/**
-	 * The scale name/type (e.g. major).
+	 * The hit and miss counts of the note sequences of every scale type.
 	 */
-	private String name;
+	private static final CacheStats cacheStats = Metrics.createCacheStats("scales", () -> cache.size(),
+			() -> cache.getEvictionCount());
 	
 	/**
-	 * The interval pattern of the scale.
+	 * The scale name/type (e.g. major).
 	 */
-	private List<Interval> intervals;
+	private String name;
 	
 	/**
-	 * Indicates whether the scale notes should be simplified using enharmonics.
+	 * The interval pattern of the scale, shared with every scale type using the same intervals.
 	 */
-	private boolean simplified;
+	private ScalePattern pattern;
 	
 	/**
 	 * Creates a new scale with the given parameters.
@@ -38,8 +40,7 @@ public class Scale implements Comparable<Scale> {
 	 */
 	public Scale(String name, List<Interval> intervals, boolean simplified) {
 		this.name = name;
-		this.intervals = intervals;
-		this.simplified = simplified;
+		this.pattern = ScalePattern.getPattern(intervals, simplified, "blues".equals(name));
 	}
 	
 	/**
@@ -54,128 +55,119 @@ public class Scale implements Comparable<Scale> {
 	 */
 	public List<String> getIntervalNames() {
 		List<String> intervalNames = new ArrayList<>();
-		for (Interval interval : intervals) {
+		for (Interval interval : pattern.getIntervals()) {
 			intervalNames.add(interval.toString());
 		}
 		return intervalNames;
 	}
 
+	/**
+	 * @return the unmodifiable list of intervals
+	 */
+	public List<Interval> getIntervals() {
+		return pattern.getIntervals();
+	}
+
 	/**
 	 * @return the simplify
 	 */
 	public boolean isSimplified() {
-		return simplified;
+		return pattern.isSimplified();
+	}
+	
+	/**
+	 * @return the interval pattern of the scale
+	 */
+	public ScalePattern getPattern() {
+		return pattern;
+	}
+	
+	/**
+	 * @return the cache of note sequences shared by every scale type
+	 */
+	public static ScaleCache getCache() {
+		return cache;
+	}
+	
+	/**
+	 * Sets the cache of note sequences shared by every scale type. This should be done before any
+	 * scales are used, as note sequences stored in the previous cache are not moved to the new one.
+	 * @param cache the new cache
+	 */
+	public static void setCache(ScaleCache cache) {
+		Scale.cache = cache;
 	}
 	
 	/**
 	 * Returns the note sequence for this scale with the given root note.
 	 * @param root the root note of the scale
-	 * @return the list of notes in the scale
+	 * @return the unmodifiable list of notes in the scale
 	 */
 	public List<Note> getScale(Note root) {
 		// check if scale has been created before
-		if (scales.containsKey(root.toString())) {
-			return scales.get(root.toString());
+		ScaleCache cache = Scale.cache;
+		List<Note> scale = cache.get(pattern, root);
+		if (scale != null) {
+			if (Metrics.ENABLED) {
+				cacheStats.recordHit();
+			}
+			return scale;
+		}
+		if (Metrics.ENABLED) {
+			cacheStats.recordMiss();
 		}
 		
-		// create the scale using the root
+		// create the scale using the root, returning the existing one if another thread stored it first
 		List<Note> newScale = generateScale(root);
 		if (newScale != null) {
-			scales.put(root.toString(), newScale);
+			scale = cache.putIfAbsent(pattern, root, newScale);
+			if (scale != null) {
+				return scale;
+			}
 		}
 		return newScale;
 	}
 
 	/**
-	 * Creates note sequence for this scale with the given root note.
-	 * @param root the root note to create the scale above
-	 * @return the list of notes in the scale
+	 * Returns the pitches of this scale above the given root pitch, keeping the octaves of compound
+	 * intervals. The pitches are spelled the same way as the notes returned by getScale.
+	 * @param root the root pitch of the scale
+	 * @return the unmodifiable list of pitches, or null if the scale can't be spelled or extends
+	 * outside the range of pitches that can be represented
 	 */
-	protected List<Note> generateScale(Note root) {
-		List<Note> notes = new ArrayList<>();
-		
-		// create each note using the interval pattern of the scale
-		for (Interval interval : intervals) {
-			Note nextNote = root.addInterval(interval);
-			notes.add(nextNote);
-		}
-		
-		// check that all notes were created correctly (note requiring more than 2 sharps or flats
-		// will not be created)
-		if (notes.contains(null)) {
+	public List<Pitch> getPitches(Pitch root) {
+		// the offsets don't depend on the octave, so they are shared by every octave of the root
+		int[] offsets = pattern.getPitchOffsets(root.getNote(), this);
+		if (offsets == null) {
 			return null;
 		}
 		
-		// use enharmonics to simplify complex accidentals
-		if (simplified) {
-			simplifyAccidentals(notes, root);
-		}
-		
-		// only the flat 5th of the blues scales should be simplified
-		if ("blues".equals(name)) {
-			simplifyAccidentals(notes, root, 3);
+		// check every pitch is in the range that can be represented
+		for (int offset : offsets) {
+			if (Pitch.fromCode(root.getCode() + offset) == null) {
+				return null;
+			}
 		}
-		
-		return notes;
+		return new PitchList(root.getCode(), offsets);
 	}
 	
 	/**
-	 * Simplifies each non-root note in the scale so that the least number of accidentals are used.
-	 * @param notes the list of notes in the scale
+	 * Stores a previously created note sequence for this scale with the given root note, unless one
+	 * has already been created. The notes are stored as a NoteList, copying them if necessary.
 	 * @param root the root note of the scale
+	 * @param notes the list of notes in the scale
 	 */
-	protected void simplifyAccidentals(List<Note> notes, Note root) {
-		for (int i = 0; i < notes.size(); i++) {
-			Note nextNote = notes.get(i);
-			// only simplify non-root notes
-			if (!root.equals(nextNote)) {
-				simplifyAccidentals(notes, root, i);
-			}
-		}
+	public void preloadScale(Note root, List<Note> notes) {
+		cache.putIfAbsent(pattern, root, NoteList.copyOf(notes));
 	}
-	
+
 	/**
-	 * Simplifies the scale note at the given index so that the least number of accidentals are used.
-	 * @param notes the list of notes in the scale
-	 * @param root the root note of the scale
-	 * @param index the index of the note to change
+	 * Creates note sequence for this scale with the given root note.
+	 * @param root the root note to create the scale above
+	 * @return the list of notes in the scale
 	 */
-	protected void simplifyAccidentals(List<Note> notes, Note root, int index) {
-		// find the note at the required index and its current semitone change
-		Note note = notes.get(index);
-		int semitones = note.getSemitoneChange();
-
-		// check if the enharhomic note above or below the current note has a smaller semitone change
-		String[] intervals = {"#7", "bb2"};
-		for (String interval : intervals) {
-
-			// apply the interval to find the test note
-			Note testNote = note.addInterval(Interval.getInterval(interval));
-			if (testNote == null) {
-				continue;
-			}
-
-			// use the note with the smaller semitone alteration
-			int testSemitones = testNote.getSemitoneChange();
-			if (Math.abs(testSemitones) < Math.abs(semitones)) {
-				notes.set(index, testNote);
-			} else if (Math.abs(testSemitones) > Math.abs(semitones)) {
-				continue;
-			}
-
-			// use the note with the more similar semitone alteration to the root note
-			int rootSemitones = root.getSemitoneChange();
-			if (Math.abs(rootSemitones - testSemitones) < Math.abs(rootSemitones - semitones)) {
-				notes.set(index, testNote);
-			} else if (Math.abs(rootSemitones - testSemitones) > Math.abs(rootSemitones - semitones)) {
-				continue;
-			}
-
-			// use the note spelled with a sharp rather than a flat
-			if (testSemitones > semitones) {
-				notes.set(index, testNote);
-			}
-		}
+	protected List<Note> generateScale(Note root) {
+		return pattern.generateScale(root);
 	}
 	
 	@Override
@@ -0,0 +1,39 @@
+package util;
+
+import java.util.List;
+
+/**
+ * Stores the note sequences created by scales so that they don't need to be created again. One
+ * cache is shared by every Scale object, so any limit it places on its size applies to all of them
+ * together. Note sequences are stored by interval pattern, so scales sharing a pattern share them.
+ * @author Joel Gibson
+ */
+public interface ScaleCache {
+	/**
+	 * Finds the stored note sequence of the given interval pattern with the given root note.
+	 * @param pattern the interval pattern of the scale
+	 * @param root the root note of the scale
+	 * @return the list of notes in the scale, or null if it is not stored
+	 */
+	List<Note> get(ScalePattern pattern, Note root);
+	
+	/**
+	 * Stores the note sequence of the given interval pattern with the given root note, unless one is
+	 * already stored.
+	 * @param pattern the interval pattern of the scale
+	 * @param root the root note of the scale
+	 * @param notes the list of notes in the scale
+	 * @return the list of notes that was already stored, or null if the given notes were stored
+	 */
+	List<Note> putIfAbsent(ScalePattern pattern, Note root, List<Note> notes);
+	
+	/**
+	 * @return the number of stored note sequences
+	 */
+	long size();
+	
+	/**
+	 * @return the number of note sequences that have been removed to limit the size of the cache
+	 */
+	long getEvictionCount();
+}
@@ -0,0 +1,310 @@
+package util;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The canonical form of the interval pattern of one or more scale types. Scales with the same
+ * intervals and simplification rules share a single pattern, so their note sequences are only
+ * generated and stored once.
+ * @author Joel Gibson
+ */
+public final class ScalePattern {
+	/**
+	 * The interned patterns. Each pattern is kept only while a scale refers to it.
+	 */
+	private static final Map<ScalePattern, WeakReference<ScalePattern>> patterns = new WeakHashMap<>();
+	
+	/**
+	 * The code of the simplest spelling of each note in a scale with each root note, indexed by the
+	 * note code and then the root code.
+	 */
+	private static final byte[] simplifiedCodes = createSimplifiedCodes();
+	
+	/**
+	 * Maps root note names to note sequences already created for this pattern, when they are stored
+	 * by an UnboundedScaleCache (safe for concurrent access).
+	 */
+	final Map<String, List<Note>> scales = new ConcurrentHashMap<>();
+	
+	/**
+	 * The pitch code offsets of the notes of this pattern from the root pitch, indexed by the root
+	 * note code (created when first requested, and empty if the scale can't be spelled).
+	 */
+	private final AtomicReferenceArray<int[]> pitchOffsets = new AtomicReferenceArray<>(Note.NUM_CODES);
+	
+	/**
+	 * The codes of the intervals (-1 for intervals that could not be read), or null for a scale
+	 * without intervals.
+	 */
+	private final byte[] intervalCodes;
+	
+	/**
+	 * The view of the interval codes as intervals.
+	 */
+	private final IntervalList intervals;
+	
+	/**
+	 * Indicates whether the scale notes should be simplified using enharmonics.
+	 */
+	private final boolean simplified;
+	
+	/**
+	 * Indicates whether only the flat 5th (the 4th note) should be simplified, as in the blues scale.
+	 */
+	private final boolean bluesFifth;
+	
+	/**
+	 * The hash code of the pattern.
+	 */
+	private final int hash;
+	
+	/**
+	 * Creates a new pattern with the given parameters.
+	 * @param intervals the list of intervals of the scale
+	 * @param simplified whether the scale should be simplified using enharmonics
+	 * @param bluesFifth whether only the flat 5th of the scale should be simplified
+	 */
+	private ScalePattern(List<Interval> intervals, boolean simplified, boolean bluesFifth) {
+		if (intervals == null) {
+			this.intervalCodes = null;
+			this.intervals = null;
+		} else {
+			this.intervalCodes = IntervalList.copyOf(intervals).toCodes();
+			this.intervals = new IntervalList(intervalCodes, 0, intervalCodes.length);
+		}
+		this.simplified = simplified;
+		this.bluesFifth = bluesFifth;
+		this.hash = (Arrays.hashCode(intervalCodes) * 31 + Boolean.hashCode(simplified)) * 31 + Boolean.hashCode(bluesFifth);
+	}
+	
+	/**
+	 * Gets the canonical pattern for the given parameters.
+	 * @param intervals the list of intervals of the scale
+	 * @param simplified whether the scale should be simplified using enharmonics
+	 * @param bluesFifth whether only the flat 5th of the scale should be simplified
+	 * @return the shared pattern
+	 */
+	public static ScalePattern getPattern(List<Interval> intervals, boolean simplified, boolean bluesFifth) {
+		ScalePattern pattern = new ScalePattern(intervals, simplified, bluesFifth);
+		synchronized (patterns) {
+			WeakReference<ScalePattern> reference = patterns.get(pattern);
+			ScalePattern existing = reference == null ? null : reference.get();
+			if (existing != null) {
+				return existing;
+			}
+			patterns.put(pattern, new WeakReference<>(pattern));
+			return pattern;
+		}
+	}
+	
+	/**
+	 * Counts the note sequences stored by UnboundedScaleCache in every pattern still in use.
+	 * @return the number of stored note sequences
+	 */
+	static long countStoredScales() {
+		long count = 0;
+		synchronized (patterns) {
+			for (ScalePattern pattern : patterns.keySet()) {
+				count += pattern.scales.size();
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * @return the unmodifiable list of intervals (containing null for intervals that could not be read)
+	 */
+	public IntervalList getIntervals() {
+		return intervals;
+	}
+	
+	/**
+	 * @return whether the scale notes are simplified using enharmonics
+	 */
+	public boolean isSimplified() {
+		return simplified;
+	}
+	
+	/**
+	 * @return whether only the flat 5th of the scale is simplified
+	 */
+	public boolean isBluesFifth() {
+		return bluesFifth;
+	}
+	
+	/**
+	 * Creates the note sequence for this pattern with the given root note.
+	 * @param root the root note to create the scale above
+	 * @return the compact list of notes in the scale
+	 */
+	NoteList generateScale(Note root) {
+		int rootCode = root.getCode();
+		byte[] codes = new byte[intervalCodes.length];
+		
+		// create each note using the interval pattern of the scale, checking that all notes were
+		// created correctly (note requiring more than 2 sharps or flats will not be created)
+		for (int i = 0; i < codes.length; i++) {
+			Interval interval = Interval.fromCode(intervalCodes[i]);
+			Note note = interval == null ? null : root.addInterval(interval);
+			if (note == null) {
+				return null;
+			}
+			codes[i] = (byte) note.getCode();
+		}
+		
+		// use enharmonics to simplify complex accidentals of non-root notes
+		if (simplified) {
+			for (int i = 0; i < codes.length; i++) {
+				if (codes[i] != rootCode) {
+					codes[i] = simplifiedCodes[codes[i] * Note.NUM_CODES + rootCode];
+				}
+			}
+		}
+		
+		// only the flat 5th of the blues scales should be simplified
+		if (bluesFifth) {
+			codes[3] = simplifiedCodes[codes[3] * Note.NUM_CODES + rootCode];
+		}
+		
+		return new NoteList(codes, 0, codes.length);
+	}
+	
+	/**
+	 * Finds the offsets from the code of a root pitch to the codes of the pitches of the scale, which
+	 * are the same for a root note in every octave.
+	 * @param root the root note of the scale
+	 * @param scale a scale with this pattern, for retrieving its notes
+	 * @return the array of pitch code offsets, or null if the scale can't be spelled
+	 */
+	int[] getPitchOffsets(Note root, Scale scale) {
+		int[] offsets = pitchOffsets.get(root.getCode());
+		if (offsets == null) {
+			offsets = createPitchOffsets(root, scale.getScale(root));
+			pitchOffsets.compareAndSet(root.getCode(), null, offsets);
+		}
+		return offsets.length == 0 && intervalCodes.length > 0 ? null : offsets;
+	}
+	
+	/**
+	 * Calculates the offsets from the code of a root pitch to the codes of the pitches of the scale.
+	 * Each spelled note is placed at the number of semitones of its interval above the root, so
+	 * compound intervals keep their octaves.
+	 * @param root the root note of the scale
+	 * @param notes the notes of the scale, or null if the scale can't be spelled
+	 * @return the array of pitch code offsets, which is empty if the scale can't be spelled
+	 */
+	private int[] createPitchOffsets(Note root, List<Note> notes) {
+		if (notes == null) {
+			return new int[0];
+		}
+		
+		// use a root pitch in the middle of the range, so that every offset can be represented
+		Pitch rootPitch = Pitch.getPitch(root, 4);
+		int[] offsets = new int[notes.size()];
+		for (int i = 0; i < offsets.length; i++) {
+			int midiNumber = rootPitch.getMidiNumber() + Interval.compoundSemitones(intervalCodes[i]);
+			offsets[i] = Pitch.fromMidiNumber(midiNumber, notes.get(i)).getCode() - rootPitch.getCode();
+		}
+		return offsets;
+	}
+	
+	/**
+	 * Simplifies each non-root note in the scale so that the least number of accidentals are used.
+	 * @param notes the list of notes in the scale
+	 * @param root the root note of the scale
+	 */
+	static void simplifyAccidentals(List<Note> notes, Note root) {
+		for (int i = 0; i < notes.size(); i++) {
+			Note nextNote = notes.get(i);
+			// only simplify non-root notes
+			if (!root.equals(nextNote)) {
+				simplifyAccidentals(notes, root, i);
+			}
+		}
+	}
+	
+	/**
+	 * Simplifies the scale note at the given index so that the least number of accidentals are used.
+	 * @param notes the list of notes in the scale
+	 * @param root the root note of the scale
+	 * @param index the index of the note to change
+	 */
+	static void simplifyAccidentals(List<Note> notes, Note root, int index) {
+		Note note = notes.get(index);
+		Note simplest = Note.fromCode(simplifiedCodes[note.getCode() * Note.NUM_CODES + root.getCode()]);
+		if (simplest != note) {
+			notes.set(index, simplest);
+		}
+	}
+	
+	/**
+	 * Finds the simplest spelling of every note in a scale with every root note. The enharmonic notes
+	 * above (#7) and below (bb2) are each compared with the original note, and a later enharmonic
+	 * that is simpler than the original replaces an earlier one.
+	 * @return the table of note codes, indexed by the note code and then the root code
+	 */
+	private static byte[] createSimplifiedCodes() {
+		Interval[] enharmonics = {Interval.getInterval("#7"), Interval.getInterval("bb2")};
+		byte[] table = new byte[Note.NUM_CODES * Note.NUM_CODES];
+		for (int noteCode = 0; noteCode < Note.NUM_CODES; noteCode++) {
+			Note note = Note.fromCode(noteCode);
+			for (int rootCode = 0; rootCode < Note.NUM_CODES; rootCode++) {
+				int rootSemitones = Note.fromCode(rootCode).getSemitoneChange();
+				Note simplest = note;
+				for (Interval enharmonic : enharmonics) {
+					Note testNote = note.addInterval(enharmonic);
+					if (testNote != null && isSimpler(testNote.getSemitoneChange(), note.getSemitoneChange(), rootSemitones)) {
+						simplest = testNote;
+					}
+				}
+				table[noteCode * Note.NUM_CODES + rootCode] = (byte) simplest.getCode();
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * Checks whether a spelling with the given accidental is simpler than the current spelling.
+	 * @param testSemitones the semitone change of the accidental of the test spelling
+	 * @param semitones the semitone change of the accidental of the current spelling
+	 * @param rootSemitones the semitone change of the accidental of the root note
+	 * @return true if the test spelling should be used
+	 */
+	private static boolean isSimpler(int testSemitones, int semitones, int rootSemitones) {
+		// use the note with the smaller semitone alteration
+		if (Math.abs(testSemitones) != Math.abs(semitones)) {
+			return Math.abs(testSemitones) < Math.abs(semitones);
+		}
+		
+		// use the note with the more similar semitone alteration to the root note
+		if (Math.abs(rootSemitones - testSemitones) != Math.abs(rootSemitones - semitones)) {
+			return Math.abs(rootSemitones - testSemitones) < Math.abs(rootSemitones - semitones);
+		}
+		
+		// use the note spelled with a sharp rather than a flat
+		return testSemitones > semitones;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ScalePattern)) {
+			return false;
+		}
+		ScalePattern other = (ScalePattern) obj;
+		return simplified == other.simplified && bluesFifth == other.bluesFifth && Arrays.equals(intervalCodes, other.intervalCodes);
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -0,0 +1,110 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ScalePatternTest {
+	
+	/**
+	 * The original string-based simplification of one note, used as the reference for the table.
+	 * @param notes the list of notes in the scale
+	 * @param root the root note of the scale
+	 * @param index the index of the note to change
+	 */
+	private static void referenceSimplify(List<Note> notes, Note root, int index) {
+		Note note = notes.get(index);
+		int semitones = note.getSemitoneChange();
+		String[] intervals = {"#7", "bb2"};
+		for (String interval : intervals) {
+			Note testNote = note.addInterval(Interval.getInterval(interval));
+			if (testNote == null) {
+				continue;
+			}
+			int testSemitones = testNote.getSemitoneChange();
+			if (Math.abs(testSemitones) < Math.abs(semitones)) {
+				notes.set(index, testNote);
+			} else if (Math.abs(testSemitones) > Math.abs(semitones)) {
+				continue;
+			}
+			int rootSemitones = root.getSemitoneChange();
+			if (Math.abs(rootSemitones - testSemitones) < Math.abs(rootSemitones - semitones)) {
+				notes.set(index, testNote);
+			} else if (Math.abs(rootSemitones - testSemitones) > Math.abs(rootSemitones - semitones)) {
+				continue;
+			}
+			if (testSemitones > semitones) {
+				notes.set(index, testNote);
+			}
+		}
+	}
+	
+	/**
+	 * The original list-based generation of a scale, used as the reference for the pattern.
+	 * @param intervals the list of intervals of the scale
+	 * @param simplified whether the scale should be simplified using enharmonics
+	 * @param name the scale name
+	 * @param root the root note of the scale
+	 * @return the list of notes in the scale
+	 */
+	private static List<Note> referenceScale(List<Interval> intervals, boolean simplified, String name, Note root) {
+		List<Note> notes = new ArrayList<>();
+		for (Interval interval : intervals) {
+			notes.add(root.addInterval(interval));
+		}
+		if (notes.contains(null)) {
+			return null;
+		}
+		if (simplified) {
+			for (int i = 0; i < notes.size(); i++) {
+				if (!root.equals(notes.get(i))) {
+					referenceSimplify(notes, root, i);
+				}
+			}
+		}
+		if ("blues".equals(name)) {
+			referenceSimplify(notes, root, 3);
+		}
+		return notes;
+	}
+
+	@Test
+	void testSimplifyMatchesReference() {
+		// test every note with every root
+		for (int noteCode = 0; noteCode < Note.NUM_CODES; noteCode++) {
+			for (int rootCode = 0; rootCode < Note.NUM_CODES; rootCode++) {
+				Note root = Note.fromCode(rootCode);
+				List<Note> expected = new ArrayList<>(List.of(Note.fromCode(noteCode)));
+				List<Note> actual = new ArrayList<>(expected);
+				referenceSimplify(expected, root, 0);
+				ScalePattern.simplifyAccidentals(actual, root, 0);
+				assertSame(expected.get(0), actual.get(0), Note.fromCode(noteCode) + " with root " + root);
+			}
+		}
+	}
+
+	@Test
+	void testGenerateScaleMatchesReference() {
+		// test patterns using every pair of intervals, with every simplification rule and root
+		String[] names = {"test", "blues"};
+		for (int first = 0; first < Interval.NUM_CODES; first++) {
+			for (int second = 0; second < Interval.NUM_CODES; second++) {
+				List<Interval> intervals = List.of(Interval.getInterval("1"), Interval.fromCode(first),
+						Interval.fromCode(second), Interval.getInterval("b5"));
+				for (String name : names) {
+					for (boolean simplified : new boolean[] {false, true}) {
+						Scale scale = new Scale(name, intervals, simplified);
+						for (int rootCode = 0; rootCode < Note.NUM_CODES; rootCode++) {
+							Note root = Note.fromCode(rootCode);
+							assertEquals(referenceScale(intervals, simplified, name, root), scale.generateScale(root),
+									() -> name + " " + intervals + " " + simplified + " " + root);
+						}
+					}
+				}
+			}
+		}
+	}
+}
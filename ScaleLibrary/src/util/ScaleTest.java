@@ -4,6 +4,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,17 +51,48 @@ class ScaleTest {
 	@Test
 	void testGetScale() {
 		// test that scales are stored in the map
-		assertTrue(this.testScale1.scales.isEmpty());
+		assertNull(this.testScale1.getPattern().scales.get("C"));
 		List<Note> scale = this.testScale1.getScale(Note.getNote("C"));
 		assertEquals(4, scale.size());
 		assertSame(Note.getNote("C"), scale.get(0));
 		assertSame(Note.getNote("D"), scale.get(1));
 		assertSame(Note.getNote("Eb"), scale.get(2));
 		assertSame(Note.getNote("Bbb"), scale.get(3));
-		assertSame(scale, this.testScale1.scales.get("C"), "the scale object should be stored in the map");
+		assertSame(scale, this.testScale1.getPattern().scales.get("C"), "the scale object should be stored in the map");
 		assertSame(scale, this.testScale1.getScale(Note.getNote("C")), "the same object should be returned when required again");
 	}
 
+	@Test
+	void testGetScaleConcurrent() throws Exception {
+		// request the scale for every valid root from many threads at once
+		String[] roots = {"C", "C#", "Db", "D", "Eb", "E", "F", "F#", "Gb", "G", "Ab", "A", "Bb", "B"};
+		int numThreads = 32;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<List<Note>>>> results = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				List<List<Note>> found = new ArrayList<>();
+				for (String root : roots) {
+					found.add(this.testScale2.getScale(Note.getNote(root)));
+				}
+				return found;
+			}));
+		}
+		start.countDown();
+		
+		// test every thread received the same cached note sequence for each root
+		for (Future<List<List<Note>>> result : results) {
+			List<List<Note>> found = result.get(10, TimeUnit.SECONDS);
+			for (int j = 0; j < roots.length; j++) {
+				assertSame(this.testScale2.getPattern().scales.get(roots[j]), found.get(j), "all threads should share the cached scale");
+			}
+		}
+		assertEquals(roots.length, this.testScale2.getPattern().scales.size(), "each scale should be stored exactly once");
+		executor.shutdown();
+	}
+
 	@Test
 	void testGenerateScale() {
 		// test a regular scale
@@ -87,7 +123,7 @@ class ScaleTest {
 		notes.add(Note.getNote("Fx"));
 		notes.add(Note.getNote("Bb"));
 		
-		this.testScale1.simplifyAccidentals(notes, Note.getNote("Cx"));
+		ScalePattern.simplifyAccidentals(notes, Note.getNote("Cx"));
 		assertSame(Note.getNote("Cx"), notes.get(0), "root notes should not be simplified");
 		assertSame(Note.getNote("D"), notes.get(1), "Ebb should have been simplified to D");
 		assertSame(Note.getNote("G"), notes.get(2), "Fx should have been simplified to G");
@@ -103,13 +139,25 @@ class ScaleTest {
 		notes.add(Note.getNote("Fx"));
 		notes.add(Note.getNote("Bb"));
 		
-		this.testScale1.simplifyAccidentals(notes, Note.getNote("C"), 2);
+		ScalePattern.simplifyAccidentals(notes, Note.getNote("C"), 2);
 		assertSame(Note.getNote("C"), notes.get(0), "root notes should not be simplified");
 		assertSame(Note.getNote("Ebb"), notes.get(1), "only note at index 2 should have been changed");
 		assertSame(Note.getNote("G"), notes.get(2), "Fx should have been simplified to G");
 		assertSame(Note.getNote("Bb"), notes.get(3), "only note at index 2 should have been changed");
 	}
 
+	@Test
+	void testSharedPattern() {
+		// test scales with the same intervals and simplification share a pattern and note sequences
+		Scale alias = new Scale("alias", new ArrayList<>(this.testScale1.getIntervals()), false);
+		assertSame(this.testScale1.getPattern(), alias.getPattern());
+		assertSame(this.testScale1.getScale(Note.getNote("G")), alias.getScale(Note.getNote("G")));
+		
+		// test the simplification rules are part of the pattern
+		assertNotSame(this.testScale1.getPattern(), new Scale("alias", this.testScale1.getIntervals(), true).getPattern());
+		assertNotSame(this.testScale1.getPattern(), new Scale("blues", this.testScale1.getIntervals(), false).getPattern());
+	}
+
 	@Test
 	void testCompareTo() {
 		// test scale names are compared alphabetically
@@ -0,0 +1,134 @@
+package util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The scale cache whose note sequences can be reclaimed by the garbage collector when memory runs
+ * low. Reclaimed note sequences are counted as evictions.
+ *
+ * <p>Lookups take no lock and allocate nothing: each pattern has an array of its entries indexed by
+ * root code. The arrays are kept once created, as there are only as many as there are distinct
+ * interval patterns.
+ * @author Joel Gibson
+ */
+public class SoftScaleCache implements ScaleCache {
+	/**
+	 * A softly referenced note sequence, which remembers where it is stored so that it can be removed
+	 * once it has been reclaimed.
+	 */
+	private static class Entry extends SoftReference<List<Note>> {
+		/**
+		 * The interval pattern of the scale.
+		 */
+		private final ScalePattern pattern;
+		
+		/**
+		 * The code of the root note.
+		 */
+		private final int rootCode;
+		
+		/**
+		 * Creates a new entry.
+		 * @param pattern the interval pattern of the scale
+		 * @param rootCode the code of the root note
+		 * @param notes the list of notes in the scale
+		 * @param queue the queue to add the entry to once it has been reclaimed
+		 */
+		Entry(ScalePattern pattern, int rootCode, List<Note> notes, ReferenceQueue<List<Note>> queue) {
+			super(notes, queue);
+			this.pattern = pattern;
+			this.rootCode = rootCode;
+		}
+	}
+	
+	/**
+	 * The entries of each pattern, indexed by root code.
+	 */
+	private Map<ScalePattern, AtomicReferenceArray<Entry>> patterns = new ConcurrentHashMap<>();
+	
+	/**
+	 * The entries whose note sequences have been reclaimed.
+	 */
+	private ReferenceQueue<List<Note>> reclaimed = new ReferenceQueue<>();
+	
+	/**
+	 * The number of stored entries.
+	 */
+	private LongAdder entryCount = new LongAdder();
+	
+	/**
+	 * The number of note sequences that have been reclaimed.
+	 */
+	private LongAdder evictionCount = new LongAdder();
+	
+	@Override
+	public List<Note> get(ScalePattern pattern, Note root) {
+		AtomicReferenceArray<Entry> entries = patterns.get(pattern);
+		if (entries == null) {
+			return null;
+		}
+		Entry entry = entries.get(root.getCode());
+		return entry == null ? null : entry.get();
+	}
+	
+	@Override
+	public List<Note> putIfAbsent(ScalePattern pattern, Note root, List<Note> notes) {
+		removeReclaimed();
+		
+		// replace an entry whose notes have been reclaimed, unless another thread does so first
+		AtomicReferenceArray<Entry> entries = patterns.computeIfAbsent(pattern, key -> new AtomicReferenceArray<>(Note.NUM_CODES));
+		int rootCode = root.getCode();
+		Entry entry = new Entry(pattern, rootCode, notes, reclaimed);
+		while (true) {
+			Entry existing = entries.get(rootCode);
+			if (existing == null) {
+				if (entries.compareAndSet(rootCode, null, entry)) {
+					entryCount.increment();
+					return null;
+				}
+				continue;
+			}
+			List<Note> existingNotes = existing.get();
+			if (existingNotes != null) {
+				return existingNotes;
+			}
+			if (entries.compareAndSet(rootCode, existing, entry)) {
+				return null;
+			}
+		}
+	}
+	
+	/**
+	 * Removes the entries whose note sequences have been reclaimed.
+	 */
+	private void removeReclaimed() {
+		Reference<? extends List<Note>> reference;
+		while ((reference = reclaimed.poll()) != null) {
+			Entry entry = (Entry) reference;
+			// the entry may already have been replaced by put
+			if (patterns.get(entry.pattern).compareAndSet(entry.rootCode, entry, null)) {
+				entryCount.decrement();
+			}
+			evictionCount.increment();
+		}
+	}
+	
+	@Override
+	public long size() {
+		removeReclaimed();
+		return entryCount.sum();
+	}
+	
+	@Override
+	public long getEvictionCount() {
+		removeReclaimed();
+		return evictionCount.sum();
+	}
+}
@@ -0,0 +1,35 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SoftScaleCacheTest {
+
+	@Test
+	void testPutIfAbsent() {
+		List<Interval> intervals = new ArrayList<>();
+		intervals.add(Interval.getInterval("1"));
+		intervals.add(Interval.getInterval("b3"));
+		Scale scale1 = new Scale("test1", intervals, false);
+		Scale scale2 = new Scale("test2", intervals, false);
+		Scale scale3 = new Scale("test1", intervals, true);
+		List<Note> notes = scale1.generateScale(Note.getNote("C"));
+		
+		SoftScaleCache cache = new SoftScaleCache();
+		assertNull(cache.get(scale1.getPattern(), Note.getNote("C")));
+		assertNull(cache.putIfAbsent(scale1.getPattern(), Note.getNote("C"), notes));
+		assertSame(notes, cache.get(scale1.getPattern(), Note.getNote("C")));
+		assertSame(notes, cache.putIfAbsent(scale1.getPattern(), Note.getNote("C"), scale1.generateScale(Note.getNote("C"))));
+		
+		// scales with the same interval pattern share note sequences, but not scales with the same name
+		assertSame(notes, cache.get(scale2.getPattern(), Note.getNote("C")));
+		assertNull(cache.get(scale3.getPattern(), Note.getNote("C")));
+		assertNull(cache.get(scale1.getPattern(), Note.getNote("D")));
+		assertEquals(1, cache.size());
+		assertEquals(0, cache.getEvictionCount());
+	}
+}
@@ -0,0 +1,36 @@
+package util;
+
+import java.util.List;
+
+/**
+ * The scale cache that keeps every note sequence for as long as its interval pattern is used. Each
+ * pattern stores its own note sequences, so lookups never contend with other patterns.
+ * @author Joel Gibson
+ */
+public class UnboundedScaleCache implements ScaleCache {
+	@Override
+	public List<Note> get(ScalePattern pattern, Note root) {
+		return pattern.scales.get(root.toString());
+	}
+	
+	@Override
+	public List<Note> putIfAbsent(ScalePattern pattern, Note root, List<Note> notes) {
+		return pattern.scales.putIfAbsent(root.toString(), notes);
+	}
+	
+	/**
+	 * Counts the note sequences of the patterns that are still in use, so note sequences are no longer
+	 * counted once their pattern has been collected. Counting visits every pattern, so this is only
+	 * intended for monitoring.
+	 * @return the number of stored note sequences
+	 */
+	@Override
+	public long size() {
+		return ScalePattern.countStoredScales();
+	}
+	
+	@Override
+	public long getEvictionCount() {
+		return 0;
+	}
+}